@@ -0,0 +1,183 @@
+package com.hatokuse.bench;
+
+import com.hatokuse.storage.DiskStorage;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+
+/**
+ * DiskStorage IO modlarının JMH benchmarkı.
+ * Her IO modu, 64B - 1MB gövde boyutu ve okumada sıcak/soğuk önbellek için
+ * throughput (ops/ms) ve gecikme dağılımı (SampleTime: p50/p90/p99/p99.9)
+ * ölçülür. Thread sayısı -t ile verilir; StorageBenchmarkRunner 1-32 arası
+ * thread sayılarını sırayla çalıştırır.
+ *
+ * Depolama, ön yükleme ve temizlik @Setup/@TearDown içindedir; ölçülen
+ * metotlar yalnızca saveMessage / getMessageBuffer çağırır. DiskStorage'ın
+ * mesaj başına logları debug seviyesindedir, ölçüme girmez.
+ *
+ * Soğuk önbellek: DiskStorage önbelleği boşaltılır ve okumalar önbelleğe
+ * eklenmeden diskten yapılır. İşletim sistemi sayfa önbelleği boşaltılmaz
+ * (root yetkisi gerekir); bu yüzden ölçülen, IO yolunun kendisidir.
+ */
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms1g", "-Xmx1g"})
+public class DiskStorageBenchmark {
+
+    // Okuma kümesinin toplam boyutu; 64MB'lık varsayılan önbelleğe sığar
+    private static final long READ_SET_BYTES = 32L * 1024 * 1024;
+    private static final int MAX_READ_KEYS = 4096;
+
+    // Yazma anahtarları bu sayıda anahtar içinde döner (dosya modlarında disk kullanımı sınırlı kalır)
+    private static final int WRITE_KEYS_PER_THREAD = 1024;
+
+    /**
+     * IO modu ve gövde boyutu; her durum kendi geçici dizininde açılır.
+     */
+    @State(Scope.Benchmark)
+    public abstract static class StorageState {
+        @Param
+        public DiskStorage.IOMode mode;
+
+        @Param({"64", "1024", "16384", "262144", "1048576"})
+        public int payloadSize;
+
+        Path directory;
+        DiskStorage storage;
+        ByteBuffer payload;
+
+        void open() throws IOException {
+            directory = Files.createTempDirectory("hatokuse-jmh-" + mode.name().toLowerCase() + "-");
+            storage = new DiskStorage(directory.toString(), mode);
+            byte[] body = new byte[payloadSize];
+            ThreadLocalRandom random = ThreadLocalRandom.current();
+            for (int i = 0; i < body.length; i++) {
+                body[i] = (byte) ('a' + random.nextInt(26));
+            }
+            payload = ByteBuffer.wrap(body).asReadOnlyBuffer();
+        }
+
+        void close() throws IOException {
+            storage.close();
+            deleteRecursively(directory);
+        }
+    }
+
+    /**
+     * Okuma durumu: ön yüklenmiş anahtarlar. warm'da tüm anahtarlar DiskStorage
+     * önbelleğindedir, cold'da önbellek boştur ve okumalar önbelleği doldurmaz.
+     */
+    @State(Scope.Benchmark)
+    public static class ReadState extends StorageState {
+        @Param({"warm", "cold"})
+        public String cache;
+
+        String[] keys;
+        boolean cold;
+
+        @Setup(Level.Trial)
+        public void setUp() throws IOException {
+            open();
+            int count = (int) Math.max(16, Math.min(MAX_READ_KEYS, READ_SET_BYTES / payloadSize));
+            keys = new String[count];
+            for (int i = 0; i < count; i++) {
+                keys[i] = "r" + i;
+                storage.saveMessage(keys[i], payload.duplicate());
+            }
+            cold = cache.equals("cold");
+            storage.getCache().clear();
+            if (!cold) {
+                for (String key : keys) {
+                    storage.getMessageBuffer(key);
+                }
+            }
+        }
+
+        @TearDown(Level.Trial)
+        public void tearDown() throws IOException {
+            close();
+        }
+    }
+
+    /**
+     * Yazma durumu: her ölçüm iterasyonu boş bir dizinde başlar; segment
+     * modlarında log iterasyonlar boyunca büyümez.
+     */
+    @State(Scope.Benchmark)
+    public static class WriteState extends StorageState {
+        @Setup(Level.Iteration)
+        public void setUp() throws IOException {
+            open();
+        }
+
+        @TearDown(Level.Iteration)
+        public void tearDown() throws IOException {
+            close();
+        }
+    }
+
+    /**
+     * Thread başına anahtar sırası.
+     */
+    @State(Scope.Thread)
+    public static class ThreadKeys {
+        private static final AtomicInteger THREADS = new AtomicInteger();
+
+        String prefix;
+        int next;
+
+        @Setup(Level.Trial)
+        public void setUp() {
+            prefix = "w" + THREADS.getAndIncrement() + "-";
+        }
+
+        String nextWriteKey() {
+            return prefix + (next++ % WRITE_KEYS_PER_THREAD);
+        }
+    }
+
+    @Benchmark
+    public boolean write(WriteState state, ThreadKeys keys) {
+        return state.storage.saveMessage(keys.nextWriteKey(), state.payload.duplicate());
+    }
+
+    @Benchmark
+    public long read(ReadState state) {
+        String key = state.keys[ThreadLocalRandom.current().nextInt(state.keys.length)];
+        ByteBuffer data = state.cold
+                ? state.storage.getMessageBufferUncached(key)
+                : state.storage.getMessageBuffer(key);
+        return touch(data);
+    }
+
+    /**
+     * Gövdenin her 64 byte'ından birini okur: MEMORY_MAPPED / ZERO_COPY
+     * modlarında dönen tamponun sayfaları da gerçekten okunmuş olur.
+     */
+    private static long touch(ByteBuffer data) {
+        long sum = 0;
+        for (int i = data.position(); i < data.limit(); i += 64) {
+            sum += data.get(i);
+        }
+        return sum;
+    }
+
+    private static void deleteRecursively(Path directory) throws IOException {
+        try (Stream<Path> paths = Files.walk(directory)) {
+            for (Path path : (Iterable<Path>) paths.sorted(Comparator.reverseOrder())::iterator) {
+                Files.deleteIfExists(path);
+            }
+        }
+    }
+}
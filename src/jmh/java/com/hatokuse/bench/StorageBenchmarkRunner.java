@@ -0,0 +1,84 @@
+package com.hatokuse.bench;
+
+import org.openjdk.jmh.results.Result;
+import org.openjdk.jmh.results.RunResult;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.openjdk.jmh.util.Statistics;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * benchmarks.jar giriş noktası.
+ * JMH komut satırı seçeneklerini kabul eder (-p mode=SEGMENT, -wi, -i, -rf json ...).
+ * -t verilmezse benchmarklar 1, 2, 4, 8, 16 ve 32 thread ile sırayla
+ * çalıştırılır; sonunda tüm çalıştırmalar tek tabloda özetlenir.
+ *
+ * Örnek: java -jar target/benchmarks.jar read -p payloadSize=1024 -p cache=cold
+ */
+public class StorageBenchmarkRunner {
+
+    private static final int[] THREAD_COUNTS = {1, 2, 4, 8, 16, 32};
+
+    public static void main(String[] args) throws Exception {
+        CommandLineOptions commandLine = new CommandLineOptions(args);
+        if (commandLine.shouldHelp() || commandLine.shouldList() || commandLine.shouldListWithParams()
+                || commandLine.shouldListProfilers() || commandLine.shouldListResultFormats()) {
+            org.openjdk.jmh.Main.main(args);
+            return;
+        }
+
+        String include = DiskStorageBenchmark.class.getSimpleName()
+                + (commandLine.getIncludes().isEmpty() ? "" : "." + String.join("|", commandLine.getIncludes()));
+        int[] threadCounts = commandLine.getThreads().hasValue()
+                ? new int[] {commandLine.getThreads().get()}
+                : THREAD_COUNTS;
+
+        List<RunResult> results = new ArrayList<>();
+        for (int threads : threadCounts) {
+            Options options = new OptionsBuilder()
+                    .parent(commandLine)
+                    .include(include)
+                    .threads(threads)
+                    .build();
+            results.addAll(new Runner(options).run());
+        }
+        printSummary(results);
+    }
+
+    /**
+     * Throughput ve gecikme yüzdeliklerini çalıştırma başına tek satırda yazar.
+     */
+    private static void printSummary(List<RunResult> results) {
+        System.out.println();
+        System.out.println("========== DISK STORAGE BENCHMARK ÖZETİ ==========");
+        System.out.printf("%-6s %-14s %8s %-5s %4s %14s %10s %10s %10s %10s%n",
+                "test", "mod", "boyut", "cache", "thr", "ops/ms", "p50 us", "p90 us", "p99 us", "p99.9 us");
+        for (RunResult run : results) {
+            String benchmark = run.getParams().getBenchmark();
+            String name = benchmark.substring(benchmark.lastIndexOf('.') + 1);
+            String cache = run.getParams().getParam("cache");
+            Result<?> primary = run.getPrimaryResult();
+            String prefix = String.format("%-6s %-14s %8s %-5s %4d", name, run.getParams().getParam("mode"),
+                    run.getParams().getParam("payloadSize"), cache != null ? cache : "-",
+                    run.getParams().getThreads());
+            switch (run.getParams().getMode()) {
+                case Throughput:
+                    System.out.printf("%s %14.2f%n", prefix, primary.getScore());
+                    break;
+                case SampleTime:
+                    Statistics stats = primary.getStatistics();
+                    System.out.printf("%s %14s %10.1f %10.1f %10.1f %10.1f%n", prefix, "",
+                            stats.getPercentile(50) * 1000, stats.getPercentile(90) * 1000,
+                            stats.getPercentile(99) * 1000, stats.getPercentile(99.9) * 1000);
+                    break;
+                default:
+                    System.out.printf("%s %14.3f %s%n", prefix, primary.getScore(), primary.getScoreUnit());
+            }
+        }
+        System.out.println("==================================================");
+    }
+}
@@ -0,0 +1,258 @@
+package com.hatokuse.bench;
+
+import com.hatokuse.storage.DiskStorage;
+import com.hatokuse.storage.MerkleDigest;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+
+/**
+ * DiskStorage eşzamanlılık stres testi.
+ * Her IO modu ve thread sayısı için yeni bir dizinde iki tur çalıştırır:
+ *
+ * 1) Ölçüm: thread'ler farklı ID'lere saveMessage ile yazar; yazma
+ *    throughput'u ve tek thread'e göre hızlanma raporlanır.
+ * 2) Doğrulama: thread'ler küçük bir anahtar kümesi üzerinde rastgele yazıp
+ *    siler (aynı ID'ye eşzamanlı işlemler). Sonunda mesaj sayısı, ID kümesi,
+ *    gövdeler ve hash ağacı kökü birbiriyle tutarlı olmalıdır.
+ *
+ * Thread sayısı çekirdek sayısını aştığında hızlanma yalnızca IO bekleyen
+ * modlarda (fsync) sürer. Hızlanma oranları çok çekirdekli bir makinede
+ * ölçülmelidir; tek çekirdekte yalnızca tutarlılık denetimi anlamlıdır.
+ *
+ * Çalıştırma: mvn -Pjmh package, ardından
+ * java -cp target/benchmarks.jar com.hatokuse.bench.StorageConcurrencyBenchmark
+ */
+public class StorageConcurrencyBenchmark {
+
+    public static void main(String[] args) throws Exception {
+        List<DiskStorage.IOMode> modes = new ArrayList<>(Arrays.asList(DiskStorage.IOMode.values()));
+        List<Integer> threadCounts = defaultThreadCounts();
+        int operations = 20000;
+        int payloadSize = 256;
+        int keys = 256;
+
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "--modes":
+                    if (i + 1 < args.length) {
+                        modes.clear();
+                        for (String mode : args[++i].split(",")) {
+                            modes.add(DiskStorage.IOMode.valueOf(mode.trim().toUpperCase()));
+                        }
+                    }
+                    break;
+                case "--threads":
+                    if (i + 1 < args.length) {
+                        threadCounts.clear();
+                        for (String count : args[++i].split(",")) {
+                            threadCounts.add(Integer.parseInt(count.trim()));
+                        }
+                    }
+                    break;
+                case "--ops":
+                    if (i + 1 < args.length) {
+                        operations = Integer.parseInt(args[++i]);
+                    }
+                    break;
+                case "--payload":
+                    if (i + 1 < args.length) {
+                        payloadSize = Integer.parseInt(args[++i]);
+                    }
+                    break;
+                case "--keys":
+                    if (i + 1 < args.length) {
+                        keys = Integer.parseInt(args[++i]);
+                    }
+                    break;
+                case "--help":
+                    printUsage();
+                    return;
+            }
+        }
+
+        // DiskStorage açılış/kapanış mesajları tabloyu bozmasın
+        PrintStream console = System.out;
+        System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+
+        byte[] payload = new byte[payloadSize];
+        Arrays.fill(payload, (byte) 'x');
+
+        console.println("========== DISKSTORAGE EŞZAMANLILIK TESTİ ==========");
+        console.printf("Çekirdek: %d, tur başına yazma: %d, gövde: %d byte, doğrulama anahtarı: %d%n",
+                Runtime.getRuntime().availableProcessors(), operations, payloadSize, keys);
+        console.printf("%-14s %8s %14s %10s %12s%n", "Mod", "Thread", "Yazma/sn", "Hızlanma", "Tutarlılık");
+
+        boolean allConsistent = true;
+        for (DiskStorage.IOMode mode : modes) {
+            double baseline = 0;
+            for (int threads : threadCounts) {
+                Path directory = Files.createTempDirectory("hatokuse-stress");
+                DiskStorage storage = new DiskStorage(directory.toString(), mode);
+                try {
+                    double throughput = measureWrites(storage, threads, operations, payload);
+                    if (baseline == 0) {
+                        baseline = throughput;
+                    }
+                    String consistency = checkWrites(storage, operations);
+                    if (consistency == null) {
+                        consistency = mixedWorkload(storage, threads, Math.max(operations / 4, keys * 4), keys,
+                                payload);
+                    }
+                    allConsistent &= consistency == null;
+                    console.printf("%-14s %8d %14.0f %9.2fx %12s%n", mode, threads, throughput,
+                            throughput / baseline, consistency == null ? "OK" : consistency);
+                } finally {
+                    storage.close();
+                    deleteRecursively(directory);
+                }
+            }
+        }
+        console.println("====================================================");
+        if (!allConsistent) {
+            System.exit(1);
+        }
+    }
+
+    private static List<Integer> defaultThreadCounts() {
+        int limit = Math.max(4, Runtime.getRuntime().availableProcessors() * 2);
+        List<Integer> counts = new ArrayList<>();
+        for (int threads = 1; threads <= limit; threads *= 2) {
+            counts.add(threads);
+        }
+        return counts;
+    }
+
+    /**
+     * Thread'ler aynı anda başlayıp kendi ID aralıklarına yazar; yazma/sn döner.
+     */
+    private static double measureWrites(DiskStorage storage, int threads, int operations, byte[] payload)
+            throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        AtomicInteger failures = new AtomicInteger();
+        List<Future<?>> workers = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            int thread = t;
+            workers.add(executor.submit(() -> {
+                start.await();
+                for (int i = thread; i < operations; i += threads) {
+                    if (!storage.saveMessage("m" + i, ByteBuffer.wrap(payload))) {
+                        failures.incrementAndGet();
+                    }
+                }
+                return null;
+            }));
+        }
+
+        long begin = System.nanoTime();
+        start.countDown();
+        for (Future<?> worker : workers) {
+            worker.get();
+        }
+        long elapsed = System.nanoTime() - begin;
+        executor.shutdown();
+
+        if (failures.get() > 0) {
+            throw new IllegalStateException(failures.get() + " yazma başarısız");
+        }
+        return operations * 1e9 / elapsed;
+    }
+
+    /**
+     * Ölçüm turundan sonra tüm mesajların sayılıp okunabildiğini denetler;
+     * tutarsızlık varsa açıklamasını, yoksa null döner.
+     */
+    private static String checkWrites(DiskStorage storage, int operations) {
+        if (storage.getMessageCount() != operations) {
+            return "sayı " + storage.getMessageCount() + "/" + operations;
+        }
+        for (int i = 0; i < operations; i += Math.max(1, operations / 100)) {
+            if (storage.getMessageBufferUncached("m" + i) == null) {
+                return "okunamadı: m" + i;
+            }
+        }
+        return checkIndex(storage);
+    }
+
+    /**
+     * Aynı anahtarlara eşzamanlı yazma / silme yapar, ardından indeksleri denetler.
+     */
+    private static String mixedWorkload(DiskStorage storage, int threads, int operations, int keys,
+            byte[] payload) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        List<Future<?>> workers = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            workers.add(executor.submit(() -> {
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                for (int i = 0; i < operations / threads; i++) {
+                    String messageId = "k" + random.nextInt(keys);
+                    if (random.nextInt(4) == 0) {
+                        storage.deleteMessage(messageId);
+                    } else {
+                        storage.saveMessage(messageId, ByteBuffer.wrap(payload));
+                    }
+                }
+                return null;
+            }));
+        }
+        for (Future<?> worker : workers) {
+            worker.get();
+        }
+        executor.shutdown();
+        return checkIndex(storage);
+    }
+
+    /**
+     * Mesaj sayısı ID kümesinin boyutuna, hash ağacı kökü saklanan
+     * gövdelerden yeniden hesaplanan köke eşit olmalıdır.
+     */
+    private static String checkIndex(DiskStorage storage) {
+        MerkleDigest expected = new MerkleDigest();
+        AtomicInteger ids = new AtomicInteger();
+        storage.forEachMessageId(messageId -> {
+            ids.incrementAndGet();
+            ByteBuffer data = storage.getMessageBufferUncached(messageId);
+            expected.put(messageId, data != null ? MerkleDigest.contentHash(data) : MerkleDigest.UNKNOWN_CONTENT);
+        });
+        if (storage.getMessageCount() != ids.get()) {
+            return "sayı " + storage.getMessageCount() + "/" + ids.get() + " ID";
+        }
+        if (storage.getDigest().getRoot() != expected.getRoot()) {
+            return "hash ağacı";
+        }
+        return null;
+    }
+
+    private static void deleteRecursively(Path directory) throws IOException {
+        try (Stream<Path> paths = Files.walk(directory)) {
+            for (Path path : (Iterable<Path>) paths.sorted(Comparator.reverseOrder())::iterator) {
+                Files.deleteIfExists(path);
+            }
+        }
+    }
+
+    private static void printUsage() {
+        System.out.println("HaToKuSe DiskStorage Eşzamanlılık Testi");
+        System.out.println("Kullanım: java com.hatokuse.bench.StorageConcurrencyBenchmark [seçenekler]");
+        System.out.println("");
+        System.out.println("Seçenekler:");
+        System.out.println("  --modes <liste>    IO modları, virgülle (varsayılan: hepsi)");
+        System.out.println("  --threads <liste>  Thread sayıları, virgülle (varsayılan: 1, 2, 4 ... 2 x çekirdek)");
+        System.out.println("  --ops <n>          Tur başına yazma sayısı (varsayılan: 20000)");
+        System.out.println("  --payload <n>      Gövde boyutu, byte (varsayılan: 256)");
+        System.out.println("  --keys <n>         Doğrulama turundaki anahtar sayısı (varsayılan: 256)");
+        System.out.println("  --help             Bu yardım mesajını gösterir");
+    }
+}
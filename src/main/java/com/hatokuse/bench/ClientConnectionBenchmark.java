@@ -0,0 +1,239 @@
+package com.hatokuse.bench;
+
+import com.hatokuse.config.ConfigReader;
+import com.hatokuse.leader.LeaderServer;
+import com.hatokuse.leader.VirtualThreads;
+import com.hatokuse.member.MemberServer;
+
+import java.io.*;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.lang.management.ThreadMXBean;
+import java.net.InetAddress;
+import java.net.Socket;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * İstemci bağlantı modeli karşılaştırma aracı.
+ * Aynı JVM içinde bir lider ve N üye başlatır, çok sayıda eşzamanlı istemci
+ * bağlantısı açar ve her bağlantı üzerinden SET gönderir. Boşta bekleyen
+ * bağlantılar için thread sayısı, heap ve RSS; yük altında ise throughput
+ * ölçülür.
+ *
+ * Modlar: platform (BLOCKING + cached thread havuzu), virtual (BLOCKING +
+ * virtual thread, Java 21+), nio (selector event-loop).
+ *
+ * Not: istemci ve sunucu aynı süreçte olduğu için bağlantı başına iki dosya
+ * tanımlayıcısı kullanılır; 10k bağlantı için "ulimit -n" en az 20500 olmalıdır.
+ */
+public class ClientConnectionBenchmark {
+
+    private static final int CLIENT_PORT = 15000;
+    private static final int GRPC_PORT = 15001;
+    private static final int MEMBER_BASE_PORT = 15010;
+
+    public static void main(String[] args) throws Exception {
+        String mode = "platform";
+        int connections = 10000;
+        int requestsPerConnection = 2;
+        int memberCount = 2;
+        int clientThreads = 200;
+
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "--mode":
+                    if (i + 1 < args.length) {
+                        mode = args[++i].toLowerCase();
+                    }
+                    break;
+                case "--connections":
+                    if (i + 1 < args.length) {
+                        connections = Integer.parseInt(args[++i]);
+                    }
+                    break;
+                case "--requests":
+                    if (i + 1 < args.length) {
+                        requestsPerConnection = Integer.parseInt(args[++i]);
+                    }
+                    break;
+                case "--members":
+                    if (i + 1 < args.length) {
+                        memberCount = Integer.parseInt(args[++i]);
+                    }
+                    break;
+                case "--client-threads":
+                    if (i + 1 < args.length) {
+                        clientThreads = Integer.parseInt(args[++i]);
+                    }
+                    break;
+                case "--help":
+                    printUsage();
+                    return;
+            }
+        }
+
+        if (mode.equals("virtual") && !VirtualThreads.isSupported()) {
+            System.err.println("Virtual thread bu JVM'de desteklenmiyor (Java 21+ gerekli).");
+            return;
+        }
+
+        ConfigReader config = new ConfigReader();
+        config.setValue("client_io", mode.equals("nio") ? "NIO" : "BLOCKING");
+        config.setValue("thread_mode", mode.equals("virtual") ? "VIRTUAL" : "PLATFORM");
+        config.setValue("max_connections", String.valueOf(connections + 100));
+
+        // Sunucuların komut başına log'ları ölçümü bozmasın
+        PrintStream console = System.out;
+        System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+
+        Path dataDir = Files.createTempDirectory("hatokuse-bench");
+        config.setValue("location_index_dir", dataDir.resolve("leader").toString());
+        config.setValue("hint_dir", dataDir.resolve("hints").toString());
+        LeaderServer leader = new LeaderServer(CLIENT_PORT, GRPC_PORT, memberCount, config);
+        leader.start();
+
+        List<MemberServer> members = new ArrayList<>();
+        for (int i = 0; i < memberCount; i++) {
+            MemberServer member = new MemberServer("bench" + i, MEMBER_BASE_PORT + i, "localhost", GRPC_PORT,
+                    dataDir.toString());
+            member.start();
+            members.add(member);
+        }
+        Thread.sleep(2000); // Üye kayıtlarının tamamlanmasını bekle
+
+        ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+
+        System.gc();
+        int baseThreads = threads.getThreadCount();
+        long baseHeap = memory.getHeapMemoryUsage().getUsed();
+        long baseRss = readRssBytes();
+
+        // 1) Bağlantıları aç ve boşta beklet
+        List<Socket> sockets = new ArrayList<>(connections);
+        long connectStart = System.nanoTime();
+        InetAddress loopback = InetAddress.getLoopbackAddress();
+        for (int i = 0; i < connections; i++) {
+            sockets.add(new Socket(loopback, CLIENT_PORT));
+        }
+        long connectMillis = (System.nanoTime() - connectStart) / 1_000_000;
+        Thread.sleep(1000);
+
+        System.gc();
+        int idleThreads = threads.getThreadCount();
+        long idleHeap = memory.getHeapMemoryUsage().getUsed();
+        long idleRss = readRssBytes();
+        threads.resetPeakThreadCount();
+
+        // 2) Her bağlantı üzerinden SET gönder
+        ExecutorService clients = Executors.newFixedThreadPool(clientThreads);
+        AtomicInteger ok = new AtomicInteger();
+        AtomicInteger failed = new AtomicInteger();
+        int perThread = (connections + clientThreads - 1) / clientThreads;
+        int requests = requestsPerConnection;
+
+        long loadStart = System.nanoTime();
+        List<Future<?>> futures = new ArrayList<>();
+        for (int t = 0; t < clientThreads; t++) {
+            int from = t * perThread;
+            int to = Math.min(connections, from + perThread);
+            futures.add(clients.submit(() -> {
+                for (int round = 0; round < requests; round++) {
+                    for (int c = from; c < to; c++) {
+                        if (sendSet(sockets.get(c), "bench-" + c + "-" + round)) {
+                            ok.incrementAndGet();
+                        } else {
+                            failed.incrementAndGet();
+                        }
+                    }
+                }
+            }));
+        }
+        for (Future<?> f : futures) {
+            f.get();
+        }
+        long loadMillis = Math.max(1, (System.nanoTime() - loadStart) / 1_000_000);
+        clients.shutdown();
+
+        int peakThreads = threads.getPeakThreadCount();
+
+        for (Socket socket : sockets) {
+            socket.close();
+        }
+        for (MemberServer member : members) {
+            member.shutdown();
+        }
+        leader.shutdown();
+        System.setOut(console);
+
+        int total = ok.get() + failed.get();
+        console.println("========== BAĞLANTI KARŞILAŞTIRMASI ==========");
+        console.println("Mod: " + mode + ", bağlantı: " + connections + ", istek/bağlantı: " + requestsPerConnection
+                + ", üye: " + memberCount + ", istemci thread: " + clientThreads);
+        console.printf("Bağlantı kurma: %d ms%n", connectMillis);
+        console.printf("Boşta thread: %d (bağlantı başına %.2f)%n", idleThreads - baseThreads,
+                (idleThreads - baseThreads) / (double) connections);
+        console.printf("Boşta heap: +%.1f MB, RSS: +%.1f MB%n", (idleHeap - baseHeap) / (1024.0 * 1024),
+                (idleRss - baseRss) / (1024.0 * 1024));
+        console.printf("Yük altında tepe thread sayısı: %d%n", peakThreads);
+        console.printf("Throughput: %.0f SET/sn (%d/%d başarılı, %d ms)%n", total * 1000.0 / loadMillis, ok.get(),
+                total, loadMillis);
+        console.println("==============================================");
+        System.exit(0);
+    }
+
+    private static boolean sendSet(Socket socket, String messageId) {
+        try {
+            OutputStream out = socket.getOutputStream();
+            out.write(("SET " + messageId + " bench\n").getBytes());
+            out.flush();
+
+            // Yanıt satırını oku (tamponlamadan, sonraki yanıtlar sokette kalsın)
+            InputStream in = socket.getInputStream();
+            StringBuilder response = new StringBuilder();
+            int b;
+            while ((b = in.read()) != -1 && b != '\n') {
+                response.append((char) b);
+            }
+            return response.toString().startsWith("OK");
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Linux'ta sürecin resident set boyutunu okur; okunamazsa 0.
+     */
+    private static long readRssBytes() {
+        try {
+            for (String line : Files.readAllLines(Paths.get("/proc/self/status"))) {
+                if (line.startsWith("VmRSS:")) {
+                    String[] parts = line.trim().split("\\s+");
+                    return Long.parseLong(parts[1]) * 1024;
+                }
+            }
+        } catch (IOException | RuntimeException e) {
+            // Linux dışı sistemler
+        }
+        return 0;
+    }
+
+    private static void printUsage() {
+        System.out.println("HaToKuSe İstemci Bağlantı Karşılaştırması");
+        System.out.println("Kullanım: java com.hatokuse.bench.ClientConnectionBenchmark [seçenekler]");
+        System.out.println("");
+        System.out.println("Seçenekler:");
+        System.out.println("  --mode <mod>           platform, virtual (Java 21+), nio (varsayılan: platform)");
+        System.out.println("  --connections <n>      Eşzamanlı bağlantı sayısı (varsayılan: 10000)");
+        System.out.println("  --requests <n>         Bağlantı başına SET sayısı (varsayılan: 2)");
+        System.out.println("  --members <n>          Üye sayısı, tolerans da bu değerdir (varsayılan: 2)");
+        System.out.println("  --client-threads <n>   Yük üreten istemci thread sayısı (varsayılan: 200)");
+        System.out.println("  --help                 Bu yardım mesajını gösterir");
+    }
+}
@@ -0,0 +1,572 @@
+package com.hatokuse.bench;
+
+import com.hatokuse.config.ConfigReader;
+import com.hatokuse.leader.LeaderServer;
+import com.hatokuse.member.MemberServer;
+import com.hatokuse.protocol.HaToKuSeProtocol;
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+
+import java.io.*;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Uçtan uca küme yük üreteci.
+ * Aynı JVM içinde bir lider ve N üye başlatır (varsayılan) ya da --target ile
+ * çalışan bir lidere bağlanır. Çok sayıda bağlantı üzerinden SET/GET/DEL
+ * karışımı gönderir.
+ *
+ * Yük açık döngüdür (open-loop): her bağlantının istekleri sabit aralıklı bir
+ * takvime göre gönderilir, önceki yanıtın gecikmesi sonraki isteği
+ * ertelemez. İki gecikme ölçülür:
+ * - servis süresi: isteğin gerçekten gönderildiği andan yanıta kadar,
+ * - yanıt süresi: isteğin takvimdeki gönderim anından yanıta kadar. Sunucu
+ *   yavaşladığında bekleyen isteklerin kuyrukta geçirdiği süreyi de içerir;
+ *   koordineli ihmal (coordinated omission) düzeltilmiş gecikme budur.
+ * Gecikmeler HdrHistogram ile mikrosaniye çözünürlükte tutulur.
+ */
+public class LoadGenerator {
+
+    private static final int CLIENT_PORT = 15100;
+    private static final int GRPC_PORT = 15101;
+    private static final int MEMBER_BASE_PORT = 15110;
+
+    // Histogram aralığı: 1µs - 60sn, 3 anlamlı basamak
+    private static final long HIGHEST_TRACKABLE_MICROS = TimeUnit.SECONDS.toMicros(60);
+    private static final int SIGNIFICANT_DIGITS = 3;
+
+    private static final int SOCKET_TIMEOUT_MS = 30000;
+
+    private enum Op {
+        SET, GET, DEL
+    }
+
+    /**
+     * İşlem türü başına kaydediciler ve sayaçlar.
+     */
+    private static class OpStats {
+        final Recorder response = new Recorder(HIGHEST_TRACKABLE_MICROS, SIGNIFICANT_DIGITS);
+        final Recorder service = new Recorder(HIGHEST_TRACKABLE_MICROS, SIGNIFICANT_DIGITS);
+        final Histogram responseTotal = new Histogram(HIGHEST_TRACKABLE_MICROS, SIGNIFICANT_DIGITS);
+        final Histogram serviceTotal = new Histogram(HIGHEST_TRACKABLE_MICROS, SIGNIFICANT_DIGITS);
+        // Ölçüm penceresi içindeki sayılar (ısınma hariç)
+        final LongAdder errors = new LongAdder();
+        final LongAdder misses = new LongAdder();
+        long measuredErrors;
+        long measuredMisses;
+    }
+
+    private final String host;
+    private final int port;
+    private final int connections;
+    private final double rate;
+    private final long durationNanos;
+    private final long warmupNanos;
+    private final int[] mix;
+    private final int keys;
+    private final String payload;
+
+    private final OpStats[] stats = new OpStats[Op.values().length];
+    // Bağlantıların takvimin en fazla ne kadar gerisinde kaldığı (ns)
+    private final AtomicLong maxLagNanos = new AtomicLong();
+    private volatile boolean running = true;
+
+    LoadGenerator(String host, int port, int connections, double rate, long durationSeconds, long warmupSeconds,
+            int[] mix, int keys, int payloadBytes) {
+        this.host = host;
+        this.port = port;
+        this.connections = connections;
+        this.rate = rate;
+        this.durationNanos = TimeUnit.SECONDS.toNanos(durationSeconds);
+        this.warmupNanos = TimeUnit.SECONDS.toNanos(warmupSeconds);
+        this.mix = mix;
+        this.keys = keys;
+        this.payload = "x".repeat(payloadBytes);
+        for (int i = 0; i < stats.length; i++) {
+            stats[i] = new OpStats();
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        String target = null;
+        int memberCount = 3;
+        int tolerance = 2;
+        int connections = 32;
+        double rate = 2000;
+        long duration = 30;
+        long warmup = 5;
+        String mixSpec = "set=20,get=75,del=5";
+        int keys = 10000;
+        int payloadBytes = 256;
+        String histogramOut = null;
+        ConfigReader leaderConfig = new ConfigReader();
+        ConfigReader memberConfig = new ConfigReader();
+
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "--target":
+                    if (i + 1 < args.length) {
+                        target = args[++i];
+                    }
+                    break;
+                case "--members":
+                    if (i + 1 < args.length) {
+                        memberCount = Integer.parseInt(args[++i]);
+                    }
+                    break;
+                case "--tolerance":
+                    if (i + 1 < args.length) {
+                        tolerance = Integer.parseInt(args[++i]);
+                    }
+                    break;
+                case "--connections":
+                    if (i + 1 < args.length) {
+                        connections = Integer.parseInt(args[++i]);
+                    }
+                    break;
+                case "--rate":
+                    if (i + 1 < args.length) {
+                        rate = Double.parseDouble(args[++i]);
+                    }
+                    break;
+                case "--duration":
+                    if (i + 1 < args.length) {
+                        duration = Long.parseLong(args[++i]);
+                    }
+                    break;
+                case "--warmup":
+                    if (i + 1 < args.length) {
+                        warmup = Long.parseLong(args[++i]);
+                    }
+                    break;
+                case "--mix":
+                    if (i + 1 < args.length) {
+                        mixSpec = args[++i];
+                    }
+                    break;
+                case "--keys":
+                    if (i + 1 < args.length) {
+                        keys = Integer.parseInt(args[++i]);
+                    }
+                    break;
+                case "--payload":
+                    if (i + 1 < args.length) {
+                        payloadBytes = Integer.parseInt(args[++i]);
+                    }
+                    break;
+                case "--leader-config":
+                    if (i + 1 < args.length) {
+                        setOption(leaderConfig, args[++i]);
+                    }
+                    break;
+                case "--member-config":
+                    if (i + 1 < args.length) {
+                        setOption(memberConfig, args[++i]);
+                    }
+                    break;
+                case "--histogram-out":
+                    if (i + 1 < args.length) {
+                        histogramOut = args[++i];
+                    }
+                    break;
+                case "--help":
+                    printUsage();
+                    return;
+            }
+        }
+
+        int[] mix = parseMix(mixSpec);
+        String host = "localhost";
+        int port = CLIENT_PORT;
+        PrintStream console = System.out;
+        List<MemberServer> members = new ArrayList<>();
+        LeaderServer leader = null;
+
+        if (target != null) {
+            int colon = target.lastIndexOf(':');
+            host = colon > 0 ? target.substring(0, colon) : target;
+            port = colon > 0 ? Integer.parseInt(target.substring(colon + 1)) : CLIENT_PORT;
+        } else {
+            // Sunucuların komut başına log'ları ölçümü bozmasın
+            System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+            Path dataDir = Files.createTempDirectory("hatokuse-load");
+            if (leaderConfig.getValue("location_index_dir") == null) {
+                leaderConfig.setValue("location_index_dir", dataDir.resolve("leader").toString());
+            }
+            if (leaderConfig.getValue("hint_dir") == null) {
+                leaderConfig.setValue("hint_dir", dataDir.resolve("hints").toString());
+            }
+            leader = new LeaderServer(CLIENT_PORT, GRPC_PORT, tolerance, leaderConfig);
+            leader.start();
+            for (int i = 0; i < memberCount; i++) {
+                MemberServer member = new MemberServer("load" + i, MEMBER_BASE_PORT + i, "localhost", GRPC_PORT,
+                        dataDir.toString(), memberConfig);
+                member.start();
+                members.add(member);
+            }
+            Thread.sleep(2000); // Üye kayıtlarının tamamlanmasını bekle
+        }
+
+        LoadGenerator generator = new LoadGenerator(host, port, connections, rate, duration, warmup, mix, keys,
+                payloadBytes);
+        console.println("========== HaToKuSe YÜK ÜRETECİ ==========");
+        console.printf("Hedef: %s:%d (%s), bağlantı: %d, hız: %.0f işlem/sn, süre: %d sn (+%d sn ısınma)%n",
+                host, port, target != null ? "uzak küme" : memberCount + " gömülü üye, tolerans " + tolerance,
+                connections, rate, duration, warmup);
+        console.printf("Karışım: SET %d%%, GET %d%%, DEL %d%%, anahtar: %d, gövde: %d byte%n",
+                mix[0], mix[1], mix[2], keys, payloadBytes);
+
+        generator.preload(console);
+        generator.run(console);
+        generator.printSummary(console);
+        if (histogramOut != null) {
+            generator.writeHistograms(histogramOut);
+            console.println("Histogramlar yazıldı: " + histogramOut);
+        }
+
+        for (MemberServer member : members) {
+            member.shutdown();
+        }
+        if (leader != null) {
+            leader.shutdown();
+        }
+        System.exit(0);
+    }
+
+    /**
+     * GET'lerin bulunabilmesi için anahtar uzayını ölçümden önce doldurur.
+     */
+    void preload(PrintStream console) throws Exception {
+        long start = System.nanoTime();
+        List<Thread> threads = new ArrayList<>();
+        LongAdder failed = new LongAdder();
+        int perConnection = (keys + connections - 1) / connections;
+        for (int c = 0; c < connections; c++) {
+            int from = c * perConnection;
+            int to = Math.min(keys, from + perConnection);
+            Thread thread = new Thread(() -> {
+                try (Connection connection = new Connection(host, port)) {
+                    for (int k = from; k < to; k++) {
+                        if (!connection.call(HaToKuSeProtocol.createSetCommand(key(k), payload))
+                                .startsWith(HaToKuSeProtocol.RESP_OK)) {
+                            failed.increment();
+                        }
+                    }
+                } catch (IOException e) {
+                    failed.add(to - from);
+                }
+            }, "load-preload-" + c);
+            thread.start();
+            threads.add(thread);
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        console.printf("Ön yükleme: %d anahtar, %d hata, %d ms%n", keys, failed.sum(),
+                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+    }
+
+    /**
+     * Bağlantı thread'lerini başlatır ve her saniye aralık istatistiğini yazar.
+     * Isınma süresindeki kayıtlar toplam histograma eklenmez.
+     */
+    void run(PrintStream console) throws InterruptedException {
+        long intervalNanos = (long) (connections * 1e9 / rate);
+        long start = System.nanoTime();
+        long end = start + warmupNanos + durationNanos;
+
+        List<Thread> threads = new ArrayList<>();
+        for (int c = 0; c < connections; c++) {
+            // Bağlantılar takvimde eşit aralıklarla kaydırılır
+            long firstSend = start + intervalNanos * c / connections;
+            Thread thread = new Thread(() -> drive(firstSend, intervalNanos, end), "load-" + c);
+            thread.setDaemon(true);
+            thread.start();
+            threads.add(thread);
+        }
+
+        Histogram interval = new Histogram(HIGHEST_TRACKABLE_MICROS, SIGNIFICANT_DIGITS);
+        Histogram[] recycled = new Histogram[stats.length];
+        long[] errorMarks = new long[stats.length];
+        long[] missMarks = new long[stats.length];
+        long nextReport = start + TimeUnit.SECONDS.toNanos(1);
+        boolean measuring = warmupNanos == 0;
+        while (System.nanoTime() < end) {
+            LockSupport.parkNanos(nextReport - System.nanoTime());
+            if (System.nanoTime() < nextReport) {
+                continue;
+            }
+            long elapsed = System.nanoTime() - start;
+            if (!measuring && elapsed >= warmupNanos) {
+                // Isınma bitti: o ana kadarki kayıtları at
+                for (int i = 0; i < stats.length; i++) {
+                    stats[i].response.reset();
+                    stats[i].service.reset();
+                    errorMarks[i] = stats[i].errors.sum();
+                    missMarks[i] = stats[i].misses.sum();
+                }
+                maxLagNanos.set(0);
+                measuring = true;
+                console.println("--- ısınma bitti, ölçüm başladı ---");
+                nextReport += TimeUnit.SECONDS.toNanos(1);
+                continue;
+            }
+            interval.reset();
+            long errors = 0;
+            for (int i = 0; i < stats.length; i++) {
+                recycled[i] = stats[i].response.getIntervalHistogram(recycled[i]);
+                interval.add(recycled[i]);
+                if (measuring) {
+                    stats[i].responseTotal.add(recycled[i]);
+                    stats[i].serviceTotal.add(stats[i].service.getIntervalHistogram());
+                }
+                errors += stats[i].errors.sum();
+            }
+            console.printf("[%3ds]%s %6d işlem/sn  p50 %8.3f ms  p99 %8.3f ms  max %8.3f ms  hata %d%n",
+                    TimeUnit.NANOSECONDS.toSeconds(elapsed), measuring ? "" : " (ısınma)",
+                    interval.getTotalCount(), interval.getValueAtPercentile(50) / 1000.0,
+                    interval.getValueAtPercentile(99) / 1000.0, interval.getMaxValue() / 1000.0, errors);
+            nextReport += TimeUnit.SECONDS.toNanos(1);
+        }
+
+        running = false;
+        for (Thread thread : threads) {
+            thread.join(SOCKET_TIMEOUT_MS);
+        }
+        for (int i = 0; i < stats.length; i++) {
+            stats[i].responseTotal.add(stats[i].response.getIntervalHistogram());
+            stats[i].serviceTotal.add(stats[i].service.getIntervalHistogram());
+            stats[i].measuredErrors = stats[i].errors.sum() - errorMarks[i];
+            stats[i].measuredMisses = stats[i].misses.sum() - missMarks[i];
+        }
+    }
+
+    /**
+     * Tek bağlantının açık döngü takvimi: i. istek firstSend + i * interval
+     * anında gönderilir. Yanıt gecikirse sonraki istek beklemeden hemen
+     * gönderilir ve yanıt süresi takvimdeki andan ölçülür.
+     */
+    private void drive(long firstSend, long intervalNanos, long end) {
+        Connection connection = null;
+        long intended = firstSend;
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        while (running && intended < end) {
+            long now = System.nanoTime();
+            if (now < intended) {
+                LockSupport.parkNanos(intended - now);
+                continue;
+            }
+            maxLagNanos.accumulateAndGet(now - intended, Math::max);
+
+            Op op = pickOp(random.nextInt(100));
+            String key = key(random.nextInt(keys));
+            OpStats opStats = stats[op.ordinal()];
+            try {
+                if (connection == null) {
+                    connection = new Connection(host, port);
+                }
+                long sent = System.nanoTime();
+                String response = connection.call(command(op, key));
+                long done = System.nanoTime();
+                if (response.startsWith(HaToKuSeProtocol.RESP_OK)) {
+                    record(opStats, intended, sent, done);
+                } else if (op != Op.SET && response.contains("bulunamadı")) {
+                    // Silinmiş anahtar: geçerli yanıt, ayrıca sayılır
+                    opStats.misses.increment();
+                    record(opStats, intended, sent, done);
+                } else {
+                    opStats.errors.increment();
+                }
+            } catch (IOException e) {
+                opStats.errors.increment();
+                if (connection != null) {
+                    connection.close();
+                    connection = null;
+                }
+            }
+            intended += intervalNanos;
+        }
+        if (connection != null) {
+            connection.close();
+        }
+    }
+
+    private static void record(OpStats opStats, long intended, long sent, long done) {
+        opStats.response.recordValue(Math.min(HIGHEST_TRACKABLE_MICROS, (done - intended) / 1000));
+        opStats.service.recordValue(Math.min(HIGHEST_TRACKABLE_MICROS, (done - sent) / 1000));
+    }
+
+    private Op pickOp(int roll) {
+        if (roll < mix[0]) {
+            return Op.SET;
+        }
+        return roll < mix[0] + mix[1] ? Op.GET : Op.DEL;
+    }
+
+    private String command(Op op, String key) {
+        switch (op) {
+            case SET:
+                return HaToKuSeProtocol.createSetCommand(key, payload);
+            case GET:
+                return HaToKuSeProtocol.createGetCommand(key);
+            default:
+                return HaToKuSeProtocol.createDelCommand(key);
+        }
+    }
+
+    private static String key(int index) {
+        return "load-" + index;
+    }
+
+    /**
+     * İşlem türü başına yanıt (CO düzeltilmiş) ve servis süresi yüzdeliklerini yazar.
+     */
+    void printSummary(PrintStream console) {
+        double seconds = durationNanos / 1e9;
+        long total = 0;
+        console.println();
+        console.println("========== SONUÇ (ms) ==========");
+        console.printf("%-4s %9s %7s %7s | %-28s %8s %8s %8s %8s %8s %8s%n", "", "işlem", "hata", "ıska",
+                "gecikme", "p50", "p90", "p99", "p99.9", "p99.99", "max");
+        for (Op op : Op.values()) {
+            OpStats opStats = stats[op.ordinal()];
+            if (opStats.responseTotal.getTotalCount() + opStats.measuredErrors == 0) {
+                continue;
+            }
+            total += opStats.responseTotal.getTotalCount();
+            printRow(console, op.name(), opStats.responseTotal.getTotalCount(), opStats.measuredErrors,
+                    opStats.measuredMisses, "yanıt (CO düzeltilmiş)", opStats.responseTotal);
+            printRow(console, "", -1, -1, -1, "servis (gönderimden)", opStats.serviceTotal);
+        }
+        console.printf("Gerçekleşen hız: %.0f işlem/sn (hedef %.0f), takvimden en fazla geri kalma: %.1f ms%n",
+                total / seconds, rate, maxLagNanos.get() / 1e6);
+        if (maxLagNanos.get() > TimeUnit.SECONDS.toNanos(1)) {
+            console.println("Uyarı: küme hedef hıza yetişemedi; servis süresi gerçek bekleme süresini gizler,"
+                    + " yanıt süresine bakın.");
+        }
+    }
+
+    private static void printRow(PrintStream console, String name, long count, long errors, long misses,
+            String label, Histogram histogram) {
+        console.printf("%-4s %9s %7s %7s | %-28s %8.3f %8.3f %8.3f %8.3f %8.3f %8.3f%n", name,
+                count < 0 ? "" : String.valueOf(count), errors < 0 ? "" : String.valueOf(errors),
+                misses < 0 ? "" : String.valueOf(misses), label,
+                histogram.getValueAtPercentile(50) / 1000.0, histogram.getValueAtPercentile(90) / 1000.0,
+                histogram.getValueAtPercentile(99) / 1000.0, histogram.getValueAtPercentile(99.9) / 1000.0,
+                histogram.getValueAtPercentile(99.99) / 1000.0, histogram.getMaxValue() / 1000.0);
+    }
+
+    /**
+     * Yanıt süresi histogramlarının yüzdelik dağılımını (HdrHistogram metin
+     * biçimi, ms) dosyaya yazar; HdrHistogram plotter ile çizilebilir.
+     */
+    void writeHistograms(String path) throws IOException {
+        try (PrintStream out = new PrintStream(new FileOutputStream(path), true, StandardCharsets.UTF_8)) {
+            for (Op op : Op.values()) {
+                Histogram histogram = stats[op.ordinal()].responseTotal;
+                if (histogram.getTotalCount() == 0) {
+                    continue;
+                }
+                out.println("# " + op.name() + " yanıt süresi (CO düzeltilmiş, ms)");
+                histogram.outputPercentileDistribution(out, 1000.0);
+                out.println();
+            }
+        }
+    }
+
+    /**
+     * "set=20,get=75,del=5" biçimindeki karışımı yüzdelere çevirir.
+     */
+    static int[] parseMix(String spec) {
+        int[] mix = new int[Op.values().length];
+        for (String part : spec.split(",")) {
+            String[] pair = part.trim().split("=");
+            if (pair.length != 2) {
+                throw new IllegalArgumentException("Geçersiz karışım: " + spec);
+            }
+            mix[Op.valueOf(pair[0].trim().toUpperCase()).ordinal()] = Integer.parseInt(pair[1].trim());
+        }
+        if (mix[0] + mix[1] + mix[2] != 100) {
+            throw new IllegalArgumentException("Karışım yüzdelerinin toplamı 100 olmalı: " + spec);
+        }
+        return mix;
+    }
+
+    private static void setOption(ConfigReader config, String option) {
+        int eq = option.indexOf('=');
+        if (eq <= 0) {
+            throw new IllegalArgumentException("Beklenen biçim anahtar=değer: " + option);
+        }
+        config.setValue(option.substring(0, eq).trim(), option.substring(eq + 1).trim());
+    }
+
+    /**
+     * Lidere tek bir senkron metin bağlantısı (istek başına bir yanıt satırı).
+     */
+    private static class Connection implements Closeable {
+        private final Socket socket;
+        private final BufferedReader reader;
+        private final Writer writer;
+
+        Connection(String host, int port) throws IOException {
+            socket = new Socket();
+            socket.setTcpNoDelay(true);
+            socket.setSoTimeout(SOCKET_TIMEOUT_MS);
+            socket.connect(new InetSocketAddress(host, port), SOCKET_TIMEOUT_MS);
+            reader = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8));
+            writer = new BufferedWriter(new OutputStreamWriter(socket.getOutputStream(), StandardCharsets.UTF_8));
+        }
+
+        String call(String command) throws IOException {
+            writer.write(command);
+            writer.write('\n');
+            writer.flush();
+            String response = reader.readLine();
+            if (response == null) {
+                throw new IOException("Bağlantı kapandı");
+            }
+            return response;
+        }
+
+        @Override
+        public void close() {
+            try {
+                socket.close();
+            } catch (IOException e) {
+                // Yoksay
+            }
+        }
+    }
+
+    private static void printUsage() {
+        System.out.println("HaToKuSe Yük Üreteci");
+        System.out.println("Kullanım: java com.hatokuse.bench.LoadGenerator [seçenekler]");
+        System.out.println("");
+        System.out.println("Seçenekler:");
+        System.out.println("  --target <host:port>   Çalışan liderin istemci adresi (verilmezse gömülü küme başlatılır)");
+        System.out.println("  --members <n>          Gömülü kümede üye sayısı (varsayılan: 3)");
+        System.out.println("  --tolerance <n>        Gömülü kümede hata tolerans değeri (varsayılan: 2)");
+        System.out.println("  --connections <n>      Eşzamanlı bağlantı sayısı (varsayılan: 32)");
+        System.out.println("  --rate <n>             Toplam hedef hız, işlem/sn (varsayılan: 2000)");
+        System.out.println("  --duration <sn>        Ölçüm süresi (varsayılan: 30)");
+        System.out.println("  --warmup <sn>          Ölçüme alınmayan ısınma süresi (varsayılan: 5)");
+        System.out.println("  --mix <karışım>        İşlem yüzdeleri (varsayılan: set=20,get=75,del=5)");
+        System.out.println("  --keys <n>             Anahtar uzayı, ölçümden önce doldurulur (varsayılan: 10000)");
+        System.out.println("  --payload <n>          SET gövde boyutu, byte (varsayılan: 256)");
+        System.out.println("  --leader-config <k=v>  Gömülü lider ayarı, tekrarlanabilir (ör. read_strategy=hedged)");
+        System.out.println("  --member-config <k=v>  Gömülü üye ayarı, tekrarlanabilir (ör. io_mode=segment)");
+        System.out.println("  --histogram-out <dosya>  Yanıt süresi yüzdelik dağılımlarını dosyaya yazar");
+        System.out.println("  --help                 Bu yardım mesajını gösterir");
+    }
+}
@@ -15,6 +15,9 @@ public class HaToKuSeClient {
     private static final String DEFAULT_HOST = "localhost";
     private static final int DEFAULT_PORT = 5000;
 
+    // Pipelining'de yanıtı beklenmeden gönderilen en fazla komut sayısı
+    private static final int PIPELINE_WINDOW = 64;
+
     private final String host;
     private final int port;
     private Socket socket;
@@ -123,6 +126,73 @@ public class HaToKuSeClient {
         }
     }
 
+    /**
+     * MSET komutu gönderir; mesajlar tek komutta ve lider tarafında grup
+     * bazlı replike edilir.
+     *
+     * @return Tüm mesajlar kaydedildiyse true
+     */
+    public boolean mset(Map<String, String> messages) {
+        if (messages.isEmpty()) {
+            return true;
+        }
+
+        String response = sendRawCommand(HaToKuSeProtocol.createMSetCommand(messages));
+        HaToKuSeProtocol.ParsedResponse parsed = HaToKuSeProtocol.parseResponse(response);
+
+        if (parsed.isSuccess()) {
+            System.out.println("OK " + parsed.getMessage());
+            return true;
+        } else {
+            System.err.println("ERROR: " + parsed.getError());
+            return false;
+        }
+    }
+
+    /**
+     * MGET komutu gönderir.
+     *
+     * @return Mesaj ID -> mesaj (bulunamayanlar null); hata durumunda null
+     */
+    public Map<String, String> mget(Collection<String> messageIds) {
+        if (messageIds.isEmpty()) {
+            return new LinkedHashMap<>();
+        }
+
+        String response = sendRawCommand(HaToKuSeProtocol.createMGetCommand(messageIds));
+        Map<String, String> messages = HaToKuSeProtocol.parseMGetResponse(response);
+
+        if (messages == null) {
+            System.err.println("ERROR: " + HaToKuSeProtocol.parseResponse(response).getError());
+        }
+        return messages;
+    }
+
+    /**
+     * MDEL komutu gönderir.
+     *
+     * @return Silinen mesaj sayısı; hata durumunda -1
+     */
+    public int mdel(Collection<String> messageIds) {
+        if (messageIds.isEmpty()) {
+            return 0;
+        }
+
+        String response = sendRawCommand(HaToKuSeProtocol.createMDelCommand(messageIds));
+        HaToKuSeProtocol.ParsedResponse parsed = HaToKuSeProtocol.parseResponse(response);
+
+        if (parsed.isSuccess()) {
+            try {
+                return Integer.parseInt(parsed.getMessage());
+            } catch (NumberFormatException e) {
+                System.err.println("ERROR: Geçersiz MDEL yanıtı: " + response);
+                return -1;
+            }
+        }
+        System.err.println("ERROR: " + parsed.getError());
+        return -1;
+    }
+
     /**
      * Ham komut gönderir.
      */
@@ -142,6 +212,68 @@ public class HaToKuSeClient {
         }
     }
 
+    /**
+     * Komutları yanıt beklemeden art arda gönderir (pipelining).
+     * Lider yanıtları istek sırasıyla döner; en fazla PIPELINE_WINDOW komut
+     * yanıtsız bekletilir, böylece iki taraf da tampon dolunca kilitlenmez.
+     *
+     * @return Her komutun yanıtı, komutlarla aynı sırada; bağlantı hatasında null
+     */
+    public List<String> pipeline(List<String> commands) {
+        if (!connected) {
+            System.err.println("Bağlantı yok!");
+            return null;
+        }
+
+        List<String> responses = new ArrayList<>(commands.size());
+        try {
+            int sent = 0;
+            while (responses.size() < commands.size()) {
+                // Pencere dolana kadar gönder, sonra bir yanıt oku
+                while (sent < commands.size() && sent - responses.size() < PIPELINE_WINDOW) {
+                    writer.print(commands.get(sent++));
+                    writer.print('\n');
+                }
+                writer.flush();
+
+                String response = reader.readLine();
+                if (response == null) {
+                    throw new IOException("Bağlantı kapandı");
+                }
+                responses.add(response);
+            }
+            return responses;
+        } catch (IOException e) {
+            System.err.println("Okuma hatası: " + e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Birden fazla mesajı pipelined SET komutlarıyla kaydeder.
+     *
+     * @return Başarılı SET sayısı
+     */
+    public int setAll(Map<String, String> messages) {
+        List<String> commands = new ArrayList<>(messages.size());
+        for (Map.Entry<String, String> entry : messages.entrySet()) {
+            commands.add(HaToKuSeProtocol.createSetCommand(entry.getKey(), entry.getValue()));
+        }
+
+        List<String> responses = pipeline(commands);
+        if (responses == null) {
+            return 0;
+        }
+
+        int successCount = 0;
+        for (String response : responses) {
+            if (HaToKuSeProtocol.parseResponse(response).isSuccess()) {
+                successCount++;
+            }
+        }
+        return successCount;
+    }
+
     /**
      * İnteraktif mod başlatır.
      */
@@ -154,6 +286,9 @@ public class HaToKuSeClient {
         System.out.println("Komutlar:");
         System.out.println("  SET <id> <mesaj>  - Mesaj kaydet");
         System.out.println("  GET <id>          - Mesaj getir");
+        System.out.println("  MSET <id> <uzunluk> <mesaj> ...  - Çoklu mesaj kaydet");
+        System.out.println("  MGET <id> <id> ...                - Çoklu mesaj getir");
+        System.out.println("  MDEL <id> <id> ...                - Çoklu mesaj sil");
         System.out.println("  QUIT              - Çıkış");
         System.out.println("========================================\n");
 
@@ -183,21 +318,38 @@ public class HaToKuSeClient {
      * Toplu SET testi yapar.
      */
     public void batchSetTest(int count) {
-        System.out.println("Toplu SET testi başlıyor: " + count + " mesaj");
+        batchSetTest(count, false);
+    }
+
+    /**
+     * Toplu SET testi yapar.
+     *
+     * @param pipelined true ise komutlar yanıt beklenmeden gönderilir
+     */
+    public void batchSetTest(int count, boolean pipelined) {
+        System.out.println("Toplu SET testi başlıyor: " + count + " mesaj" + (pipelined ? " (pipelined)" : ""));
         long startTime = System.currentTimeMillis();
         int successCount = 0;
 
-        for (int i = 1; i <= count; i++) {
-            String messageId = String.valueOf(i);
-            String message = "Test mesajı #" + i + " - " + System.currentTimeMillis();
-
-            if (set(messageId, message)) {
-                successCount++;
+        if (pipelined) {
+            Map<String, String> messages = new LinkedHashMap<>();
+            for (int i = 1; i <= count; i++) {
+                messages.put(String.valueOf(i), "Test mesajı #" + i + " - " + System.currentTimeMillis());
             }
-
-            // İlerleme göster
-            if (i % 100 == 0) {
-                System.out.println("İlerleme: " + i + "/" + count);
+            successCount = setAll(messages);
+        } else {
+            for (int i = 1; i <= count; i++) {
+                String messageId = String.valueOf(i);
+                String message = "Test mesajı #" + i + " - " + System.currentTimeMillis();
+
+                if (set(messageId, message)) {
+                    successCount++;
+                }
+
+                // İlerleme göster
+                if (i % 100 == 0) {
+                    System.out.println("İlerleme: " + i + "/" + count);
+                }
             }
         }
 
@@ -218,6 +370,7 @@ public class HaToKuSeClient {
         int port = DEFAULT_PORT;
         boolean interactive = true;
         int batchCount = 0;
+        boolean pipelined = false;
 
         // Komut satırı argümanlarını işle
         for (int i = 0; i < args.length; i++) {
@@ -238,6 +391,9 @@ public class HaToKuSeClient {
                         interactive = false;
                     }
                     break;
+                case "--pipeline":
+                    pipelined = true;
+                    break;
                 case "--help":
                     printUsage();
                     return;
@@ -253,7 +409,7 @@ public class HaToKuSeClient {
 
         try {
             if (batchCount > 0) {
-                client.batchSetTest(batchCount);
+                client.batchSetTest(batchCount, pipelined);
             } else if (interactive) {
                 client.startInteractiveMode();
             }
@@ -270,6 +426,7 @@ public class HaToKuSeClient {
         System.out.println("  --host <host>    Lider sunucu adresi (varsayılan: localhost)");
         System.out.println("  --port <port>    Lider istemci portu (varsayılan: 5000)");
         System.out.println("  --batch <count>  Toplu SET testi yap");
+        System.out.println("  --pipeline       Toplu testte komutları yanıt beklemeden gönder");
         System.out.println("  --help           Bu yardım mesajını gösterir");
     }
 }
@@ -93,6 +93,13 @@ public class ConfigReader {
         return config.getOrDefault(key, defaultValue);
     }
     
+    /**
+     * Belirtilen anahtar için değeri ayarlar (komut satırı değerleri için).
+     */
+    public void setValue(String key, String value) {
+        config.put(key, value);
+    }
+    
     /**
      * Belirtilen anahtar için integer değeri döner.
      */
@@ -107,4 +114,19 @@ public class ConfigReader {
             return defaultValue;
         }
     }
+    
+    /**
+     * Belirtilen anahtar için long değeri döner.
+     */
+    public long getLongValue(String key, long defaultValue) {
+        String value = config.get(key);
+        if (value == null) {
+            return defaultValue;
+        }
+        try {
+            return Long.parseLong(value);
+        } catch (NumberFormatException e) {
+            return defaultValue;
+        }
+    }
 }
@@ -0,0 +1,540 @@
+package com.hatokuse.leader;
+
+import com.hatokuse.proto.DigestRequest;
+import com.hatokuse.proto.DigestResponse;
+import com.hatokuse.proto.GetMessageRequest;
+import com.hatokuse.proto.RangeEntriesRequest;
+import com.hatokuse.proto.RangeEntriesResponse;
+import com.hatokuse.proto.ReplicateRequest;
+import com.hatokuse.storage.MerkleDigest;
+import io.grpc.Status;
+
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Replikalar arasındaki sapmayı bulan arka plan anti-entropy servisi.
+ * Her üye, sakladığı mesajlar (ID + içerik hash'i) üzerinde artımlı bir hash
+ * ağacı tutar (MerkleDigest). Lider de konum indeksinden (yerleşim + son
+ * yazılan içeriğin hash'i) her üyenin tutması gereken mesajların ağacını
+ * kurar ve iki ağacı gRPC üzerinden kökten aşağı karşılaştırır: kök eşitse
+ * üye tutarlıdır; değilse FANOUT_LEVEL seviyesi, sonra yalnızca farklı
+ * düğümlerin yaprakları istenir. Son adımda yalnızca farklı yaprakların
+ * (hash aralıklarının) mesaj listeleri alışveriş edilir.
+ *
+ * Üyeler birbirini tanımadığı ve bir üyenin ID kümesi birden fazla replika
+ * grubuna yayıldığı için karşılaştırma lider üzerinden yapılır; yerleşimin
+ * doğru kaynağı konum indeksidir. Bu yüzden servis yalnızca ROUND_ROBIN
+ * modunda çalışır.
+ *
+ * Sonuçlar:
+ * - İndekse göre üyede olması gereken ama olmayan mesaj, gruptaki başka bir
+ *   kopyadan okunup üyeye yazılır.
+ * - Üyedeki içeriği indeksteki hash'ten farklı olan (eski) kopya çakışma
+ *   olarak sayılır ve hash'i eşleşen bir kopyadan yeniden yazılır.
+ * - Üyede olup indekste o üyeye ait olmayan mesaj (yetim) yalnızca sayılır.
+ *   Silinmez, çünkü indeks logu fsync edilmez (makine çökmesinde son
+ *   kayıtlar kaybolabilir) ve üyeye yazılıp henüz indekse eklenmemiş
+ *   SET'ler de yetim görünür; başka üyeye de kopyalanmaz, çünkü silinmiş
+ *   bir mesajı geri getirebilir.
+ * - İçerik hash'i indekste bilinmeyen (eski formatta kaydedilmiş) mesajda
+ *   kopyalar aynıysa hash indekse öğrenilir; farklıysa hangisinin yeni
+ *   olduğu bilinmediği için çakışma olarak sayılır ve düzeltilmez.
+ *
+ * Tur tek bir arka plan thread'inde çalışır. İndeks parça parça taranır ve
+ * parçalar arasında kilit bırakılır; kopyalama onarım servisiyle aynı bant
+ * genişliği sınırına tabidir. Üyede yalnızca bellekteki ID ve içerik hash'i
+ * haritası gezilir. Açılıştan sonra içerik hash'lerini henüz doldurmamış
+ * üye özet isteğini reddeder ve o tur atlanır.
+ */
+class AntiEntropyService {
+
+    // Varsayılan tur aralığı (sn)
+    static final long DEFAULT_INTERVAL_SECONDS = 60;
+
+    // İndeks taramasında bir parçadaki kayıt sayısı ve parçalar arası bekleme
+    private static final int SCAN_CHUNK = 4096;
+    private static final long SCAN_PAUSE_MS = 2;
+
+    // Kökten sonra istenen ara seviye (2^6 = 64 düğüm, her biri 64 yaprak)
+    private static final int FANOUT_LEVEL = 6;
+
+    // Üye başına turda incelenen en fazla yaprak; fazlası sonraki turlara kalır
+    private static final int MAX_LEAVES_PER_ROUND = 256;
+
+    // Tek GetRangeEntries isteğindeki yaprak sayısı
+    private static final int LEAVES_PER_REQUEST = 16;
+
+    // Aynı anda kopyalanan mesaj sayısı
+    private static final int COPY_BATCH_SIZE = 64;
+
+    private final MemberManager manager;
+    private final MessageLocationIndex locations;
+    private final ScheduledExecutorService worker;
+    private ScheduledFuture<?> schedule;
+    private volatile long bandwidthBytesPerSecond = RepairService.DEFAULT_BANDWIDTH_BYTES_PER_SECOND;
+    private volatile boolean closed;
+
+    // Metrikler
+    private final LongAdder rounds = new LongAdder();
+    private final LongAdder divergentMembers = new LongAdder();
+    private final LongAdder differingLeaves = new LongAdder();
+    private final LongAdder repairedMessages = new LongAdder();
+    private final LongAdder repairedBytes = new LongAdder();
+    private volatile long lastRoundMillis;
+    // Son turda bulunanlar (düzeltilmedikleri için her turda yeniden sayılırlar)
+    private volatile int lastOrphans;
+    private volatile int lastConflicts;
+    private volatile int lastLost;
+    // Tur içindeki sayaç; kopyalama callback'lerinden de artırılır
+    private final AtomicInteger roundLost = new AtomicInteger();
+
+    AntiEntropyService(MemberManager manager, MessageLocationIndex locations) {
+        this.manager = manager;
+        this.locations = locations;
+        this.worker = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "anti-entropy");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Periyodik turları (yeniden) planlar; 0 veya negatif aralık servisi durdurur.
+     */
+    synchronized void setInterval(long seconds) {
+        if (schedule != null) {
+            schedule.cancel(false);
+            schedule = null;
+        }
+        if (seconds > 0 && !closed) {
+            schedule = worker.scheduleWithFixedDelay(this::runRoundSafely, seconds, seconds, TimeUnit.SECONDS);
+        }
+    }
+
+    void setBandwidth(long bytesPerSecond) {
+        this.bandwidthBytesPerSecond = bytesPerSecond;
+    }
+
+    /**
+     * Sıradaki planlı turu beklemeden bir tur çalıştırır.
+     */
+    void trigger() {
+        if (!closed) {
+            worker.execute(this::runRoundSafely);
+        }
+    }
+
+    private void runRoundSafely() {
+        try {
+            runRound();
+        } catch (RuntimeException e) {
+            System.err.println("[ANTI_ENTROPY] Tur hatası: " + e);
+        }
+    }
+
+    private void runRound() {
+        List<MemberManager.MemberInfo> active = manager.getActiveMembers();
+        if (active.isEmpty()) {
+            return;
+        }
+        long start = System.nanoTime();
+        rounds.increment();
+        roundLost.set(0);
+
+        // 1. Konum indeksinden her üyenin beklenen ağacı
+        Map<String, MerkleDigest> expected = new HashMap<>();
+        for (MemberManager.MemberInfo member : active) {
+            expected.put(member.getMemberId(), new MerkleDigest());
+        }
+        scanIndex((messageId, group, contentHash) -> {
+            long keyHash = MerkleDigest.keyHash(messageId);
+            for (String memberId : group) {
+                MerkleDigest digest = expected.get(memberId);
+                if (digest != null) {
+                    digest.toggle(keyHash, contentHash);
+                }
+            }
+        });
+
+        // 2. Ağaçları kökten aşağı karşılaştır
+        Map<String, boolean[]> wantedLeaves = new HashMap<>();
+        Map<String, List<Integer>> leavesByMember = new LinkedHashMap<>();
+        for (MemberManager.MemberInfo member : active) {
+            List<Integer> leaves = findDifferingLeaves(member, expected.get(member.getMemberId()));
+            if (leaves == null || leaves.isEmpty()) {
+                continue;
+            }
+            divergentMembers.increment();
+            differingLeaves.add(leaves.size());
+            boolean[] wanted = new boolean[MerkleDigest.LEAF_COUNT];
+            for (int leaf : leaves) {
+                wanted[leaf] = true;
+            }
+            wantedLeaves.put(member.getMemberId(), wanted);
+            leavesByMember.put(member.getMemberId(), leaves);
+        }
+        if (closed || leavesByMember.isEmpty()) {
+            lastRoundMillis = (System.nanoTime() - start) / 1_000_000;
+            lastOrphans = 0;
+            lastConflicts = 0;
+            lastLost = 0;
+            return;
+        }
+
+        // 3. Farklı aralıklarda üyede olması gereken mesajlar ve içerik hash'leri
+        Map<String, Map<String, Long>> expectedIds = new HashMap<>();
+        for (String memberId : leavesByMember.keySet()) {
+            expectedIds.put(memberId, new HashMap<>());
+        }
+        scanIndex((messageId, group, contentHash) -> {
+            int leaf = MerkleDigest.leafOf(MerkleDigest.keyHash(messageId));
+            for (String memberId : group) {
+                boolean[] wanted = wantedLeaves.get(memberId);
+                if (wanted != null && wanted[leaf]) {
+                    expectedIds.get(memberId).put(messageId, contentHash);
+                }
+            }
+        });
+
+        // 4. Üyelerdeki mesajlar ve içerik hash'leri; farklar
+        Map<String, Long> unknownContent = new HashMap<>();
+        Set<String> conflicting = new HashSet<>();
+        int stale = 0;
+        int orphans = 0;
+        Map<String, Map<String, Long>> repairsByMember = new LinkedHashMap<>();
+        for (Map.Entry<String, List<Integer>> entry : leavesByMember.entrySet()) {
+            String memberId = entry.getKey();
+            Map<String, Long> actual = fetchEntries(manager.getMember(memberId), entry.getValue());
+            if (actual == null) {
+                continue;
+            }
+
+            Map<String, Long> wanted = expectedIds.get(memberId);
+            Map<String, Long> repairs = new LinkedHashMap<>();
+            for (Map.Entry<String, Long> stored : actual.entrySet()) {
+                String messageId = stored.getKey();
+                Long expectedContent = wanted.get(messageId);
+                if (expectedContent == null) {
+                    orphans++;
+                } else if (expectedContent == MessageLocationIndex.UNKNOWN_CONTENT) {
+                    Long previous = unknownContent.putIfAbsent(messageId, stored.getValue());
+                    if (previous != null && !previous.equals(stored.getValue()) && conflicting.add(messageId)) {
+                        System.out.println("[ANTI_ENTROPY] İçerik çakışması: " + messageId);
+                    }
+                } else if (expectedContent.longValue() != stored.getValue()) {
+                    // Eski içerik: son yazılan içerikle yeniden yaz
+                    stale++;
+                    repairs.put(messageId, expectedContent);
+                }
+            }
+
+            for (Map.Entry<String, Long> messageId : wanted.entrySet()) {
+                if (!actual.containsKey(messageId.getKey())) {
+                    repairs.put(messageId.getKey(), messageId.getValue());
+                }
+            }
+            if (!repairs.isEmpty()) {
+                repairsByMember.put(memberId, repairs);
+            }
+        }
+
+        // Kopyaları aynı olan eski kayıtların içerik hash'i indekse işlenir
+        for (Map.Entry<String, Long> entry : unknownContent.entrySet()) {
+            if (!conflicting.contains(entry.getKey())) {
+                locations.learnContentHash(entry.getKey(), entry.getValue());
+            }
+        }
+
+        // 5. Eksik ve eski kopyaları gruptaki içeriği doğru bir kopyadan tamamla
+        int copied = 0;
+        for (Map.Entry<String, Map<String, Long>> entry : repairsByMember.entrySet()) {
+            List<Map.Entry<String, Long>> repairs = new ArrayList<>(entry.getValue().entrySet());
+            for (int from = 0; from < repairs.size() && !closed; from += COPY_BATCH_SIZE) {
+                copied += copyBatch(entry.getKey(), repairs.subList(from, Math.min(repairs.size(),
+                        from + COPY_BATCH_SIZE)));
+            }
+        }
+
+        lastRoundMillis = (System.nanoTime() - start) / 1_000_000;
+        lastOrphans = orphans;
+        lastConflicts = stale + conflicting.size();
+        lastLost = roundLost.get();
+        System.out.println("[ANTI_ENTROPY] Tur bitti: " + leavesByMember.size() + " üyede fark, "
+                + copied + " mesaj tamamlandı, " + orphans + " yetim, " + lastConflicts + " çakışma, "
+                + lastRoundMillis + " ms");
+    }
+
+    /**
+     * İndeks taramasında her kayıt için çağrılır.
+     */
+    private interface IndexVisitor {
+        void visit(String messageId, List<String> group, long contentHash);
+    }
+
+    /**
+     * Konum indeksini parça parça gezer; parçalar arasında kilit bırakılır ve kısa süre beklenir.
+     */
+    private void scanIndex(IndexVisitor visitor) {
+        int cursor = 0;
+        while (cursor >= 0 && !closed) {
+            Map<String, List<String>> chunk = new LinkedHashMap<>();
+            Map<String, Long> contentHashes = new HashMap<>();
+            cursor = locations.scan(cursor, SCAN_CHUNK, group -> true, chunk, contentHashes);
+            chunk.forEach((messageId, group) -> visitor.visit(messageId, group, contentHashes.get(messageId)));
+            if (cursor >= 0) {
+                sleep(SCAN_PAUSE_MS);
+            }
+        }
+    }
+
+    /**
+     * Üyenin ağacını beklenen ağaçla kökten aşağı karşılaştırır.
+     *
+     * @return Farklı yapraklar (en fazla MAX_LEAVES_PER_ROUND); üyeye ulaşılamadıysa null
+     */
+    private List<Integer> findDifferingLeaves(MemberManager.MemberInfo member, MerkleDigest expected) {
+        long[] root = fetchLevel(member, 0, 0, 1);
+        if (root == null || root.length != 1) {
+            return null;
+        }
+        if (root[0] == expected.getRoot()) {
+            return Collections.emptyList();
+        }
+
+        int width = 1 << FANOUT_LEVEL;
+        long[] middle = fetchLevel(member, FANOUT_LEVEL, 0, width);
+        if (middle == null || middle.length != width) {
+            return null;
+        }
+        long[] expectedMiddle = expected.getLevel(FANOUT_LEVEL, 0, width);
+
+        int leavesPerNode = MerkleDigest.LEAF_COUNT / width;
+        List<Integer> leaves = new ArrayList<>();
+        for (int node = 0; node < width && leaves.size() < MAX_LEAVES_PER_ROUND; node++) {
+            if (middle[node] == expectedMiddle[node]) {
+                continue;
+            }
+            int firstLeaf = node * leavesPerNode;
+            long[] actualLeaves = fetchLevel(member, MerkleDigest.DEPTH, firstLeaf, leavesPerNode);
+            if (actualLeaves == null || actualLeaves.length != leavesPerNode) {
+                return null;
+            }
+            long[] expectedLeaves = expected.getLevel(MerkleDigest.DEPTH, firstLeaf, leavesPerNode);
+            for (int i = 0; i < leavesPerNode && leaves.size() < MAX_LEAVES_PER_ROUND; i++) {
+                if (actualLeaves[i] != expectedLeaves[i]) {
+                    leaves.add(firstLeaf + i);
+                }
+            }
+        }
+        return leaves;
+    }
+
+    private long[] fetchLevel(MemberManager.MemberInfo member, int level, int from, int count) {
+        try {
+            DigestResponse response = member.getDigest(DigestRequest.newBuilder()
+                    .setLevel(level)
+                    .setFromIndex(from)
+                    .setCount(count)
+                    .build()).join();
+            long[] hashes = new long[response.getHashesCount()];
+            for (int i = 0; i < hashes.length; i++) {
+                hashes[i] = response.getHashesList().get(i);
+            }
+            return hashes;
+        } catch (RuntimeException e) {
+            System.err.println("[ANTI_ENTROPY] Özet alınamadı: " + member.getMemberId() + " - "
+                    + Status.fromThrowable(e));
+            return null;
+        }
+    }
+
+    /**
+     * @return Mesaj ID -> içerik hash; üyeye ulaşılamadıysa null
+     */
+    private Map<String, Long> fetchEntries(MemberManager.MemberInfo member, List<Integer> leaves) {
+        if (member == null) {
+            return null;
+        }
+        Map<String, Long> entries = new HashMap<>();
+        for (int from = 0; from < leaves.size(); from += LEAVES_PER_REQUEST) {
+            RangeEntriesRequest.Builder request = RangeEntriesRequest.newBuilder();
+            for (int leaf : leaves.subList(from, Math.min(leaves.size(), from + LEAVES_PER_REQUEST))) {
+                request.addLeaves(leaf);
+            }
+            try {
+                RangeEntriesResponse response = member.getRangeEntries(request.build()).join();
+                for (int i = 0; i < response.getEntriesCount(); i++) {
+                    entries.put(response.getMessageIdsList().get(i), response.getContentHashesList().get(i));
+                }
+            } catch (RuntimeException e) {
+                System.err.println("[ANTI_ENTROPY] Aralık alınamadı: " + member.getMemberId() + " - "
+                        + Status.fromThrowable(e));
+                return null;
+            }
+        }
+        return entries;
+    }
+
+    /**
+     * Eksik / eski mesajları eşzamanlı kopyalar ve bant genişliği sınırına göre bekler.
+     *
+     * @param repairs Mesaj ID -> beklenen içerik hash'i
+     * @return Tamamlanan mesaj sayısı
+     */
+    private int copyBatch(String targetId, List<Map.Entry<String, Long>> repairs) {
+        MemberManager.MemberInfo target = manager.getMember(targetId);
+        if (target == null || !target.isHealthy()) {
+            return 0;
+        }
+
+        long batchStart = System.nanoTime();
+        List<CompletableFuture<Long>> copies = new ArrayList<>();
+        for (Map.Entry<String, Long> repair : repairs) {
+            copies.add(copyMessage(repair.getKey(), repair.getValue(), target));
+        }
+
+        int copied = 0;
+        long bytes = 0;
+        for (CompletableFuture<Long> copy : copies) {
+            long size = copy.join();
+            if (size >= 0) {
+                copied++;
+                bytes += size;
+            }
+        }
+        repairedMessages.add(copied);
+        repairedBytes.add(bytes);
+        throttle(bytes, batchStart);
+        return copied;
+    }
+
+    /**
+     * Mesajı gruptaki, içeriği beklenen hash'le eşleşen sağlıklı bir kopyadan
+     * okuyup hedefe yazar.
+     *
+     * @return Yazılan byte; yerleşim veya içerik bu arada değiştiyse ya da kopyalanamadıysa -1
+     */
+    private CompletableFuture<Long> copyMessage(String messageId, long contentHash,
+            MemberManager.MemberInfo target) {
+        // Tarama sonrası silinen, yeniden yerleştirilen veya yeniden yazılan mesaja dokunulmaz
+        List<String> holders = locations.get(messageId);
+        if (holders == null || !holders.contains(target.getMemberId())
+                || locations.getContentHash(messageId) != contentHash) {
+            return CompletableFuture.completedFuture(-1L);
+        }
+        List<MemberManager.MemberInfo> sources = new ArrayList<>();
+        for (String memberId : holders) {
+            MemberManager.MemberInfo member = manager.getMember(memberId);
+            if (member != null && member != target && member.isHealthy()) {
+                sources.add(member);
+            }
+        }
+        return copyFrom(messageId, contentHash, sources.iterator(), target);
+    }
+
+    private CompletableFuture<Long> copyFrom(String messageId, long contentHash,
+            Iterator<MemberManager.MemberInfo> sources, MemberManager.MemberInfo target) {
+        if (!sources.hasNext()) {
+            roundLost.incrementAndGet();
+            System.err.println("[ANTI_ENTROPY] Mesajın sağlam kopyası bulunamadı: " + messageId);
+            return CompletableFuture.completedFuture(-1L);
+        }
+        MemberManager.MemberInfo source = sources.next();
+        return source.getMessage(GetMessageRequest.newBuilder().setMessageId(messageId).build())
+                .handle((response, error) -> {
+                    if (error != null || !response.getFound()
+                            || (contentHash != MessageLocationIndex.UNKNOWN_CONTENT && MerkleDigest.contentHash(
+                                    response.getMessageContentBytes()) != contentHash)) {
+                        return copyFrom(messageId, contentHash, sources, target);
+                    }
+                    long size = response.getMessageContentBytes().remaining();
+                    return target.replicate(ReplicateRequest.newBuilder()
+                            .setMessageId(messageId)
+                            .setMessageContentBytes(response.getMessageContentBytes())
+                            .build())
+                            .handle((result, writeError) -> writeError == null && result.getSuccess() ? size : -1L);
+                })
+                .thenCompose(future -> future);
+    }
+
+    private void throttle(long bytes, long batchStartNanos) {
+        long limit = bandwidthBytesPerSecond;
+        if (limit <= 0 || bytes == 0) {
+            return;
+        }
+        long remainingNanos = bytes * 1_000_000_000L / limit - (System.nanoTime() - batchStartNanos);
+        if (remainingNanos > 0) {
+            sleep(remainingNanos / 1_000_000);
+        }
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    void close() {
+        closed = true;
+        worker.shutdownNow();
+    }
+
+    // ==================== METRİKLER ====================
+
+    long getRoundCount() {
+        return rounds.sum();
+    }
+
+    /**
+     * Turlarda ağacı beklenenden farklı çıkan üye sayısı (toplam).
+     */
+    long getDivergentMembers() {
+        return divergentMembers.sum();
+    }
+
+    long getDifferingLeaves() {
+        return differingLeaves.sum();
+    }
+
+    long getRepairedMessages() {
+        return repairedMessages.sum();
+    }
+
+    long getRepairedBytes() {
+        return repairedBytes.sum();
+    }
+
+    /**
+     * Son turda bulunan içerik çakışmaları (indeksten farklı içerikli kopyalar dahil).
+     */
+    int getLastConflicts() {
+        return lastConflicts;
+    }
+
+    /**
+     * Son turda bulunan, üyede olup indekse göre o üyeye ait olmayan mesajlar.
+     */
+    int getLastOrphans() {
+        return lastOrphans;
+    }
+
+    /**
+     * Son turda sağlam kopyası bulunamayan eksik mesajlar.
+     */
+    int getLastLost() {
+        return lastLost;
+    }
+
+    long getLastRoundMillis() {
+        return lastRoundMillis;
+    }
+}
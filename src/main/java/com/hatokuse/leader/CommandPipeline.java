@@ -0,0 +1,108 @@
+package com.hatokuse.leader;
+
+import com.hatokuse.protocol.HaToKuSeProtocol;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * Bağlantı başına komut hattı (pipelining).
+ * İstemci yanıt beklemeden art arda komut gönderebilir: farklı mesaj
+ * ID'lerine ait komutlar executor üzerinde eşzamanlı işlenir, aynı ID'ye ait
+ * komutlar ise geliş sırasıyla birbirine zincirlenir (SET k ardından GET k
+ * her zaman yeni değeri görür). Çoklu komutlar (MSET/MGET/MDEL) içerdikleri
+ * tüm ID'lerin önceki komutlarını bekler. Yanıtlar, işlem hangi sırayla biterse bitsin,
+ * istek sırasıyla sink'e verilir.
+ *
+ * submit() tek bir thread'den (bağlantıyı okuyan thread) çağrılmalıdır.
+ * Blocking ve NIO istemci sunucuları bu sınıfı ortak kullanır.
+ */
+class CommandPipeline {
+
+    private final Function<HaToKuSeProtocol.ParsedCommand, String> handler;
+    private final Executor executor;
+    private final Consumer<String> sink;
+
+    // Mesaj ID -> o ID için kuyruktaki son komut
+    private final Map<String, CompletableFuture<String>> lastByMessageId = new ConcurrentHashMap<>();
+
+    // Yanıtları istek sırasıyla sink'e veren zincir
+    private CompletableFuture<Void> responseChain = CompletableFuture.completedFuture(null);
+
+    /**
+     * @param sink Yanıtları istek sırasıyla alır; tamamlanan işi çalıştıran thread'de çağrılır
+     */
+    CommandPipeline(Function<HaToKuSeProtocol.ParsedCommand, String> handler, Executor executor,
+            Consumer<String> sink) {
+        this.handler = handler;
+        this.executor = executor;
+        this.sink = sink;
+    }
+
+    /**
+     * Komutu hatta ekler.
+     */
+    void submit(String rawCommand) {
+        HaToKuSeProtocol.ParsedCommand cmd = HaToKuSeProtocol.parseCommand(rawCommand);
+        List<String> messageIds = cmd.isValid() ? cmd.getMessageIds() : List.of();
+
+        List<CompletableFuture<String>> previous = new ArrayList<>();
+        for (String messageId : messageIds) {
+            CompletableFuture<String> last = lastByMessageId.get(messageId);
+            if (last != null) {
+                previous.add(last);
+            }
+        }
+
+        CompletableFuture<String> result;
+        try {
+            if (previous.isEmpty()) {
+                result = CompletableFuture.supplyAsync(() -> execute(cmd), executor);
+            } else {
+                // Aynı ID'lere ait önceki komutlar bitince çalıştır
+                result = CompletableFuture.allOf(previous.toArray(new CompletableFuture<?>[0]))
+                        .handle((v, error) -> cmd)
+                        .thenApplyAsync(this::execute, executor);
+            }
+        } catch (RejectedExecutionException e) {
+            result = CompletableFuture.completedFuture(
+                    HaToKuSeProtocol.createErrorResponse("Sunucu meşgul, tekrar deneyin"));
+        }
+
+        CompletableFuture<String> tail = result;
+        for (String messageId : messageIds) {
+            lastByMessageId.put(messageId, tail);
+            tail.whenComplete((response, error) -> lastByMessageId.remove(messageId, tail));
+        }
+
+        CompletableFuture<String> ordered = result;
+        responseChain = responseChain
+                .handle((v, error) -> null)
+                .thenCompose(v -> ordered)
+                .exceptionally(error -> HaToKuSeProtocol.createErrorResponse("Komut işleme hatası: "
+                        + error.getMessage()))
+                .thenAccept(sink);
+    }
+
+    /**
+     * Hattaki tüm yanıtlar sink'e verildiğinde tamamlanan future.
+     */
+    CompletableFuture<Void> drain() {
+        return responseChain;
+    }
+
+    private String execute(HaToKuSeProtocol.ParsedCommand cmd) {
+        try {
+            return handler.apply(cmd);
+        } catch (RuntimeException e) {
+            return HaToKuSeProtocol.createErrorResponse("Komut işleme hatası: " + e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,505 @@
+package com.hatokuse.leader;
+
+import com.hatokuse.proto.DeleteRequest;
+import com.hatokuse.proto.ReplicateRequest;
+
+import java.io.*;
+import java.net.URLDecoder;
+import java.net.URLEncoder;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Geçici olarak erişilemeyen üyelere yazılamayan replika işlemlerini (hinted
+ * handoff) liderde saklar. Replikasyon veya silme isteği iletişim hatasıyla
+ * düşerse işlem, üyeye ait ipucu dosyasına eklenir; üyenin heartbeat'i geri
+ * geldiğinde ipuçları BATCH_SIZE'lık parçalar halinde sırayla üyeye uygulanır.
+ * Böylece kısa kesintilerde istemci beklemez ve replikasyon faktörü kaybolmaz.
+ *
+ * Her mesaj ID'si için yalnızca son ipucu geçerlidir. Üyeye sonradan doğrudan
+ * yazılan (veya silinen) mesajın eski ipucu geçersiz sayılır ve oynatılmaz;
+ * böylece eski içerik yenisinin üzerine yazılmaz. Geçersiz kılınan ve oynatılan
+ * ipuçları dosyaya iptal kaydı olarak eklenir; lider yeniden başladığında
+ * bunlar tekrar bekleyen sayılmaz.
+ *
+ * Dosyalar üye başına <dizin>/<üye ID>.hints biçimindedir. Kayıtlar her
+ * eklemede flush edilir (fsync yok); lider yeniden başladığında dosyalar
+ * okunup bekleyen ipuçları yeniden yüklenir. Oynatma sonrası dosya yalnızca
+ * bekleyen kayıtlarla yeniden yazılır, hiç kalmadıysa silinir.
+ *
+ * Kayıt formatı:
+ * [tip:1][sıra:8][idLen:4][id bytes][içerikLen:4][içerik bytes]
+ * İptal kaydında sıra, iptal edilen ipucununkidir ve içerik boştur.
+ */
+class HintedHandoff implements Closeable {
+
+    static final String HINT_SUFFIX = ".hints";
+
+    static final byte TYPE_REPLICATE = 1;
+    static final byte TYPE_DELETE = 2;
+    static final byte TYPE_CANCEL = 3;
+
+    // Üye başına ipucu dosyası sınırı; aşılırsa yeni ipuçları düşürülür (onarım servisi tamamlar)
+    static final long MAX_BYTES_PER_MEMBER = 256L * 1024 * 1024;
+
+    // Oynatmada aynı anda gönderilen ipucu sayısı
+    private static final int BATCH_SIZE = 64;
+
+    private final MemberManager manager;
+    private final Path directory;
+    private final ConcurrentHashMap<String, HintLog> logs = new ConcurrentHashMap<>();
+    private final ExecutorService worker;
+    private volatile boolean closed;
+
+    // Metrikler
+    private final LongAdder recordedHints = new LongAdder();
+    private final LongAdder replayedHints = new LongAdder();
+    private final LongAdder supersededHints = new LongAdder();
+    private final LongAdder droppedHints = new LongAdder();
+
+    HintedHandoff(MemberManager manager, Path directory) throws IOException {
+        this.manager = manager;
+        this.directory = directory;
+        Files.createDirectories(directory);
+        this.worker = Executors.newSingleThreadExecutor(r -> {
+            Thread thread = new Thread(r, "hint-replay");
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, "*" + HINT_SUFFIX)) {
+            for (Path file : files) {
+                String name = file.getFileName().toString();
+                String memberId = URLDecoder.decode(name.substring(0, name.length() - HINT_SUFFIX.length()),
+                        StandardCharsets.UTF_8);
+                HintLog log = new HintLog(file);
+                log.load();
+                if (log.pendingCount() > 0) {
+                    System.out.println("[HINTS] " + memberId + " için " + log.pendingCount()
+                            + " bekleyen ipucu yüklendi");
+                }
+                logs.put(memberId, log);
+            }
+        }
+    }
+
+    /**
+     * Üyeye ulaştırılamayan işlemi ipucu dosyasına ekler.
+     *
+     * @param content REPLICATE için mesaj içeriği, DELETE için null
+     * @return İpucu kaydedildiyse true (dosya sınırı veya yazma hatasında false)
+     */
+    boolean record(String memberId, byte type, String messageId, ByteBuffer content) {
+        if (closed) {
+            return false;
+        }
+        HintLog log = logs.computeIfAbsent(memberId, id -> new HintLog(hintPath(id)));
+        try {
+            if (!log.append(type, messageId, content)) {
+                droppedHints.increment();
+                return false;
+            }
+        } catch (IOException e) {
+            System.err.println("[HINTS] İpucu yazılamadı: " + memberId + " - " + e.getMessage());
+            droppedHints.increment();
+            return false;
+        }
+        recordedHints.increment();
+        return true;
+    }
+
+    /**
+     * Mesaj üyeye doğrudan yazıldı veya silindi; bekleyen ipucu artık eskidir.
+     */
+    void supersede(String memberId, String messageId) {
+        HintLog log = logs.get(memberId);
+        if (log == null || log.pendingCount() == 0) {
+            return;
+        }
+        try {
+            if (log.cancel(messageId)) {
+                supersededHints.increment();
+            }
+        } catch (IOException e) {
+            System.err.println("[HINTS] İptal kaydı yazılamadı: " + memberId + " - " + e.getMessage());
+        }
+    }
+
+    /**
+     * Mesaj silinirken, o mesaj için ipucu bekleyen üyelere silme ipucu ekler;
+     * üye geri geldiğinde eski kayıt yazılmak yerine silinir.
+     *
+     * @param directTargets Silme isteğinin doğrudan gönderileceği üyeler (ipucu eklenmez)
+     */
+    void recordDeleteIfPending(String messageId, Set<String> directTargets) {
+        for (Map.Entry<String, HintLog> entry : logs.entrySet()) {
+            if (!directTargets.contains(entry.getKey()) && entry.getValue().isPending(messageId)) {
+                record(entry.getKey(), TYPE_DELETE, messageId, null);
+            }
+        }
+    }
+
+    /**
+     * Üyenin bekleyen ipucu varsa (ve oynatma sürmüyorsa) arka planda oynatır.
+     */
+    void replayIfPending(MemberManager.MemberInfo member) {
+        HintLog log = logs.get(member.getMemberId());
+        if (closed || log == null || log.pendingCount() == 0 || !log.replaying.compareAndSet(false, true)) {
+            return;
+        }
+        worker.execute(() -> {
+            try {
+                replay(member, log);
+            } catch (RuntimeException e) {
+                System.err.println("[HINTS] Oynatma hatası: " + member.getMemberId() + " - " + e);
+            } finally {
+                log.replaying.set(false);
+            }
+        });
+    }
+
+    private void replay(MemberManager.MemberInfo member, HintLog log) {
+        String memberId = member.getMemberId();
+        System.out.println("[HINTS] " + memberId + " için " + log.pendingCount() + " ipucu oynatılıyor");
+        int replayed = 0;
+        boolean failed = false;
+
+        try (DataInputStream in = log.openReader()) {
+            List<Hint> batch = new ArrayList<>(BATCH_SIZE);
+            Hint hint;
+            while (!closed && !failed && (hint = readHint(in)) != null) {
+                if (!log.isPending(hint.messageId, hint.sequence)) {
+                    continue;
+                }
+                batch.add(hint);
+                if (batch.size() == BATCH_SIZE) {
+                    int sent = sendBatch(member, log, batch);
+                    replayed += sent;
+                    failed = sent < batch.size();
+                    batch.clear();
+                }
+            }
+            if (!closed && !failed && !batch.isEmpty()) {
+                int sent = sendBatch(member, log, batch);
+                replayed += sent;
+                failed = sent < batch.size();
+            }
+        } catch (IOException e) {
+            System.err.println("[HINTS] İpucu dosyası okunamadı: " + memberId + " - " + e.getMessage());
+        }
+
+        try {
+            log.compact();
+        } catch (IOException e) {
+            System.err.println("[HINTS] İpucu dosyası sıkıştırılamadı: " + memberId + " - " + e.getMessage());
+        }
+        System.out.println("[HINTS] " + memberId + ": " + replayed + " ipucu oynatıldı, "
+                + log.pendingCount() + " bekliyor");
+    }
+
+    /**
+     * Bir parça ipucunu üyeye eşzamanlı gönderir ve hepsinin bitmesini bekler.
+     *
+     * @return Başarıyla uygulanan ipucu sayısı
+     */
+    private int sendBatch(MemberManager.MemberInfo member, HintLog log, List<Hint> batch) {
+        List<CompletableFuture<Boolean>> calls = new ArrayList<>(batch.size());
+        for (Hint hint : batch) {
+            CompletableFuture<Boolean> call;
+            if (hint.type == TYPE_REPLICATE) {
+                call = member.replicate(ReplicateRequest.newBuilder()
+                        .setMessageId(hint.messageId)
+                        .setMessageContentBytes(hint.content)
+                        .build())
+                        .handle((response, error) -> error == null && response.getSuccess());
+            } else {
+                // Silinecek kaydın üyede bulunmaması da başarıdır
+                call = member.delete(DeleteRequest.newBuilder().setMessageId(hint.messageId).build())
+                        .handle((response, error) -> error == null);
+            }
+            calls.add(call);
+        }
+
+        int applied = 0;
+        for (int i = 0; i < batch.size(); i++) {
+            Hint hint = batch.get(i);
+            if (!calls.get(i).join()) {
+                continue;
+            }
+            applied++;
+            boolean completed;
+            try {
+                completed = log.complete(hint.messageId, hint.sequence);
+            } catch (IOException e) {
+                System.err.println("[HINTS] İptal kaydı yazılamadı: " + member.getMemberId() + " - "
+                        + e.getMessage());
+                completed = true; // Bellekte tamamlandı; dosya oynatma sonunda sıkıştırılır
+            }
+            if (completed) {
+                replayedHints.increment();
+                if (hint.type == TYPE_REPLICATE) {
+                    manager.restoreReplica(hint.messageId, member.getMemberId());
+                }
+            }
+        }
+        if (applied < batch.size()) {
+            System.err.println("[HINTS] Oynatma yarıda kaldı: " + member.getMemberId() + " - "
+                    + (batch.size() - applied) + " ipucu uygulanamadı");
+            member.markUnhealthy();
+        }
+        return applied;
+    }
+
+    private Path hintPath(String memberId) {
+        return directory.resolve(URLEncoder.encode(memberId, StandardCharsets.UTF_8) + HINT_SUFFIX);
+    }
+
+    /**
+     * Bir sonraki kaydı okur; dosya sonunda veya yarım yazılmış kayıtta null döner.
+     */
+    private static Hint readHint(DataInputStream in) throws IOException {
+        try {
+            byte type = in.readByte();
+            long sequence = in.readLong();
+            byte[] id = new byte[in.readInt()];
+            in.readFully(id);
+            byte[] content = new byte[in.readInt()];
+            in.readFully(content);
+            return new Hint(type, sequence, new String(id, StandardCharsets.UTF_8), ByteBuffer.wrap(content));
+        } catch (EOFException e) {
+            return null;
+        }
+    }
+
+    int getPendingCount() {
+        int total = 0;
+        for (HintLog log : logs.values()) {
+            total += log.pendingCount();
+        }
+        return total;
+    }
+
+    long getRecordedHints() {
+        return recordedHints.sum();
+    }
+
+    long getReplayedHints() {
+        return replayedHints.sum();
+    }
+
+    long getSupersededHints() {
+        return supersededHints.sum();
+    }
+
+    long getDroppedHints() {
+        return droppedHints.sum();
+    }
+
+    @Override
+    public void close() {
+        closed = true;
+        worker.shutdownNow();
+        for (HintLog log : logs.values()) {
+            log.close();
+        }
+    }
+
+    private static final class Hint {
+        final byte type;
+        final long sequence;
+        final String messageId;
+        final ByteBuffer content;
+
+        Hint(byte type, long sequence, String messageId, ByteBuffer content) {
+            this.type = type;
+            this.sequence = sequence;
+            this.messageId = messageId;
+            this.content = content;
+        }
+    }
+
+    /**
+     * Tek üyenin ipucu dosyası. Bekleyen ipuçları mesaj ID -> son kaydın sıra
+     * numarası olarak bellekte tutulur; içerikler yalnızca dosyadadır.
+     */
+    private static final class HintLog {
+        private final Path file;
+        private final Map<String, Long> pending = new HashMap<>();
+        private final AtomicBoolean replaying = new AtomicBoolean();
+        private DataOutputStream out;
+        private long bytes;
+        private long nextSequence = 1;
+        private volatile int pendingCount;
+
+        HintLog(Path file) {
+            this.file = file;
+        }
+
+        synchronized void load() throws IOException {
+            if (!Files.exists(file)) {
+                return;
+            }
+            try (DataInputStream in = openReader()) {
+                Hint hint;
+                while ((hint = readHint(in)) != null) {
+                    if (hint.type == TYPE_CANCEL) {
+                        pending.remove(hint.messageId, hint.sequence);
+                    } else {
+                        pending.put(hint.messageId, hint.sequence);
+                    }
+                    nextSequence = Math.max(nextSequence, hint.sequence + 1);
+                }
+            }
+            bytes = Files.size(file);
+            pendingCount = pending.size();
+        }
+
+        synchronized boolean append(byte type, String messageId, ByteBuffer content) throws IOException {
+            byte[] id = messageId.getBytes(StandardCharsets.UTF_8);
+            int contentLength = content == null ? 0 : content.remaining();
+            long recordBytes = 17 + id.length + contentLength;
+            if (bytes + recordBytes > MAX_BYTES_PER_MEMBER) {
+                return false;
+            }
+            long sequence = nextSequence++;
+            write(type, sequence, id, content);
+            pending.put(messageId, sequence);
+            pendingCount = pending.size();
+            return true;
+        }
+
+        private void write(byte type, long sequence, byte[] id, ByteBuffer content) throws IOException {
+            int contentLength = content == null ? 0 : content.remaining();
+            if (out == null) {
+                out = new DataOutputStream(new BufferedOutputStream(
+                        new FileOutputStream(file.toFile(), true), 8 * 1024));
+            }
+            out.writeByte(type);
+            out.writeLong(sequence);
+            out.writeInt(id.length);
+            out.write(id);
+            out.writeInt(contentLength);
+            if (content != null) {
+                ByteBuffer data = content.duplicate();
+                if (data.hasArray()) {
+                    out.write(data.array(), data.arrayOffset() + data.position(), contentLength);
+                } else {
+                    byte[] copy = new byte[contentLength];
+                    data.get(copy);
+                    out.write(copy);
+                }
+            }
+            out.flush();
+            bytes += 17 + id.length + contentLength;
+        }
+
+        synchronized boolean isPending(String messageId) {
+            return pending.containsKey(messageId);
+        }
+
+        synchronized boolean isPending(String messageId, long sequence) {
+            Long current = pending.get(messageId);
+            return current != null && current == sequence;
+        }
+
+        /**
+         * İpucu oynatıldı; bu arada daha yeni bir ipucu eklenmediyse bekleyenlerden çıkarır.
+         */
+        synchronized boolean complete(String messageId, long sequence) throws IOException {
+            if (!isPending(messageId, sequence)) {
+                return false;
+            }
+            remove(messageId, sequence);
+            return true;
+        }
+
+        synchronized boolean cancel(String messageId) throws IOException {
+            Long sequence = pending.get(messageId);
+            if (sequence == null) {
+                return false;
+            }
+            remove(messageId, sequence);
+            return true;
+        }
+
+        /**
+         * İpucunu bekleyenlerden çıkarır ve bunu dosyaya iptal kaydı olarak
+         * yazar; bekleyen kalmadıysa dosyayı siler.
+         */
+        private void remove(String messageId, long sequence) throws IOException {
+            pending.remove(messageId);
+            pendingCount = pending.size();
+            if (pending.isEmpty()) {
+                compact();
+            } else {
+                write(TYPE_CANCEL, sequence, messageId.getBytes(StandardCharsets.UTF_8), null);
+            }
+        }
+
+        int pendingCount() {
+            return pendingCount;
+        }
+
+        DataInputStream openReader() throws IOException {
+            return new DataInputStream(new BufferedInputStream(Files.newInputStream(file), 64 * 1024));
+        }
+
+        /**
+         * Dosyayı yalnızca bekleyen kayıtlarla yeniden yazar; bekleyen yoksa siler.
+         * Eklemeler bu sırada bekler.
+         */
+        synchronized void compact() throws IOException {
+            close();
+            if (pending.isEmpty()) {
+                Files.deleteIfExists(file);
+                bytes = 0;
+                return;
+            }
+            if (!Files.exists(file)) {
+                return;
+            }
+
+            Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+            long written = 0;
+            try (DataInputStream in = openReader();
+                    DataOutputStream tempOut = new DataOutputStream(
+                            new BufferedOutputStream(Files.newOutputStream(temp), 64 * 1024))) {
+                Hint hint;
+                while ((hint = readHint(in)) != null) {
+                    if (!isPending(hint.messageId, hint.sequence)) {
+                        continue;
+                    }
+                    byte[] id = hint.messageId.getBytes(StandardCharsets.UTF_8);
+                    tempOut.writeByte(hint.type);
+                    tempOut.writeLong(hint.sequence);
+                    tempOut.writeInt(id.length);
+                    tempOut.write(id);
+                    tempOut.writeInt(hint.content.remaining());
+                    tempOut.write(hint.content.array(), hint.content.arrayOffset(), hint.content.remaining());
+                    written += 17 + id.length + hint.content.remaining();
+                }
+            }
+            Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            bytes = written;
+        }
+
+        synchronized void close() {
+            if (out != null) {
+                try {
+                    out.close();
+                } catch (IOException e) {
+                    System.err.println("[HINTS] İpucu dosyası kapatma hatası: " + e.getMessage());
+                }
+                out = null;
+            }
+        }
+    }
+}
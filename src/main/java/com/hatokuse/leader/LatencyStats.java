@@ -0,0 +1,89 @@
+package com.hatokuse.leader;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Üye başına okuma gecikmesi istatistiği.
+ * Son gecikmelerin üstel hareketli ortalaması (EWMA) ile son WINDOW örneğin
+ * p95 değerini ve uçuştaki okuma sayısını tutar. p95 her örnekte değil,
+ * her P95_REFRESH örnekte bir yeniden hesaplanır; okuma yolunda yalnızca
+ * volatile alanlar okunur.
+ */
+class LatencyStats {
+
+    // EWMA ağırlığı: yeni örnek %20, geçmiş %80
+    private static final double ALPHA = 0.2;
+
+    // p95 için tutulan son örnek sayısı ve yeniden hesaplama sıklığı
+    private static final int WINDOW = 256;
+    private static final int P95_REFRESH = 32;
+
+    // this ile korunur
+    private final long[] window = new long[WINDOW];
+    private long sampleCount;
+
+    private volatile double ewmaNanos;
+    private volatile long p95Nanos;
+    private volatile long samples;
+    private final AtomicInteger inFlight = new AtomicInteger();
+
+    /**
+     * Okuma başlarken çağrılır.
+     */
+    void begin() {
+        inFlight.incrementAndGet();
+    }
+
+    /**
+     * Okuma yanıtla (bulundu veya bulunamadı) bittiğinde süresiyle çağrılır.
+     */
+    void end(long elapsedNanos) {
+        inFlight.decrementAndGet();
+        synchronized (this) {
+            ewmaNanos = sampleCount == 0 ? elapsedNanos : ewmaNanos + ALPHA * (elapsedNanos - ewmaNanos);
+            window[(int) (sampleCount % WINDOW)] = elapsedNanos;
+            sampleCount++;
+            if (sampleCount <= P95_REFRESH || sampleCount % P95_REFRESH == 0) {
+                long[] sorted = Arrays.copyOf(window, (int) Math.min(sampleCount, WINDOW));
+                Arrays.sort(sorted);
+                p95Nanos = sorted[(int) Math.ceil(sorted.length * 0.95) - 1];
+            }
+            samples = sampleCount;
+        }
+    }
+
+    /**
+     * Okuma hatayla (zaman aşımı, bağlantı hatası) bittiğinde çağrılır. Süre
+     * örneklere katılmaz: hızlı dönen hatalar EWMA'yı düşürüp üyeyi öne
+     * çıkarmasın, zaman aşımları da p95'i (hedge gecikmesi) şişirmesin.
+     * Hata alan üye zaten sağlıksız işaretlenip sıralamada sona düşer.
+     */
+    void abort() {
+        inFlight.decrementAndGet();
+    }
+
+    /**
+     * Okuma sıralaması için puan: EWMA × (uçuştaki okuma + 1). Düşük olan
+     * tercih edilir; hiç örneği olmayan üye 0 puanla öne geçer ve ölçülür.
+     */
+    double score() {
+        return ewmaNanos * (inFlight.get() + 1);
+    }
+
+    double getEwmaNanos() {
+        return ewmaNanos;
+    }
+
+    long getP95Nanos() {
+        return p95Nanos;
+    }
+
+    long getSampleCount() {
+        return samples;
+    }
+
+    int getInFlight() {
+        return inFlight.get();
+    }
+}
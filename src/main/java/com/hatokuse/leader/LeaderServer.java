@@ -1,13 +1,24 @@
 package com.hatokuse.leader;
 
 import com.hatokuse.config.ConfigReader;
+import com.hatokuse.metrics.Counter;
+import com.hatokuse.metrics.JmxExporter;
+import com.hatokuse.metrics.LatencyTimer;
+import com.hatokuse.metrics.MetricsRegistry;
+import com.hatokuse.metrics.PrometheusExporter;
 import com.hatokuse.protocol.HaToKuSeProtocol;
 import io.grpc.Server;
 import io.grpc.ServerBuilder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 import java.io.*;
 import java.net.*;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.concurrent.*;
 
 /**
@@ -16,6 +27,10 @@ import java.util.concurrent.*;
  */
 public class LeaderServer {
 
+    private static final Logger log = LoggerFactory.getLogger(LeaderServer.class);
+    // Örneklenmiş istek kayıtları ayrı logger'a yazılır (logback.xml'de ayrıca ayarlanabilir)
+    private static final Logger requestLog = LoggerFactory.getLogger("com.hatokuse.requests");
+
     // Varsayılan portlar
     private static final int DEFAULT_CLIENT_PORT = 5000; // İstemci bağlantısı için
     private static final int DEFAULT_GRPC_PORT = 5001; // gRPC (üye) bağlantısı için
@@ -23,22 +38,121 @@ public class LeaderServer {
     // Periyodik istatistik yazdırma aralığı (saniye)
     private static final int STATS_INTERVAL = 10;
 
+    // Lider konfigürasyon dosyası (istemci sunucusu ayarları)
+    private static final String DEFAULT_CONFIG_FILE = "leader.conf";
+
+    // Mesaj konum indeksinin varsayılan dizini ("none" ise indeks yalnızca bellekte tutulur)
+    private static final String DEFAULT_LOCATION_INDEX_DIR = "./data/leader";
+
+    // Hinted handoff ipucu dosyalarının varsayılan dizini ("none" ise hinted handoff kapalı)
+    private static final String DEFAULT_HINT_DIR = "./data/leader/hints";
+
+    // NIO istemci sunucusu varsayılanları
+    private static final int DEFAULT_CLIENT_WORKERS = 64;
+    private static final int DEFAULT_CLIENT_QUEUE = 1024;
+    private static final int DEFAULT_MAX_CONNECTIONS = 10000;
+
+    // Her N istekten biri INFO seviyesinde kaydedilir (0: kapalı)
+    private static final int DEFAULT_REQUEST_LOG_SAMPLE = 1000;
+
+    // Bağlantı başına yanıtı beklenen (pipelined) en fazla komut sayısı
+    static final int MAX_PIPELINED_COMMANDS = 64;
+
+    /**
+     * İstemci işleme ve üye RPC'leri için thread modeli.
+     */
+    public enum ThreadMode {
+        PLATFORM, // Cached platform thread havuzu
+        VIRTUAL // Java 21+ virtual thread (görev başına)
+    }
+
+    /**
+     * İstemci bağlantı modeli.
+     */
+    public enum ClientIOMode {
+        BLOCKING, // Bağlantı başına bir thread (ServerSocket)
+        NIO // Selector event-loop + sınırlı worker havuzu
+    }
+
     private final int clientPort;
     private final int grpcPort;
     private final MemberManager memberManager;
     private final ConfigReader config;
 
     private Server grpcServer;
+    private final ClientIOMode clientIOMode;
+    private final ThreadMode threadMode;
+
+    // VIRTUAL modda gRPC sunucu ve üye kanallarının executor'ı
+    private final ExecutorService rpcExecutor;
+
     private ServerSocket clientServerSocket;
     private ExecutorService clientExecutor;
+    private NioClientServer nioClientServer;
     private ScheduledExecutorService statsScheduler;
+    private PrometheusExporter metricsExporter;
     private volatile boolean running = true;
 
+    // Komut türü (SET, GET, ...) -> istemci isteği gecikmesi / hata sayacı
+    private final Map<String, LatencyTimer> requestTimers = new HashMap<>();
+    private final Map<String, Counter> requestErrors = new HashMap<>();
+    private final int requestLogSample;
+
     public LeaderServer(int clientPort, int grpcPort, int tolerance) {
+        this(clientPort, grpcPort, tolerance, new ConfigReader());
+    }
+
+    /**
+     * @param config İstemci sunucusu ayarları (leader.conf + komut satırı): client_io,
+     *               client_workers, client_queue, max_connections, thread_mode,
+     *               replication_transport, location_index_dir, placement, repair_bandwidth,
+     *               hint_dir, anti_entropy_interval, read_strategy, metrics_port,
+     *               request_log_sample
+     */
+    public LeaderServer(int clientPort, int grpcPort, int tolerance, ConfigReader config) {
         this.clientPort = clientPort;
         this.grpcPort = grpcPort;
-        this.memberManager = new MemberManager(tolerance);
-        this.config = new ConfigReader();
+        this.config = config;
+        this.clientIOMode = ClientIOMode.valueOf(
+                config.getValue("client_io", ClientIOMode.BLOCKING.name()).toUpperCase());
+
+        ThreadMode mode = ThreadMode.valueOf(
+                config.getValue("thread_mode", ThreadMode.PLATFORM.name()).toUpperCase());
+        if (mode == ThreadMode.VIRTUAL && !VirtualThreads.isSupported()) {
+            System.out.println("[CONFIG] Virtual thread desteklenmiyor (Java 21+ gerekli), PLATFORM kullanılıyor.");
+            mode = ThreadMode.PLATFORM;
+        }
+        this.threadMode = mode;
+        this.rpcExecutor = mode == ThreadMode.VIRTUAL ? VirtualThreads.newPerTaskExecutor() : null;
+        MemberManager.ReplicationTransport transport = MemberManager.ReplicationTransport.valueOf(
+                config.getValue("replication_transport", MemberManager.ReplicationTransport.BATCH.name())
+                        .toUpperCase());
+        MemberManager.PlacementStrategy placement = MemberManager.PlacementStrategy.valueOf(
+                config.getValue("placement", MemberManager.PlacementStrategy.ROUND_ROBIN.name()).toUpperCase());
+        // RENDEZVOUS modunda yerleşim mesaj ID'sinden hesaplanır; dizinde yalnızca yerleşim geçmişi tutulur
+        String locationIndexDir = config.getValue("location_index_dir", DEFAULT_LOCATION_INDEX_DIR);
+        String hintDir = config.getValue("hint_dir", DEFAULT_HINT_DIR);
+        this.memberManager = new MemberManager(tolerance, rpcExecutor, transport,
+                locationIndexDir.equalsIgnoreCase("none") ? null : Paths.get(locationIndexDir), placement,
+                hintDir.equalsIgnoreCase("none") ? null : Paths.get(hintDir));
+        memberManager.setRepairBandwidth(config.getLongValue("repair_bandwidth",
+                RepairService.DEFAULT_BANDWIDTH_BYTES_PER_SECOND));
+        memberManager.setAntiEntropyInterval(config.getLongValue("anti_entropy_interval",
+                AntiEntropyService.DEFAULT_INTERVAL_SECONDS));
+        memberManager.setReadStrategy(MemberManager.ReadStrategy.valueOf(
+                config.getValue("read_strategy", MemberManager.ReadStrategy.SEQUENTIAL.name()).toUpperCase()));
+
+        MetricsRegistry metrics = MetricsRegistry.getDefault();
+        for (String command : new String[] {HaToKuSeProtocol.CMD_SET, HaToKuSeProtocol.CMD_GET,
+                HaToKuSeProtocol.CMD_DEL, HaToKuSeProtocol.CMD_MSET, HaToKuSeProtocol.CMD_MGET,
+                HaToKuSeProtocol.CMD_MDEL}) {
+            String op = command.toLowerCase();
+            requestTimers.put(command, metrics.timer("hatokuse_leader_request_seconds",
+                    "İstemci komutunun lider tarafında işlenme süresi", "op", op));
+            requestErrors.put(command, metrics.counter("hatokuse_leader_request_errors_total",
+                    "ERROR ile yanıtlanan istemci komutları", "op", op));
+        }
+        this.requestLogSample = config.getIntValue("request_log_sample", DEFAULT_REQUEST_LOG_SAMPLE);
     }
 
     /**
@@ -50,6 +164,11 @@ public class LeaderServer {
         System.out.println("========================================");
         System.out.println("İstemci portu: " + clientPort);
         System.out.println("gRPC portu: " + grpcPort);
+        System.out.println("İstemci IO modu: " + clientIOMode);
+        System.out.println("Thread modu: " + threadMode);
+        System.out.println("Replikasyon taşıma: " + memberManager.getTransport());
+        System.out.println("Yerleşim: " + memberManager.getPlacement());
+        System.out.println("Okuma stratejisi: " + memberManager.getReadStrategy());
 
         // gRPC sunucusunu başlat
         startGrpcServer();
@@ -60,6 +179,9 @@ public class LeaderServer {
         // Periyodik istatistik yazdırma
         startStatsReporter();
 
+        // Metrikler: JMX her zaman, Prometheus uç noktası metrics_port verilirse
+        startMetrics();
+
         System.out.println("Lider sunucu başlatıldı.");
         System.out.println("Üyelerin bağlanması bekleniyor...");
     }
@@ -68,10 +190,12 @@ public class LeaderServer {
      * gRPC sunucusunu başlatır (üye bağlantıları için).
      */
     private void startGrpcServer() throws IOException {
-        grpcServer = ServerBuilder.forPort(grpcPort)
-                .addService(new LeaderServiceImpl(memberManager))
-                .build()
-                .start();
+        ServerBuilder<?> builder = ServerBuilder.forPort(grpcPort)
+                .addService(new LeaderServiceImpl(memberManager));
+        if (rpcExecutor != null) {
+            builder.executor(rpcExecutor);
+        }
+        grpcServer = builder.build().start();
 
         System.out.println("[GRPC] Sunucu başlatıldı, port: " + grpcPort);
 
@@ -86,8 +210,15 @@ public class LeaderServer {
      * İstemci sunucusunu başlatır (text tabanlı bağlantılar için).
      */
     private void startClientServer() throws IOException {
+        if (clientIOMode == ClientIOMode.NIO) {
+            startNioClientServer();
+            return;
+        }
+
         clientServerSocket = new ServerSocket(clientPort);
-        clientExecutor = Executors.newCachedThreadPool();
+        clientExecutor = threadMode == ThreadMode.VIRTUAL
+                ? VirtualThreads.newPerTaskExecutor()
+                : Executors.newCachedThreadPool();
 
         System.out.println("[CLIENT] Sunucu başlatıldı, port: " + clientPort);
 
@@ -96,11 +227,11 @@ public class LeaderServer {
             while (running) {
                 try {
                     Socket clientSocket = clientServerSocket.accept();
-                    System.out.println("[CLIENT] Yeni bağlantı: " + clientSocket.getRemoteSocketAddress());
+                    log.debug("[CLIENT] Yeni bağlantı: {}", clientSocket.getRemoteSocketAddress());
                     clientExecutor.submit(() -> handleClient(clientSocket));
                 } catch (IOException e) {
                     if (running) {
-                        System.err.println("[CLIENT] Bağlantı kabul hatası: " + e.getMessage());
+                        log.warn("[CLIENT] Bağlantı kabul hatası: {}", e.getMessage());
                     }
                 }
             }
@@ -109,22 +240,52 @@ public class LeaderServer {
         acceptThread.start();
     }
 
+    /**
+     * Non-blocking (selector) istemci sunucusunu başlatır.
+     */
+    private void startNioClientServer() throws IOException {
+        int workers = config.getIntValue("client_workers", DEFAULT_CLIENT_WORKERS);
+        int queueCapacity = config.getIntValue("client_queue", DEFAULT_CLIENT_QUEUE);
+        int maxConnections = config.getIntValue("max_connections", DEFAULT_MAX_CONNECTIONS);
+
+        nioClientServer = new NioClientServer(clientPort, this::processCommand, workers, queueCapacity,
+                maxConnections);
+        nioClientServer.start();
+
+        System.out.println("[CLIENT] NIO sunucu başlatıldı, port: " + clientPort + " (worker: " + workers
+                + ", maks. bağlantı: " + maxConnections + ")");
+    }
+
     /**
      * İstemci bağlantısını işler.
+     * Komutlar yanıt beklenmeden okunur ve CommandPipeline ile eşzamanlı
+     * işlenir; yanıtlar istek sırasıyla yazılır. Yanıtı beklenen komut sayısı
+     * MAX_PIPELINED_COMMANDS'a ulaşınca okuma bekletilir.
      */
     private void handleClient(Socket socket) {
         try (
                 BufferedReader reader = new BufferedReader(new InputStreamReader(socket.getInputStream()));
                 PrintWriter writer = new PrintWriter(socket.getOutputStream(), true)) {
+            Semaphore inFlight = new Semaphore(MAX_PIPELINED_COMMANDS);
+            CommandPipeline pipeline = new CommandPipeline(this::processCommand, clientExecutor, response -> {
+                writer.println(response);
+                log.debug("[CLIENT] Yanıt gönderildi: {}", response);
+                inFlight.release();
+            });
+
             String line;
             while ((line = reader.readLine()) != null) {
-                System.out.println("[CLIENT] Komut alındı: " + line);
-                String response = processCommand(line);
-                writer.println(response);
-                System.out.println("[CLIENT] Yanıt gönderildi: " + response);
+                log.debug("[CLIENT] Komut alındı: {}", line);
+                inFlight.acquire();
+                pipeline.submit(line);
             }
+
+            // Bağlantı kapanmadan önce bekleyen yanıtları gönder
+            pipeline.drain().join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
         } catch (IOException e) {
-            System.err.println("[CLIENT] İstemci işleme hatası: " + e.getMessage());
+            log.warn("[CLIENT] İstemci işleme hatası: {}", e.getMessage());
         } finally {
             try {
                 socket.close();
@@ -135,21 +296,58 @@ public class LeaderServer {
     }
 
     /**
-     * Komutu işler ve yanıt döner.
+     * Komutu işler ve yanıt döner; geçerli komutların süresi komut türüne göre ölçülür.
      */
-    private String processCommand(String rawCommand) {
-        HaToKuSeProtocol.ParsedCommand cmd = HaToKuSeProtocol.parseCommand(rawCommand);
-
+    private String processCommand(HaToKuSeProtocol.ParsedCommand cmd) {
         if (!cmd.isValid()) {
             return HaToKuSeProtocol.createErrorResponse(cmd.getError());
         }
 
+        LatencyTimer timer = requestTimers.get(cmd.getCommandType());
+        if (timer == null) {
+            return executeCommand(cmd);
+        }
+        long start = System.nanoTime();
+        String response = executeCommand(cmd);
+        long elapsed = System.nanoTime() - start;
+        timer.record(elapsed);
+        boolean error = response.startsWith(HaToKuSeProtocol.RESP_ERROR);
+        if (error) {
+            requestErrors.get(cmd.getCommandType()).inc();
+        }
+        if (requestLogSample > 0 && ThreadLocalRandom.current().nextInt(requestLogSample) == 0
+                && requestLog.isInfoEnabled()) {
+            logSampledRequest(cmd, elapsed, error ? response : HaToKuSeProtocol.RESP_OK);
+        }
+        return response;
+    }
+
+    /**
+     * Örneklenen isteği tek satırda kaydeder: komut, mesaj ID'si (çoklu
+     * komutlarda ilk ID ve sayı), süre ve sonuç. Örnekleme rastgeledir,
+     * thread'ler arasında paylaşılan sayaç yoktur.
+     */
+    private void logSampledRequest(HaToKuSeProtocol.ParsedCommand cmd, long elapsedNanos, String result) {
+        List<String> ids = cmd.getMessageIds();
+        String target = ids.isEmpty() ? "-"
+                : ids.size() == 1 ? ids.get(0) : ids.get(0) + " (+" + (ids.size() - 1) + ")";
+        requestLog.info("[REQUEST] {} {} {} us -> {} (1/{})", cmd.getCommandType(), target,
+                elapsedNanos / 1000, result, requestLogSample);
+    }
+
+    private String executeCommand(HaToKuSeProtocol.ParsedCommand cmd) {
         if (cmd.isSet()) {
             return handleSetCommand(cmd.getMessageId(), cmd.getMessageContent());
         } else if (cmd.isGet()) {
             return handleGetCommand(cmd.getMessageId());
         } else if (cmd.isDel()) {
             return handleDelCommand(cmd.getMessageId());
+        } else if (cmd.isMSet()) {
+            return handleMSetCommand(cmd.getMessages());
+        } else if (cmd.isMGet()) {
+            return handleMGetCommand(cmd.getMessageIds());
+        } else if (cmd.isMDel()) {
+            return handleMDelCommand(cmd.getMessageIds());
         } else {
             return HaToKuSeProtocol.createErrorResponse("Bilinmeyen komut");
         }
@@ -169,31 +367,30 @@ public class LeaderServer {
         if (activeMemberCount < tolerance) {
             String errorMsg = "Yetersiz üye sayısı! Aktif: " + activeMemberCount + ", Gerekli (tolerance): "
                     + tolerance;
-            System.out.println("[LEADER] HATA: " + errorMsg);
+            log.warn("[LEADER] HATA: {}", errorMsg);
             return HaToKuSeProtocol.createErrorResponse(errorMsg);
         }
 
         // Replikasyon için üyeleri seç
-        List<MemberManager.MemberInfo> targetMembers = memberManager.selectMembersForReplication();
+        List<MemberManager.MemberInfo> targetMembers = memberManager.selectMembersForReplication(messageId);
 
         if (targetMembers.isEmpty()) {
             return HaToKuSeProtocol.createErrorResponse("Aktif üye bulunamadı");
         }
 
-        System.out.println("[LEADER] SET " + messageId + " -> " + targetMembers.size()
-                + " üyeye gönderiliyor (tolerance: " + tolerance + ")");
+        log.debug("[LEADER] SET {} -> {} üyeye gönderiliyor (tolerance: {})", messageId, targetMembers.size(),
+                tolerance);
 
         // Mesajı replike et
         int successCount = memberManager.replicateMessage(messageId, content, targetMembers);
 
         // Tolerance değeri kadar başarılı replikasyon olmalı
         if (successCount >= tolerance) {
-            System.out.println(
-                    "[LEADER] Mesaj kaydedildi: " + messageId + " (" + successCount + "/" + tolerance + " üyede)");
+            log.debug("[LEADER] Mesaj kaydedildi: {} ({}/{} üyede)", messageId, successCount, tolerance);
             return HaToKuSeProtocol.createOkResponse();
         } else if (successCount > 0) {
             String warningMsg = "Kısmi replikasyon: " + successCount + "/" + tolerance + " üyede kayıt yapıldı";
-            System.out.println("[LEADER] UYARI: " + warningMsg);
+            log.warn("[LEADER] UYARI: {}", warningMsg);
             return HaToKuSeProtocol.createErrorResponse(warningMsg);
         } else {
             return HaToKuSeProtocol.createErrorResponse("Replikasyon başarısız");
@@ -204,7 +401,7 @@ public class LeaderServer {
      * GET komutunu işler.
      */
     private String handleGetCommand(String messageId) {
-        System.out.println("[LEADER] GET " + messageId);
+        log.debug("[LEADER] GET {}", messageId);
 
         String content = memberManager.getMessageFromMembers(messageId);
 
@@ -219,18 +416,77 @@ public class LeaderServer {
      * DEL komutunu işler.
      */
     private String handleDelCommand(String messageId) {
-        System.out.println("[LEADER] DEL " + messageId);
+        log.debug("[LEADER] DEL {}", messageId);
 
         boolean success = memberManager.deleteMessageFromMembers(messageId);
 
         if (success) {
-            System.out.println("[LEADER] Mesaj silindi: " + messageId);
+            log.debug("[LEADER] Mesaj silindi: {}", messageId);
             return HaToKuSeProtocol.createOkResponse();
         } else {
             return HaToKuSeProtocol.createErrorResponse("Mesaj silinemedi veya bulunamadı: " + messageId);
         }
     }
 
+    /**
+     * MSET komutunu işler.
+     * Mesajlar replikasyon gruplarına göre gruplanıp eşzamanlı replike edilir;
+     * her mesaj için SET ile aynı tolerance kuralı geçerlidir.
+     */
+    private String handleMSetCommand(Map<String, String> messages) {
+        int tolerance = memberManager.getTolerance();
+        int activeMemberCount = memberManager.getActiveMemberCount();
+
+        if (activeMemberCount < tolerance) {
+            String errorMsg = "Yetersiz üye sayısı! Aktif: " + activeMemberCount + ", Gerekli (tolerance): "
+                    + tolerance;
+            log.warn("[LEADER] HATA: {}", errorMsg);
+            return HaToKuSeProtocol.createErrorResponse(errorMsg);
+        }
+
+        log.debug("[LEADER] MSET {} mesaj (tolerance: {})", messages.size(), tolerance);
+
+        Map<String, Integer> results = memberManager.replicateMessages(messages);
+
+        List<String> failed = new ArrayList<>();
+        for (String messageId : messages.keySet()) {
+            if (results.getOrDefault(messageId, 0) < tolerance) {
+                failed.add(messageId);
+            }
+        }
+
+        int stored = messages.size() - failed.size();
+        if (failed.isEmpty()) {
+            log.debug("[LEADER] MSET tamamlandı: {} mesaj", stored);
+            return HaToKuSeProtocol.createOkResponse(String.valueOf(stored));
+        }
+
+        String warningMsg = "Kısmi replikasyon: " + stored + "/" + messages.size()
+                + " mesaj kaydedildi, başarısız: " + String.join(" ", failed);
+        log.warn("[LEADER] UYARI: {}", warningMsg);
+        return HaToKuSeProtocol.createErrorResponse(warningMsg);
+    }
+
+    /**
+     * MGET komutunu işler.
+     */
+    private String handleMGetCommand(List<String> messageIds) {
+        log.debug("[LEADER] MGET {} mesaj", messageIds.size());
+
+        Map<String, String> messages = memberManager.getMessagesFromMembers(messageIds);
+        return HaToKuSeProtocol.createMGetResponse(messageIds, messages);
+    }
+
+    /**
+     * MDEL komutunu işler.
+     */
+    private String handleMDelCommand(List<String> messageIds) {
+        log.debug("[LEADER] MDEL {} mesaj", messageIds.size());
+
+        int deleted = memberManager.deleteMessagesFromMembers(messageIds);
+        return HaToKuSeProtocol.createOkResponse(String.valueOf(deleted));
+    }
+
     /**
      * Periyodik istatistik raporlayıcısını başlatır.
      */
@@ -241,6 +497,24 @@ public class LeaderServer {
         }, STATS_INTERVAL, STATS_INTERVAL, TimeUnit.SECONDS);
     }
 
+    /**
+     * Metrikleri JMX'e bağlar ve metrics_port > 0 ise Prometheus uç noktasını açar.
+     */
+    private void startMetrics() {
+        JmxExporter.register(MetricsRegistry.getDefault());
+        int metricsPort = config.getIntValue("metrics_port", 0);
+        if (metricsPort <= 0) {
+            return;
+        }
+        try {
+            metricsExporter = new PrometheusExporter(MetricsRegistry.getDefault(), metricsPort);
+            metricsExporter.start();
+            System.out.println("[METRICS] Prometheus uç noktası: http://localhost:" + metricsPort + "/metrics");
+        } catch (IOException e) {
+            System.err.println("[METRICS] Uç nokta açılamadı, port " + metricsPort + ": " + e.getMessage());
+        }
+    }
+
     /**
      * Sunucuyu kapatır.
      */
@@ -251,6 +525,10 @@ public class LeaderServer {
             statsScheduler.shutdown();
         }
 
+        if (metricsExporter != null) {
+            metricsExporter.close();
+        }
+
         if (clientExecutor != null) {
             clientExecutor.shutdown();
         }
@@ -263,12 +541,20 @@ public class LeaderServer {
             }
         }
 
+        if (nioClientServer != null) {
+            nioClientServer.close();
+        }
+
         if (grpcServer != null) {
             grpcServer.shutdown();
         }
 
         memberManager.shutdown();
 
+        if (rpcExecutor != null) {
+            rpcExecutor.shutdown();
+        }
+
         System.out.println("Lider sunucu kapatıldı.");
     }
 
@@ -280,6 +566,14 @@ public class LeaderServer {
         int grpcPort = DEFAULT_GRPC_PORT;
         int tolerance = 2;
 
+        // leader.conf varsa oku; komut satırı değerleri bunları geçersiz kılar
+        ConfigReader leaderConfig = new ConfigReader();
+        try {
+            leaderConfig.loadConfig(DEFAULT_CONFIG_FILE);
+        } catch (IOException e) {
+            System.out.println("[CONFIG] " + DEFAULT_CONFIG_FILE + " okunamadı, varsayılan ayarlar kullanılıyor.");
+        }
+
         // Komut satırı argümanlarını işle
         for (int i = 0; i < args.length; i++) {
             switch (args[i]) {
@@ -298,6 +592,71 @@ public class LeaderServer {
                         tolerance = Integer.parseInt(args[++i]);
                     }
                     break;
+                case "--client-io":
+                    if (i + 1 < args.length) {
+                        leaderConfig.setValue("client_io", args[++i]);
+                    }
+                    break;
+                case "--client-workers":
+                    if (i + 1 < args.length) {
+                        leaderConfig.setValue("client_workers", args[++i]);
+                    }
+                    break;
+                case "--threads":
+                    if (i + 1 < args.length) {
+                        leaderConfig.setValue("thread_mode", args[++i]);
+                    }
+                    break;
+                case "--max-connections":
+                    if (i + 1 < args.length) {
+                        leaderConfig.setValue("max_connections", args[++i]);
+                    }
+                    break;
+                case "--replication-transport":
+                    if (i + 1 < args.length) {
+                        leaderConfig.setValue("replication_transport", args[++i]);
+                    }
+                    break;
+                case "--location-index-dir":
+                    if (i + 1 < args.length) {
+                        leaderConfig.setValue("location_index_dir", args[++i]);
+                    }
+                    break;
+                case "--placement":
+                    if (i + 1 < args.length) {
+                        leaderConfig.setValue("placement", args[++i]);
+                    }
+                    break;
+                case "--repair-bandwidth":
+                    if (i + 1 < args.length) {
+                        leaderConfig.setValue("repair_bandwidth", args[++i]);
+                    }
+                    break;
+                case "--hint-dir":
+                    if (i + 1 < args.length) {
+                        leaderConfig.setValue("hint_dir", args[++i]);
+                    }
+                    break;
+                case "--anti-entropy-interval":
+                    if (i + 1 < args.length) {
+                        leaderConfig.setValue("anti_entropy_interval", args[++i]);
+                    }
+                    break;
+                case "--read-strategy":
+                    if (i + 1 < args.length) {
+                        leaderConfig.setValue("read_strategy", args[++i]);
+                    }
+                    break;
+                case "--metrics-port":
+                    if (i + 1 < args.length) {
+                        leaderConfig.setValue("metrics_port", args[++i]);
+                    }
+                    break;
+                case "--request-log-sample":
+                    if (i + 1 < args.length) {
+                        leaderConfig.setValue("request_log_sample", args[++i]);
+                    }
+                    break;
                 case "--help":
                     printUsage();
                     return;
@@ -316,7 +675,7 @@ public class LeaderServer {
         }
 
         try {
-            LeaderServer server = new LeaderServer(clientPort, grpcPort, tolerance);
+            LeaderServer server = new LeaderServer(clientPort, grpcPort, tolerance, leaderConfig);
             server.start();
 
             // Kapanma bekle
@@ -336,6 +695,22 @@ public class LeaderServer {
         System.out.println("  --client-port <port>  İstemci bağlantı portu (varsayılan: 5000)");
         System.out.println("  --grpc-port <port>    gRPC sunucu portu (varsayılan: 5001)");
         System.out.println("  --tolerance <n>       Hata tolerans değeri (varsayılan: tolerance.conf)");
+        System.out.println("  --client-io <mod>     İstemci IO modu: blocking, nio (varsayılan: blocking)");
+        System.out.println("  --client-workers <n>  NIO modunda komut işleyen worker sayısı (varsayılan: 64)");
+        System.out.println("  --max-connections <n> NIO modunda maksimum bağlantı sayısı (varsayılan: 10000)");
+        System.out.println("  --threads <mod>       Thread modu: platform, virtual (Java 21+, varsayılan: platform)");
+        System.out.println("  --replication-transport <mod>  Replikasyon taşıma biçimi: unary, batch, stream");
+        System.out.println("                        (varsayılan: batch)");
+        System.out.println("  --location-index-dir <dizin>   Mesaj konum indeksi dizini (none: yalnızca bellek)");
+        System.out.println("                        (varsayılan: ./data/leader)");
+        System.out.println("  --placement <mod>     Yerleşim: round_robin, rendezvous (varsayılan: round_robin)");
+        System.out.println("  --repair-bandwidth <n>  Replika onarımı bant genişliği, byte/sn (varsayılan: 8MB, 0: sınırsız)");
+        System.out.println("  --hint-dir <dizin>    Hinted handoff ipucu dizini (none: kapalı, varsayılan: ./data/leader/hints)");
+        System.out.println("  --anti-entropy-interval <sn>  Anti-entropy tur aralığı (0: kapalı, varsayılan: 60)");
+        System.out.println("  --read-strategy <mod> GET replika seçimi: sequential, fastest, hedged");
+        System.out.println("                        (varsayılan: sequential)");
+        System.out.println("  --metrics-port <port> Prometheus metrik uç noktası portu (0: kapalı, varsayılan: 0)");
+        System.out.println("  --request-log-sample <n>  Her n istekten birini kaydeder (0: kapalı, varsayılan: 1000)");
         System.out.println("  --help                Bu yardım mesajını gösterir");
     }
 }
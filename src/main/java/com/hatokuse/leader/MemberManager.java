@@ -1,13 +1,25 @@
 package com.hatokuse.leader;
 
+import com.hatokuse.metrics.Counter;
+import com.hatokuse.metrics.LatencyTimer;
+import com.hatokuse.metrics.MetricsRegistry;
 import com.hatokuse.proto.*;
+import com.hatokuse.storage.MerkleDigest;
 import io.grpc.ManagedChannel;
 import io.grpc.ManagedChannelBuilder;
-import io.grpc.StatusRuntimeException;
+import io.grpc.Status;
+import io.grpc.stub.StreamObserver;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
+import java.io.IOException;
+import java.nio.file.Path;
 import java.util.*;
 import java.util.concurrent.*;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
 
 /**
  * Üye yönetimi sınıfı.
@@ -15,11 +27,57 @@ import java.util.concurrent.atomic.AtomicInteger;
  */
 public class MemberManager {
 
+    private static final Logger log = LoggerFactory.getLogger(MemberManager.class);
+
+    /**
+     * Lider -> üye replikasyon taşıma biçimi.
+     * UNARY: mesaj başına ReplicateMessage çağrısı.
+     * BATCH: aynı üyeye giden eşzamanlı mesajlar ReplicateBatch ile toplu gönderilir.
+     * STREAM: üye başına uzun ömürlü ReplicationStream akışı, kümülatif onay.
+     */
+    public enum ReplicationTransport {
+        UNARY,
+        BATCH,
+        STREAM
+    }
+
+    /**
+     * Mesajın hangi üyelere yerleştirileceği.
+     * ROUND_ROBIN: gruplar sırayla seçilir, yerleşim konum indeksinde tutulur.
+     * RENDEZVOUS: her üye için hash(mesaj ID, üye ID) puanı hesaplanır, en yüksek
+     * puanlı tolerance kadar aktif üye seçilir (HRW). Yerleşim mesaj ID'sinden
+     * türetildiği için mesaj başına kayıt tutulmaz; üye eklenip çıkınca
+     * anahtarların yalnızca ~1/N'i yer değiştirir.
+     * Bu modda onarım ve anti-entropy çalışmaz, yeniden dengeleme yapılmaz:
+     * üye çıkınca üzerindeki kopyalar yeniden üretilmez, üye eklenince mevcut
+     * mesajlar yeni hedeflerine taşınmaz. Üyelik değiştikçe replika sayısı
+     * tolerance'ın altına düşebilir.
+     */
+    public enum PlacementStrategy {
+        ROUND_ROBIN,
+        RENDEZVOUS
+    }
+
+    /**
+     * GET'te mesajın hangi replikadan okunacağı.
+     * SEQUENTIAL: replikalar yerleşim sırasıyla denenir.
+     * FASTEST: replikalar gecikme EWMA'sı × (uçuştaki okuma + 1) puanına göre
+     * sıralanır; istatistikleri taze tutmak için bazı okumalar rastgele replikadan başlar.
+     * HEDGED: FASTEST sırasındaki ilk replikaya istek gider; onun p95 gecikmesi
+     * içinde yanıt gelmezse sonraki replikaya da gönderilir, ilk bulunan yanıt kullanılır.
+     * Her durumda bulunamayan veya hata veren replikadan sonrakine geçilir.
+     */
+    public enum ReadStrategy {
+        SEQUENTIAL,
+        FASTEST,
+        HEDGED
+    }
+
     // Kayıtlı üyeler
     private final ConcurrentHashMap<String, MemberInfo> members;
 
-    // Mesaj ID -> Üye listesi eşleştirmesi (hangi mesaj hangi üyelerde var)
-    private final ConcurrentHashMap<String, Set<String>> messageToMembers;
+    // Mesaj ID -> Üye grubu eşleştirmesi (hangi mesaj hangi üyelerde var)
+    private final MessageLocationIndex messageLocations;
 
     // Yük dengeleme için grup sayacı
     private final AtomicInteger groupCounter;
@@ -30,18 +88,185 @@ public class MemberManager {
     // Heartbeat timeout (ms)
     private static final long HEARTBEAT_TIMEOUT = 10000;
 
+    // Replikasyon isteği başına süre sınırı (ms)
+    private static final long REPLICATION_DEADLINE_MS = 5000;
+
+    // FASTEST/HEDGED: her EXPLORE_EVERY okumadan biri rastgele replikadan başlar
+    private static final int EXPLORE_EVERY = 64;
+
+    // HEDGED: p95 için gereken en az örnek; yetersizse sabit bekleme kullanılır
+    private static final int HEDGE_MIN_SAMPLES = 20;
+    private static final long HEDGE_DEFAULT_DELAY_MS = 20;
+    private static final long HEDGE_MIN_DELAY_MICROS = 500;
+
     // Health check scheduler
     private final ScheduledExecutorService scheduler;
 
+    // gRPC kanal callback'lerinin çalıştığı executor (null ise gRPC varsayılanı)
+    private final Executor rpcExecutor;
+
+    // Replikasyon ve silme işlemlerinin üyeye taşınma biçimi
+    private final ReplicationTransport transport;
+
+    // Mesaj -> üye yerleşim stratejisi
+    private final PlacementStrategy placement;
+
+    // RENDEZVOUS: yazma anındaki aktif üye kümeleri; GET ıskasında denenecek üyeleri daraltır
+    private final PlacementHistory placementHistory;
+
+    // Eksik replikaları yeniden çoğaltan servis (yalnızca konum indeksi olan ROUND_ROBIN modunda)
+    private final RepairService repairService;
+
+    // Erişilemeyen üyelere yazılamayan işlemlerin ipucu kaydı (null ise kapalı)
+    private final HintedHandoff hints;
+
+    // Üyelerin hash ağaçlarını konum indeksiyle karşılaştıran servis (yalnızca ROUND_ROBIN modunda)
+    private final AntiEntropyService antiEntropy;
+
+    // GET replika seçimi ve hedged okuma zamanlayıcısı
+    private volatile ReadStrategy readStrategy = ReadStrategy.SEQUENTIAL;
+    private final ScheduledExecutorService hedgeTimer;
+    private final AtomicLong readCounter = new AtomicLong();
+    private final LongAdder hedgedReads = new LongAdder();
+    private final LongAdder hedgeWins = new LongAdder();
+
     public MemberManager(int tolerance) {
+        this(tolerance, null);
+    }
+
+    /**
+     * @param rpcExecutor Üye kanallarının executor'ı (ör. virtual thread executor)
+     */
+    public MemberManager(int tolerance, Executor rpcExecutor) {
+        this(tolerance, rpcExecutor, ReplicationTransport.BATCH);
+    }
+
+    public MemberManager(int tolerance, Executor rpcExecutor, ReplicationTransport transport) {
+        this(tolerance, rpcExecutor, transport, null);
+    }
+
+    /**
+     * @param locationIndexDirectory Mesaj konum indeksinin log/snapshot dizini;
+     *                               null ise indeks yalnızca bellekte tutulur
+     */
+    public MemberManager(int tolerance, Executor rpcExecutor, ReplicationTransport transport,
+            Path locationIndexDirectory) {
+        this(tolerance, rpcExecutor, transport, locationIndexDirectory, PlacementStrategy.ROUND_ROBIN);
+    }
+
+    /**
+     * @param placement RENDEZVOUS modunda konum indeksine yazılmaz; dizinde yalnızca
+     *                  yerleşim geçmişi tutulur (null ise GET ıskasında tüm üyeler denenir)
+     */
+    public MemberManager(int tolerance, Executor rpcExecutor, ReplicationTransport transport,
+            Path locationIndexDirectory, PlacementStrategy placement) {
+        this(tolerance, rpcExecutor, transport, locationIndexDirectory, placement, null);
+    }
+
+    /**
+     * @param hintDirectory Hinted handoff ipucu dosyalarının dizini; null ise
+     *                      erişilemeyen üyeye yazılamayan replika kaybolur
+     */
+    public MemberManager(int tolerance, Executor rpcExecutor, ReplicationTransport transport,
+            Path locationIndexDirectory, PlacementStrategy placement, Path hintDirectory) {
         this.tolerance = tolerance;
+        this.rpcExecutor = rpcExecutor;
+        this.transport = transport;
+        this.placement = placement;
         this.members = new ConcurrentHashMap<>();
-        this.messageToMembers = new ConcurrentHashMap<>();
+        this.placementHistory = placement == PlacementStrategy.RENDEZVOUS
+                ? PlacementHistory.open(locationIndexDirectory)
+                : null;
+        this.messageLocations = openLocationIndex(
+                placement == PlacementStrategy.ROUND_ROBIN ? locationIndexDirectory : null);
+        this.repairService = placement == PlacementStrategy.ROUND_ROBIN
+                ? new RepairService(this, messageLocations)
+                : null;
+        this.hints = openHints(hintDirectory);
+        this.antiEntropy = placement == PlacementStrategy.ROUND_ROBIN
+                ? new AntiEntropyService(this, messageLocations)
+                : null;
         this.groupCounter = new AtomicInteger(0);
         this.scheduler = Executors.newScheduledThreadPool(1);
+        this.hedgeTimer = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "read-hedge");
+            thread.setDaemon(true);
+            return thread;
+        });
 
         // Periyodik health check başlat
         startHealthCheck();
+        if (messageLocations.isPersistent()) {
+            scheduler.scheduleWithFixedDelay(messageLocations::maybeSnapshot, 10, 10, TimeUnit.SECONDS);
+        }
+        registerMetrics(MetricsRegistry.getDefault());
+    }
+
+    /**
+     * Üye, konum indeksi, onarım, ipucu ve anti-entropy durumunu metrik olarak
+     * yayınlar. Değerler scrape anında mevcut sayaçlardan okunur.
+     */
+    private void registerMetrics(MetricsRegistry metrics) {
+        metrics.gauge("hatokuse_members", "Kayıtlı üye sayısı", this::getMemberCount);
+        metrics.gauge("hatokuse_members_active", "Sağlıklı üye sayısı", this::getActiveMemberCount);
+        metrics.gauge("hatokuse_location_index_entries", "Konum indeksindeki mesaj sayısı",
+                messageLocations::size);
+        metrics.gauge("hatokuse_location_index_bytes", "Konum indeksinin tahmini bellek kullanımı",
+                messageLocations::getMemoryBytes);
+        metrics.counterFunction("hatokuse_hedged_reads_total", "Gönderilen hedge okuma isteği",
+                hedgedReads::sum);
+        metrics.counterFunction("hatokuse_hedge_wins_total", "Hedge isteğinin önce yanıt verdiği okuma",
+                hedgeWins::sum);
+        if (repairService != null) {
+            metrics.counterFunction("hatokuse_repair_messages_total", "Onarılan replika sayısı",
+                    repairService::getRepairedMessages);
+            metrics.counterFunction("hatokuse_repair_bytes_total", "Onarım için kopyalanan bayt",
+                    repairService::getRepairedBytes);
+            metrics.counterFunction("hatokuse_repair_failures_total", "Başarısız onarım denemesi",
+                    repairService::getFailedRepairs);
+        }
+        if (hints != null) {
+            metrics.gauge("hatokuse_hints_pending", "Teslim bekleyen ipucu", hints::getPendingCount);
+            metrics.counterFunction("hatokuse_hints_recorded_total", "Kaydedilen ipucu",
+                    hints::getRecordedHints);
+            metrics.counterFunction("hatokuse_hints_replayed_total", "Teslim edilen ipucu",
+                    hints::getReplayedHints);
+            metrics.counterFunction("hatokuse_hints_dropped_total", "Süresi dolup atılan ipucu",
+                    hints::getDroppedHints);
+        }
+        if (antiEntropy != null) {
+            metrics.counterFunction("hatokuse_anti_entropy_rounds_total", "Tamamlanan anti-entropy turu",
+                    antiEntropy::getRoundCount);
+            metrics.counterFunction("hatokuse_anti_entropy_repaired_total", "Anti-entropy ile onarılan replika",
+                    antiEntropy::getRepairedMessages);
+            metrics.gauge("hatokuse_anti_entropy_last_orphans", "Son turda bulunan yetim replika",
+                    antiEntropy::getLastOrphans);
+            metrics.gauge("hatokuse_anti_entropy_last_conflicts", "Son turda bulunan içerik çakışması",
+                    antiEntropy::getLastConflicts);
+        }
+    }
+
+    private static MessageLocationIndex openLocationIndex(Path directory) {
+        if (directory != null) {
+            try {
+                return new MessageLocationIndex(directory);
+            } catch (IOException e) {
+                System.err.println("[MEMBER_MANAGER] Konum indeksi açılamadı, bellekte tutulacak: " + e.getMessage());
+            }
+        }
+        return new MessageLocationIndex();
+    }
+
+    private HintedHandoff openHints(Path directory) {
+        if (directory == null) {
+            return null;
+        }
+        try {
+            return new HintedHandoff(this, directory);
+        } catch (IOException e) {
+            System.err.println("[MEMBER_MANAGER] İpucu dizini açılamadı, hinted handoff kapalı: " + e.getMessage());
+            return null;
+        }
     }
 
     /**
@@ -53,8 +278,14 @@ public class MemberManager {
             return false;
         }
 
-        MemberInfo info = new MemberInfo(memberId, host, port);
+        MemberInfo info = new MemberInfo(memberId, host, port, rpcExecutor, transport);
         members.put(memberId, info);
+        if (repairService != null) {
+            repairService.trigger();
+        }
+        if (hints != null) {
+            hints.replayIfPending(info);
+        }
         System.out.println("[MEMBER_MANAGER] Yeni üye kaydedildi: " + memberId + " (" + host + ":" + port + ")");
         System.out.println("[MEMBER_MANAGER] Toplam üye sayısı: " + members.size());
         return true;
@@ -67,7 +298,11 @@ public class MemberManager {
         MemberInfo info = members.remove(memberId);
         if (info != null) {
             info.closeChannel();
+            MetricsRegistry.getDefault().unregister("member", memberId);
             System.out.println("[MEMBER_MANAGER] Üye silindi: " + memberId);
+            if (repairService != null) {
+                repairService.trigger();
+            }
             return true;
         }
         return false;
@@ -78,8 +313,9 @@ public class MemberManager {
      */
     public void updateHeartbeat(String memberId, int messageCount) {
         MemberInfo info = members.get(memberId);
-        if (info != null) {
-            info.updateHeartbeat(messageCount);
+        if (info != null && info.updateHeartbeat(messageCount) && hints != null) {
+            // Üye kesintiden döndü: biriken ipuçlarını uygula
+            hints.replayIfPending(info);
         }
     }
 
@@ -115,105 +351,557 @@ public class MemberManager {
         return selectedMembers;
     }
 
+    /**
+     * Mesaj için replikasyon yapılacak üyeleri yerleşim stratejisine göre seçer.
+     * RENDEZVOUS modunda aktif üye kümesi, yazma gönderilmeden önce yerleşim
+     * geçmişine kaydedilir.
+     */
+    public List<MemberInfo> selectMembersForReplication(String messageId) {
+        if (placement != PlacementStrategy.RENDEZVOUS) {
+            return selectMembersForReplication();
+        }
+
+        List<MemberInfo> activeMembers = getActiveMembers();
+        List<String> activeIds = new ArrayList<>(activeMembers.size());
+        for (MemberInfo member : activeMembers) {
+            activeIds.add(member.getMemberId());
+        }
+        placementHistory.record(activeIds);
+        if (activeMembers.size() < tolerance) {
+            System.out.println("[MEMBER_MANAGER] UYARI: Aktif üye sayısı toleranstan az! " +
+                    "Aktif: " + activeMembers.size() + ", Tolerans: " + tolerance);
+            return activeMembers;
+        }
+        return new ArrayList<>(rankMembers(messageId, activeMembers).subList(0, tolerance));
+    }
+
+    /**
+     * Üyeleri mesaj için rendezvous puanına göre azalan sırada döner.
+     */
+    static List<MemberInfo> rankMembers(String messageId, Collection<MemberInfo> candidates) {
+        long keyHash = hash64(messageId);
+        List<MemberInfo> ranked = new ArrayList<>(candidates);
+        ranked.sort((a, b) -> {
+            int order = Long.compare(score(keyHash, b), score(keyHash, a));
+            return order != 0 ? order : a.getMemberId().compareTo(b.getMemberId());
+        });
+        return ranked;
+    }
+
+    private static long score(long keyHash, MemberInfo member) {
+        return mix64(keyHash ^ member.placementSeed);
+    }
+
+    // rankMembers ile aynı sıra; üye kaydı olmayan ID'ler için (yerleşim geçmişi)
+    private static Comparator<String> byScore(long keyHash) {
+        return (a, b) -> {
+            int order = Long.compare(mix64(keyHash ^ hash64(b)), mix64(keyHash ^ hash64(a)));
+            return order != 0 ? order : a.compareTo(b);
+        };
+    }
+
+    /**
+     * FNV-1a (64 bit) + karıştırma; String.hashCode'dan farklı olarak platformlar arası sabittir.
+     */
+    static long hash64(String value) {
+        long hash = 0xcbf29ce484222325L;
+        for (int i = 0; i < value.length(); i++) {
+            hash ^= value.charAt(i);
+            hash *= 0x100000001b3L;
+        }
+        return mix64(hash);
+    }
+
+    // SplitMix64 sonlandırıcısı
+    private static long mix64(long z) {
+        z = (z ^ (z >>> 30)) * 0xbf58476d1ce4e5b9L;
+        z = (z ^ (z >>> 27)) * 0x94d049bb133111ebL;
+        return z ^ (z >>> 31);
+    }
+
     /**
      * Mesajı belirtilen üyelere replike eder.
+     * İstekler tüm üyelere eşzamanlı gönderilir; tolerance kadar başarı
+     * alındığında veya artık tolerance'a ulaşılamayacağı kesinleştiğinde
+     * beklemeden döner. Mesaj-üye eşleştirmesi karar anında bir kez yazılır;
+     * geç gelen başarılı yanıtlar son yanıtla birlikte tek seferde eklenir
+     * (arada mesaj silindiyse eklenmez).
+     *
+     * Hinted handoff açıksa iletişim hatası alan üyeye giden kopya ipucu
+     * olarak kaydedilir ve en az bir üyeye gerçekten yazıldıysa başarılı
+     * sayılır; üye geri geldiğinde kopya ona uygulanır.
      * 
-     * @return Başarılı replikasyon sayısı
+     * @return Dönüş anındaki başarılı (ipucu dahil) replikasyon sayısı
      */
     public int replicateMessage(String messageId, String content, List<MemberInfo> targetMembers) {
-        int successCount = 0;
-        Set<String> successMembers = ConcurrentHashMap.newKeySet();
-
-        for (MemberInfo member : targetMembers) {
-            try {
-                MemberServiceGrpc.MemberServiceBlockingStub stub = member.getStub();
+        return replicateMessageAsync(messageId, content, targetMembers).join();
+    }
 
-                ReplicateRequest request = ReplicateRequest.newBuilder()
-                        .setMessageId(messageId)
-                        .setMessageContent(content)
-                        .build();
+    /**
+     * replicateMessage'in asenkron hali. Her çağrının süre sınırı olduğu için
+     * future en geç REPLICATION_DEADLINE_MS sonra tamamlanır.
+     */
+    public CompletableFuture<Integer> replicateMessageAsync(String messageId, String content,
+            List<MemberInfo> targetMembers) {
+        if (targetMembers.isEmpty()) {
+            return CompletableFuture.completedFuture(0);
+        }
 
-                ReplicateResponse response = stub.replicateMessage(request);
+        int required = Math.min(tolerance, targetMembers.size());
+        AtomicInteger successCount = new AtomicInteger();
+        AtomicInteger hintedCount = new AtomicInteger();
+        AtomicInteger failureCount = new AtomicInteger();
+        AtomicInteger answered = new AtomicInteger();
+        // Karar anında kaydedilen başarılı üye sayısı; karar verilmediyse -1
+        AtomicInteger recordedMembers = new AtomicInteger(-1);
+        Set<String> successMembers = new HashSet<>();
+        CompletableFuture<Integer> decided = new CompletableFuture<>();
+
+        ReplicateRequest request = ReplicateRequest.newBuilder()
+                .setMessageId(messageId)
+                .setMessageContent(content)
+                .build();
+        // Anti-entropy, üyelerdeki içeriği indeksteki hash ile karşılaştırır
+        long contentHash = placement == PlacementStrategy.ROUND_ROBIN
+                ? MerkleDigest.contentHash(request.getMessageContentBytes())
+                : 0;
 
-                if (response.getSuccess()) {
-                    successCount++;
-                    successMembers.add(member.getMemberId());
-                    System.out.println(
-                            "[MEMBER_MANAGER] Mesaj replike edildi: " + messageId + " -> " + member.getMemberId());
+        for (MemberInfo member : targetMembers) {
+            member.replicate(request).whenComplete((response, error) -> {
+                boolean replicated = error == null && response.getSuccess();
+                if (replicated) {
+                    if (hints != null) {
+                        hints.supersede(member.getMemberId(), messageId);
+                    }
+                    log.debug("[MEMBER_MANAGER] Mesaj replike edildi: {} -> {}", messageId, member.getMemberId());
+                } else if (error != null) {
+                    log.warn("[MEMBER_MANAGER] Üye iletişim hatası: {} - {}", member.getMemberId(),
+                            Status.fromThrowable(error));
+                    member.markUnhealthy();
+                    if (hints != null && hints.record(member.getMemberId(), HintedHandoff.TYPE_REPLICATE,
+                            messageId, request.getMessageContentBytes())) {
+                        log.debug("[MEMBER_MANAGER] Replika ipucu olarak kaydedildi: {} -> {}", messageId,
+                                member.getMemberId());
+                        hintedCount.incrementAndGet();
+                    } else {
+                        failureCount.incrementAndGet();
+                    }
                 } else {
-                    System.err.println("[MEMBER_MANAGER] Replikasyon başarısız: " + member.getMemberId() + " - "
-                            + response.getErrorMessage());
+                    log.warn("[MEMBER_MANAGER] Replikasyon başarısız: {} - {}", member.getMemberId(),
+                            response.getErrorMessage());
+                    failureCount.incrementAndGet();
+                }
+
+                // Tolerance'a ulaşıldıysa, artık ulaşılamayacaksa veya tüm yanıtlar geldiyse beklemeyi bitir.
+                // İpuçları yalnızca mesaj en az bir üyeye yazıldıysa sayılır.
+                boolean decide;
+                int accepted;
+                synchronized (successMembers) {
+                    if (replicated) {
+                        successMembers.add(member.getMemberId());
+                        successCount.incrementAndGet();
+                    }
+                    int pending = targetMembers.size() - answered.incrementAndGet();
+                    int success = successCount.get();
+                    accepted = success > 0 ? success + hintedCount.get() : 0;
+                    decide = recordedMembers.get() < 0 && (accepted >= required || pending == 0
+                            || targetMembers.size() - failureCount.get() < required);
+                    if (decide) {
+                        // Eşleştirme istemci yanıtından önce yazılır ki ardından gelen GET mesajı bulsun
+                        recordedMembers.set(successMembers.size());
+                        if (placement == PlacementStrategy.ROUND_ROBIN && !successMembers.isEmpty()) {
+                            messageLocations.put(messageId, successMembers, contentHash);
+                        }
+                    } else if (pending == 0 && placement == PlacementStrategy.ROUND_ROBIN
+                            && successMembers.size() > recordedMembers.get()) {
+                        // Geç gelen başarılar; bu arada DEL çalıştıysa kayıt yoktur ve eklenmez
+                        messageLocations.addMembers(messageId, contentHash, successMembers);
+                    }
                 }
+                if (decide) {
+                    decided.complete(accepted);
+                }
+            });
+        }
 
-            } catch (StatusRuntimeException e) {
-                System.err.println(
-                        "[MEMBER_MANAGER] Üye iletişim hatası: " + member.getMemberId() + " - " + e.getStatus());
-                member.markUnhealthy();
+        return decided;
+    }
+
+    /**
+     * Birden fazla mesajı replike eder. Her mesaj için replikasyon grubu
+     * seçilir, mesajlar hedef gruplarına göre gruplanır ve tüm gruplar
+     * eşzamanlı replike edilir.
+     *
+     * @return Mesaj ID -> başarılı replikasyon sayısı
+     */
+    public Map<String, Integer> replicateMessages(Map<String, String> messages) {
+        // Hedef üye kümesi -> o gruba giden mesajlar
+        Map<List<String>, List<MemberInfo>> groupMembers = new LinkedHashMap<>();
+        Map<List<String>, Map<String, String>> groupMessages = new LinkedHashMap<>();
+
+        for (Map.Entry<String, String> entry : messages.entrySet()) {
+            List<MemberInfo> targets = selectMembersForReplication(entry.getKey());
+            List<String> groupKey = new ArrayList<>(targets.size());
+            for (MemberInfo member : targets) {
+                groupKey.add(member.getMemberId());
             }
+            groupMembers.putIfAbsent(groupKey, targets);
+            groupMessages.computeIfAbsent(groupKey, k -> new LinkedHashMap<>())
+                    .put(entry.getKey(), entry.getValue());
+        }
+
+        List<CompletableFuture<Map<String, Integer>>> futures = new ArrayList<>();
+        for (Map.Entry<List<String>, Map<String, String>> group : groupMessages.entrySet()) {
+            futures.add(replicateGroupAsync(group.getValue(), groupMembers.get(group.getKey())));
         }
 
-        // Mesaj-üye eşleştirmesini kaydet
-        if (!successMembers.isEmpty()) {
-            messageToMembers.put(messageId, successMembers);
+        Map<String, Integer> results = new HashMap<>();
+        for (CompletableFuture<Map<String, Integer>> future : futures) {
+            results.putAll(future.join());
+        }
+        return results;
+    }
+
+    /**
+     * Aynı üye grubuna giden mesajları replike eder.
+     */
+    private CompletableFuture<Map<String, Integer>> replicateGroupAsync(Map<String, String> messages,
+            List<MemberInfo> targetMembers) {
+        Map<String, CompletableFuture<Integer>> futures = new LinkedHashMap<>();
+        for (Map.Entry<String, String> entry : messages.entrySet()) {
+            futures.put(entry.getKey(), replicateMessageAsync(entry.getKey(), entry.getValue(), targetMembers));
         }
 
-        return successCount;
+        return CompletableFuture.allOf(futures.values().toArray(new CompletableFuture<?>[0]))
+                .thenApply(v -> {
+                    Map<String, Integer> results = new HashMap<>();
+                    futures.forEach((messageId, future) -> results.put(messageId, future.join()));
+                    return results;
+                });
     }
 
     /**
      * Mesajı üyelerden getirir.
      */
     public String getMessageFromMembers(String messageId) {
-        Set<String> memberIds = messageToMembers.get(messageId);
+        return getMessageFromMembersAsync(messageId).join();
+    }
 
+    /**
+     * Mesajı üyelerden asenkron getirir. Mesajın bulunduğu üyeler okuma
+     * stratejisinin sırasıyla denenir; bulunamazsa future null ile tamamlanır.
+     * RENDEZVOUS modunda önce puan sırasındaki ilk tolerance+1 üye denenir:
+     * üyelik değişmediyse ilk tolerance üye mesajı tutar (strateji yalnızca
+     * bunları yeniden sıralar), tek üye değiştiyse mesaj bir sonrakindedir.
+     * Bunlarda bulunamazsa yalnızca yerleşim geçmişine göre mesajı tutabilecek
+     * kalan üyeler denenir (bkz. rendezvousFallback).
+     */
+    public CompletableFuture<String> getMessageFromMembersAsync(String messageId) {
+        if (placement == PlacementStrategy.RENDEZVOUS) {
+            return getMessageRendezvous(messageId);
+        }
+
+        List<String> memberIds = messageLocations.get(messageId);
         if (memberIds == null || memberIds.isEmpty()) {
-            System.out.println("[MEMBER_MANAGER] Mesaj için üye bulunamadı: " + messageId);
-            return null;
+            log.debug("[MEMBER_MANAGER] Mesaj için üye bulunamadı: {}", messageId);
+            return CompletableFuture.completedFuture(null);
         }
 
-        // Üyelerden sırayla dene
-        for (String memberId : memberIds) {
-            MemberInfo member = members.get(memberId);
+        ReadStrategy strategy = readStrategy;
+        if (strategy == ReadStrategy.SEQUENTIAL || memberIds.size() < 2) {
+            return getMessageFrom(messageId, memberIds.iterator());
+        }
+        List<String> ordered = orderByLatency(memberIds, memberIds.size());
+        if (strategy == ReadStrategy.HEDGED) {
+            return getMessageHedged(messageId, ordered.iterator());
+        }
+        return getMessageFrom(messageId, ordered.iterator());
+    }
 
-            if (member == null || !member.isHealthy()) {
-                System.out.println("[MEMBER_MANAGER] Üye erişilemez, sonraki deneniyor: " + memberId);
-                continue;
+    private CompletableFuture<String> getMessageRendezvous(String messageId) {
+        List<String> rankedIds = new ArrayList<>();
+        for (MemberInfo member : rankMembers(messageId, members.values())) {
+            rankedIds.add(member.getMemberId());
+        }
+        int probed = Math.min(tolerance + 1, rankedIds.size());
+        List<String> head = rankedIds.subList(0, probed);
+        Supplier<List<String>> fallback = () -> rendezvousFallback(messageId, rankedIds, probed);
+
+        ReadStrategy strategy = readStrategy;
+        if (strategy == ReadStrategy.SEQUENTIAL || head.size() < 2) {
+            return getMessageFrom(messageId, withFallback(head, fallback));
+        }
+        List<String> ordered = orderByLatency(head, Math.min(tolerance, head.size()));
+        if (strategy == ReadStrategy.HEDGED) {
+            return getMessageHedged(messageId, withFallback(ordered, fallback));
+        }
+        return getMessageFrom(messageId, withFallback(ordered, fallback));
+    }
+
+    /**
+     * İlk probed üyede bulunamayan mesaj için denenecek kalan üyeler (puan sırasıyla).
+     * Mesaj, yazıldığı dönemin aktif üyeleri arasında en yüksek puanlı tolerance
+     * üyeye yazılmıştır; geçmiş tamsa yalnızca bir dönemde bu konuma düşen üyeler
+     * döner, böylece kayıtlı olmayan mesajın ıskası N üyeyi sırayla gezmez.
+     * Geçmiş eksikse (eski dönemler atıldı, dosya yok/yazılamadı) tüm kalan üyeler döner.
+     */
+    private List<String> rendezvousFallback(String messageId, List<String> rankedIds, int probed) {
+        List<String> rest = rankedIds.subList(probed, rankedIds.size());
+        if (rest.isEmpty() || !placementHistory.isComplete()) {
+            return rest;
+        }
+        Comparator<String> order = byScore(hash64(messageId));
+        Set<String> holders = new HashSet<>();
+        for (Set<String> epoch : placementHistory.getEpochs()) {
+            List<String> epochRanked = new ArrayList<>(epoch);
+            epochRanked.sort(order);
+            holders.addAll(epochRanked.subList(0, Math.min(tolerance, epochRanked.size())));
+        }
+        List<String> candidates = new ArrayList<>();
+        for (String memberId : rest) {
+            if (holders.contains(memberId)) {
+                candidates.add(memberId);
+            }
+        }
+        if (!candidates.isEmpty()) {
+            log.debug("[MEMBER_MANAGER] {} ilk {} üyede yok, geçmişe göre {} üye daha denenecek",
+                    messageId, probed, candidates.size());
+        }
+        return candidates;
+    }
+
+    /**
+     * Önce first, tükenince rest'in döndürdüğü üyeler; rest yalnızca gerekirse hesaplanır.
+     */
+    private static Iterator<String> withFallback(List<String> first, Supplier<List<String>> rest) {
+        return new Iterator<>() {
+            private Iterator<String> current = first.iterator();
+            private boolean fellBack;
+
+            @Override
+            public boolean hasNext() {
+                if (!current.hasNext() && !fellBack) {
+                    fellBack = true;
+                    current = rest.get().iterator();
+                }
+                return current.hasNext();
             }
 
-            try {
-                MemberServiceGrpc.MemberServiceBlockingStub stub = member.getStub();
+            @Override
+            public String next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                return current.next();
+            }
+        };
+    }
+
+    /**
+     * İlk replicas üyeyi okuma gecikmesi puanına göre sıralar, kalanları olduğu gibi
+     * sona ekler. Her EXPLORE_EVERY okumada bir, ilk sıraya rastgele bir replika
+     * alınır; böylece uzun süre seçilmeyen üyenin EWMA'sı da güncel kalır.
+     */
+    private List<String> orderByLatency(List<String> memberIds, int replicas) {
+        List<String> ordered = new ArrayList<>(memberIds);
+        List<String> head = ordered.subList(0, replicas);
+        if (readCounter.incrementAndGet() % EXPLORE_EVERY == 0) {
+            Collections.swap(head, 0, ThreadLocalRandom.current().nextInt(replicas));
+            return ordered;
+        }
+        head.sort(Comparator.comparingDouble(this::readScore));
+        return ordered;
+    }
+
+    private double readScore(String memberId) {
+        MemberInfo member = members.get(memberId);
+        return member == null || !member.isHealthy() ? Double.MAX_VALUE : member.readLatency.score();
+    }
+
+    /**
+     * Hedged okuma: sıradaki replikaya istek gönderilir, bulunamaz veya hata
+     * alınırsa hemen sonrakine geçilir. İlk isteğe ilk replikanın p95 gecikmesi
+     * içinde yanıt gelmezse sonraki replikaya da gönderilir; ilk bulunan yanıt
+     * kullanılır, geç gelen yanıt yok sayılır.
+     */
+    private CompletableFuture<String> getMessageHedged(String messageId, Iterator<String> memberIds) {
+        HedgedRead read = new HedgedRead(messageId, memberIds);
+        MemberInfo primary = read.launch(false);
+        if (primary == null) {
+            return read.result;
+        }
+        ScheduledFuture<?> hedge = hedgeTimer.schedule(() -> {
+            if (!read.result.isDone() && read.launch(true) != null) {
+                hedgedReads.increment();
+            }
+        }, hedgeDelayMicros(primary), TimeUnit.MICROSECONDS);
+        read.result.whenComplete((content, error) -> hedge.cancel(false));
+        return read.result;
+    }
 
-                GetMessageRequest request = GetMessageRequest.newBuilder()
-                        .setMessageId(messageId)
-                        .build();
+    /**
+     * Hedge isteği için bekleme: üyenin p95 okuma gecikmesi; yeterli örnek
+     * yoksa HEDGE_DEFAULT_DELAY_MS.
+     */
+    private static long hedgeDelayMicros(MemberInfo member) {
+        LatencyStats stats = member.readLatency;
+        if (stats.getSampleCount() < HEDGE_MIN_SAMPLES) {
+            return TimeUnit.MILLISECONDS.toMicros(HEDGE_DEFAULT_DELAY_MS);
+        }
+        return Math.max(HEDGE_MIN_DELAY_MICROS, TimeUnit.NANOSECONDS.toMicros(stats.getP95Nanos()));
+    }
 
-                GetMessageResponse response = stub.getMessage(request);
+    /**
+     * Tek bir hedged okumanın durumu. Sonuç, ilk bulunan yanıtla ya da tüm
+     * replikalar denenip uçuşta istek kalmadığında null ile tamamlanır.
+     */
+    private final class HedgedRead {
+        private final String messageId;
+        private final CompletableFuture<String> result = new CompletableFuture<>();
+        // this ile korunur
+        private final Iterator<String> memberIds;
+        private int outstanding;
+
+        HedgedRead(String messageId, Iterator<String> memberIds) {
+            this.messageId = messageId;
+            this.memberIds = memberIds;
+        }
 
-                if (response.getFound()) {
-                    System.out.println("[MEMBER_MANAGER] Mesaj alındı: " + messageId + " <- " + memberId);
-                    return response.getMessageContent();
+        /**
+         * Sıradaki sağlıklı replikaya istek gönderir.
+         *
+         * @return İstek gönderilen üye; denenecek üye kalmadıysa null
+         */
+        MemberInfo launch(boolean hedge) {
+            MemberInfo member = null;
+            boolean exhausted;
+            synchronized (this) {
+                while (member == null && memberIds.hasNext()) {
+                    String memberId = memberIds.next();
+                    MemberInfo candidate = members.get(memberId);
+                    if (candidate == null || !candidate.isHealthy()) {
+                        log.debug("[MEMBER_MANAGER] Üye erişilemez, sonraki deneniyor: {}", memberId);
+                    } else {
+                        member = candidate;
+                    }
+                }
+                if (member != null) {
+                    outstanding++;
                 }
+                exhausted = member == null && outstanding == 0;
+            }
+            if (exhausted) {
+                if (result.complete(null)) {
+                    log.debug("[MEMBER_MANAGER] Mesaj hiçbir üyeden alınamadı: {}", messageId);
+                }
+                return null;
+            }
+            if (member == null) {
+                return null;
+            }
 
-            } catch (StatusRuntimeException e) {
-                System.err.println("[MEMBER_MANAGER] Üye iletişim hatası: " + memberId + " - " + e.getStatus());
-                member.markUnhealthy();
+            MemberInfo target = member;
+            GetMessageRequest request = GetMessageRequest.newBuilder()
+                    .setMessageId(messageId)
+                    .build();
+            target.getMessage(request).whenComplete((response, error) -> {
+                if (error != null) {
+                    log.warn("[MEMBER_MANAGER] Üye iletişim hatası: {} - {}", target.getMemberId(),
+                            Status.fromThrowable(error));
+                    target.markUnhealthy();
+                } else if (response.getFound()) {
+                    if (result.complete(response.getMessageContent())) {
+                        if (hedge) {
+                            hedgeWins.increment();
+                        }
+                        log.debug("[MEMBER_MANAGER] Mesaj alındı: {} <- {}{}", messageId, target.getMemberId(),
+                                hedge ? " (hedge)" : "");
+                    }
+                    return;
+                }
+                synchronized (this) {
+                    outstanding--;
+                }
+                if (!result.isDone()) {
+                    launch(false);
+                }
+            });
+            return target;
+        }
+    }
+
+    /**
+     * Sıradaki erişilebilir üyeden mesajı ister; başarısız olursa bir sonrakine geçer.
+     */
+    private CompletableFuture<String> getMessageFrom(String messageId, Iterator<String> memberIds) {
+        while (memberIds.hasNext()) {
+            String memberId = memberIds.next();
+            MemberInfo member = members.get(memberId);
+
+            if (member == null || !member.isHealthy()) {
+                log.debug("[MEMBER_MANAGER] Üye erişilemez, sonraki deneniyor: {}", memberId);
+                continue;
             }
+
+            GetMessageRequest request = GetMessageRequest.newBuilder()
+                    .setMessageId(messageId)
+                    .build();
+
+            return member.getMessage(request).handle((response, error) -> {
+                if (error != null) {
+                    log.warn("[MEMBER_MANAGER] Üye iletişim hatası: {} - {}", memberId, Status.fromThrowable(error));
+                    member.markUnhealthy();
+                } else if (response.getFound()) {
+                    log.debug("[MEMBER_MANAGER] Mesaj alındı: {} <- {}", messageId, memberId);
+                    return CompletableFuture.completedFuture(response.getMessageContent());
+                }
+                return getMessageFrom(messageId, memberIds);
+            }).thenCompose(future -> future);
+        }
+
+        log.debug("[MEMBER_MANAGER] Mesaj hiçbir üyeden alınamadı: {}", messageId);
+        return CompletableFuture.completedFuture(null);
+    }
+
+    /**
+     * Birden fazla mesajı üyelerden eşzamanlı getirir.
+     *
+     * @return Mesaj ID -> mesaj (bulunamayanlar null)
+     */
+    public Map<String, String> getMessagesFromMembers(List<String> messageIds) {
+        Map<String, CompletableFuture<String>> futures = new LinkedHashMap<>();
+        for (String messageId : messageIds) {
+            futures.put(messageId, getMessageFromMembersAsync(messageId));
         }
 
-        System.out.println("[MEMBER_MANAGER] Mesaj hiçbir üyeden alınamadı: " + messageId);
-        return null;
+        Map<String, String> results = new HashMap<>();
+        futures.forEach((messageId, future) -> results.put(messageId, future.join()));
+        return results;
     }
 
     /**
      * Mesajı tüm üyelerden siler.
      */
     public boolean deleteMessageFromMembers(String messageId) {
-        Set<String> memberIds = messageToMembers.get(messageId);
+        return deleteMessageFromMembersAsync(messageId).join();
+    }
+
+    /**
+     * Mesajı, bulunduğu tüm üyelerden eşzamanlı siler.
+     *
+     * @return En az bir üyede silindiyse true ile tamamlanan future
+     */
+    public CompletableFuture<Boolean> deleteMessageFromMembersAsync(String messageId) {
+        List<String> memberIds = placement == PlacementStrategy.ROUND_ROBIN ? messageLocations.get(messageId) : null;
 
-        // Eğer mapping yoksa, tüm aktif üyelerde dene (lider restart durumu için)
+        // RENDEZVOUS modunda GET tüm üyeleri puan sırasıyla dener; üyelik değiştiyse
+        // mesaj ilk tolerance üyenin dışında da olabilir, bu yüzden DEL tüm üyelere gider.
+        // Mapping yoksa tüm üyelerde dene (kalıcı olmayan indeks veya kayıp log kuyruğu için)
         Collection<MemberInfo> targetMembers;
-        if (memberIds == null || memberIds.isEmpty()) {
-            System.out.println("[MEMBER_MANAGER] Mesaj mapping bulunamadı, tüm üyelerde denenecek: " + messageId);
+        if (placement == PlacementStrategy.RENDEZVOUS) {
+            targetMembers = members.values();
+        } else if (memberIds == null || memberIds.isEmpty()) {
+            log.debug("[MEMBER_MANAGER] Mesaj mapping bulunamadı, tüm üyelerde denenecek: {}", messageId);
             targetMembers = members.values();
         } else {
             targetMembers = new ArrayList<>();
@@ -225,42 +913,110 @@ public class MemberManager {
             }
         }
 
-        int successCount = 0;
+        DeleteRequest request = DeleteRequest.newBuilder()
+                .setMessageId(messageId)
+                .build();
+
+        // Mesaj için ipucu bekleyen diğer üyelerde eski kopya geri gelmesin
+        if (hints != null) {
+            Set<String> targetIds = new HashSet<>();
+            for (MemberInfo member : targetMembers) {
+                targetIds.add(member.getMemberId());
+            }
+            hints.recordDeleteIfPending(messageId, targetIds);
+        }
 
         // Üyelerden sil
+        List<CompletableFuture<Boolean>> calls = new ArrayList<>();
         for (MemberInfo member : targetMembers) {
-            if (member == null || !member.isHealthy()) {
+            if (member == null) {
+                continue;
+            }
+            if (!member.isHealthy()) {
+                // Erişilemeyen üyedeki kopya geri döndüğünde silinsin
+                if (hints != null) {
+                    hints.record(member.getMemberId(), HintedHandoff.TYPE_DELETE, messageId, null);
+                }
                 continue;
             }
 
-            try {
-                MemberServiceGrpc.MemberServiceBlockingStub stub = member.getStub();
-
-                DeleteRequest request = DeleteRequest.newBuilder()
-                        .setMessageId(messageId)
-                        .build();
-
-                DeleteResponse response = stub.deleteMessage(request);
-
+            calls.add(member.delete(request).handle((response, error) -> {
+                if (error != null) {
+                    log.warn("[MEMBER_MANAGER] Üye iletişim hatası: {} - {}", member.getMemberId(),
+                            Status.fromThrowable(error));
+                    member.markUnhealthy();
+                    if (hints != null) {
+                        hints.record(member.getMemberId(), HintedHandoff.TYPE_DELETE, messageId, null);
+                    }
+                    return false;
+                }
+                if (hints != null) {
+                    hints.supersede(member.getMemberId(), messageId);
+                }
                 if (response.getSuccess()) {
+                    log.debug("[MEMBER_MANAGER] Mesaj silindi: {} <- {}", messageId, member.getMemberId());
+                    return true;
+                }
+                return false;
+            }));
+        }
+
+        return CompletableFuture.allOf(calls.toArray(new CompletableFuture<?>[0])).thenApply(v -> {
+            int successCount = 0;
+            for (CompletableFuture<Boolean> call : calls) {
+                if (call.join()) {
                     successCount++;
-                    System.out.println("[MEMBER_MANAGER] Mesaj silindi: " + messageId + " <- " + member.getMemberId());
                 }
+            }
 
-            } catch (StatusRuntimeException e) {
-                System.err.println(
-                        "[MEMBER_MANAGER] Üye iletişim hatası: " + member.getMemberId() + " - " + e.getStatus());
-                member.markUnhealthy();
+            // Mesaj-üye eşleştirmesini kaldır
+            if (successCount > 0) {
+                messageLocations.remove(messageId);
+                return true;
             }
+            return false;
+        });
+    }
+
+    /**
+     * Birden fazla mesajı üyelerden eşzamanlı siler.
+     *
+     * @return Silinen mesaj sayısı
+     */
+    public int deleteMessagesFromMembers(List<String> messageIds) {
+        List<CompletableFuture<Boolean>> futures = new ArrayList<>();
+        for (String messageId : messageIds) {
+            futures.add(deleteMessageFromMembersAsync(messageId));
         }
 
-        // Mesaj-üye eşleştirmesini kaldır
-        if (successCount > 0) {
-            messageToMembers.remove(messageId);
-            return true;
+        int deleted = 0;
+        for (CompletableFuture<Boolean> future : futures) {
+            if (future.join()) {
+                deleted++;
+            }
         }
+        return deleted;
+    }
 
-        return false;
+    /**
+     * Unary async çağrının sonucunu future'a aktaran observer.
+     */
+    private static <T> StreamObserver<T> completing(CompletableFuture<T> future) {
+        return new StreamObserver<T>() {
+            @Override
+            public void onNext(T value) {
+                future.complete(value);
+            }
+
+            @Override
+            public void onError(Throwable t) {
+                future.completeExceptionally(t);
+            }
+
+            @Override
+            public void onCompleted() {
+            }
+        };
     }
 
     /**
@@ -285,6 +1041,30 @@ public class MemberManager {
         return members.values();
     }
 
+    /**
+     * Kayıtlı üyeyi döner; yoksa null.
+     */
+    MemberInfo getMember(String memberId) {
+        return members.get(memberId);
+    }
+
+    /**
+     * İpucundan uygulanan kopyayı yerleşime geri ekler. Mesaj bu arada
+     * silinmiş veya onarımla tolerance kadar kopyaya ulaşmışsa dokunulmaz.
+     */
+    void restoreReplica(String messageId, String memberId) {
+        if (placement != PlacementStrategy.ROUND_ROBIN) {
+            return;
+        }
+        List<String> holders = messageLocations.get(messageId);
+        if (holders == null || holders.contains(memberId) || holders.size() >= tolerance) {
+            return;
+        }
+        List<String> restored = new ArrayList<>(holders);
+        restored.add(memberId);
+        messageLocations.replace(messageId, holders, restored);
+    }
+
     /**
      * Üye sayısını döner.
      */
@@ -306,6 +1086,62 @@ public class MemberManager {
         return tolerance;
     }
 
+    /**
+     * Replikasyon taşıma biçimini döner.
+     */
+    public ReplicationTransport getTransport() {
+        return transport;
+    }
+
+    /**
+     * Yerleşim stratejisini döner.
+     */
+    public PlacementStrategy getPlacement() {
+        return placement;
+    }
+
+    /**
+     * GET okuma stratejisini ayarlar.
+     */
+    public void setReadStrategy(ReadStrategy readStrategy) {
+        this.readStrategy = readStrategy;
+    }
+
+    public ReadStrategy getReadStrategy() {
+        return readStrategy;
+    }
+
+    /**
+     * Onarım bant genişliği sınırını ayarlar (byte/sn, 0 ise sınırsız).
+     */
+    public void setRepairBandwidth(long bytesPerSecond) {
+        if (repairService != null) {
+            repairService.setBandwidth(bytesPerSecond);
+        }
+        if (antiEntropy != null) {
+            antiEntropy.setBandwidth(bytesPerSecond);
+        }
+    }
+
+    /**
+     * Anti-entropy turlarının aralığını ayarlar (sn, 0 ise kapalı).
+     * Kopyalama, onarımla aynı bant genişliği sınırını kullanır.
+     */
+    public void setAntiEntropyInterval(long seconds) {
+        if (antiEntropy != null) {
+            antiEntropy.setInterval(seconds);
+        }
+    }
+
+    /**
+     * Bir anti-entropy turunu hemen başlatır.
+     */
+    public void triggerAntiEntropy() {
+        if (antiEntropy != null) {
+            antiEntropy.trigger();
+        }
+    }
+
     /**
      * Tüm üyelerin mesaj sayısını yazdırır.
      */
@@ -313,12 +1149,62 @@ public class MemberManager {
         System.out.println("\n========== ÜYE İSTATİSTİKLERİ ==========");
         System.out.println("Toplam üye: " + members.size());
         System.out.println("Aktif üye: " + getActiveMemberCount());
-        System.out.println("Toplam mesaj kayıtları: " + messageToMembers.size());
+        if (placement == PlacementStrategy.RENDEZVOUS) {
+            System.out.println("Yerleşim: RENDEZVOUS (mesaj başına kayıt tutulmaz)");
+        } else {
+            System.out.printf("Toplam mesaj kayıtları: %d (konum indeksi: %d grup, %.1f KB)%n",
+                    messageLocations.size(), messageLocations.getGroupCount(),
+                    messageLocations.getMemoryBytes() / 1024.0);
+        }
 
         for (MemberInfo member : members.values()) {
             String status = member.isHealthy() ? "AKTIF" : "INACTIVE";
             System.out.println("  - " + member.getMemberId() + ": " +
                     member.getMessageCount() + " mesaj [" + status + "]");
+            long batches = member.batcher.getBatchCount();
+            if (batches > 0) {
+                System.out.printf("    Replikasyon batch: %d, ortalama boyut: %.1f%n", batches,
+                        member.batcher.getMessageCount() / (double) batches);
+            }
+            LatencyStats reads = member.readLatency;
+            if (reads.getSampleCount() > 0) {
+                System.out.printf("    Okuma gecikmesi: EWMA %.2f ms, p95 %.2f ms, %d örnek, %d uçuşta%n",
+                        reads.getEwmaNanos() / 1e6, reads.getP95Nanos() / 1e6, reads.getSampleCount(),
+                        reads.getInFlight());
+            }
+            long acks = member.streamClient.getAckCount();
+            if (acks > 0) {
+                System.out.printf("    Replikasyon akışı: %d işlem, %d onay (onay başına %.1f işlem), %d akış%n",
+                        member.streamClient.getSentOps(), acks,
+                        member.streamClient.getSentOps() / (double) acks, member.streamClient.getStreamCount());
+            }
+        }
+        if (readStrategy == ReadStrategy.HEDGED || hedgedReads.sum() > 0) {
+            System.out.printf("Okuma: %s, %d hedge isteği, %d hedge yanıtı önce geldi%n",
+                    readStrategy, hedgedReads.sum(), hedgeWins.sum());
+        }
+        if (repairService != null && (repairService.isRunning() || repairService.getRepairedMessages()
+                + repairService.getFailedRepairs() + repairService.getSkippedRepairs() > 0)) {
+            int[] progress = repairService.getProgress();
+            System.out.printf("Onarım: %s, geçiş %d/%d mesaj, toplam %d onarılan / %d başarısız / %d atlanan,"
+                    + " %.1f KB, %.1f KB/sn%n",
+                    repairService.isRunning() ? "çalışıyor" : "boşta", progress[0], progress[1],
+                    repairService.getRepairedMessages(), repairService.getFailedRepairs(),
+                    repairService.getSkippedRepairs(),
+                    repairService.getRepairedBytes() / 1024.0, repairService.getBytesPerSecond() / 1024.0);
+        }
+        if (antiEntropy != null && antiEntropy.getRoundCount() > 0) {
+            System.out.printf("Anti-entropy: %d tur (son %d ms), %d farklı üye / %d aralık, %d tamamlanan (%.1f KB),"
+                    + " son tur: %d yetim, %d çakışma, %d kayıp%n",
+                    antiEntropy.getRoundCount(), antiEntropy.getLastRoundMillis(), antiEntropy.getDivergentMembers(),
+                    antiEntropy.getDifferingLeaves(), antiEntropy.getRepairedMessages(),
+                    antiEntropy.getRepairedBytes() / 1024.0, antiEntropy.getLastOrphans(),
+                    antiEntropy.getLastConflicts(), antiEntropy.getLastLost());
+        }
+        if (hints != null && hints.getRecordedHints() + hints.getPendingCount() > 0) {
+            System.out.printf("İpuçları: %d bekleyen, toplam %d kaydedilen / %d oynatılan / %d geçersiz / %d düşürülen%n",
+                    hints.getPendingCount(), hints.getRecordedHints(), hints.getReplayedHints(),
+                    hints.getSupersededHints(), hints.getDroppedHints());
         }
         System.out.println("==========================================\n");
     }
@@ -335,6 +1221,17 @@ public class MemberManager {
                     member.markUnhealthy();
                 }
             }
+            if (repairService != null) {
+                repairService.onHealthCheck();
+            }
+            if (hints != null) {
+                // Yarıda kalan oynatmaları sağlıklı üyelerde yeniden dene
+                for (MemberInfo member : members.values()) {
+                    if (member.isHealthy()) {
+                        hints.replayIfPending(member);
+                    }
+                }
+            }
         }, 5, 5, TimeUnit.SECONDS);
     }
 
@@ -343,9 +1240,20 @@ public class MemberManager {
      */
     public void shutdown() {
         scheduler.shutdown();
+        hedgeTimer.shutdownNow();
+        if (repairService != null) {
+            repairService.close();
+        }
+        if (hints != null) {
+            hints.close();
+        }
+        if (antiEntropy != null) {
+            antiEntropy.close();
+        }
         for (MemberInfo member : members.values()) {
             member.closeChannel();
         }
+        messageLocations.close();
     }
 
     /**
@@ -355,29 +1263,68 @@ public class MemberManager {
         private final String memberId;
         private final String host;
         private final int port;
+        private final Executor executor;
         private ManagedChannel channel;
         private MemberServiceGrpc.MemberServiceBlockingStub stub;
+        private MemberServiceGrpc.MemberServiceStub asyncStub;
+        private final ReplicationTransport transport;
+        private final ReplicationBatcher batcher;
+        private final ReplicationStreamClient streamClient;
+        // GET okuma gecikmesi (FASTEST/HEDGED sıralaması için)
+        private final LatencyStats readLatency = new LatencyStats();
+        private final LatencyTimer readTimer;
+        private final LatencyTimer replicationTimer;
+        private final Counter replicationErrors;
+        // Rendezvous puanı için üye ID'sinin hash'i
+        private final long placementSeed;
         private volatile long lastHeartbeat;
         private volatile int messageCount;
         private volatile boolean healthy;
+        private volatile long unhealthySince;
 
         public MemberInfo(String memberId, String host, int port) {
+            this(memberId, host, port, null);
+        }
+
+        public MemberInfo(String memberId, String host, int port, Executor executor) {
+            this(memberId, host, port, executor, ReplicationTransport.BATCH);
+        }
+
+        public MemberInfo(String memberId, String host, int port, Executor executor,
+                ReplicationTransport transport) {
             this.memberId = memberId;
             this.host = host;
             this.port = port;
+            this.executor = executor;
             this.lastHeartbeat = System.currentTimeMillis();
             this.messageCount = 0;
             this.healthy = true;
+            this.transport = transport;
+            this.batcher = new ReplicationBatcher(this, REPLICATION_DEADLINE_MS);
+            this.streamClient = new ReplicationStreamClient(this, REPLICATION_DEADLINE_MS);
+            this.placementSeed = hash64(memberId);
+            MetricsRegistry metrics = MetricsRegistry.getDefault();
+            this.readTimer = metrics.timer("hatokuse_member_read_seconds",
+                    "Üyeden GET okuma gecikmesi", "member", memberId);
+            this.replicationTimer = metrics.timer("hatokuse_replication_seconds",
+                    "Üyeye replikasyon gecikmesi", "member", memberId);
+            this.replicationErrors = metrics.counter("hatokuse_replication_errors_total",
+                    "Başarısız replikasyon", "member", memberId);
             initChannel();
         }
 
         private void initChannel() {
             // NettyChannelBuilder ile explicit InetSocketAddress kullan
             java.net.InetSocketAddress address = new java.net.InetSocketAddress(host, port);
-            this.channel = io.grpc.netty.shaded.io.grpc.netty.NettyChannelBuilder.forAddress(address)
-                    .usePlaintext()
-                    .build();
+            io.grpc.netty.shaded.io.grpc.netty.NettyChannelBuilder builder = io.grpc.netty.shaded.io.grpc.netty.NettyChannelBuilder
+                    .forAddress(address)
+                    .usePlaintext();
+            if (executor != null) {
+                builder.executor(executor);
+            }
+            this.channel = builder.build();
             this.stub = MemberServiceGrpc.newBlockingStub(channel);
+            this.asyncStub = MemberServiceGrpc.newStub(channel);
         }
 
         public MemberServiceGrpc.MemberServiceBlockingStub getStub() {
@@ -387,17 +1334,129 @@ public class MemberManager {
             return stub;
         }
 
-        public void updateHeartbeat(int msgCount) {
+        public MemberServiceGrpc.MemberServiceStub getAsyncStub() {
+            if (channel == null || channel.isShutdown()) {
+                initChannel();
+            }
+            return asyncStub;
+        }
+
+        /**
+         * Mesajı seçili taşıma biçimiyle bu üyeye replike eder.
+         */
+        public CompletableFuture<ReplicateResponse> replicate(ReplicateRequest request) {
+            long start = System.nanoTime();
+            CompletableFuture<ReplicateResponse> call;
+            switch (transport) {
+                case BATCH:
+                    call = batcher.submit(request);
+                    break;
+                case STREAM:
+                    call = streamClient.submit(ReplicationOp.Type.REPLICATE, request.getMessageId(),
+                            request.getMessageContent()).thenApply(success -> ReplicateResponse.newBuilder()
+                                    .setSuccess(success)
+                                    .setErrorMessage(success ? "" : "Kayıt hatası")
+                                    .build());
+                    break;
+                default:
+                    call = new CompletableFuture<>();
+                    getAsyncStub()
+                            .withDeadlineAfter(REPLICATION_DEADLINE_MS, TimeUnit.MILLISECONDS)
+                            .replicateMessage(request, completing(call));
+                    break;
+            }
+            call.whenComplete((response, error) -> {
+                replicationTimer.recordSince(start);
+                if (error != null || !response.getSuccess()) {
+                    replicationErrors.inc();
+                }
+            });
+            return call;
+        }
+
+        /**
+         * Mesajı bu üyeden okur.
+         */
+        public CompletableFuture<GetMessageResponse> getMessage(GetMessageRequest request) {
+            CompletableFuture<GetMessageResponse> call = new CompletableFuture<>();
+            long start = System.nanoTime();
+            readLatency.begin();
+            call.whenComplete((response, error) -> {
+                long elapsed = System.nanoTime() - start;
+                if (error == null) {
+                    readLatency.end(elapsed);
+                } else {
+                    readLatency.abort();
+                }
+                readTimer.record(elapsed);
+            });
+            getAsyncStub()
+                    .withDeadlineAfter(REPLICATION_DEADLINE_MS, TimeUnit.MILLISECONDS)
+                    .getMessage(request, completing(call));
+            return call;
+        }
+
+        /**
+         * Üyenin hash ağacından bir seviyeyi ister (anti-entropy).
+         */
+        public CompletableFuture<DigestResponse> getDigest(DigestRequest request) {
+            CompletableFuture<DigestResponse> call = new CompletableFuture<>();
+            getAsyncStub()
+                    .withDeadlineAfter(REPLICATION_DEADLINE_MS, TimeUnit.MILLISECONDS)
+                    .getDigest(request, completing(call));
+            return call;
+        }
+
+        /**
+         * Üyenin verilen yapraklardaki mesajlarını içerik hash'leriyle ister (anti-entropy).
+         */
+        public CompletableFuture<RangeEntriesResponse> getRangeEntries(RangeEntriesRequest request) {
+            CompletableFuture<RangeEntriesResponse> call = new CompletableFuture<>();
+            getAsyncStub()
+                    .withDeadlineAfter(REPLICATION_DEADLINE_MS, TimeUnit.MILLISECONDS)
+                    .getRangeEntries(request, completing(call));
+            return call;
+        }
+
+        /**
+         * Mesajı bu üyeden siler. STREAM modunda silme, aynı akıştaki önceki
+         * kayıtlardan sonra uygulanır.
+         */
+        public CompletableFuture<DeleteResponse> delete(DeleteRequest request) {
+            if (transport == ReplicationTransport.STREAM) {
+                return streamClient.submit(ReplicationOp.Type.DELETE, request.getMessageId(), "")
+                        .thenApply(success -> DeleteResponse.newBuilder()
+                                .setSuccess(success)
+                                .setErrorMessage(success ? "" : "Mesaj silinemedi veya bulunamadı")
+                                .build());
+            }
+            CompletableFuture<DeleteResponse> call = new CompletableFuture<>();
+            getAsyncStub()
+                    .withDeadlineAfter(REPLICATION_DEADLINE_MS, TimeUnit.MILLISECONDS)
+                    .deleteMessage(request, completing(call));
+            return call;
+        }
+
+        /**
+         * @return Üye sağlıksız işaretliyken heartbeat geldiyse (kesintiden döndüyse) true
+         */
+        public boolean updateHeartbeat(int msgCount) {
             this.lastHeartbeat = System.currentTimeMillis();
             this.messageCount = msgCount;
+            boolean recovered = !healthy;
             this.healthy = true;
+            return recovered;
         }
 
         public void markUnhealthy() {
+            if (healthy) {
+                this.unhealthySince = System.currentTimeMillis();
+            }
             this.healthy = false;
         }
 
         public void closeChannel() {
+            streamClient.close();
             if (channel != null && !channel.isShutdown()) {
                 channel.shutdown();
             }
@@ -427,5 +1486,12 @@ public class MemberManager {
         public boolean isHealthy() {
             return healthy;
         }
+
+        /**
+         * Üyenin son kez sağlıksız işaretlendiği an (ms).
+         */
+        public long getUnhealthySince() {
+            return unhealthySince;
+        }
     }
 }
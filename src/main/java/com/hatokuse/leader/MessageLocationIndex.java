@@ -0,0 +1,1113 @@
+package com.hatokuse.leader;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Predicate;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedInputStream;
+import java.util.zip.CheckedOutputStream;
+
+/**
+ * Liderin mesaj -> üye grubu indeksi.
+ * Mesaj başına üye kümesi yerine küçük bir grup numarası tutulur; aynı üye
+ * kümesi (ör. {m1, m2}) tüm mesajlar arasında tek grup olarak paylaşılır.
+ * Tablo, her biri kendi okuma/yazma kilidine sahip 16 şeride bölünür; farklı
+ * şeritlerdeki güncellemeler birbirini beklemez. Her şeritte mesaj ID'leri tek
+ * bir byte dizisinde (arena) UTF-8 olarak, açık adresli hash tablosu ise üç int
+ * dizisi (arena konumu, hash, grup) ve bir long dizisinde (son yazılan içeriğin
+ * hash'i, anti-entropy için) saklanır. Mesaj başına
+ * bellek, tablo doluluğuna göre ID uzunluğu + 30-60 byte'tır; mesaj başına
+ * Java nesnesi oluşmaz.
+ *
+ * Dizin verildiyse her değişiklik log dosyasına eklenir ve periyodik olarak
+ * snapshot alınır. Açılışta snapshot yüklenir, sonrasındaki loglar sırayla
+ * yeniden oynatılır; böylece GET/DEL yönlendirmesi lider yeniden başlasa da korunur.
+ *
+ * Log dosyaları nesil numaralıdır (locations-N.log). Snapshot alınırken yeni
+ * nesle geçilir; snapshot önceki nesilleri kapsar ve yazıldıktan sonra onlar
+ * silinir. Kayıtlar şerit kilidi altında bellekteki bir tampona eklenir; kilit
+ * bırakıldıktan sonra tampon, eşzamanlı güncellemeler için tek yazma ve flush
+ * ile log dosyasına gönderilir. Güncelleme dönmeden önce kaydı işletim sistemine
+ * yazılmıştır ama fsync edilmez: lider süreci çökerse kayıt kaybolmaz, makine
+ * çökerse son kayıtlar kaybolabilir.
+ *
+ * Log kayıt formatı:
+ * GROUP: [1][grup:4][adet:4]([üye ID: writeUTF])*
+ * PUT:   [4][idLen:4][id bytes][grup:4][içerik hash:8]
+ * REMOVE:[3][idLen:4][id bytes]
+ * Eski PUT kaydı ([2], içerik hash'siz) hâlâ okunur; hash'i bilinmiyor (0) sayılır.
+ */
+class MessageLocationIndex implements Closeable {
+
+    static final String LOG_PREFIX = "locations-";
+    static final String LOG_SUFFIX = ".log";
+    static final String SNAPSHOT_FILE = "locations.snapshot";
+    private static final int SNAPSHOT_MAGIC = 0x48544B4C; // "HTKL"
+    private static final int SNAPSHOT_VERSION = 2;
+
+    private static final byte TYPE_GROUP = 1;
+    private static final byte TYPE_PUT = 2;
+    private static final byte TYPE_REMOVE = 3;
+    private static final byte TYPE_PUT_CONTENT = 4;
+
+    // İçerik hash'i bilinmiyor (eski log / snapshot kaydı)
+    static final long UNKNOWN_CONTENT = 0;
+
+    // Snapshot için logda birikmesi gereken en az kayıt; indeks daha büyükse indeks boyutu kadar
+    private static final long SNAPSHOT_MIN_RECORDS = 100_000;
+
+    // Şerit sayısı; şerit ID hash'inin üst bitlerinden seçilir
+    private static final int SHARD_BITS = 4;
+    private static final int SHARD_COUNT = 1 << SHARD_BITS;
+
+    // scan imleci: [şerit:4][slot:27]; şerit başına en fazla 2^27 slot
+    private static final int SLOT_BITS = 27;
+    private static final int SLOT_MASK = (1 << SLOT_BITS) - 1;
+
+    // Şerit başına
+    private static final int INITIAL_CAPACITY = 256;
+    private static final int TOMBSTONE = -1;
+
+    // null ise indeks yalnızca bellekte tutulur
+    private final Path directory;
+    private final Shard[] shards = new Shard[SHARD_COUNT];
+    private final AtomicBoolean snapshotRunning = new AtomicBoolean();
+
+    // Grup numarası -> sıralı üye ID'leri ve tersi; gruplar yalnızca eklenir
+    private final List<List<String>> groups = new CopyOnWriteArrayList<>();
+    private final Map<List<String>, Integer> groupIds = new ConcurrentHashMap<>();
+
+    // Şerit kilidi altında eklenen, henüz log dosyasına yazılmamış kayıtlar
+    private final ByteArrayOutputStream pendingLog = new ByteArrayOutputStream();
+    private final DataOutputStream pendingOut = new DataOutputStream(pendingLog);
+    private long appendedSeq;
+    private int pendingRecords;
+    private volatile long flushedSeq;
+    private volatile boolean logOpen;
+
+    // Log dosyası, nesli ve kayıt sayacı logLock ile korunur
+    private final ReentrantLock logLock = new ReentrantLock();
+    private DataOutputStream log;
+    private int logGeneration;
+    private long logRecords;
+
+    /**
+     * Yalnızca bellekte tutulan indeks.
+     */
+    MessageLocationIndex() {
+        this.directory = null;
+        initShards();
+    }
+
+    /**
+     * @param directory Log ve snapshot dizini; mevcut snapshot ve loglar yüklenir
+     */
+    MessageLocationIndex(Path directory) throws IOException {
+        this.directory = directory;
+        initShards();
+        Files.createDirectories(directory);
+        recover();
+    }
+
+    private void initShards() {
+        for (int i = 0; i < SHARD_COUNT; i++) {
+            shards[i] = new Shard();
+        }
+    }
+
+    /**
+     * Mesajın bulunduğu üyeleri ve içerik hash'ini (MerkleDigest.contentHash)
+     * kaydeder; önceki kaydın yerini alır.
+     */
+    void put(String messageId, Collection<String> memberIds, long contentHash) {
+        byte[] key = messageId.getBytes(StandardCharsets.UTF_8);
+        int hash = hash(key);
+        Shard shard = shard(hash);
+
+        long seq;
+        shard.lock.writeLock().lock();
+        try {
+            seq = putLocked(shard, key, hash, memberIds, contentHash);
+        } finally {
+            shard.lock.writeLock().unlock();
+        }
+        flushLog(seq);
+    }
+
+    /**
+     * @return Mesajın bulunduğu üyeler (sıralı, değiştirilemez); kayıt yoksa null
+     */
+    List<String> get(String messageId) {
+        byte[] key = messageId.getBytes(StandardCharsets.UTF_8);
+        int hash = hash(key);
+        Shard shard = shard(hash);
+
+        shard.lock.readLock().lock();
+        try {
+            int index = shard.find(key, hash);
+            return index >= 0 ? groups.get(shard.slotGroups[index]) : null;
+        } finally {
+            shard.lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Mesajın üyeleri hâlâ beklenen kümeyse yeni kümeyle değiştirir (onarım için).
+     * Bu arada mesaj silindiyse veya başka üyelere yeniden yazıldıysa dokunmaz.
+     *
+     * @return Değiştirildiyse true
+     */
+    boolean replace(String messageId, List<String> expected, Collection<String> memberIds) {
+        byte[] key = messageId.getBytes(StandardCharsets.UTF_8);
+        int hash = hash(key);
+        Shard shard = shard(hash);
+
+        long seq;
+        shard.lock.writeLock().lock();
+        try {
+            int index = shard.find(key, hash);
+            if (index < 0 || !groups.get(shard.slotGroups[index]).equals(expected)) {
+                return false;
+            }
+            seq = putLocked(shard, key, hash, memberIds, shard.contentHashes[index]);
+        } finally {
+            shard.lock.writeLock().unlock();
+        }
+        flushLog(seq);
+        return true;
+    }
+
+    /**
+     * Mesaj hâlâ aynı içerikle kayıtlıysa üye kümesine memberIds'i ekler
+     * (geç gelen replikasyon başarıları için). Bu arada mesaj silindiyse veya
+     * başka bir içerikle yeniden yazıldıysa dokunmaz.
+     *
+     * @return Eklendiyse true
+     */
+    boolean addMembers(String messageId, long contentHash, Collection<String> memberIds) {
+        byte[] key = messageId.getBytes(StandardCharsets.UTF_8);
+        int hash = hash(key);
+        Shard shard = shard(hash);
+
+        long seq;
+        shard.lock.writeLock().lock();
+        try {
+            int index = shard.find(key, hash);
+            if (index < 0 || shard.contentHashes[index] != contentHash) {
+                return false;
+            }
+            Set<String> merged = new HashSet<>(groups.get(shard.slotGroups[index]));
+            if (!merged.addAll(memberIds)) {
+                return false;
+            }
+            seq = putLocked(shard, key, hash, merged, contentHash);
+        } finally {
+            shard.lock.writeLock().unlock();
+        }
+        flushLog(seq);
+        return true;
+    }
+
+    /**
+     * @return Mesajın son yazılan içeriğinin hash'i; kayıt yoksa veya bilinmiyorsa UNKNOWN_CONTENT
+     */
+    long getContentHash(String messageId) {
+        byte[] key = messageId.getBytes(StandardCharsets.UTF_8);
+        int hash = hash(key);
+        Shard shard = shard(hash);
+
+        shard.lock.readLock().lock();
+        try {
+            int index = shard.find(key, hash);
+            return index >= 0 ? shard.contentHashes[index] : UNKNOWN_CONTENT;
+        } finally {
+            shard.lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * İçerik hash'i bilinmeyen (eski formatta kaydedilmiş) mesajın hash'ini
+     * kaydeder; bu arada mesaj yeniden yazıldıysa dokunmaz.
+     *
+     * @return Kaydedildiyse true
+     */
+    boolean learnContentHash(String messageId, long contentHash) {
+        byte[] key = messageId.getBytes(StandardCharsets.UTF_8);
+        int hash = hash(key);
+        Shard shard = shard(hash);
+
+        long seq;
+        shard.lock.writeLock().lock();
+        try {
+            int index = shard.find(key, hash);
+            if (index < 0 || shard.contentHashes[index] != UNKNOWN_CONTENT) {
+                return false;
+            }
+            seq = putLocked(shard, key, hash, groups.get(shard.slotGroups[index]), contentHash);
+        } finally {
+            shard.lock.writeLock().unlock();
+        }
+        flushLog(seq);
+        return true;
+    }
+
+    /**
+     * Tabloyu şerit ve slot sırasıyla, parça parça tarar; üye kümesi filtreyi
+     * sağlayan kayıtları out'a ekler. Parçalar ve şeritler arasında kilit
+     * bırakılır; bu sırada bir şerit yeniden kurulursa bazı kayıtlar atlanabilir
+     * veya iki kez görülebilir.
+     *
+     * @return Taramanın devam edeceği imleç; tablo bittiyse -1
+     */
+    int scan(int cursor, int limit, Predicate<List<String>> groupFilter, Map<String, List<String>> out) {
+        return scan(cursor, limit, groupFilter, out, null);
+    }
+
+    /**
+     * scan ile aynı; contentOut verildiyse kayıtların içerik hash'lerini de ekler.
+     */
+    int scan(int cursor, int limit, Predicate<List<String>> groupFilter, Map<String, List<String>> out,
+            Map<String, Long> contentOut) {
+        // Filtre grup başına bir kez değerlendirilir
+        byte[] matches = new byte[groups.size()];
+        int shardIndex = cursor >>> SLOT_BITS;
+        int from = cursor & SLOT_MASK;
+        for (; shardIndex < SHARD_COUNT && out.size() < limit; shardIndex++, from = 0) {
+            Shard shard = shards[shardIndex];
+            shard.lock.readLock().lock();
+            try {
+                int i = from;
+                for (; i < shard.slots.length && out.size() < limit; i++) {
+                    if (shard.slots[i] <= 0) {
+                        continue;
+                    }
+                    int group = shard.slotGroups[i];
+                    if (group >= matches.length) {
+                        matches = Arrays.copyOf(matches, groups.size());
+                    }
+                    if (matches[group] == 0) {
+                        matches[group] = (byte) (groupFilter.test(groups.get(group)) ? 1 : 2);
+                    }
+                    if (matches[group] == 1) {
+                        int offset = shard.slots[i] - 1;
+                        int length = readVarint(shard.arena, offset);
+                        String messageId = new String(shard.arena, offset + varintSize(length), length,
+                                StandardCharsets.UTF_8);
+                        out.put(messageId, groups.get(group));
+                        if (contentOut != null) {
+                            contentOut.put(messageId, shard.contentHashes[i]);
+                        }
+                    }
+                }
+                if (i < shard.slots.length) {
+                    return (shardIndex << SLOT_BITS) | i;
+                }
+            } finally {
+                shard.lock.readLock().unlock();
+            }
+        }
+        return shardIndex < SHARD_COUNT ? shardIndex << SLOT_BITS : -1;
+    }
+
+    /**
+     * @return Üye kümesi filtreyi sağlayan kayıt sayısı
+     */
+    int count(Predicate<List<String>> groupFilter) {
+        int[] groupSizes = new int[groups.size()];
+        for (Shard shard : shards) {
+            shard.lock.readLock().lock();
+            try {
+                for (int i = 0; i < shard.slots.length; i++) {
+                    if (shard.slots[i] > 0) {
+                        int group = shard.slotGroups[i];
+                        if (group >= groupSizes.length) {
+                            groupSizes = Arrays.copyOf(groupSizes, groups.size());
+                        }
+                        groupSizes[group]++;
+                    }
+                }
+            } finally {
+                shard.lock.readLock().unlock();
+            }
+        }
+        int total = 0;
+        for (int group = 0; group < groupSizes.length; group++) {
+            if (groupSizes[group] > 0 && groupFilter.test(groups.get(group))) {
+                total += groupSizes[group];
+            }
+        }
+        return total;
+    }
+
+    /**
+     * @return Kayıt vardıysa true
+     */
+    boolean remove(String messageId) {
+        byte[] key = messageId.getBytes(StandardCharsets.UTF_8);
+        int hash = hash(key);
+        Shard shard = shard(hash);
+
+        long seq;
+        shard.lock.writeLock().lock();
+        try {
+            if (!shard.remove(key, hash)) {
+                return false;
+            }
+            seq = appendLog(out -> {
+                out.writeByte(TYPE_REMOVE);
+                out.writeInt(key.length);
+                out.write(key);
+            });
+        } finally {
+            shard.lock.writeLock().unlock();
+        }
+        flushLog(seq);
+        return true;
+    }
+
+    int size() {
+        int total = 0;
+        for (Shard shard : shards) {
+            shard.lock.readLock().lock();
+            try {
+                total += shard.size;
+            } finally {
+                shard.lock.readLock().unlock();
+            }
+        }
+        return total;
+    }
+
+    int getGroupCount() {
+        return groups.size();
+    }
+
+    /**
+     * Tablonun ve arenanın kapladığı yaklaşık bellek (byte).
+     */
+    long getMemoryBytes() {
+        long total = 0;
+        for (Shard shard : shards) {
+            shard.lock.readLock().lock();
+            try {
+                total += shard.arena.length + (long) shard.slots.length * (3 * Integer.BYTES + Long.BYTES);
+            } finally {
+                shard.lock.readLock().unlock();
+            }
+        }
+        return total;
+    }
+
+    boolean isPersistent() {
+        return directory != null;
+    }
+
+    /**
+     * Şerit yazma kilidi altında çağrılır; kaydı değiştirir ve log kaydını
+     * bekleyen kayıtlara ekler.
+     *
+     * @return flushLog'a verilecek sıra numarası; değişiklik yoksa 0
+     */
+    private long putLocked(Shard shard, byte[] key, int hash, Collection<String> memberIds, long contentHash) {
+        int group = internGroup(memberIds);
+        int index = shard.find(key, hash);
+        if (index >= 0 && shard.slotGroups[index] == group && shard.contentHashes[index] == contentHash) {
+            return 0;
+        }
+        shard.put(key, hash, group, contentHash);
+
+        return appendLog(out -> {
+            out.writeByte(TYPE_PUT_CONTENT);
+            out.writeInt(key.length);
+            out.write(key);
+            out.writeInt(group);
+            out.writeLong(contentHash);
+        });
+    }
+
+    // ==================== HASH TABLOSU ====================
+
+    private static int hash(byte[] key) {
+        int h = Arrays.hashCode(key);
+        return h ^ (h >>> 16);
+    }
+
+    private Shard shard(int hash) {
+        return shards[hash >>> (Integer.SIZE - SHARD_BITS)];
+    }
+
+    /**
+     * Kendi kilidi olan açık adresli hash tablosu parçası. Slot seçimi hash'in
+     * alt bitleriyle, şerit seçimi üst bitleriyle yapılır.
+     */
+    private static final class Shard {
+        final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+        // Slot -> arena konumu + 1 (0 boş, TOMBSTONE silinmiş), ID hash'i, grup numarası, içerik hash'i
+        int[] slots = new int[INITIAL_CAPACITY];
+        int[] hashes = new int[INITIAL_CAPACITY];
+        int[] slotGroups = new int[INITIAL_CAPACITY];
+        long[] contentHashes = new long[INITIAL_CAPACITY];
+        int size;
+        int tombstones;
+
+        // ID'ler: [uzunluk varint][UTF-8 byte'lar]
+        byte[] arena = new byte[16 * INITIAL_CAPACITY];
+        int arenaSize;
+        int arenaGarbage;
+
+        /**
+         * @return Anahtarın slotu; yoksa -(eklenecek slot) - 1
+         */
+        int find(byte[] key, int hash) {
+            int mask = slots.length - 1;
+            int firstFree = -1;
+            for (int i = hash & mask;; i = (i + 1) & mask) {
+                int slot = slots[i];
+                if (slot == 0) {
+                    return -1 - (firstFree >= 0 ? firstFree : i);
+                }
+                if (slot == TOMBSTONE) {
+                    if (firstFree < 0) {
+                        firstFree = i;
+                    }
+                } else if (hashes[i] == hash && keyEquals(slot - 1, key)) {
+                    return i;
+                }
+            }
+        }
+
+        void put(byte[] key, int hash, int group, long contentHash) {
+            int index = find(key, hash);
+            if (index >= 0) {
+                slotGroups[index] = group;
+                contentHashes[index] = contentHash;
+                return;
+            }
+
+            index = -1 - index;
+            if (slots[index] == TOMBSTONE) {
+                tombstones--;
+            }
+            slots[index] = appendKey(key) + 1;
+            hashes[index] = hash;
+            slotGroups[index] = group;
+            contentHashes[index] = contentHash;
+            size++;
+
+            if ((size + tombstones) * 4 > slots.length * 3) {
+                rehash();
+            }
+        }
+
+        boolean remove(byte[] key, int hash) {
+            int index = find(key, hash);
+            if (index < 0) {
+                return false;
+            }
+
+            arenaGarbage += varintSize(key.length) + key.length;
+            slots[index] = TOMBSTONE;
+            size--;
+            tombstones++;
+
+            // Silinen ID'ler arenanın yarısını geçtiyse sıkıştır
+            if (arenaGarbage > 1024 * 1024 && arenaGarbage * 2 > arenaSize) {
+                rehash();
+            }
+            return true;
+        }
+
+        /**
+         * Tabloyu doluluk %50'nin altında kalacak şekilde yeniden kurar;
+         * silinmiş slotlar ve arenadaki çöp ID'ler bu sırada temizlenir.
+         */
+        private void rehash() {
+            int capacity = INITIAL_CAPACITY;
+            while (size * 2 > capacity) {
+                capacity <<= 1;
+            }
+
+            int[] oldSlots = slots;
+            int[] oldHashes = hashes;
+            int[] oldGroups = slotGroups;
+            long[] oldContent = contentHashes;
+            byte[] oldArena = arena;
+
+            slots = new int[capacity];
+            hashes = new int[capacity];
+            slotGroups = new int[capacity];
+            contentHashes = new long[capacity];
+            arena = new byte[Math.max(16 * INITIAL_CAPACITY, arenaSize - arenaGarbage + arenaSize / 4)];
+            arenaSize = 0;
+            arenaGarbage = 0;
+            tombstones = 0;
+
+            int mask = capacity - 1;
+            for (int i = 0; i < oldSlots.length; i++) {
+                if (oldSlots[i] <= 0) {
+                    continue;
+                }
+                int offset = oldSlots[i] - 1;
+                int length = readVarint(oldArena, offset);
+                int keyStart = offset + varintSize(length);
+
+                int index = oldHashes[i] & mask;
+                while (slots[index] != 0) {
+                    index = (index + 1) & mask;
+                }
+                slots[index] = appendKey(oldArena, keyStart, length) + 1;
+                hashes[index] = oldHashes[i];
+                slotGroups[index] = oldGroups[i];
+                contentHashes[index] = oldContent[i];
+            }
+        }
+
+        private int appendKey(byte[] key) {
+            return appendKey(key, 0, key.length);
+        }
+
+        private int appendKey(byte[] source, int from, int length) {
+            int needed = arenaSize + varintSize(length) + length;
+            if (needed > arena.length) {
+                arena = Arrays.copyOf(arena, Math.max(arena.length + (arena.length >> 1), needed));
+            }
+
+            int offset = arenaSize;
+            int value = length;
+            while ((value & ~0x7F) != 0) {
+                arena[arenaSize++] = (byte) ((value & 0x7F) | 0x80);
+                value >>>= 7;
+            }
+            arena[arenaSize++] = (byte) value;
+            System.arraycopy(source, from, arena, arenaSize, length);
+            arenaSize += length;
+            return offset;
+        }
+
+        private boolean keyEquals(int offset, byte[] key) {
+            int length = readVarint(arena, offset);
+            if (length != key.length) {
+                return false;
+            }
+            int start = offset + varintSize(length);
+            return Arrays.equals(arena, start, start + length, key, 0, length);
+        }
+
+        void clear() {
+            Arrays.fill(slots, 0);
+            size = 0;
+            tombstones = 0;
+            arenaSize = 0;
+            arenaGarbage = 0;
+        }
+    }
+
+    private static int readVarint(byte[] source, int offset) {
+        int result = 0;
+        for (int shift = 0;; shift += 7) {
+            byte b = source[offset++];
+            result |= (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return result;
+            }
+        }
+    }
+
+    private static int varintSize(int value) {
+        int bytes = 1;
+        while ((value & ~0x7F) != 0) {
+            value >>>= 7;
+            bytes++;
+        }
+        return bytes;
+    }
+
+    /**
+     * Üye kümesinin grup numarasını döner; küme ilk kez görülüyorsa yeni grup açar.
+     * Grup kaydı, grubu kullanan PUT kayıtlarından önce loga eklenir.
+     */
+    private int internGroup(Collection<String> memberIds) {
+        List<String> sorted = new ArrayList<>(memberIds);
+        Collections.sort(sorted);
+        List<String> members = List.copyOf(sorted);
+
+        Integer existing = groupIds.get(members);
+        if (existing != null) {
+            return existing;
+        }
+
+        synchronized (groupIds) {
+            existing = groupIds.get(members);
+            if (existing != null) {
+                return existing;
+            }
+            int group = groups.size();
+            appendLog(out -> {
+                out.writeByte(TYPE_GROUP);
+                writeGroup(out, group, members);
+            });
+            return addGroup(members);
+        }
+    }
+
+    private int addGroup(List<String> members) {
+        int group = groups.size();
+        groups.add(members);
+        groupIds.put(members, group);
+        return group;
+    }
+
+    private static void writeGroup(DataOutputStream out, int group, List<String> members) throws IOException {
+        out.writeInt(group);
+        out.writeInt(members.size());
+        for (String memberId : members) {
+            out.writeUTF(memberId);
+        }
+    }
+
+    private static List<String> readGroupMembers(DataInputStream in) throws IOException {
+        int count = in.readInt();
+        List<String> members = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            members.add(in.readUTF());
+        }
+        return List.copyOf(members);
+    }
+
+    private static byte[] readKey(DataInputStream in) throws IOException {
+        int length = in.readInt();
+        if (length < 0 || length > 1024 * 1024) {
+            throw new IOException("Geçersiz ID uzunluğu: " + length);
+        }
+        byte[] key = new byte[length];
+        in.readFully(key);
+        return key;
+    }
+
+    // ==================== KALICILIK ====================
+
+    /**
+     * Snapshot'ı yükler, kapsamadığı logları sırayla oynatır ve yeni log nesli açar.
+     */
+    private void recover() throws IOException {
+        long start = System.currentTimeMillis();
+        List<Integer> generations = listLogGenerations();
+        int covered = loadSnapshot();
+        int loadedFromSnapshot = size();
+
+        long replayed = 0;
+        int lastGeneration = covered - 1;
+        for (int generation : generations) {
+            if (generation < covered) {
+                // Snapshot kapsamında; önceki snapshot sonrası silinememiş
+                Files.deleteIfExists(logPath(generation));
+                continue;
+            }
+            replayed += replayLog(generation);
+            lastGeneration = generation;
+        }
+
+        logLock.lock();
+        try {
+            logRecords = replayed;
+            openLog(Math.max(covered, lastGeneration + 1));
+        } finally {
+            logLock.unlock();
+        }
+
+        System.out.println("[LOCATION_INDEX] Konum indeksi yüklendi: " + size() + " mesaj, " + groups.size()
+                + " grup (snapshot: " + loadedFromSnapshot + ", yeniden oynatılan kayıt: " + replayed + ", "
+                + (System.currentTimeMillis() - start) + " ms)");
+    }
+
+    /**
+     * @return Snapshot'ın kapsadığı ilk olmayan log nesli; snapshot yoksa veya bozuksa 0
+     */
+    private int loadSnapshot() {
+        Path path = directory.resolve(SNAPSHOT_FILE);
+        if (!Files.exists(path)) {
+            return 0;
+        }
+
+        try (CheckedInputStream checked = new CheckedInputStream(
+                new BufferedInputStream(Files.newInputStream(path), 64 * 1024), new CRC32());
+                DataInputStream in = new DataInputStream(checked)) {
+            if (in.readInt() != SNAPSHOT_MAGIC) {
+                throw new IOException("Geçersiz snapshot başlığı");
+            }
+            // Sürüm 1 içerik hash'i içermez
+            int version = in.readInt();
+            if (version != 1 && version != SNAPSHOT_VERSION) {
+                throw new IOException("Desteklenmeyen snapshot sürümü: " + version);
+            }
+            int covered = in.readInt();
+
+            int groupCount = in.readInt();
+            for (int i = 0; i < groupCount; i++) {
+                addGroup(readGroupMembers(in));
+            }
+
+            int count = in.readInt();
+            for (int i = 0; i < count; i++) {
+                byte[] key = readKey(in);
+                int group = in.readInt();
+                if (group < 0 || group >= groups.size()) {
+                    throw new IOException("Geçersiz grup numarası: " + group);
+                }
+                long contentHash = version == 1 ? UNKNOWN_CONTENT : in.readLong();
+                int hash = hash(key);
+                shard(hash).put(key, hash, group, contentHash);
+            }
+
+            int expectedCrc = (int) checked.getChecksum().getValue();
+            if (in.readInt() != expectedCrc) {
+                throw new IOException("Snapshot CRC hatası");
+            }
+            return covered;
+        } catch (IOException e) {
+            System.err.println("[LOCATION_INDEX] Snapshot kullanılamadı, yalnızca loglar oynatılacak: "
+                    + e.getMessage());
+            clear();
+            return 0;
+        }
+    }
+
+    /**
+     * Log dosyasını baştan oynatır. Yarım kalmış son kayıtta durur; o kayıt
+     * hiç uygulanmamış sayılır.
+     *
+     * @return Uygulanan kayıt sayısı
+     */
+    private long replayLog(int generation) throws IOException {
+        long records = 0;
+        try (DataInputStream in = new DataInputStream(
+                new BufferedInputStream(Files.newInputStream(logPath(generation)), 64 * 1024))) {
+            int type;
+            while ((type = in.read()) >= 0) {
+                switch (type) {
+                    case TYPE_GROUP: {
+                        int group = in.readInt();
+                        List<String> members = readGroupMembers(in);
+                        if (group != groups.size()) {
+                            throw new IOException("Grup sırası bozuk: " + group);
+                        }
+                        addGroup(members);
+                        break;
+                    }
+                    case TYPE_PUT:
+                    case TYPE_PUT_CONTENT: {
+                        byte[] key = readKey(in);
+                        int group = in.readInt();
+                        if (group < 0 || group >= groups.size()) {
+                            throw new IOException("Geçersiz grup numarası: " + group);
+                        }
+                        long contentHash = type == TYPE_PUT_CONTENT ? in.readLong() : UNKNOWN_CONTENT;
+                        int hash = hash(key);
+                        shard(hash).put(key, hash, group, contentHash);
+                        break;
+                    }
+                    case TYPE_REMOVE: {
+                        byte[] key = readKey(in);
+                        int hash = hash(key);
+                        shard(hash).remove(key, hash);
+                        break;
+                    }
+                    default:
+                        throw new IOException("Bilinmeyen kayıt tipi: " + type);
+                }
+                records++;
+            }
+        } catch (EOFException e) {
+            System.err.println("[LOCATION_INDEX] " + logPath(generation).getFileName()
+                    + " yarım kalmış kayıtla bitiyor, sonrası atlandı");
+        } catch (IOException e) {
+            System.err.println("[LOCATION_INDEX] " + logPath(generation).getFileName() + " okunamadı: "
+                    + e.getMessage());
+        }
+        return records;
+    }
+
+    /**
+     * Logda yeterince kayıt biriktiyse snapshot alır. Periyodik olarak çağrılır.
+     */
+    void maybeSnapshot() {
+        long records;
+        logLock.lock();
+        try {
+            records = logRecords;
+        } finally {
+            logLock.unlock();
+        }
+        int entries = size();
+
+        if (directory != null && records >= Math.max(SNAPSHOT_MIN_RECORDS, entries)) {
+            try {
+                snapshot();
+            } catch (IOException e) {
+                System.err.println("[LOCATION_INDEX] Snapshot hatası: " + e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * İndeksin snapshot'ını yazar (geçici dosya + fsync + atomik taşıma).
+     * Tüm şerit kilitleri altında yalnızca diziler kopyalanır, bekleyen kayıtlar
+     * eski loga yazılır ve yeni log nesline geçilir; dosya yazımı sırasında
+     * güncellemeler devam eder.
+     */
+    void snapshot() throws IOException {
+        if (directory == null || !snapshotRunning.compareAndSet(false, true)) {
+            return;
+        }
+
+        try {
+            int[][] slotsCopy = new int[SHARD_COUNT][];
+            int[][] groupsCopy = new int[SHARD_COUNT][];
+            long[][] contentCopy = new long[SHARD_COUNT][];
+            byte[][] arenaCopy = new byte[SHARD_COUNT][];
+            List<List<String>> groupList;
+            int count = 0;
+            int covered;
+
+            for (Shard shard : shards) {
+                shard.lock.writeLock().lock();
+            }
+            try {
+                for (int s = 0; s < SHARD_COUNT; s++) {
+                    Shard shard = shards[s];
+                    slotsCopy[s] = shard.slots.clone();
+                    groupsCopy[s] = shard.slotGroups.clone();
+                    contentCopy[s] = shard.contentHashes.clone();
+                    arenaCopy[s] = Arrays.copyOf(shard.arena, shard.arenaSize);
+                    count += shard.size;
+                }
+                groupList = new ArrayList<>(groups);
+
+                logLock.lock();
+                try {
+                    writePendingLog();
+                    closeLog();
+                    openLog(logGeneration + 1);
+                    covered = logGeneration;
+                    logRecords = 0;
+                } finally {
+                    logLock.unlock();
+                }
+            } finally {
+                for (Shard shard : shards) {
+                    shard.lock.writeLock().unlock();
+                }
+            }
+
+            Path target = directory.resolve(SNAPSHOT_FILE);
+            Path temp = directory.resolve(SNAPSHOT_FILE + ".tmp");
+
+            try (FileOutputStream file = new FileOutputStream(temp.toFile());
+                    CheckedOutputStream checked = new CheckedOutputStream(
+                            new BufferedOutputStream(file, 64 * 1024), new CRC32());
+                    DataOutputStream out = new DataOutputStream(checked)) {
+                out.writeInt(SNAPSHOT_MAGIC);
+                out.writeInt(SNAPSHOT_VERSION);
+                out.writeInt(covered);
+
+                out.writeInt(groupList.size());
+                for (List<String> members : groupList) {
+                    out.writeInt(members.size());
+                    for (String memberId : members) {
+                        out.writeUTF(memberId);
+                    }
+                }
+
+                out.writeInt(count);
+                for (int s = 0; s < SHARD_COUNT; s++) {
+                    for (int i = 0; i < slotsCopy[s].length; i++) {
+                        if (slotsCopy[s][i] <= 0) {
+                            continue;
+                        }
+                        int offset = slotsCopy[s][i] - 1;
+                        int length = readVarint(arenaCopy[s], offset);
+                        out.writeInt(length);
+                        out.write(arenaCopy[s], offset + varintSize(length), length);
+                        out.writeInt(groupsCopy[s][i]);
+                        out.writeLong(contentCopy[s][i]);
+                    }
+                }
+                out.flush();
+                out.writeInt((int) checked.getChecksum().getValue());
+                out.flush();
+                file.getFD().sync();
+            }
+            Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+
+            for (int generation : listLogGenerations()) {
+                if (generation < covered) {
+                    Files.deleteIfExists(logPath(generation));
+                }
+            }
+            System.out.println("[LOCATION_INDEX] Snapshot alındı: " + count + " mesaj, " + groupList.size()
+                    + " grup");
+        } finally {
+            snapshotRunning.set(false);
+        }
+    }
+
+    /**
+     * Temiz kapanışta snapshot alır, böylece sonraki açılışta log oynatılmaz.
+     */
+    @Override
+    public void close() {
+        if (directory == null) {
+            return;
+        }
+        try {
+            snapshot();
+        } catch (IOException e) {
+            System.err.println("[LOCATION_INDEX] Kapanış snapshot hatası: " + e.getMessage());
+        }
+        logLock.lock();
+        try {
+            writePendingLog();
+            closeLog();
+        } finally {
+            logLock.unlock();
+        }
+    }
+
+    /** logLock altında çağrılır. */
+    private void openLog(int generation) throws IOException {
+        logGeneration = generation;
+        log = new DataOutputStream(new BufferedOutputStream(
+                new FileOutputStream(logPath(generation).toFile(), true), 8 * 1024));
+        logOpen = true;
+    }
+
+    /** logLock altında çağrılır. */
+    private void closeLog() {
+        logOpen = false;
+        if (log != null) {
+            try {
+                log.close();
+            } catch (IOException e) {
+                System.err.println("[LOCATION_INDEX] Log kapatma hatası: " + e.getMessage());
+            }
+            log = null;
+        }
+    }
+
+    /**
+     * Kaydı bekleyen kayıtlara ekler (yalnızca bellek, sistem çağrısı yok).
+     * Şerit kilidi altında çağrılır; böylece aynı mesajın kayıtları logda
+     * uygulanma sırasıyla yer alır.
+     *
+     * @return flushLog'a verilecek sıra numarası; log kapalıysa 0
+     */
+    private long appendLog(RecordWriter writer) {
+        if (!logOpen) {
+            return 0;
+        }
+        synchronized (pendingLog) {
+            try {
+                writer.write(pendingOut);
+            } catch (IOException e) {
+                // ByteArrayOutputStream'e yazma hata vermez
+                throw new UncheckedIOException(e);
+            }
+            pendingRecords++;
+            return ++appendedSeq;
+        }
+    }
+
+    /**
+     * seq numaralı kayıt işletim sistemine yazılana kadar bekler. Kilit
+     * tutulmadan çağrılır; logLock'u alan thread o ana kadar eklenen tüm
+     * kayıtları tek yazma ve flush ile gönderir, diğerleri yalnızca bekler.
+     */
+    private void flushLog(long seq) {
+        if (seq == 0 || flushedSeq >= seq) {
+            return;
+        }
+        logLock.lock();
+        try {
+            if (flushedSeq < seq) {
+                writePendingLog();
+            }
+        } finally {
+            logLock.unlock();
+        }
+    }
+
+    /** logLock altında çağrılır. */
+    private void writePendingLog() {
+        byte[] records;
+        int count;
+        long upTo;
+        synchronized (pendingLog) {
+            records = pendingLog.toByteArray();
+            pendingLog.reset();
+            count = pendingRecords;
+            pendingRecords = 0;
+            upTo = appendedSeq;
+        }
+        if (log != null && records.length > 0) {
+            try {
+                log.write(records);
+                log.flush();
+                logRecords += count;
+            } catch (IOException e) {
+                onLogError(e);
+            }
+        }
+        flushedSeq = upTo;
+    }
+
+    @FunctionalInterface
+    private interface RecordWriter {
+        void write(DataOutputStream out) throws IOException;
+    }
+
+    /**
+     * Log yazılamıyorsa indeks bellekte çalışmaya devam eder; kalıcılık bir
+     * sonraki başarılı snapshot'a kadar durur. logLock altında çağrılır.
+     */
+    private void onLogError(IOException e) {
+        System.err.println("[LOCATION_INDEX] Log yazma hatası, kalıcılık durduruldu: " + e.getMessage());
+        closeLog();
+    }
+
+    private void clear() {
+        for (Shard shard : shards) {
+            shard.clear();
+        }
+        groups.clear();
+        groupIds.clear();
+    }
+
+    private List<Integer> listLogGenerations() throws IOException {
+        List<Integer> generations = new ArrayList<>();
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory, LOG_PREFIX + "*" + LOG_SUFFIX)) {
+            for (Path path : stream) {
+                String name = path.getFileName().toString();
+                try {
+                    generations.add(Integer.parseInt(
+                            name.substring(LOG_PREFIX.length(), name.length() - LOG_SUFFIX.length())));
+                } catch (NumberFormatException e) {
+                    // İlgisiz dosya
+                }
+            }
+        }
+        Collections.sort(generations);
+        return generations;
+    }
+
+    private Path logPath(int generation) {
+        return directory.resolve(LOG_PREFIX + generation + LOG_SUFFIX);
+    }
+}
@@ -0,0 +1,346 @@
+package com.hatokuse.leader;
+
+import com.hatokuse.protocol.HaToKuSeProtocol;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.StandardSocketOptions;
+import java.nio.ByteBuffer;
+import java.nio.channels.*;
+import java.nio.charset.Charset;
+import java.util.ArrayDeque;
+import java.util.Iterator;
+import java.util.Queue;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+/**
+ * Selector tabanlı (non-blocking) istemci sunucusu.
+ * Tek bir event-loop thread'i tüm bağlantıları kabul eder, okur ve yazar;
+ * komutlar sınırlı boyutlu bir worker havuzunda işlenir. Böylece bağlantı
+ * sayısı thread sayısından bağımsızdır.
+ *
+ * Komutlar CommandPipeline ile pipelined işlenir: bir bağlantının farklı
+ * mesaj ID'lerine ait komutları eşzamanlı çalışır, yanıtlar istek sırasıyla yazılır.
+ *
+ * Geri basınç (backpressure): bir bağlantıda bekleyen komut veya gönderilmeyi
+ * bekleyen yanıt sınırı aşılınca o bağlantıdan okuma durdurulur; TCP penceresi
+ * dolunca istemci de yavaşlar. Worker kuyruğu doluysa komut hata yanıtıyla
+ * reddedilir. Maksimum bağlantı sayısı aşılırsa yeni bağlantı kapatılır.
+ */
+class NioClientServer implements Closeable {
+
+    private static final Logger log = LoggerFactory.getLogger(NioClientServer.class);
+
+    // Bağlantı başına okuma durdurma eşikleri
+    private static final int MAX_PENDING_COMMANDS = LeaderServer.MAX_PIPELINED_COMMANDS;
+    private static final int MAX_OUTBOUND_BYTES = 1024 * 1024;
+
+    private static final int READ_BUFFER_SIZE = 64 * 1024;
+
+    private final int port;
+    private final int maxConnections;
+    private final Function<HaToKuSeProtocol.ParsedCommand, String> commandHandler;
+    private final ThreadPoolExecutor workers;
+    private final Charset charset = Charset.defaultCharset();
+
+    // Worker'lardan event-loop'a aktarılan işler (yanıt yazma)
+    private final Queue<Runnable> selectorTasks = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger connectionCount = new AtomicInteger();
+
+    // Tüm bağlantılar için ortak okuma tamponu (yalnızca event-loop kullanır)
+    private final ByteBuffer readBuffer = ByteBuffer.allocate(READ_BUFFER_SIZE);
+
+    private Selector selector;
+    private ServerSocketChannel serverChannel;
+    private Thread eventLoop;
+    private volatile boolean running = true;
+
+    /**
+     * @param workerThreads     Komut işleyen worker sayısı
+     * @param workQueueCapacity Worker kuyruğu kapasitesi; dolunca komut reddedilir
+     * @param maxConnections    Aynı anda açık tutulabilecek bağlantı sayısı
+     */
+    NioClientServer(int port, Function<HaToKuSeProtocol.ParsedCommand, String> commandHandler, int workerThreads,
+            int workQueueCapacity, int maxConnections) {
+        this.port = port;
+        this.commandHandler = commandHandler;
+        this.maxConnections = maxConnections;
+
+        AtomicInteger threadIndex = new AtomicInteger();
+        this.workers = new ThreadPoolExecutor(workerThreads, workerThreads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(Math.max(1, workQueueCapacity)), r -> {
+                    Thread t = new Thread(r, "nio-client-worker-" + threadIndex.incrementAndGet());
+                    t.setDaemon(true);
+                    return t;
+                });
+    }
+
+    void start() throws IOException {
+        selector = Selector.open();
+        serverChannel = ServerSocketChannel.open();
+        serverChannel.bind(new InetSocketAddress(port));
+        serverChannel.configureBlocking(false);
+        serverChannel.register(selector, SelectionKey.OP_ACCEPT);
+
+        eventLoop = new Thread(this::runEventLoop, "nio-client-selector");
+        eventLoop.setDaemon(true);
+        eventLoop.start();
+    }
+
+    int getConnectionCount() {
+        return connectionCount.get();
+    }
+
+    private void runEventLoop() {
+        while (running) {
+            try {
+                selector.select();
+
+                Runnable task;
+                while ((task = selectorTasks.poll()) != null) {
+                    task.run();
+                }
+
+                Iterator<SelectionKey> keys = selector.selectedKeys().iterator();
+                while (keys.hasNext()) {
+                    SelectionKey key = keys.next();
+                    keys.remove();
+
+                    if (!key.isValid()) {
+                        continue;
+                    }
+                    if (key.isAcceptable()) {
+                        accept();
+                        continue;
+                    }
+
+                    Connection conn = (Connection) key.attachment();
+                    try {
+                        if (key.isReadable()) {
+                            read(conn);
+                        }
+                        if (key.isValid() && key.isWritable()) {
+                            flush(conn);
+                        }
+                        if (key.isValid()) {
+                            updateInterest(conn);
+                        }
+                    } catch (IOException e) {
+                        close(conn);
+                    } catch (RuntimeException e) {
+                        // Tek bağlantıdaki beklenmeyen hata event loop'u durdurmasın
+                        closeAfterError(conn, e);
+                    }
+                }
+            } catch (IOException | ClosedSelectorException e) {
+                if (running) {
+                    log.warn("[CLIENT] Selector hatası: {}", e.getMessage());
+                }
+            }
+        }
+    }
+
+    private void accept() throws IOException {
+        SocketChannel channel;
+        while ((channel = serverChannel.accept()) != null) {
+            if (connectionCount.get() >= maxConnections) {
+                rejectConnection(channel);
+                continue;
+            }
+
+            channel.configureBlocking(false);
+            channel.setOption(StandardSocketOptions.TCP_NODELAY, true);
+            Connection conn = new Connection(channel);
+            conn.pipeline = new CommandPipeline(commandHandler, workers, response -> {
+                selectorTasks.add(() -> onResponse(conn, response));
+                selector.wakeup();
+            });
+            conn.key = channel.register(selector, SelectionKey.OP_READ, conn);
+            connectionCount.incrementAndGet();
+            log.debug("[CLIENT] Yeni bağlantı: {}", channel.getRemoteAddress());
+        }
+    }
+
+    private void rejectConnection(SocketChannel channel) {
+        try {
+            channel.configureBlocking(false);
+            String response = HaToKuSeProtocol.createErrorResponse("Maksimum bağlantı sayısına ulaşıldı") + "\n";
+            channel.write(ByteBuffer.wrap(response.getBytes(charset)));
+        } catch (IOException e) {
+            // Ignore
+        } finally {
+            try {
+                channel.close();
+            } catch (IOException e) {
+                // Ignore
+            }
+        }
+    }
+
+    private void read(Connection conn) throws IOException {
+        ByteBuffer buffer = readBuffer;
+        buffer.clear();
+        int n = conn.channel.read(buffer);
+        if (n < 0) {
+            conn.inputClosed = true;
+            return;
+        }
+
+        // Okunan byte'ları satırlara böl; yarım kalan satır bağlantıda birikir
+        byte[] data = buffer.array();
+        int start = 0;
+        for (int i = 0; i < n; i++) {
+            if (data[i] == '\n') {
+                conn.line.write(data, start, i - start);
+                byte[] bytes = conn.line.toByteArray();
+                int length = bytes.length;
+                if (length > 0 && bytes[length - 1] == '\r') {
+                    length--;
+                }
+                conn.pendingCommands.add(new String(bytes, 0, length, charset));
+                conn.line.reset();
+                start = i + 1;
+            }
+        }
+        conn.line.write(data, start, n - start);
+        if (conn.line.size() > HaToKuSeProtocol.MAX_LINE_BYTES) {
+            throw new IOException("Komut satırı çok uzun");
+        }
+
+        dispatchPending(conn);
+    }
+
+    /**
+     * Bekleyen komutları, yanıtı beklenen komut sınırına kadar hatta ekler.
+     */
+    private void dispatchPending(Connection conn) {
+        while (conn.inFlight < MAX_PENDING_COMMANDS && !conn.pendingCommands.isEmpty()) {
+            conn.inFlight++;
+            conn.pipeline.submit(conn.pendingCommands.poll());
+        }
+    }
+
+    private void onResponse(Connection conn, String response) {
+        conn.inFlight--;
+        if (!conn.key.isValid()) {
+            return;
+        }
+
+        byte[] data = (response + "\n").getBytes(charset);
+        conn.outbound.add(ByteBuffer.wrap(data));
+        conn.outboundBytes += data.length;
+
+        try {
+            flush(conn);
+            dispatchPending(conn);
+            updateInterest(conn);
+        } catch (IOException e) {
+            close(conn);
+        } catch (RuntimeException e) {
+            closeAfterError(conn, e);
+        }
+    }
+
+    private void flush(Connection conn) throws IOException {
+        ByteBuffer head;
+        while ((head = conn.outbound.peek()) != null) {
+            int written = conn.channel.write(head);
+            conn.outboundBytes -= written;
+            if (head.hasRemaining()) {
+                return; // Soket tamponu dolu, OP_WRITE ile devam edilir
+            }
+            conn.outbound.poll();
+        }
+    }
+
+    /**
+     * Bağlantının ilgi kümesini günceller; sınırlar aşıldıysa okumayı durdurur.
+     */
+    private void updateInterest(Connection conn) {
+        if (conn.inputClosed && conn.inFlight == 0 && conn.pendingCommands.isEmpty() && conn.outbound.isEmpty()) {
+            close(conn);
+            return;
+        }
+
+        int ops = 0;
+        if (!conn.inputClosed && conn.pendingCommands.size() + conn.inFlight < MAX_PENDING_COMMANDS
+                && conn.outboundBytes < MAX_OUTBOUND_BYTES) {
+            ops |= SelectionKey.OP_READ;
+        }
+        if (!conn.outbound.isEmpty()) {
+            ops |= SelectionKey.OP_WRITE;
+        }
+        conn.key.interestOps(ops);
+    }
+
+    private void closeAfterError(Connection conn, RuntimeException e) {
+        log.error("[CLIENT] Bağlantı işleme hatası, bağlantı kapatıldı: {}",
+                conn.channel.socket().getRemoteSocketAddress(), e);
+        close(conn);
+    }
+
+    private void close(Connection conn) {
+        if (conn.key.isValid()) {
+            conn.key.cancel();
+            connectionCount.decrementAndGet();
+        }
+        try {
+            conn.channel.close();
+        } catch (IOException e) {
+            // Ignore
+        }
+    }
+
+    @Override
+    public void close() {
+        running = false;
+        if (selector != null) {
+            selector.wakeup();
+        }
+        if (eventLoop != null) {
+            try {
+                eventLoop.join(1000);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        workers.shutdown();
+
+        try {
+            if (selector != null) {
+                for (SelectionKey key : selector.keys()) {
+                    key.channel().close();
+                }
+                selector.close();
+            }
+        } catch (IOException e) {
+            // Ignore
+        }
+    }
+
+    /**
+     * Bağlantı durumu. Yalnızca event-loop thread'i tarafından erişilir.
+     */
+    private static final class Connection {
+        final SocketChannel channel;
+        final ByteArrayOutputStream line = new ByteArrayOutputStream();
+        final Queue<String> pendingCommands = new ArrayDeque<>();
+        final Queue<ByteBuffer> outbound = new ArrayDeque<>();
+        long outboundBytes;
+        SelectionKey key;
+        CommandPipeline pipeline;
+        int inFlight;
+        boolean inputClosed;
+
+        Connection(SocketChannel channel) {
+            this.channel = channel;
+        }
+    }
+}
@@ -0,0 +1,199 @@
+package com.hatokuse.leader;
+
+import java.io.*;
+import java.nio.file.*;
+import java.util.*;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedInputStream;
+import java.util.zip.CheckedOutputStream;
+
+/**
+ * Rendezvous yerleşimde yazmaların yapıldığı aktif üye kümelerinin (dönem)
+ * geçmişi. Bir mesajın replikaları, yazıldığı dönemin üyeleri arasında en
+ * yüksek puanlı tolerance üyedir; GET ilk tolerance+1 üyede mesajı bulamazsa
+ * tüm üyeler yerine yalnızca geçmiş dönemlerin bu üyeleri denenir.
+ *
+ * Aynı küme tekrar görülürse yeni dönem açılmaz, mevcut olan en yeniye taşınır.
+ * En fazla MAX_EPOCHS dönem tutulur; daha eskisi atılırsa geçmiş eksik sayılır
+ * ve ıskada tüm üyeler denenir.
+ *
+ * Dizin verildiyse geçmiş her yeni dönemde dosyaya yazılır (geçici dosya +
+ * atomik taşıma). Geçmiş yalnızca boş bir dizinde başlatıldıysa tamdır;
+ * dosyası olmayan dolu dizin (eski sürümün verisi) ve bellekte tutulan
+ * geçmiş, yeniden başlatma öncesi dönemler bilinemeyeceği için eksiktir.
+ */
+class PlacementHistory {
+
+    static final String FILE_NAME = "placement-history";
+    private static final int MAGIC = 0x48544B50; // "HTKP"
+    static final int MAX_EPOCHS = 64;
+
+    // null ise geçmiş yalnızca bellekte tutulur
+    private final Path file;
+
+    // En yenisi sonda; değiştirilemez kopya, yazarlar this ile sıralanır
+    private volatile List<Set<String>> epochs = List.of();
+    private volatile boolean complete;
+
+    private PlacementHistory(Path file, boolean complete) {
+        this.file = file;
+        this.complete = complete;
+    }
+
+    /**
+     * Geçmişi dizinden açar; dosya yoksa boş geçmiş hemen yazılır ki sonraki
+     * açılışta dizin "geçmişsiz dolu dizin" sayılmasın.
+     *
+     * @param directory Geçmiş dosyasının dizini; null ise geçmiş eksik başlar
+     */
+    static PlacementHistory open(Path directory) {
+        if (directory == null) {
+            return new PlacementHistory(null, false);
+        }
+        Path file = directory.resolve(FILE_NAME);
+        if (Files.exists(file)) {
+            PlacementHistory history = new PlacementHistory(file, false);
+            history.load();
+            return history;
+        }
+        boolean fresh;
+        try {
+            fresh = isEmptyDirectory(directory);
+            Files.createDirectories(directory);
+        } catch (IOException e) {
+            System.err.println("[PLACEMENT] Yerleşim geçmişi dizini açılamadı: " + e.getMessage());
+            return new PlacementHistory(null, false);
+        }
+        if (!fresh) {
+            System.out.println("[PLACEMENT] Dizinde yerleşim geçmişi yok, GET ıskasında tüm üyeler denenecek");
+        }
+        PlacementHistory history = new PlacementHistory(file, fresh);
+        synchronized (history) {
+            history.save();
+        }
+        return history;
+    }
+
+    private static boolean isEmptyDirectory(Path directory) throws IOException {
+        if (!Files.isDirectory(directory)) {
+            return true;
+        }
+        try (DirectoryStream<Path> entries = Files.newDirectoryStream(directory)) {
+            return !entries.iterator().hasNext();
+        }
+    }
+
+    /**
+     * Yazmanın yapılacağı aktif üye kümesini kaydeder. Küme son dönemle aynıysa
+     * (olağan durum) kilit alınmaz ve bellek ayrılmaz.
+     */
+    void record(Collection<String> memberIds) {
+        if (isLatest(memberIds)) {
+            return;
+        }
+        synchronized (this) {
+            if (isLatest(memberIds)) {
+                return;
+            }
+            Set<String> epoch = Set.copyOf(memberIds);
+            List<Set<String>> updated = new ArrayList<>(epochs);
+            updated.remove(epoch);
+            updated.add(epoch);
+            if (updated.size() > MAX_EPOCHS) {
+                updated.remove(0);
+                complete = false;
+            }
+            epochs = List.copyOf(updated);
+            save();
+        }
+    }
+
+    private boolean isLatest(Collection<String> memberIds) {
+        List<Set<String>> current = epochs;
+        if (current.isEmpty()) {
+            return false;
+        }
+        Set<String> latest = current.get(current.size() - 1);
+        return latest.size() == memberIds.size() && latest.containsAll(memberIds);
+    }
+
+    /**
+     * @return Dönemlerin üye kümeleri (eskiden yeniye)
+     */
+    List<Set<String>> getEpochs() {
+        return epochs;
+    }
+
+    /**
+     * @return Tüm yazmaların dönemi biliniyorsa true; değilse ıskada tüm üyeler denenmelidir
+     */
+    boolean isComplete() {
+        return complete;
+    }
+
+    private void load() {
+        try (CheckedInputStream checked = new CheckedInputStream(
+                new BufferedInputStream(Files.newInputStream(file)), new CRC32());
+                DataInputStream in = new DataInputStream(checked)) {
+            if (in.readInt() != MAGIC) {
+                throw new IOException("Geçersiz dosya başlığı");
+            }
+            boolean loadedComplete = in.readBoolean();
+            int count = in.readInt();
+            List<Set<String>> loaded = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                int size = in.readInt();
+                Set<String> epoch = new HashSet<>(size * 2);
+                for (int j = 0; j < size; j++) {
+                    epoch.add(in.readUTF());
+                }
+                loaded.add(Set.copyOf(epoch));
+            }
+            int expectedCrc = (int) checked.getChecksum().getValue();
+            if (in.readInt() != expectedCrc) {
+                throw new IOException("CRC hatası");
+            }
+            epochs = List.copyOf(loaded);
+            complete = loadedComplete;
+            System.out.println("[PLACEMENT] Yerleşim geçmişi yüklendi: " + count + " dönem"
+                    + (complete ? "" : " (eksik)"));
+        } catch (IOException e) {
+            System.err.println("[PLACEMENT] Yerleşim geçmişi okunamadı, GET ıskasında tüm üyeler denenecek: "
+                    + e.getMessage());
+            epochs = List.of();
+            complete = false;
+        }
+    }
+
+    /**
+     * Geçmişi yazar; yazılamazsa geçmiş eksik sayılır (bir sonraki açılışta
+     * dosyadaki eski dönemler yetersiz kalabilir). this kilidi altında çağrılır.
+     */
+    private void save() {
+        if (file == null) {
+            return;
+        }
+        Path temp = file.resolveSibling(FILE_NAME + ".tmp");
+        try {
+            try (CheckedOutputStream checked = new CheckedOutputStream(
+                    new BufferedOutputStream(Files.newOutputStream(temp)), new CRC32());
+                    DataOutputStream out = new DataOutputStream(checked)) {
+                out.writeInt(MAGIC);
+                out.writeBoolean(complete);
+                out.writeInt(epochs.size());
+                for (Set<String> epoch : epochs) {
+                    out.writeInt(epoch.size());
+                    for (String memberId : epoch) {
+                        out.writeUTF(memberId);
+                    }
+                }
+                out.flush();
+                out.writeInt((int) checked.getChecksum().getValue());
+            }
+            Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            System.err.println("[PLACEMENT] Yerleşim geçmişi yazılamadı: " + e.getMessage());
+            complete = false;
+        }
+    }
+}
@@ -0,0 +1,366 @@
+package com.hatokuse.leader;
+
+import com.hatokuse.proto.GetMessageRequest;
+import com.hatokuse.proto.ReplicateRequest;
+import io.grpc.Status;
+
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Predicate;
+
+/**
+ * Eksik replikalı mesajları arka planda yeniden çoğaltan onarım servisi.
+ * Bir üye belirli bir süreden uzun sağlıksız kaldığında veya sistemden
+ * çıktığında konum indeksi taranır; sağlıklı kopya sayısı
+ * min(tolerance, aktif üye) altında kalan mesajlar kalan bir kopyadan okunup
+ * yeni üyelere yazılır ve yerleşim güncellenir.
+ *
+ * Onarım tek bir arka plan thread'inde, BATCH_SIZE mesajlık parçalar halinde
+ * çalışır. Bant genişliği sınırı aşılmasın diye parçalar arasında beklenir;
+ * böylece onarım istemci trafiğini boğmaz. Hedef üye, mesaj ID'sine göre
+ * rendezvous sıralamasıyla seçilir; onarılan mesajlar üyelere dengeli dağılır.
+ */
+class RepairService {
+
+    // Bir üyenin onarım başlamadan önce sağlıksız kalması gereken süre (kısa kesintilerde kopyalama yapılmaz)
+    static final long GRACE_PERIOD_MS = 5000;
+
+    // Aynı anda onarılan mesaj sayısı
+    private static final int BATCH_SIZE = 64;
+
+    // Varsayılan onarım bant genişliği (byte/sn)
+    static final long DEFAULT_BANDWIDTH_BYTES_PER_SECOND = 8L * 1024 * 1024;
+
+    // repairMessage sonuçları: onarılamadı (tekrar denenir) / şu an onarılamaz (kaynak veya hedef üye yok)
+    private static final long FAILED = -1;
+    private static final long SKIPPED = -2;
+
+    private final MemberManager manager;
+    private final MessageLocationIndex locations;
+    private final ExecutorService worker;
+    private final AtomicBoolean scheduled = new AtomicBoolean();
+    private volatile long bandwidthBytesPerSecond = DEFAULT_BANDWIDTH_BYTES_PER_SECOND;
+    private volatile boolean closed;
+
+    // Son tamamlanan geçişte onarılmış sayılan (sağlıksız veya çıkmış) üyeler; worker thread'ine ait
+    private volatile Set<String> repairedDownMembers = Collections.emptySet();
+    private volatile boolean retryNeeded;
+
+    // Metrikler
+    private final LongAdder repairedMessages = new LongAdder();
+    private final LongAdder repairedBytes = new LongAdder();
+    private final LongAdder failedRepairs = new LongAdder();
+    private final LongAdder skippedRepairs = new LongAdder();
+    private final LongAdder passes = new LongAdder();
+    private volatile int passTotal;
+    private volatile int passDone;
+    private volatile boolean running;
+    private volatile long passStartNanos;
+    private volatile long passBytes;
+    private volatile double lastBytesPerSecond;
+
+    RepairService(MemberManager manager, MessageLocationIndex locations) {
+        this.manager = manager;
+        this.locations = locations;
+        this.worker = Executors.newSingleThreadExecutor(r -> {
+            Thread thread = new Thread(r, "repair");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    void setBandwidth(long bytesPerSecond) {
+        this.bandwidthBytesPerSecond = bytesPerSecond;
+    }
+
+    /**
+     * Health check döngüsünden çağrılır. Onarım gerektiren üye kümesi son
+     * geçişten beri değiştiyse veya önceki geçişte hata olduysa yeni geçiş başlatır.
+     */
+    void onHealthCheck() {
+        if (retryNeeded || !downMembers().equals(repairedDownMembers)) {
+            trigger();
+        }
+    }
+
+    /**
+     * Onarım geçişi kuyrukta veya çalışır durumda değilse başlatır.
+     * Üye eklendiğinde/çıktığında da çağrılır; önceki geçişte hedef bulunamayan mesajlar yeniden denenir.
+     */
+    void trigger() {
+        if (!closed && scheduled.compareAndSet(false, true)) {
+            worker.execute(() -> {
+                scheduled.set(false);
+                runPass();
+            });
+        }
+    }
+
+    /**
+     * Grace süresinden uzun sağlıksız olan üyeler.
+     */
+    private Set<String> downMembers() {
+        long now = System.currentTimeMillis();
+        Set<String> down = new HashSet<>();
+        for (MemberManager.MemberInfo member : manager.getAllMembers()) {
+            if (!member.isHealthy() && now - member.getUnhealthySince() >= GRACE_PERIOD_MS) {
+                down.add(member.getMemberId());
+            }
+        }
+        return down;
+    }
+
+    /**
+     * Mesajın bulunduğu üyelerden kaçının kopyası kullanılabilir.
+     * Grace süresi dolmamış üyeler henüz kayıp sayılmaz.
+     */
+    private int availableCopies(List<String> memberIds, Set<String> down) {
+        int available = 0;
+        for (String memberId : memberIds) {
+            if (manager.getMember(memberId) != null && !down.contains(memberId)) {
+                available++;
+            }
+        }
+        return available;
+    }
+
+    private void runPass() {
+        Set<String> down = downMembers();
+        int required = Math.min(manager.getTolerance(), manager.getActiveMemberCount());
+        Predicate<List<String>> underReplicated =
+                memberIds -> availableCopies(memberIds, down) < required;
+
+        running = true;
+        retryNeeded = false;
+        passes.increment();
+        passStartNanos = System.nanoTime();
+        passBytes = 0;
+        passDone = 0;
+        passTotal = locations.count(underReplicated);
+        long failedBefore = failedRepairs.sum();
+        boolean failed = false;
+
+        if (passTotal > 0) {
+            System.out.println("[REPAIR] Onarım başladı: " + passTotal + " eksik replikalı mesaj (kayıp üyeler: "
+                    + down + ")");
+        }
+
+        try {
+            int cursor = 0;
+            while (cursor >= 0 && !closed && passTotal > 0) {
+                Map<String, List<String>> batch = new LinkedHashMap<>();
+                cursor = locations.scan(cursor, BATCH_SIZE, underReplicated, batch);
+                if (batch.isEmpty()) {
+                    continue;
+                }
+
+                long batchStart = System.nanoTime();
+                long bytes = repairBatch(batch, down, required);
+                passBytes += bytes;
+                throttle(bytes, batchStart);
+            }
+        } catch (RuntimeException e) {
+            System.err.println("[REPAIR] Onarım hatası: " + e.getMessage());
+            failed = true;
+        } finally {
+            long elapsedNanos = System.nanoTime() - passStartNanos;
+            if (passTotal > 0) {
+                lastBytesPerSecond = passBytes * 1e9 / Math.max(1, elapsedNanos);
+                System.out.printf("[REPAIR] Onarım bitti: %d/%d mesaj, %.1f KB, %.1f KB/sn, %d ms%n", passDone,
+                        passTotal, passBytes / 1024.0, lastBytesPerSecond / 1024.0, elapsedNanos / 1_000_000);
+            }
+            running = false;
+        }
+
+        if (failed || failedRepairs.sum() > failedBefore) {
+            retryNeeded = true;
+        } else {
+            repairedDownMembers = down;
+        }
+    }
+
+    /**
+     * Bir parçayı eşzamanlı onarır ve tümü bitene kadar bekler.
+     *
+     * @return Kopyalanan byte
+     */
+    private long repairBatch(Map<String, List<String>> batch, Set<String> down, int required) {
+        List<CompletableFuture<Long>> repairs = new ArrayList<>();
+        for (Map.Entry<String, List<String>> entry : batch.entrySet()) {
+            repairs.add(repairMessage(entry.getKey(), entry.getValue(), down, required));
+        }
+
+        long bytes = 0;
+        for (CompletableFuture<Long> repair : repairs) {
+            long copied = repair.join();
+            if (copied == FAILED) {
+                failedRepairs.increment();
+            } else if (copied == SKIPPED) {
+                skippedRepairs.increment();
+            } else {
+                bytes += copied;
+                repairedMessages.increment();
+            }
+            passDone++;
+        }
+        repairedBytes.add(bytes);
+        return bytes;
+    }
+
+    /**
+     * Mesajı kalan bir kopyadan okuyup eksik sayıda yeni üyeye yazar.
+     *
+     * @return Yazılan toplam byte; onarılamadıysa FAILED, kaynak veya hedef üye yoksa SKIPPED
+     */
+    private CompletableFuture<Long> repairMessage(String messageId, List<String> holders, Set<String> down,
+            int required) {
+        List<String> survivors = new ArrayList<>();
+        MemberManager.MemberInfo source = null;
+        for (String memberId : holders) {
+            MemberManager.MemberInfo member = manager.getMember(memberId);
+            if (member != null && !down.contains(memberId)) {
+                survivors.add(memberId);
+                if (source == null && member.isHealthy()) {
+                    source = member;
+                }
+            }
+        }
+
+        List<MemberManager.MemberInfo> targets = new ArrayList<>();
+        for (MemberManager.MemberInfo candidate : MemberManager.rankMembers(messageId, manager.getActiveMembers())) {
+            if (targets.size() >= required - survivors.size()) {
+                break;
+            }
+            if (!holders.contains(candidate.getMemberId())) {
+                targets.add(candidate);
+            }
+        }
+
+        if (source == null || targets.isEmpty()) {
+            return CompletableFuture.completedFuture(SKIPPED);
+        }
+
+        MemberManager.MemberInfo from = source;
+        return from.getMessage(GetMessageRequest.newBuilder().setMessageId(messageId).build())
+                .thenCompose(response -> {
+                    if (!response.getFound()) {
+                        // Bu arada silinmiş veya kaynakta kaybolmuş; üyelik değişince tekrar denenir
+                        return CompletableFuture.completedFuture(SKIPPED);
+                    }
+
+                    // Gövde çözülmeden hedeflere aktarılır
+                    ReplicateRequest request = ReplicateRequest.newBuilder()
+                            .setMessageId(messageId)
+                            .setMessageContentBytes(response.getMessageContentBytes())
+                            .build();
+                    long size = response.getMessageContentBytes().remaining();
+
+                    List<CompletableFuture<String>> writes = new ArrayList<>();
+                    for (MemberManager.MemberInfo target : targets) {
+                        writes.add(target.replicate(request).handle((result, error) -> {
+                            if (error != null) {
+                                target.markUnhealthy();
+                                return null;
+                            }
+                            return result.getSuccess() ? target.getMemberId() : null;
+                        }));
+                    }
+
+                    return CompletableFuture.allOf(writes.toArray(new CompletableFuture<?>[0])).thenApply(v -> {
+                        Set<String> placement = new TreeSet<>(survivors);
+                        for (CompletableFuture<String> write : writes) {
+                            if (write.join() != null) {
+                                placement.add(write.join());
+                            }
+                        }
+                        int added = placement.size() - survivors.size();
+                        if (added == 0) {
+                            return FAILED;
+                        }
+                        // Onarım sırasında mesaj silindiyse veya yeniden yazıldıysa yerleşime dokunulmaz
+                        locations.replace(messageId, holders, placement);
+                        return size * added;
+                    });
+                })
+                .exceptionally(error -> {
+                    System.err.println("[REPAIR] Kaynak okunamadı: " + from.getMemberId() + " - "
+                            + Status.fromThrowable(error));
+                    return FAILED;
+                });
+    }
+
+    /**
+     * Parçanın byte'ları bant genişliği sınırına göre gereken süreden önce
+     * bittiyse aradaki farkı bekler.
+     */
+    private void throttle(long bytes, long batchStartNanos) {
+        long limit = bandwidthBytesPerSecond;
+        if (limit <= 0 || bytes == 0) {
+            return;
+        }
+        long minimumNanos = bytes * 1_000_000_000L / limit;
+        long remainingNanos = minimumNanos - (System.nanoTime() - batchStartNanos);
+        if (remainingNanos > 0) {
+            try {
+                Thread.sleep(remainingNanos / 1_000_000, (int) (remainingNanos % 1_000_000));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    void close() {
+        closed = true;
+        worker.shutdownNow();
+    }
+
+    // ==================== METRİKLER ====================
+
+    long getRepairedMessages() {
+        return repairedMessages.sum();
+    }
+
+    long getRepairedBytes() {
+        return repairedBytes.sum();
+    }
+
+    long getFailedRepairs() {
+        return failedRepairs.sum();
+    }
+
+    /**
+     * Kaynak veya hedef üye bulunamadığı için atlanan onarımlar.
+     */
+    long getSkippedRepairs() {
+        return skippedRepairs.sum();
+    }
+
+    long getPassCount() {
+        return passes.sum();
+    }
+
+    boolean isRunning() {
+        return running;
+    }
+
+    /**
+     * Çalışan (yoksa son) geçişin ilerlemesi: {onarılan, toplam}.
+     */
+    int[] getProgress() {
+        return new int[] { passDone, passTotal };
+    }
+
+    /**
+     * Çalışan geçişin anlık, yoksa son geçişin ortalama onarım bant genişliği (byte/sn).
+     */
+    double getBytesPerSecond() {
+        if (running) {
+            return passBytes * 1e9 / Math.max(1, System.nanoTime() - passStartNanos);
+        }
+        return lastBytesPerSecond;
+    }
+}
@@ -0,0 +1,158 @@
+package com.hatokuse.leader;
+
+import com.hatokuse.proto.*;
+import io.grpc.stub.StreamObserver;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Üye başına replikasyon birleştiricisi.
+ * Aynı üyeye giden eşzamanlı replikasyon istekleri kuyrukta toplanır ve
+ * ReplicateBatch RPC'si ile toplu gönderilir. Bekleme (linger) yoktur:
+ * uçuştaki batch sayısı sınırın altındaysa kuyruktaki istekler hemen gönderilir,
+ * sınırdaysa yanıt beklenirken biriken istekler bir sonraki batch'i oluşturur
+ * (doğal batching). Böylece düşük yükte gecikme artmaz, yüksek yükte batch büyür.
+ */
+class ReplicationBatcher {
+
+    // Batch başına en fazla mesaj sayısı ve yaklaşık boyut (gRPC 4MB mesaj sınırının altında)
+    private static final int MAX_BATCH_SIZE = 256;
+    private static final long MAX_BATCH_BYTES = 1024 * 1024;
+
+    // Üye başına aynı anda yanıtı beklenen batch sayısı
+    private static final int MAX_IN_FLIGHT_BATCHES = 4;
+
+    private final MemberManager.MemberInfo member;
+    private final long deadlineMillis;
+
+    // this ile korunur
+    private final ArrayDeque<PendingReplication> queue = new ArrayDeque<>();
+    private int inFlightBatches;
+
+    private final LongAdder batchCount = new LongAdder();
+    private final LongAdder messageCount = new LongAdder();
+
+    ReplicationBatcher(MemberManager.MemberInfo member, long deadlineMillis) {
+        this.member = member;
+        this.deadlineMillis = deadlineMillis;
+    }
+
+    /**
+     * Replikasyon isteğini kuyruğa ekler.
+     *
+     * @return Üyenin bu mesaj için verdiği yanıtla tamamlanan future; RPC hatasında exceptionally
+     */
+    CompletableFuture<ReplicateResponse> submit(ReplicateRequest request) {
+        PendingReplication pending = new PendingReplication(request);
+        synchronized (this) {
+            queue.add(pending);
+        }
+        drain();
+        return pending.future;
+    }
+
+    /**
+     * Uçuştaki batch sınırına kadar kuyruktaki istekleri gönderir.
+     */
+    private void drain() {
+        while (true) {
+            List<PendingReplication> batch;
+            synchronized (this) {
+                if (inFlightBatches >= MAX_IN_FLIGHT_BATCHES || queue.isEmpty()) {
+                    return;
+                }
+                inFlightBatches++;
+
+                batch = new ArrayList<>();
+                long batchBytes = 0;
+                while (!queue.isEmpty() && batch.size() < MAX_BATCH_SIZE) {
+                    PendingReplication next = queue.peek();
+                    long size = next.request.getMessageId().length() + next.request.getMessageContent().length();
+                    if (!batch.isEmpty() && batchBytes + size > MAX_BATCH_BYTES) {
+                        break;
+                    }
+                    batch.add(queue.poll());
+                    batchBytes += size;
+                }
+            }
+            send(batch);
+        }
+    }
+
+    private void send(List<PendingReplication> batch) {
+        ReplicateBatchRequest.Builder builder = ReplicateBatchRequest.newBuilder();
+        for (PendingReplication pending : batch) {
+            builder.addMessages(pending.request);
+        }
+
+        batchCount.increment();
+        messageCount.add(batch.size());
+
+        member.getAsyncStub()
+                .withDeadlineAfter(deadlineMillis, TimeUnit.MILLISECONDS)
+                .replicateBatch(builder.build(), new StreamObserver<ReplicateBatchResponse>() {
+                    @Override
+                    public void onNext(ReplicateBatchResponse response) {
+                        List<ReplicateResponse> results = response.getResultsList();
+                        for (int i = 0; i < batch.size(); i++) {
+                            if (i < results.size()) {
+                                batch.get(i).future.complete(results.get(i));
+                            } else {
+                                batch.get(i).future.complete(ReplicateResponse.newBuilder()
+                                        .setSuccess(false)
+                                        .setErrorMessage("Eksik toplu replikasyon yanıtı")
+                                        .build());
+                            }
+                        }
+                    }
+
+                    @Override
+                    public void onError(Throwable t) {
+                        for (PendingReplication pending : batch) {
+                            pending.future.completeExceptionally(t);
+                        }
+                        onBatchDone();
+                    }
+
+                    @Override
+                    public void onCompleted() {
+                        onBatchDone();
+                    }
+                });
+    }
+
+    private void onBatchDone() {
+        synchronized (this) {
+            inFlightBatches--;
+        }
+        drain();
+    }
+
+    /**
+     * Gönderilen batch sayısı.
+     */
+    long getBatchCount() {
+        return batchCount.sum();
+    }
+
+    /**
+     * Batch'lerle gönderilen toplam mesaj sayısı.
+     */
+    long getMessageCount() {
+        return messageCount.sum();
+    }
+
+    private static final class PendingReplication {
+        final ReplicateRequest request;
+        final CompletableFuture<ReplicateResponse> future = new CompletableFuture<>();
+
+        PendingReplication(ReplicateRequest request) {
+            this.request = request;
+        }
+    }
+}
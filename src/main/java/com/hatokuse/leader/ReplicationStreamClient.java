@@ -0,0 +1,210 @@
+package com.hatokuse.leader;
+
+import com.hatokuse.proto.ReplicationAck;
+import com.hatokuse.proto.ReplicationOp;
+import io.grpc.Status;
+import io.grpc.stub.StreamObserver;
+
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Üye başına uzun ömürlü replikasyon akışı istemcisi.
+ * Kayıt ve silme işlemleri tek bir ReplicationStream çağrısı üzerinden sıra
+ * numarasıyla art arda gönderilir; üyenin kümülatif onayı gelene kadar işlemler
+ * bekleyen tablosunda tutulur. Yanıtı beklenen işlem sayısı sınırlıdır, sınır
+ * doluysa yeni işlemler yerel kuyrukta bekler.
+ *
+ * Akış koparsa bekleyen işlemler hata ile tamamlanır (yeniden gönderilmez,
+ * çağıran taraf bunu tekil RPC hatası gibi değerlendirir) ve sonraki işlemde
+ * yeni akış açılır. Süre sınırı içinde onaylanmayan işlem akışı iptal ettirir.
+ */
+class ReplicationStreamClient {
+
+    // Üye başına yanıtı beklenen en fazla işlem
+    private static final int MAX_IN_FLIGHT_OPS = 1024;
+
+    private final MemberManager.MemberInfo member;
+    private final long deadlineMillis;
+
+    // this ile korunur
+    private final ArrayDeque<PendingOp> waiting = new ArrayDeque<>();
+    private Session session;
+
+    private final LongAdder sentOps = new LongAdder();
+    private final LongAdder ackCount = new LongAdder();
+    private final LongAdder reconnects = new LongAdder();
+
+    ReplicationStreamClient(MemberManager.MemberInfo member, long deadlineMillis) {
+        this.member = member;
+        this.deadlineMillis = deadlineMillis;
+    }
+
+    /**
+     * İşlemi akışa ekler.
+     *
+     * @return Üye işlemi uyguladıysa true, uygulayamadıysa false; akış hatası
+     *         veya süre aşımında exceptionally tamamlanan future
+     */
+    CompletableFuture<Boolean> submit(ReplicationOp.Type type, String messageId, String content) {
+        PendingOp op = new PendingOp(type, messageId, content);
+        synchronized (this) {
+            waiting.add(op);
+        }
+        op.future.orTimeout(deadlineMillis, TimeUnit.MILLISECONDS).whenComplete((result, error) -> {
+            if (error instanceof TimeoutException) {
+                abort(op);
+            }
+        });
+        drain();
+        return op.future;
+    }
+
+    /**
+     * Bekleyen işlemleri yanıt sınırına kadar akışa yazar; akış yoksa açar.
+     */
+    private synchronized void drain() {
+        while (!waiting.isEmpty()) {
+            if (session == null) {
+                session = new Session();
+                session.requests = member.getAsyncStub().replicationStream(session);
+                reconnects.increment();
+            }
+            if (session.inFlight.size() >= MAX_IN_FLIGHT_OPS) {
+                return;
+            }
+
+            PendingOp op = waiting.poll();
+            if (op.future.isDone()) {
+                continue; // Kuyrukta beklerken süresi doldu
+            }
+            long sequence = ++session.nextSequence;
+            op.session = session;
+            session.inFlight.put(sequence, op);
+            sentOps.increment();
+            session.requests.onNext(ReplicationOp.newBuilder()
+                    .setSequence(sequence)
+                    .setType(op.type)
+                    .setMessageId(op.messageId)
+                    .setMessageContent(op.content)
+                    .build());
+        }
+    }
+
+    private void onAck(Session from, ReplicationAck ack) {
+        List<PendingOp> acked = new ArrayList<>();
+        Set<Long> failed = new HashSet<>(ack.getFailedSequencesList());
+        List<Boolean> results = new ArrayList<>();
+        synchronized (this) {
+            ackCount.increment();
+            SortedMap<Long, PendingOp> head = from.inFlight.headMap(ack.getAckedSequence() + 1);
+            for (Map.Entry<Long, PendingOp> entry : head.entrySet()) {
+                acked.add(entry.getValue());
+                results.add(!failed.contains(entry.getKey()));
+            }
+            head.clear();
+        }
+
+        for (int i = 0; i < acked.size(); i++) {
+            acked.get(i).future.complete(results.get(i));
+        }
+        drain();
+    }
+
+    private void onStreamClosed(Session from, Throwable error) {
+        List<PendingOp> lost;
+        synchronized (this) {
+            if (session == from) {
+                session = null;
+            }
+            lost = new ArrayList<>(from.inFlight.values());
+            from.inFlight.clear();
+        }
+
+        Throwable cause = error != null ? error
+                : Status.UNAVAILABLE.withDescription("Replikasyon akışı kapandı").asRuntimeException();
+        for (PendingOp op : lost) {
+            op.future.completeExceptionally(cause);
+        }
+        drain();
+    }
+
+    /**
+     * Süresi dolan işlemin akışını iptal eder; akıştaki diğer işlemler de hata alır.
+     */
+    private void abort(PendingOp op) {
+        synchronized (this) {
+            Session stuck = op.session;
+            if (stuck == null || stuck != session) {
+                return;
+            }
+            session = null;
+            stuck.requests.onError(Status.DEADLINE_EXCEEDED
+                    .withDescription("Replikasyon onayı zaman aşımına uğradı")
+                    .asRuntimeException());
+        }
+    }
+
+    /**
+     * Akışı düzgün kapatır; üye bekleyen işlemleri bitirip onaylar.
+     */
+    synchronized void close() {
+        if (session != null) {
+            session.requests.onCompleted();
+            session = null;
+        }
+    }
+
+    long getSentOps() {
+        return sentOps.sum();
+    }
+
+    long getAckCount() {
+        return ackCount.sum();
+    }
+
+    long getStreamCount() {
+        return reconnects.sum();
+    }
+
+    /**
+     * Tek bir ReplicationStream çağrısı. Sıra numaraları her akışta 1'den başlar.
+     */
+    private final class Session implements StreamObserver<ReplicationAck> {
+        final TreeMap<Long, PendingOp> inFlight = new TreeMap<>();
+        StreamObserver<ReplicationOp> requests;
+        long nextSequence;
+
+        @Override
+        public void onNext(ReplicationAck ack) {
+            onAck(this, ack);
+        }
+
+        @Override
+        public void onError(Throwable t) {
+            onStreamClosed(this, t);
+        }
+
+        @Override
+        public void onCompleted() {
+            onStreamClosed(this, null);
+        }
+    }
+
+    private static final class PendingOp {
+        final ReplicationOp.Type type;
+        final String messageId;
+        final String content;
+        final CompletableFuture<Boolean> future = new CompletableFuture<>();
+        Session session;
+
+        PendingOp(ReplicationOp.Type type, String messageId, String content) {
+            this.type = type;
+            this.messageId = messageId;
+            this.content = content;
+        }
+    }
+}
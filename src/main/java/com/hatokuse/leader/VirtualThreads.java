@@ -0,0 +1,49 @@
+package com.hatokuse.leader;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Java 21+ virtual thread desteği.
+ * Proje Java 17 ile derlendiği için Executors.newVirtualThreadPerTaskExecutor
+ * reflection ile çağrılır; çalışma zamanı Java 21'den eskiyse null döner ve
+ * çağıran taraf platform thread havuzuna geri döner.
+ */
+public final class VirtualThreads {
+
+    private static final Method NEW_VIRTUAL_EXECUTOR = findFactory();
+
+    private VirtualThreads() {
+    }
+
+    private static Method findFactory() {
+        try {
+            return Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+        } catch (NoSuchMethodException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Çalışma zamanı virtual thread destekliyor mu?
+     */
+    public static boolean isSupported() {
+        return NEW_VIRTUAL_EXECUTOR != null;
+    }
+
+    /**
+     * Her görev için yeni bir virtual thread açan executor döner;
+     * desteklenmiyorsa null.
+     */
+    public static ExecutorService newPerTaskExecutor() {
+        if (NEW_VIRTUAL_EXECUTOR == null) {
+            return null;
+        }
+        try {
+            return (ExecutorService) NEW_VIRTUAL_EXECUTOR.invoke(null);
+        } catch (ReflectiveOperationException e) {
+            return null;
+        }
+    }
+}
@@ -1,7 +1,14 @@
 package com.hatokuse.member;
 
 import com.hatokuse.proto.*;
+import com.hatokuse.config.ConfigReader;
+import com.hatokuse.metrics.JmxExporter;
+import com.hatokuse.metrics.MetricsRegistry;
+import com.hatokuse.metrics.PrometheusExporter;
 import com.hatokuse.storage.DiskStorage;
+import com.hatokuse.storage.LruMessageCache;
+import com.hatokuse.storage.MessageCache;
+import com.hatokuse.storage.OffHeapMessageCache;
 import io.grpc.*;
 
 import java.util.concurrent.*;
@@ -16,6 +23,7 @@ public class MemberServer {
     private static final String DEFAULT_LEADER_HOST = "127.0.0.1";
     private static final int DEFAULT_LEADER_PORT = 5001;
     private static final String DEFAULT_DATA_DIR = "./data/members";
+    private static final String DEFAULT_CONFIG_FILE = "member.conf";
 
     // Heartbeat gönderme aralığı (saniye)
     private static final int HEARTBEAT_INTERVAL = 5;
@@ -23,19 +31,35 @@ public class MemberServer {
     // İstatistik yazdırma aralığı (saniye)
     private static final int STATS_INTERVAL = 10;
 
+    // Storage indeks checkpoint aralığı (saniye)
+    private static final int CHECKPOINT_INTERVAL = 60;
+
     private final String memberId;
     private final int port;
     private final String leaderHost;
     private final int leaderPort;
     private final DiskStorage storage;
+    // Prometheus uç noktası portu; 0 ise yalnızca JMX
+    private final int metricsPort;
 
     private Server grpcServer;
     private ManagedChannel leaderChannel;
     private LeaderServiceGrpc.LeaderServiceBlockingStub leaderStub;
     private ScheduledExecutorService scheduler;
+    private PrometheusExporter metricsExporter;
     private volatile boolean running = true;
 
     public MemberServer(String memberId, int port, String leaderHost, int leaderPort, String dataDir) throws Exception {
+        this(memberId, port, leaderHost, leaderPort, dataDir, new ConfigReader());
+    }
+
+    /**
+     * @param config Storage ayarları (member.conf + komut satırı): io_mode,
+     *               group_commit_batch, group_commit_linger_us, cache_max_bytes,
+     *               offheap_cache_bytes, metrics_port
+     */
+    public MemberServer(String memberId, int port, String leaderHost, int leaderPort, String dataDir,
+            ConfigReader config) throws Exception {
         this.memberId = memberId;
         this.port = port;
         this.leaderHost = leaderHost;
@@ -43,7 +67,36 @@ public class MemberServer {
 
         // Her üye için ayrı dizin
         String memberDataDir = dataDir + "/" + memberId;
-        this.storage = new DiskStorage(memberDataDir);
+        this.storage = createStorage(memberDataDir, config);
+        this.metricsPort = config.getIntValue("metrics_port", 0);
+    }
+
+    /**
+     * Konfigürasyona göre DiskStorage oluşturur.
+     */
+    private static DiskStorage createStorage(String memberDataDir, ConfigReader config) throws Exception {
+        DiskStorage.IOMode ioMode = DiskStorage.IOMode.valueOf(
+                config.getValue("io_mode", DiskStorage.IOMode.BUFFERED.name()).toUpperCase());
+        int groupCommitBatchSize = config.getIntValue("group_commit_batch",
+                DiskStorage.DEFAULT_GROUP_COMMIT_BATCH_SIZE);
+        long groupCommitLingerMicros = config.getLongValue("group_commit_linger_us",
+                DiskStorage.DEFAULT_GROUP_COMMIT_LINGER_MICROS);
+        long cacheMaxBytes = config.getLongValue("cache_max_bytes", DiskStorage.DEFAULT_CACHE_MAX_BYTES);
+
+        long offHeapCacheBytes = config.getLongValue("offheap_cache_bytes", 0);
+
+        System.out.println("[CONFIG] Önbellek boyutu: " + (cacheMaxBytes / (1024 * 1024)) + " MB");
+
+        // 0 ise heap dışı önbellek kapalıdır; gövdeler heap önbelleğinde tutulur
+        OffHeapMessageCache offHeapCache = null;
+        if (offHeapCacheBytes > 0) {
+            offHeapCache = new OffHeapMessageCache(offHeapCacheBytes);
+            System.out.println("[CONFIG] Heap dışı önbellek: "
+                    + (offHeapCache.getMaxBytes() / (1024 * 1024)) + " MB");
+        }
+
+        return new DiskStorage(memberDataDir, ioMode, groupCommitBatchSize, groupCommitLingerMicros,
+                new LruMessageCache(cacheMaxBytes), offHeapCache);
     }
 
     /**
@@ -69,6 +122,8 @@ public class MemberServer {
         // Heartbeat ve istatistik zamanlayıcısını başlat
         startSchedulers();
 
+        startMetrics();
+
         System.out.println("Üye sunucu başlatıldı.");
     }
 
@@ -153,7 +208,7 @@ public class MemberServer {
      * Heartbeat ve istatistik zamanlayıcılarını başlatır.
      */
     private void startSchedulers() {
-        scheduler = Executors.newScheduledThreadPool(2);
+        scheduler = Executors.newScheduledThreadPool(3);
 
         // Heartbeat
         scheduler.scheduleAtFixedRate(this::sendHeartbeat,
@@ -162,6 +217,10 @@ public class MemberServer {
         // İstatistik yazdırma
         scheduler.scheduleAtFixedRate(this::printStats,
                 STATS_INTERVAL, STATS_INTERVAL, TimeUnit.SECONDS);
+
+        // İndeks checkpoint (çökme sonrası hızlı açılış için)
+        scheduler.scheduleAtFixedRate(storage::checkpoint,
+                CHECKPOINT_INTERVAL, CHECKPOINT_INTERVAL, TimeUnit.SECONDS);
     }
 
     /**
@@ -198,9 +257,39 @@ public class MemberServer {
         System.out.println("\n[" + memberId + "] ===== İSTATİSTİK =====");
         System.out.println("[" + memberId + "] Saklanan mesaj sayısı: " + storage.getMessageCount());
         System.out.println("[" + memberId + "] Veri dizini: " + storage.getStoragePath());
+        System.out.println("[" + memberId + "] Açılış süresi: " + storage.getStartupMillis() + " ms");
+        MessageCache cache = storage.getCache();
+        System.out.printf("[%s] Önbellek: %d kayıt, %.1f/%.1f MB, isabet oranı %%%.1f (isabet %d, ıska %d, tahliye %d)%n",
+                memberId, cache.getEntryCount(),
+                cache.getSizeBytes() / (1024.0 * 1024), cache.getMaxBytes() / (1024.0 * 1024),
+                cache.getHitRatio() * 100, cache.getHitCount(), cache.getMissCount(), cache.getEvictionCount());
+        OffHeapMessageCache offHeapCache = storage.getOffHeapCache();
+        if (offHeapCache != null) {
+            System.out.printf("[%s] Heap dışı önbellek: %d kayıt, %.1f MB, isabet oranı %%%.1f (isabet %d, ıska %d, tahliye %d)%n",
+                    memberId, offHeapCache.getEntryCount(), offHeapCache.getMaxBytes() / (1024.0 * 1024),
+                    offHeapCache.getHitRatio() * 100, offHeapCache.getHitCount(),
+                    offHeapCache.getMissCount(), offHeapCache.getEvictionCount());
+        }
         System.out.println("[" + memberId + "] ========================\n");
     }
 
+    /**
+     * Metrikleri JMX'e bağlar; metrics_port verilmişse Prometheus uç noktasını açar.
+     */
+    private void startMetrics() {
+        JmxExporter.register(MetricsRegistry.getDefault());
+        if (metricsPort <= 0) {
+            return;
+        }
+        try {
+            metricsExporter = new PrometheusExporter(MetricsRegistry.getDefault(), metricsPort);
+            metricsExporter.start();
+            System.out.println("[METRICS] Prometheus uç noktası: http://localhost:" + metricsPort + "/metrics");
+        } catch (java.io.IOException e) {
+            System.err.println("[METRICS] Uç nokta açılamadı, port " + metricsPort + ": " + e.getMessage());
+        }
+    }
+
     /**
      * Sunucuyu kapatır.
      */
@@ -229,6 +318,12 @@ public class MemberServer {
             grpcServer.shutdown();
         }
 
+        if (metricsExporter != null) {
+            metricsExporter.close();
+        }
+
+        storage.close();
+
         System.out.println("[" + memberId + "] Sunucu kapatıldı.");
     }
 
@@ -242,6 +337,14 @@ public class MemberServer {
         int leaderPort = DEFAULT_LEADER_PORT;
         String dataDir = DEFAULT_DATA_DIR;
 
+        // member.conf dosyasından oku (komut satırı değerleri önceliklidir)
+        ConfigReader config = new ConfigReader();
+        try {
+            config.loadConfig(DEFAULT_CONFIG_FILE);
+        } catch (java.io.IOException e) {
+            System.out.println("[CONFIG] " + DEFAULT_CONFIG_FILE + " okunamadı, varsayılan ayarlar kullanılıyor.");
+        }
+
         // Komut satırı argümanlarını işle
         for (int i = 0; i < args.length; i++) {
             switch (args[i]) {
@@ -270,6 +373,36 @@ public class MemberServer {
                         dataDir = args[++i];
                     }
                     break;
+                case "--io-mode":
+                    if (i + 1 < args.length) {
+                        config.setValue("io_mode", args[++i]);
+                    }
+                    break;
+                case "--group-commit-batch":
+                    if (i + 1 < args.length) {
+                        config.setValue("group_commit_batch", args[++i]);
+                    }
+                    break;
+                case "--group-commit-linger-us":
+                    if (i + 1 < args.length) {
+                        config.setValue("group_commit_linger_us", args[++i]);
+                    }
+                    break;
+                case "--cache-max-bytes":
+                    if (i + 1 < args.length) {
+                        config.setValue("cache_max_bytes", args[++i]);
+                    }
+                    break;
+                case "--offheap-cache-bytes":
+                    if (i + 1 < args.length) {
+                        config.setValue("offheap_cache_bytes", args[++i]);
+                    }
+                    break;
+                case "--metrics-port":
+                    if (i + 1 < args.length) {
+                        config.setValue("metrics_port", args[++i]);
+                    }
+                    break;
                 case "--help":
                     printUsage();
                     return;
@@ -277,7 +410,7 @@ public class MemberServer {
         }
 
         try {
-            MemberServer server = new MemberServer(memberId, port, leaderHost, leaderPort, dataDir);
+            MemberServer server = new MemberServer(memberId, port, leaderHost, leaderPort, dataDir, config);
             server.start();
 
             // Kapanma bekle
@@ -299,6 +432,13 @@ public class MemberServer {
         System.out.println("  --leader-host <host>   Lider sunucu adresi (varsayılan: localhost)");
         System.out.println("  --leader-port <port>   Lider gRPC portu (varsayılan: 5001)");
         System.out.println("  --data-dir <path>      Veri dizini (varsayılan: ./data/members)");
+        System.out.println("  --io-mode <mod>        Disk IO modu: STANDARD, BUFFERED, ZERO_COPY,");
+        System.out.println("                         MEMORY_MAPPED, SEGMENT, GROUP_COMMIT (varsayılan: BUFFERED)");
+        System.out.println("  --group-commit-batch <n>      GROUP_COMMIT batch boyutu (varsayılan: 256)");
+        System.out.println("  --group-commit-linger-us <us> GROUP_COMMIT bekleme süresi (varsayılan: 500)");
+        System.out.println("  --cache-max-bytes <n>  Okuma önbelleği üst sınırı, byte (varsayılan: 64MB)");
+        System.out.println("  --offheap-cache-bytes <n>     Heap dışı gövde önbelleği, byte (varsayılan: 0 = kapalı)");
+        System.out.println("  --metrics-port <port>  Prometheus /metrics portu (varsayılan: 0 = kapalı)");
         System.out.println("  --help                 Bu yardım mesajını gösterir");
     }
 }
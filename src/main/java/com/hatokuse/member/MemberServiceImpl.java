@@ -2,7 +2,18 @@ package com.hatokuse.member;
 
 import com.hatokuse.proto.*;
 import com.hatokuse.storage.DiskStorage;
+import com.hatokuse.storage.MerkleDigest;
 import io.grpc.stub.StreamObserver;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 /**
  * Üye gRPC servis implementasyonu.
@@ -10,44 +21,100 @@ import io.grpc.stub.StreamObserver;
  */
 public class MemberServiceImpl extends MemberServiceGrpc.MemberServiceImplBase {
 
+    private static final Logger log = LoggerFactory.getLogger(MemberServiceImpl.class);
+
     private final DiskStorage storage;
     private final String memberId;
+    // Replikasyon akışlarının onaylarını gönderir (tüm akışlar için tek thread)
+    private final ExecutorService ackExecutor;
 
     public MemberServiceImpl(String memberId, DiskStorage storage) {
         this.memberId = memberId;
         this.storage = storage;
+        this.ackExecutor = Executors.newSingleThreadExecutor(r -> {
+            Thread thread = new Thread(r, "replication-ack");
+            thread.setDaemon(true);
+            return thread;
+        });
     }
 
     @Override
     public void replicateMessage(ReplicateRequest request, StreamObserver<ReplicateResponse> responseObserver) {
         String messageId = request.getMessageId();
-        String content = request.getMessageContent();
-
-        System.out.println("[" + memberId + "] Replikasyon isteği: " + messageId);
+        // Gövde marshaller'ın okuduğu tamponun dilimidir; String'e çevrilmeden yazılır
+        ByteBuffer content = request.getMessageContentBytes();
+
+        log.debug("[{}] Replikasyon isteği: {}", memberId, messageId);
+
+        // GROUP_COMMIT modunda yanıt, kaydın batch'i fsync edildikten sonra gönderilir;
+        // bu sırada gRPC thread'i bloklanmaz.
+        storage.saveMessageAsync(messageId, content).whenComplete((saved, error) -> {
+            boolean success = error == null && saved;
+            if (error != null) {
+                log.warn("[{}] Kayıt hatası: {}", memberId, error.getMessage());
+            }
+
+            ReplicateResponse response = ReplicateResponse.newBuilder()
+                    .setSuccess(success)
+                    .setErrorMessage(success ? "" : "Kayıt hatası")
+                    .build();
+
+            responseObserver.onNext(response);
+            responseObserver.onCompleted();
+        });
+    }
 
-        boolean success = storage.saveMessage(messageId, content);
+    @Override
+    public void replicateBatch(ReplicateBatchRequest request,
+            StreamObserver<ReplicateBatchResponse> responseObserver) {
+        List<String> messageIds = new ArrayList<>(request.getMessagesCount());
+        List<ByteBuffer> contents = new ArrayList<>(request.getMessagesCount());
+        for (ReplicateRequest message : request.getMessagesList()) {
+            messageIds.add(message.getMessageId());
+            contents.add(message.getMessageContentBytes());
+        }
 
-        ReplicateResponse response = ReplicateResponse.newBuilder()
-                .setSuccess(success)
-                .setErrorMessage(success ? "" : "Kayıt hatası")
-                .build();
+        log.debug("[{}] Toplu replikasyon isteği: {} mesaj", memberId, messageIds.size());
+
+        // Tüm mesajlar tek storage commit'i ile yazılır
+        storage.saveMessagesAsync(messageIds, contents).whenComplete((saved, error) -> {
+            if (error != null) {
+                log.warn("[{}] Toplu kayıt hatası: {}", memberId, error.getMessage());
+            }
+
+            ReplicateBatchResponse.Builder builder = ReplicateBatchResponse.newBuilder();
+            for (int i = 0; i < messageIds.size(); i++) {
+                boolean success = error == null && saved[i];
+                builder.addResults(ReplicateResponse.newBuilder()
+                        .setSuccess(success)
+                        .setErrorMessage(success ? "" : "Kayıt hatası")
+                        .build());
+            }
+
+            responseObserver.onNext(builder.build());
+            responseObserver.onCompleted();
+        });
+    }
 
-        responseObserver.onNext(response);
-        responseObserver.onCompleted();
+    @Override
+    public StreamObserver<ReplicationOp> replicationStream(StreamObserver<ReplicationAck> responseObserver) {
+        log.info("[{}] Replikasyon akışı açıldı", memberId);
+        return new ReplicationStreamHandler(memberId, storage, responseObserver, ackExecutor);
     }
 
     @Override
     public void getMessage(GetMessageRequest request, StreamObserver<GetMessageResponse> responseObserver) {
         String messageId = request.getMessageId();
 
-        System.out.println("[" + memberId + "] Mesaj sorgusu: " + messageId);
+        log.debug("[{}] Mesaj sorgusu: {}", memberId, messageId);
 
-        String content = storage.getMessage(messageId);
+        // Gövde storage'ın tamponu olarak yanıta konur; marshaller onu kopyalamadan gönderir
+        ByteBuffer data = storage.getMessageBuffer(messageId);
 
         GetMessageResponse.Builder builder = GetMessageResponse.newBuilder();
 
-        if (content != null) {
-            builder.setFound(true).setMessageContent(content);
+        if (data != null) {
+            builder.setFound(true).setMessageContentBytes(data);
         } else {
             builder.setFound(false).setErrorMessage("Mesaj bulunamadı");
         }
@@ -83,7 +150,7 @@ public class MemberServiceImpl extends MemberServiceGrpc.MemberServiceImplBase {
     public void deleteMessage(DeleteRequest request, StreamObserver<DeleteResponse> responseObserver) {
         String messageId = request.getMessageId();
 
-        System.out.println("[" + memberId + "] Silme isteği: " + messageId);
+        log.debug("[{}] Silme isteği: {}", memberId, messageId);
 
         boolean success = storage.deleteMessage(messageId);
 
@@ -95,4 +162,61 @@ public class MemberServiceImpl extends MemberServiceGrpc.MemberServiceImplBase {
         responseObserver.onNext(response);
         responseObserver.onCompleted();
     }
+
+    @Override
+    public void getDigest(DigestRequest request, StreamObserver<DigestResponse> responseObserver) {
+        if (!storage.isDigestReady()) {
+            // Açılıştan sonra içerik hash'leri henüz doldurulmadı; eksik ağaç yanlış fark gösterir
+            responseObserver.onError(io.grpc.Status.UNAVAILABLE.withDescription("Hash ağacı hazırlanıyor")
+                    .asRuntimeException());
+            return;
+        }
+        DigestResponse.Builder builder = DigestResponse.newBuilder();
+        try {
+            for (long hash : storage.getDigest().getLevel(request.getLevel(), request.getFromIndex(),
+                    request.getCount())) {
+                builder.addHashes(hash);
+            }
+        } catch (IllegalArgumentException e) {
+            responseObserver.onError(io.grpc.Status.INVALID_ARGUMENT.withDescription(e.getMessage())
+                    .asRuntimeException());
+            return;
+        }
+
+        responseObserver.onNext(builder.build());
+        responseObserver.onCompleted();
+    }
+
+    /**
+     * İstenen yapraklara düşen mesajları içerik hash'leriyle döner. Mesajlar
+     * hash ağacının yaprak kovalarından okunur (tam tarama yapılmaz); hash'i
+     * henüz bilinmeyen mesajın gövdesi (önbelleğe eklenmeden) okunur.
+     */
+    @Override
+    public void getRangeEntries(RangeEntriesRequest request,
+            StreamObserver<RangeEntriesResponse> responseObserver) {
+        MerkleDigest digest = storage.getDigest();
+        Map<String, Long> entries = new LinkedHashMap<>();
+        for (int leaf : request.getLeavesList()) {
+            if (leaf >= 0 && leaf < MerkleDigest.LEAF_COUNT) {
+                digest.forEachInLeaf(leaf, entries::put);
+            }
+        }
+
+        RangeEntriesResponse.Builder builder = RangeEntriesResponse.newBuilder();
+        for (Map.Entry<String, Long> entry : entries.entrySet()) {
+            if (entry.getValue() != MerkleDigest.UNKNOWN_CONTENT) {
+                builder.addEntry(entry.getKey(), entry.getValue());
+                continue;
+            }
+            ByteBuffer data = storage.getMessageBufferUncached(entry.getKey());
+            if (data != null) {
+                builder.addEntry(entry.getKey(), MerkleDigest.contentHash(data));
+            }
+        }
+
+        log.debug("[{}] Aralık sorgusu: {} yaprak, {} mesaj", memberId, request.getLeavesCount(), entries.size());
+        responseObserver.onNext(builder.build());
+        responseObserver.onCompleted();
+    }
 }
@@ -0,0 +1,150 @@
+package com.hatokuse.member;
+
+import com.hatokuse.proto.ReplicationAck;
+import com.hatokuse.proto.ReplicationOp;
+import com.hatokuse.storage.DiskStorage;
+import io.grpc.stub.StreamObserver;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+
+/**
+ * Liderden gelen tek bir replikasyon akışını işler.
+ * Kayıt ve silme işlemleri gelir gelmez, onNext sırasıyla storage'a verilir.
+ * Storage'ın asenkron yazmaları çağrı sırasıyla uygulanır (GROUP_COMMIT
+ * modunda tek kuyruk ve batch içi sıra, diğer modlarda çağrı anında senkron
+ * yazma); böylece akışın tamamı, dolayısıyla aynı mesaja ait işlemler de akış
+ * sırasıyla uygulanır. Hiçbir işlem başka bir işlemin bitmesini beklemez.
+ *
+ * İşlemler farklı sırayla bitebilir; lidere her zaman kesintisiz tamamlanan en
+ * büyük sıra numarası (kümülatif onay) ve bu aralıkta başarısız olan işlemler
+ * bildirilir. Art arda biten işlemlerin onayları tek mesajda birleştirilir.
+ */
+class ReplicationStreamHandler implements StreamObserver<ReplicationOp> {
+
+    private static final Logger log = LoggerFactory.getLogger(ReplicationStreamHandler.class);
+
+    private final String memberId;
+    private final DiskStorage storage;
+    private final StreamObserver<ReplicationAck> acks;
+    // Onaylar storage'ın tamamlama thread'inde değil burada gönderilir; aynı anda
+    // biten işlemler tek onayda birleşir
+    private final Executor ackExecutor;
+
+    // this ile korunur
+    private final TreeMap<Long, Boolean> completed = new TreeMap<>();
+    private final List<Long> failedSinceAck = new ArrayList<>();
+    private long ackedSequence;
+    private boolean ackScheduled;
+    private boolean inputClosed;
+    private boolean closed;
+    private long lastReceivedSequence;
+
+    ReplicationStreamHandler(String memberId, DiskStorage storage, StreamObserver<ReplicationAck> acks,
+            Executor ackExecutor) {
+        this.memberId = memberId;
+        this.storage = storage;
+        this.acks = acks;
+        this.ackExecutor = ackExecutor;
+    }
+
+    @Override
+    public void onNext(ReplicationOp op) {
+        synchronized (this) {
+            lastReceivedSequence = op.getSequence();
+        }
+
+        // Sıra, storage'a veriliş sırasıdır; burada beklenmez veya başka thread'e geçilmez
+        CompletableFuture<Boolean> result = op.getType() == ReplicationOp.Type.DELETE
+                ? storage.deleteMessageAsync(op.getMessageId())
+                : storage.saveMessageAsync(op.getMessageId(), op.getMessageContentBytes());
+
+        result.whenComplete((success, error) -> {
+            if (error != null) {
+                log.warn("[{}] Akış işlemi hatası: {} - {}", memberId, op.getMessageId(), error.getMessage());
+            }
+            onOpCompleted(op.getSequence(), error == null && success);
+        });
+    }
+
+    @Override
+    public void onError(Throwable t) {
+        // Lider akışı kesti; bekleyen işlemler tamamlanır ama onay gönderilmez
+        synchronized (this) {
+            closed = true;
+        }
+    }
+
+    @Override
+    public void onCompleted() {
+        boolean done;
+        synchronized (this) {
+            inputClosed = true;
+            done = ackedSequence == lastReceivedSequence && !closed;
+            if (done) {
+                closed = true;
+            }
+        }
+        if (done) {
+            acks.onCompleted();
+        }
+    }
+
+    private void onOpCompleted(long sequence, boolean success) {
+        synchronized (this) {
+            completed.put(sequence, success);
+            if (ackScheduled || closed) {
+                return;
+            }
+            ackScheduled = true;
+        }
+        // Aynı anda biten diğer işlemler de bu onaya dahil olsun
+        ackExecutor.execute(this::sendAck);
+    }
+
+    private void sendAck() {
+        ReplicationAck ack;
+        boolean finish;
+        synchronized (this) {
+            ackScheduled = false;
+            long previous = ackedSequence;
+            while (!completed.isEmpty() && completed.firstKey() == ackedSequence + 1) {
+                if (!completed.pollFirstEntry().getValue()) {
+                    failedSinceAck.add(ackedSequence + 1);
+                }
+                ackedSequence++;
+            }
+            if (ackedSequence == previous || closed) {
+                return;
+            }
+
+            ReplicationAck.Builder builder = ReplicationAck.newBuilder().setAckedSequence(ackedSequence);
+            for (long failed : failedSinceAck) {
+                builder.addFailedSequences(failed);
+            }
+            failedSinceAck.clear();
+            ack = builder.build();
+
+            finish = inputClosed && ackedSequence == lastReceivedSequence;
+            if (finish) {
+                closed = true;
+            }
+
+            // Akış gözlemcisi thread-safe değildir; gönderim kilit altında yapılır
+            try {
+                acks.onNext(ack);
+            } catch (RuntimeException e) {
+                closed = true;
+                return;
+            }
+        }
+        if (finish) {
+            acks.onCompleted();
+        }
+    }
+}
@@ -0,0 +1,26 @@
+package com.hatokuse.metrics;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Artan sayaç. LongAdder ile kilitsiz; yazma yolunda çekişme yaratmaz.
+ */
+public final class Counter {
+
+    private final LongAdder value = new LongAdder();
+
+    Counter() {
+    }
+
+    public void inc() {
+        value.increment();
+    }
+
+    public void add(long amount) {
+        value.add(amount);
+    }
+
+    public long get() {
+        return value.sum();
+    }
+}
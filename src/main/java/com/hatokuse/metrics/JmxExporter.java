@@ -0,0 +1,114 @@
+package com.hatokuse.metrics;
+
+import javax.management.*;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Metrikleri platform MBeanServer'da "com.hatokuse:type=Metrics" adlı tek bir
+ * DynamicMBean olarak yayınlar. Her seri bir öznitelik (salt okunur double)
+ * olur: ad{etiketler}; gecikme ölçerler için .count, .sum ve .p50 / .p90 /
+ * .p99 / .p999 (sn). Öznitelik listesi her sorguda kayıttan yeniden
+ * oluşturulur, sonradan eklenen seriler (ör. yeni üye) de görünür.
+ */
+public final class JmxExporter implements DynamicMBean {
+
+    static final String OBJECT_NAME = "com.hatokuse:type=Metrics";
+
+    private static final String[] QUANTILE_SUFFIXES = {".p50", ".p90", ".p99", ".p999"};
+
+    private final MetricsRegistry registry;
+
+    private JmxExporter(MetricsRegistry registry) {
+        this.registry = registry;
+    }
+
+    /**
+     * Kaydı JMX'e bağlar; aynı JVM'de ikinci çağrı bir şey yapmaz.
+     */
+    public static synchronized void register(MetricsRegistry registry) {
+        try {
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            ObjectName name = new ObjectName(OBJECT_NAME);
+            if (!server.isRegistered(name)) {
+                server.registerMBean(new JmxExporter(registry), name);
+            }
+        } catch (JMException e) {
+            System.err.println("[METRICS] JMX kaydı yapılamadı: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Öznitelik adı -> değer; gecikme ölçerlerin yüzdelikleri tek seferde okunur.
+     */
+    private Map<String, Double> snapshot() {
+        Map<String, Double> values = new LinkedHashMap<>();
+        for (MetricsRegistry.Family family : registry.families()) {
+            family.series.forEach((labels, metric) -> {
+                String base = labels.isEmpty() ? family.name : family.name + "{" + labels + "}";
+                if (metric instanceof LatencyTimer) {
+                    LatencyTimer timer = (LatencyTimer) metric;
+                    values.put(base + ".count", (double) timer.getCount());
+                    values.put(base + ".sum", timer.getTotalSeconds());
+                    double[] quantiles = timer.getQuantileSeconds();
+                    for (int i = 0; i < quantiles.length; i++) {
+                        values.put(base + QUANTILE_SUFFIXES[i], quantiles[i]);
+                    }
+                } else {
+                    values.put(base, MetricsRegistry.valueOf(metric));
+                }
+            });
+        }
+        return values;
+    }
+
+    @Override
+    public Object getAttribute(String attribute) throws AttributeNotFoundException {
+        Double value = snapshot().get(attribute);
+        if (value == null) {
+            throw new AttributeNotFoundException(attribute);
+        }
+        return value;
+    }
+
+    @Override
+    public AttributeList getAttributes(String[] attributes) {
+        Map<String, Double> values = snapshot();
+        AttributeList list = new AttributeList();
+        for (String attribute : attributes) {
+            Double value = values.get(attribute);
+            if (value != null) {
+                list.add(new Attribute(attribute, value));
+            }
+        }
+        return list;
+    }
+
+    @Override
+    public void setAttribute(Attribute attribute) throws AttributeNotFoundException {
+        throw new AttributeNotFoundException("Metrikler salt okunurdur: " + attribute.getName());
+    }
+
+    @Override
+    public AttributeList setAttributes(AttributeList attributes) {
+        return new AttributeList();
+    }
+
+    @Override
+    public Object invoke(String actionName, Object[] params, String[] signature) throws MBeanException {
+        throw new MBeanException(new UnsupportedOperationException(actionName));
+    }
+
+    @Override
+    public MBeanInfo getMBeanInfo() {
+        List<MBeanAttributeInfo> attributes = new ArrayList<>();
+        for (String name : snapshot().keySet()) {
+            attributes.add(new MBeanAttributeInfo(name, "double", name, true, false, false));
+        }
+        return new MBeanInfo(getClass().getName(), "HaToKuSe metrikleri",
+                attributes.toArray(new MBeanAttributeInfo[0]), null, null, null);
+    }
+}
@@ -0,0 +1,89 @@
+package com.hatokuse.metrics;
+
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Gecikme ölçer. Kayıtlar HdrHistogram Recorder'a mikrosaniye olarak yazılır
+ * (wait-free, kilitsiz); toplam sayı ve süre LongAdder'larda tutulur.
+ *
+ * Yüzdelikler okunurken (scrape / JMX) Recorder'ın aralık histogramı pencereye
+ * eklenir. Pencere WINDOW_SECONDS'ta bir döner ve yüzdelikler mevcut ile önceki
+ * pencere üzerinden hesaplanır; böylece değerler son 1-2 dakikayı yansıtır,
+ * süreç başlangıcından beri biriken geçmişe gömülmez.
+ */
+public final class LatencyTimer {
+
+    // Kaydedilebilen en büyük değer: 60 sn; 2 anlamlı basamak (%1 çözünürlük)
+    private static final long HIGHEST_TRACKABLE_MICROS = TimeUnit.SECONDS.toMicros(60);
+    private static final int SIGNIFICANT_DIGITS = 2;
+    private static final long WINDOW_NANOS = TimeUnit.SECONDS.toNanos(60);
+
+    static final double[] QUANTILES = {0.5, 0.9, 0.99, 0.999};
+
+    private final Recorder recorder = new Recorder(HIGHEST_TRACKABLE_MICROS, SIGNIFICANT_DIGITS);
+    private final LongAdder count = new LongAdder();
+    private final LongAdder totalNanos = new LongAdder();
+
+    // this ile korunur
+    private Histogram interval;
+    private Histogram current = new Histogram(HIGHEST_TRACKABLE_MICROS, SIGNIFICANT_DIGITS);
+    private Histogram previous = new Histogram(HIGHEST_TRACKABLE_MICROS, SIGNIFICANT_DIGITS);
+    private final Histogram merged = new Histogram(HIGHEST_TRACKABLE_MICROS, SIGNIFICANT_DIGITS);
+    private long windowStart = System.nanoTime();
+
+    LatencyTimer() {
+    }
+
+    /**
+     * Süreyi (ns) kaydeder.
+     */
+    public void record(long elapsedNanos) {
+        long nanos = Math.max(0, elapsedNanos);
+        recorder.recordValue(Math.min(HIGHEST_TRACKABLE_MICROS, nanos / 1000));
+        count.increment();
+        totalNanos.add(nanos);
+    }
+
+    /**
+     * System.nanoTime() ile alınmış başlangıçtan bu yana geçen süreyi kaydeder.
+     */
+    public void recordSince(long startNanos) {
+        record(System.nanoTime() - startNanos);
+    }
+
+    public long getCount() {
+        return count.sum();
+    }
+
+    public double getTotalSeconds() {
+        return totalNanos.sum() / 1e9;
+    }
+
+    /**
+     * Son pencerelerdeki yüzdelik değerleri (sn), QUANTILES sırasıyla.
+     */
+    public synchronized double[] getQuantileSeconds() {
+        interval = recorder.getIntervalHistogram(interval);
+        current.add(interval);
+        long now = System.nanoTime();
+        if (now - windowStart >= WINDOW_NANOS) {
+            Histogram oldest = previous;
+            previous = current;
+            current = oldest;
+            current.reset();
+            windowStart = now;
+        }
+        merged.reset();
+        merged.add(previous);
+        merged.add(current);
+        double[] values = new double[QUANTILES.length];
+        for (int i = 0; i < QUANTILES.length; i++) {
+            values[i] = merged.getValueAtPercentile(QUANTILES[i] * 100) / 1e6;
+        }
+        return values;
+    }
+}
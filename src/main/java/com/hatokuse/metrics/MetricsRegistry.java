@@ -0,0 +1,140 @@
+package com.hatokuse.metrics;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.function.DoubleSupplier;
+
+/**
+ * Süreç genelindeki metrik kaydı.
+ * Metrikler ad + etiket (label) çiftleriyle tanımlanır; aynı ad ve etiketlerle
+ * ikinci kez istenen sayaç / ölçer aynı nesneyi döner. Bileşenler metrik
+ * nesnelerini oluştururken bir kez alır ve alanda tutar; sıcak yolda arama
+ * yapılmaz.
+ *
+ * Lider ve üyeler aynı JVM'de çalışabildiği için (benchmarklar) tek kayıt
+ * kullanılır; seriler member / store etiketleriyle ayrılır.
+ */
+public final class MetricsRegistry {
+
+    /**
+     * Dışa aktarımda kullanılan metrik türü.
+     */
+    enum Type {
+        COUNTER("counter"),
+        GAUGE("gauge"),
+        SUMMARY("summary");
+
+        final String prometheusName;
+
+        Type(String prometheusName) {
+            this.prometheusName = prometheusName;
+        }
+    }
+
+    /**
+     * Aynı adlı serilerin kümesi. Seri anahtarı Prometheus biçimindeki
+     * etiket listesidir (ör. member="m1",op="set"); değer Counter,
+     * LatencyTimer veya DoubleSupplier'dır.
+     */
+    static final class Family {
+        final String name;
+        final String help;
+        final Type type;
+        final Map<String, Object> series = new ConcurrentSkipListMap<>();
+
+        Family(String name, String help, Type type) {
+            this.name = name;
+            this.help = help;
+            this.type = type;
+        }
+    }
+
+    private static final MetricsRegistry DEFAULT = new MetricsRegistry();
+
+    private final Map<String, Family> families = new ConcurrentSkipListMap<>();
+
+    public static MetricsRegistry getDefault() {
+        return DEFAULT;
+    }
+
+    /**
+     * @param labels Etiket adı / değeri çiftleri: "member", "m1", "op", "set"
+     */
+    public Counter counter(String name, String help, String... labels) {
+        return (Counter) family(name, help, Type.COUNTER).series
+                .computeIfAbsent(labelKey(labels), key -> new Counter());
+    }
+
+    public LatencyTimer timer(String name, String help, String... labels) {
+        return (LatencyTimer) family(name, help, Type.SUMMARY).series
+                .computeIfAbsent(labelKey(labels), key -> new LatencyTimer());
+    }
+
+    /**
+     * Okunduğu anda hesaplanan değer. Aynı seri yeniden kaydedilirse yeni
+     * fonksiyon eskisinin yerini alır (ör. yeniden kayıt olan üye).
+     */
+    public void gauge(String name, String help, DoubleSupplier value, String... labels) {
+        family(name, help, Type.GAUGE).series.put(labelKey(labels), value);
+    }
+
+    /**
+     * Değeri başka bir bileşenin sayacında tutulan artan sayaç (ör. onarılan
+     * mesaj sayısı); gauge gibi okunur, counter olarak dışa aktarılır.
+     */
+    public void counterFunction(String name, String help, DoubleSupplier value, String... labels) {
+        family(name, help, Type.COUNTER).series.put(labelKey(labels), value);
+    }
+
+    /**
+     * Etiketi verilen değere eşit olan tüm serileri kaldırır (ör. kapanan üye).
+     */
+    public void unregister(String labelName, String labelValue) {
+        String label = labelName + "=\"" + escape(labelValue) + "\"";
+        for (Family family : families.values()) {
+            family.series.keySet().removeIf(key -> key.equals(label) || key.startsWith(label + ",")
+                    || key.contains("," + label));
+        }
+    }
+
+    Collection<Family> families() {
+        return families.values();
+    }
+
+    private Family family(String name, String help, Type type) {
+        Family family = families.computeIfAbsent(name, key -> new Family(name, help, type));
+        if (family.type != type) {
+            throw new IllegalArgumentException("Metrik türü uyuşmuyor: " + name + " (" + family.type + ")");
+        }
+        return family;
+    }
+
+    private static String labelKey(String... labels) {
+        if (labels.length % 2 != 0) {
+            throw new IllegalArgumentException("Etiketler ad/değer çiftleri olmalı");
+        }
+        StringBuilder key = new StringBuilder();
+        for (int i = 0; i < labels.length; i += 2) {
+            if (key.length() > 0) {
+                key.append(',');
+            }
+            key.append(labels[i]).append("=\"").append(escape(labels[i + 1])).append('"');
+        }
+        return key.toString();
+    }
+
+    private static String escape(String value) {
+        return value.replace("\\", "\\\\").replace("\"", "\\\"").replace("\n", "\\n");
+    }
+
+    /**
+     * Seri değerini türüne göre sayıya çevirir (COUNTER ve GAUGE).
+     */
+    static double valueOf(Object metric) {
+        if (metric instanceof Counter) {
+            return ((Counter) metric).get();
+        }
+        return ((DoubleSupplier) metric).getAsDouble();
+    }
+}
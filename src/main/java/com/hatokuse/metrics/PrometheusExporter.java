@@ -0,0 +1,121 @@
+package com.hatokuse.metrics;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.Locale;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Metrikleri Prometheus metin biçiminde (0.0.4) düz HTTP üzerinden sunar:
+ * GET /metrics. Gecikme ölçerler summary olarak (quantile, _sum, _count)
+ * saniye cinsinden yazılır. Tek bir daemon thread ile çalışır; metrikler
+ * yalnızca istek geldiğinde okunur.
+ */
+public class PrometheusExporter implements Closeable {
+
+    private static final String CONTENT_TYPE = "text/plain; version=0.0.4; charset=utf-8";
+
+    private final MetricsRegistry registry;
+    private final HttpServer server;
+    private final ExecutorService executor;
+
+    public PrometheusExporter(MetricsRegistry registry, int port) throws IOException {
+        this.registry = registry;
+        this.server = HttpServer.create(new InetSocketAddress(port), 0);
+        this.executor = Executors.newSingleThreadExecutor(r -> {
+            Thread thread = new Thread(r, "metrics-http");
+            thread.setDaemon(true);
+            return thread;
+        });
+        server.createContext("/metrics", this::handle);
+        server.setExecutor(executor);
+    }
+
+    public void start() {
+        server.start();
+    }
+
+    public int getPort() {
+        return server.getAddress().getPort();
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        try {
+            if (!exchange.getRequestMethod().equals("GET")) {
+                exchange.sendResponseHeaders(405, -1);
+                return;
+            }
+            byte[] body = scrape().getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().set("Content-Type", CONTENT_TYPE);
+            exchange.sendResponseHeaders(200, body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        } finally {
+            exchange.close();
+        }
+    }
+
+    /**
+     * Tüm metrikleri Prometheus metin biçiminde döner.
+     */
+    String scrape() {
+        StringBuilder out = new StringBuilder(8192);
+        for (MetricsRegistry.Family family : registry.families()) {
+            if (family.series.isEmpty()) {
+                continue;
+            }
+            out.append("# HELP ").append(family.name).append(' ').append(family.help).append('\n');
+            out.append("# TYPE ").append(family.name).append(' ').append(family.type.prometheusName).append('\n');
+            family.series.forEach((labels, metric) -> {
+                if (metric instanceof LatencyTimer) {
+                    appendSummary(out, family.name, labels, (LatencyTimer) metric);
+                } else {
+                    appendSample(out, family.name, labels, MetricsRegistry.valueOf(metric));
+                }
+            });
+        }
+        return out.toString();
+    }
+
+    private static void appendSummary(StringBuilder out, String name, String labels, LatencyTimer timer) {
+        double[] quantiles = timer.getQuantileSeconds();
+        for (int i = 0; i < quantiles.length; i++) {
+            String quantile = "quantile=\"" + LatencyTimer.QUANTILES[i] + "\"";
+            appendSample(out, name, labels.isEmpty() ? quantile : labels + "," + quantile, quantiles[i]);
+        }
+        appendSample(out, name + "_sum", labels, timer.getTotalSeconds());
+        appendSample(out, name + "_count", labels, timer.getCount());
+    }
+
+    private static void appendSample(StringBuilder out, String name, String labels, double value) {
+        out.append(name);
+        if (!labels.isEmpty()) {
+            out.append('{').append(labels).append('}');
+        }
+        out.append(' ').append(format(value)).append('\n');
+    }
+
+    private static String format(double value) {
+        if (Double.isNaN(value)) {
+            return "NaN";
+        }
+        if (value == Math.rint(value) && Math.abs(value) < 1e15) {
+            return Long.toString((long) value);
+        }
+        return String.format(Locale.ROOT, "%.6g", value);
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+        executor.shutdownNow();
+    }
+}
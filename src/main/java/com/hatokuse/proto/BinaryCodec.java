@@ -0,0 +1,292 @@
+package com.hatokuse.proto;
+
+import io.grpc.KnownLength;
+
+import java.io.ByteArrayInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Marshaller'ların ortak ikili kodlaması.
+ * Sayılar protobuf ile aynı varint biçiminde, metinler varint uzunluk önekli
+ * UTF-8 olarak yazılır. Alanlar ayraçla değil uzunlukla ayrıldığı için mesaj
+ * ID'si veya içerik satır sonu içerebilir.
+ *
+ * Writer metni karakter karakter doğrudan tampona kodlar; Reader metinleri
+ * gelen tampondan tek adımda çözer, arada String kopyası oluşturulmaz.
+ * Mesaj gövdeleri byte alanı olarak da okunabilir: Reader gelen tamponun
+ * dilimini döner, Writer büyük gövdeyi kendi tamponuna kopyalamadan stream'e ekler.
+ */
+final class BinaryCodec {
+
+    private BinaryCodec() {
+    }
+
+    static final class Writer {
+        private byte[] buffer;
+        private int position;
+
+        Writer() {
+            this(64);
+        }
+
+        /**
+         * @param sizeHint Beklenen kodlanmış boyut; aşılırsa tampon büyütülür
+         */
+        Writer(int sizeHint) {
+            this.buffer = new byte[Math.max(16, sizeHint)];
+        }
+
+        Writer writeVarint(long value) {
+            ensureCapacity(10);
+            while ((value & ~0x7FL) != 0) {
+                buffer[position++] = (byte) ((value & 0x7F) | 0x80);
+                value >>>= 7;
+            }
+            buffer[position++] = (byte) value;
+            return this;
+        }
+
+        Writer writeInt(int value) {
+            // Negatif değerler protobuf int32 gibi 10 byte yer kaplar
+            return writeVarint(value);
+        }
+
+        Writer writeBool(boolean value) {
+            ensureCapacity(1);
+            buffer[position++] = (byte) (value ? 1 : 0);
+            return this;
+        }
+
+        Writer writeString(String value) {
+            int length = value.length();
+            int encodedLength = utf8Length(value);
+            writeVarint(encodedLength);
+            ensureCapacity(encodedLength);
+
+            // ASCII ön eki için hızlı yol
+            int i = 0;
+            for (char c; i < length && (c = value.charAt(i)) < 0x80; i++) {
+                buffer[position++] = (byte) c;
+            }
+
+            for (; i < length; i++) {
+                char c = value.charAt(i);
+                if (c < 0x80) {
+                    buffer[position++] = (byte) c;
+                } else if (c < 0x800) {
+                    buffer[position++] = (byte) (0xC0 | (c >> 6));
+                    buffer[position++] = (byte) (0x80 | (c & 0x3F));
+                } else if (Character.isHighSurrogate(c) && i + 1 < length
+                        && Character.isLowSurrogate(value.charAt(i + 1))) {
+                    int codePoint = Character.toCodePoint(c, value.charAt(++i));
+                    buffer[position++] = (byte) (0xF0 | (codePoint >> 18));
+                    buffer[position++] = (byte) (0x80 | ((codePoint >> 12) & 0x3F));
+                    buffer[position++] = (byte) (0x80 | ((codePoint >> 6) & 0x3F));
+                    buffer[position++] = (byte) (0x80 | (codePoint & 0x3F));
+                } else if (Character.isSurrogate(c)) {
+                    // Eşsiz surrogate: String.getBytes ile aynı şekilde '?' yazılır
+                    buffer[position++] = '?';
+                } else {
+                    buffer[position++] = (byte) (0xE0 | (c >> 12));
+                    buffer[position++] = (byte) (0x80 | ((c >> 6) & 0x3F));
+                    buffer[position++] = (byte) (0x80 | (c & 0x3F));
+                }
+            }
+            return this;
+        }
+
+        /**
+         * Tamponun kalan byte'larını uzunluk önekiyle yazar (string ile aynı biçim).
+         */
+        Writer writeBytes(ByteBuffer value) {
+            int length = value.remaining();
+            writeVarint(length);
+            ensureCapacity(length);
+            value.duplicate().get(buffer, position, length);
+            position += length;
+            return this;
+        }
+
+        /**
+         * Kodlanmış byte'ları kopyalamadan okuyan stream döner.
+         */
+        InputStream toInputStream() {
+            return new ByteArrayInputStream(buffer, 0, position);
+        }
+
+        /**
+         * Bu writer'ın byte'larını, ardından gövdenin uzunluğunu ve kendisini,
+         * en sonda da trailer'ın byte'larını okuyan stream döner. Gövde writer'a
+         * kopyalanmaz; gRPC onu doğrudan (heap veya direct) tampondan okur.
+         */
+        InputStream toInputStream(ByteBuffer body, Writer trailer) {
+            writeVarint(body.remaining());
+            return new CompositeInputStream(ByteBuffer.wrap(buffer, 0, position), body.duplicate(),
+                    ByteBuffer.wrap(trailer.buffer, 0, trailer.position));
+        }
+
+        private void ensureCapacity(int extra) {
+            if (position + extra > buffer.length) {
+                buffer = Arrays.copyOf(buffer, Math.max(buffer.length * 2, position + extra));
+            }
+        }
+    }
+
+    static final class Reader {
+        private final byte[] buffer;
+        private int position;
+
+        Reader(byte[] buffer) {
+            this.buffer = buffer;
+        }
+
+        /**
+         * gRPC'nin verdiği stream'i tek seferde okur.
+         */
+        static Reader of(InputStream stream) throws IOException {
+            return new Reader(stream.readAllBytes());
+        }
+
+        long readVarint() throws IOException {
+            long result = 0;
+            for (int shift = 0; shift < 64; shift += 7) {
+                if (position >= buffer.length) {
+                    throw new EOFException("Varint eksik");
+                }
+                byte b = buffer[position++];
+                result |= (long) (b & 0x7F) << shift;
+                if ((b & 0x80) == 0) {
+                    return result;
+                }
+            }
+            throw new IOException("Geçersiz varint");
+        }
+
+        int readInt() throws IOException {
+            return (int) readVarint();
+        }
+
+        boolean readBool() throws IOException {
+            if (position >= buffer.length) {
+                throw new EOFException("Boolean eksik");
+            }
+            return buffer[position++] != 0;
+        }
+
+        String readString() throws IOException {
+            int length = readLength();
+            String value = new String(buffer, position, length, StandardCharsets.UTF_8);
+            position += length;
+            return value;
+        }
+
+        /**
+         * Uzunluk önekli alanı kopyalamadan, gelen tamponun dilimi olarak döner.
+         */
+        ByteBuffer readBytes() throws IOException {
+            int length = readLength();
+            ByteBuffer value = ByteBuffer.wrap(buffer, position, length).slice();
+            position += length;
+            return value;
+        }
+
+        private int readLength() throws IOException {
+            long length = readVarint();
+            if (length < 0 || length > buffer.length - position) {
+                throw new EOFException("Alan uzunluğu tampon dışında: " + length);
+            }
+            return (int) length;
+        }
+
+        boolean hasRemaining() {
+            return position < buffer.length;
+        }
+    }
+
+    /**
+     * UTF-8 gövdeyi String'e çevirir; tamponun konumu değişmez.
+     */
+    static String decode(ByteBuffer data) {
+        if (data.hasArray()) {
+            return new String(data.array(), data.arrayOffset() + data.position(), data.remaining(),
+                    StandardCharsets.UTF_8);
+        }
+        return StandardCharsets.UTF_8.decode(data.duplicate()).toString();
+    }
+
+    /**
+     * Birden fazla tamponu sırayla okuyan stream. Uzunluğu bilindiği için
+     * (KnownLength) gRPC mesajı ayrıca tamponlamadan çerçeveler.
+     */
+    private static final class CompositeInputStream extends InputStream implements KnownLength {
+        private final ByteBuffer[] parts;
+        private int current;
+
+        CompositeInputStream(ByteBuffer... parts) {
+            this.parts = parts;
+        }
+
+        @Override
+        public int read() {
+            byte[] one = new byte[1];
+            return read(one, 0, 1) < 0 ? -1 : one[0] & 0xFF;
+        }
+
+        @Override
+        public int read(byte[] target, int offset, int length) {
+            if (length == 0) {
+                return 0;
+            }
+            int total = 0;
+            while (total < length && current < parts.length) {
+                ByteBuffer part = parts[current];
+                if (!part.hasRemaining()) {
+                    current++;
+                    continue;
+                }
+                int n = Math.min(length - total, part.remaining());
+                part.get(target, offset + total, n);
+                total += n;
+            }
+            return total == 0 ? -1 : total;
+        }
+
+        @Override
+        public int available() {
+            int remaining = 0;
+            for (int i = current; i < parts.length; i++) {
+                remaining += parts[i].remaining();
+            }
+            return remaining;
+        }
+    }
+
+    /**
+     * Metnin UTF-8 kodlanmış uzunluğu (eşsiz surrogate'ler 1 byte sayılır).
+     */
+    static int utf8Length(String value) {
+        int length = value.length();
+        int bytes = length;
+        for (int i = 0; i < length; i++) {
+            char c = value.charAt(i);
+            if (c < 0x80) {
+                continue;
+            }
+            if (c < 0x800) {
+                bytes += 1;
+            } else if (Character.isHighSurrogate(c) && i + 1 < length
+                    && Character.isLowSurrogate(value.charAt(i + 1))) {
+                bytes += 2; // 2 karakter -> 4 byte
+                i++;
+            } else if (!Character.isSurrogate(c)) {
+                bytes += 2;
+            }
+        }
+        return bytes;
+    }
+}
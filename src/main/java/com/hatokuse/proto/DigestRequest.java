@@ -0,0 +1,58 @@
+package com.hatokuse.proto;
+
+/**
+ * Digest Request - Üyenin hash ağacının bir seviyesinden ardışık düğümleri ister
+ * (seviye 0: kök, en alt seviye: yapraklar)
+ */
+public final class DigestRequest {
+    private final int level;
+    private final int fromIndex;
+    private final int count;
+
+    private DigestRequest(Builder builder) {
+        this.level = builder.level;
+        this.fromIndex = builder.fromIndex;
+        this.count = builder.count;
+    }
+
+    public int getLevel() {
+        return level;
+    }
+
+    public int getFromIndex() {
+        return fromIndex;
+    }
+
+    public int getCount() {
+        return count;
+    }
+
+    public static Builder newBuilder() {
+        return new Builder();
+    }
+
+    public static final class Builder {
+        private int level = 0;
+        private int fromIndex = 0;
+        private int count = 0;
+
+        public Builder setLevel(int level) {
+            this.level = level;
+            return this;
+        }
+
+        public Builder setFromIndex(int fromIndex) {
+            this.fromIndex = fromIndex;
+            return this;
+        }
+
+        public Builder setCount(int count) {
+            this.count = count;
+            return this;
+        }
+
+        public DigestRequest build() {
+            return new DigestRequest(this);
+        }
+    }
+}
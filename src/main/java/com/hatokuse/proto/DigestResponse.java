@@ -0,0 +1,41 @@
+package com.hatokuse.proto;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Digest Response - İstenen düğümlerin hash değerleri (istek sırasıyla)
+ */
+public final class DigestResponse {
+    private final List<Long> hashes;
+
+    private DigestResponse(Builder builder) {
+        this.hashes = Collections.unmodifiableList(new ArrayList<>(builder.hashes));
+    }
+
+    public List<Long> getHashesList() {
+        return hashes;
+    }
+
+    public int getHashesCount() {
+        return hashes.size();
+    }
+
+    public static Builder newBuilder() {
+        return new Builder();
+    }
+
+    public static final class Builder {
+        private final List<Long> hashes = new ArrayList<>();
+
+        public Builder addHashes(long hash) {
+            this.hashes.add(hash);
+            return this;
+        }
+
+        public DigestResponse build() {
+            return new DigestResponse(this);
+        }
+    }
+}
@@ -1,16 +1,22 @@
 package com.hatokuse.proto;
 
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
 /**
  * Get Message Response
  */
 public final class GetMessageResponse {
     private final boolean found;
+    // Gövde ya String ya da UTF-8 byte olarak tutulur; diğeri null'dır
     private final String messageContent;
+    private final ByteBuffer messageContentBytes;
     private final String errorMessage;
 
     private GetMessageResponse(Builder builder) {
         this.found = builder.found;
         this.messageContent = builder.messageContent;
+        this.messageContentBytes = builder.messageContentBytes;
         this.errorMessage = builder.errorMessage;
     }
 
@@ -18,8 +24,30 @@ public final class GetMessageResponse {
         return found;
     }
 
+    /**
+     * Gövdeyi String olarak döner; gövde byte olarak taşınıyorsa her çağrıda çözülür.
+     */
     public String getMessageContent() {
-        return messageContent;
+        return messageContent != null ? messageContent : BinaryCodec.decode(messageContentBytes);
+    }
+
+    /**
+     * Gövdeyi UTF-8 byte olarak döner. Gövde byte olarak taşınıyorsa kopyalanmaz;
+     * dönen tampon (bağımsız konumlu) değiştirilmemelidir.
+     */
+    public ByteBuffer getMessageContentBytes() {
+        return messageContentBytes != null ? messageContentBytes.duplicate()
+                : ByteBuffer.wrap(messageContent.getBytes(StandardCharsets.UTF_8));
+    }
+
+    // Marshaller için: gövde byte olarak tutuluyorsa tampon, değilse null
+    ByteBuffer contentBuffer() {
+        return messageContentBytes;
+    }
+
+    // Marshaller için yaklaşık kodlanmış gövde boyutu (gövdeyi çözmeden)
+    int contentSizeHint() {
+        return messageContentBytes != null ? messageContentBytes.remaining() : messageContent.length();
     }
 
     public String getErrorMessage() {
@@ -33,6 +61,7 @@ public final class GetMessageResponse {
     public static final class Builder {
         private boolean found = false;
         private String messageContent = "";
+        private ByteBuffer messageContentBytes;
         private String errorMessage = "";
 
         public Builder setFound(boolean found) {
@@ -42,6 +71,16 @@ public final class GetMessageResponse {
 
         public Builder setMessageContent(String messageContent) {
             this.messageContent = messageContent;
+            this.messageContentBytes = null;
+            return this;
+        }
+
+        /**
+         * Gövdeyi kopyalamadan UTF-8 byte olarak ayarlar (tamponun kalan byte'ları).
+         */
+        public Builder setMessageContentBytes(ByteBuffer messageContentBytes) {
+            this.messageContentBytes = messageContentBytes;
+            this.messageContent = null;
             return this;
         }
 
@@ -116,23 +116,27 @@ public final class LeaderServiceGrpc {
     }
 
     // ============== Marshallers ==============
+    // Tüm mesajlar BinaryCodec ile kodlanır: alanlar proto'daki sırayla, metinler
+    // varint uzunluk önekli UTF-8, sayılar varint olarak yazılır.
 
     private static class RegisterRequestMarshaller implements MethodDescriptor.Marshaller<RegisterRequest> {
         @Override
         public java.io.InputStream stream(RegisterRequest value) {
-            String data = value.getMemberId() + "\n" + value.getHost() + "\n" + value.getPort();
-            return new java.io.ByteArrayInputStream(data.getBytes(java.nio.charset.StandardCharsets.UTF_8));
+            return new BinaryCodec.Writer()
+                    .writeString(value.getMemberId())
+                    .writeString(value.getHost())
+                    .writeInt(value.getPort())
+                    .toInputStream();
         }
 
         @Override
         public RegisterRequest parse(java.io.InputStream stream) {
             try {
-                String data = new String(stream.readAllBytes(), java.nio.charset.StandardCharsets.UTF_8);
-                String[] parts = data.split("\n", 3);
+                BinaryCodec.Reader in = BinaryCodec.Reader.of(stream);
                 return RegisterRequest.newBuilder()
-                        .setMemberId(parts.length > 0 ? parts[0] : "")
-                        .setHost(parts.length > 1 ? parts[1] : "")
-                        .setPort(parts.length > 2 ? Integer.parseInt(parts[2]) : 0)
+                        .setMemberId(in.readString())
+                        .setHost(in.readString())
+                        .setPort(in.readInt())
                         .build();
             } catch (Exception e) {
                 return RegisterRequest.newBuilder().build();
@@ -143,18 +147,19 @@ public final class LeaderServiceGrpc {
     private static class RegisterResponseMarshaller implements MethodDescriptor.Marshaller<RegisterResponse> {
         @Override
         public java.io.InputStream stream(RegisterResponse value) {
-            String data = value.getSuccess() + "\n" + value.getErrorMessage();
-            return new java.io.ByteArrayInputStream(data.getBytes(java.nio.charset.StandardCharsets.UTF_8));
+            return new BinaryCodec.Writer()
+                    .writeBool(value.getSuccess())
+                    .writeString(value.getErrorMessage())
+                    .toInputStream();
         }
 
         @Override
         public RegisterResponse parse(java.io.InputStream stream) {
             try {
-                String data = new String(stream.readAllBytes(), java.nio.charset.StandardCharsets.UTF_8);
-                String[] parts = data.split("\n", 2);
+                BinaryCodec.Reader in = BinaryCodec.Reader.of(stream);
                 return RegisterResponse.newBuilder()
-                        .setSuccess(parts.length > 0 && Boolean.parseBoolean(parts[0]))
-                        .setErrorMessage(parts.length > 1 ? parts[1] : "")
+                        .setSuccess(in.readBool())
+                        .setErrorMessage(in.readString())
                         .build();
             } catch (Exception e) {
                 return RegisterResponse.newBuilder().build();
@@ -165,15 +170,14 @@ public final class LeaderServiceGrpc {
     private static class UnregisterRequestMarshaller implements MethodDescriptor.Marshaller<UnregisterRequest> {
         @Override
         public java.io.InputStream stream(UnregisterRequest value) {
-            return new java.io.ByteArrayInputStream(
-                    value.getMemberId().getBytes(java.nio.charset.StandardCharsets.UTF_8));
+            return new BinaryCodec.Writer().writeString(value.getMemberId()).toInputStream();
         }
 
         @Override
         public UnregisterRequest parse(java.io.InputStream stream) {
             try {
-                String data = new String(stream.readAllBytes(), java.nio.charset.StandardCharsets.UTF_8);
-                return UnregisterRequest.newBuilder().setMemberId(data).build();
+                BinaryCodec.Reader in = BinaryCodec.Reader.of(stream);
+                return UnregisterRequest.newBuilder().setMemberId(in.readString()).build();
             } catch (Exception e) {
                 return UnregisterRequest.newBuilder().build();
             }
@@ -183,15 +187,14 @@ public final class LeaderServiceGrpc {
     private static class UnregisterResponseMarshaller implements MethodDescriptor.Marshaller<UnregisterResponse> {
         @Override
         public java.io.InputStream stream(UnregisterResponse value) {
-            return new java.io.ByteArrayInputStream(
-                    String.valueOf(value.getSuccess()).getBytes(java.nio.charset.StandardCharsets.UTF_8));
+            return new BinaryCodec.Writer(1).writeBool(value.getSuccess()).toInputStream();
         }
 
         @Override
         public UnregisterResponse parse(java.io.InputStream stream) {
             try {
-                String data = new String(stream.readAllBytes(), java.nio.charset.StandardCharsets.UTF_8);
-                return UnregisterResponse.newBuilder().setSuccess(Boolean.parseBoolean(data)).build();
+                BinaryCodec.Reader in = BinaryCodec.Reader.of(stream);
+                return UnregisterResponse.newBuilder().setSuccess(in.readBool()).build();
             } catch (Exception e) {
                 return UnregisterResponse.newBuilder().build();
             }
@@ -201,18 +204,19 @@ public final class LeaderServiceGrpc {
     private static class HeartbeatRequestMarshaller implements MethodDescriptor.Marshaller<HeartbeatRequest> {
         @Override
         public java.io.InputStream stream(HeartbeatRequest value) {
-            String data = value.getMemberId() + "\n" + value.getMessageCount();
-            return new java.io.ByteArrayInputStream(data.getBytes(java.nio.charset.StandardCharsets.UTF_8));
+            return new BinaryCodec.Writer()
+                    .writeString(value.getMemberId())
+                    .writeInt(value.getMessageCount())
+                    .toInputStream();
         }
 
         @Override
         public HeartbeatRequest parse(java.io.InputStream stream) {
             try {
-                String data = new String(stream.readAllBytes(), java.nio.charset.StandardCharsets.UTF_8);
-                String[] parts = data.split("\n", 2);
+                BinaryCodec.Reader in = BinaryCodec.Reader.of(stream);
                 return HeartbeatRequest.newBuilder()
-                        .setMemberId(parts.length > 0 ? parts[0] : "")
-                        .setMessageCount(parts.length > 1 ? Integer.parseInt(parts[1]) : 0)
+                        .setMemberId(in.readString())
+                        .setMessageCount(in.readInt())
                         .build();
             } catch (Exception e) {
                 return HeartbeatRequest.newBuilder().build();
@@ -223,15 +227,14 @@ public final class LeaderServiceGrpc {
     private static class HeartbeatResponseMarshaller implements MethodDescriptor.Marshaller<HeartbeatResponse> {
         @Override
         public java.io.InputStream stream(HeartbeatResponse value) {
-            return new java.io.ByteArrayInputStream(
-                    String.valueOf(value.getAcknowledged()).getBytes(java.nio.charset.StandardCharsets.UTF_8));
+            return new BinaryCodec.Writer(1).writeBool(value.getAcknowledged()).toInputStream();
         }
 
         @Override
         public HeartbeatResponse parse(java.io.InputStream stream) {
             try {
-                String data = new String(stream.readAllBytes(), java.nio.charset.StandardCharsets.UTF_8);
-                return HeartbeatResponse.newBuilder().setAcknowledged(Boolean.parseBoolean(data)).build();
+                BinaryCodec.Reader in = BinaryCodec.Reader.of(stream);
+                return HeartbeatResponse.newBuilder().setAcknowledged(in.readBool()).build();
             } catch (Exception e) {
                 return HeartbeatResponse.newBuilder().build();
             }
@@ -22,6 +22,22 @@ public final class MemberServiceGrpc {
             .setResponseMarshaller(new ReplicateResponseMarshaller())
             .build();
 
+    private static final MethodDescriptor<ReplicateBatchRequest, ReplicateBatchResponse> METHOD_REPLICATE_BATCH = MethodDescriptor
+            .<ReplicateBatchRequest, ReplicateBatchResponse>newBuilder()
+            .setType(MethodDescriptor.MethodType.UNARY)
+            .setFullMethodName(SERVICE_NAME + "/ReplicateBatch")
+            .setRequestMarshaller(new ReplicateBatchRequestMarshaller())
+            .setResponseMarshaller(new ReplicateBatchResponseMarshaller())
+            .build();
+
+    private static final MethodDescriptor<ReplicationOp, ReplicationAck> METHOD_REPLICATION_STREAM = MethodDescriptor
+            .<ReplicationOp, ReplicationAck>newBuilder()
+            .setType(MethodDescriptor.MethodType.BIDI_STREAMING)
+            .setFullMethodName(SERVICE_NAME + "/ReplicationStream")
+            .setRequestMarshaller(new ReplicationOpMarshaller())
+            .setResponseMarshaller(new ReplicationAckMarshaller())
+            .build();
+
     private static final MethodDescriptor<GetMessageRequest, GetMessageResponse> METHOD_GET_MESSAGE = MethodDescriptor
             .<GetMessageRequest, GetMessageResponse>newBuilder()
             .setType(MethodDescriptor.MethodType.UNARY)
@@ -54,6 +70,22 @@ public final class MemberServiceGrpc {
             .setResponseMarshaller(new DeleteResponseMarshaller())
             .build();
 
+    private static final MethodDescriptor<DigestRequest, DigestResponse> METHOD_GET_DIGEST = MethodDescriptor
+            .<DigestRequest, DigestResponse>newBuilder()
+            .setType(MethodDescriptor.MethodType.UNARY)
+            .setFullMethodName(SERVICE_NAME + "/GetDigest")
+            .setRequestMarshaller(new DigestRequestMarshaller())
+            .setResponseMarshaller(new DigestResponseMarshaller())
+            .build();
+
+    private static final MethodDescriptor<RangeEntriesRequest, RangeEntriesResponse> METHOD_GET_RANGE_ENTRIES = MethodDescriptor
+            .<RangeEntriesRequest, RangeEntriesResponse>newBuilder()
+            .setType(MethodDescriptor.MethodType.UNARY)
+            .setFullMethodName(SERVICE_NAME + "/GetRangeEntries")
+            .setRequestMarshaller(new RangeEntriesRequestMarshaller())
+            .setResponseMarshaller(new RangeEntriesResponseMarshaller())
+            .build();
+
     /**
      * Blocking Stub - Senkron çağrılar için
      */
@@ -61,6 +93,13 @@ public final class MemberServiceGrpc {
         return new MemberServiceBlockingStub(channel);
     }
 
+    /**
+     * Async Stub - Asenkron (StreamObserver) çağrılar için
+     */
+    public static MemberServiceStub newStub(Channel channel) {
+        return new MemberServiceStub(channel);
+    }
+
     /**
      * Servis implementasyonu için base class
      */
@@ -70,6 +109,16 @@ public final class MemberServiceGrpc {
             asyncUnimplementedUnaryCall(METHOD_REPLICATE_MESSAGE, responseObserver);
         }
 
+        public void replicateBatch(ReplicateBatchRequest request,
+                StreamObserver<ReplicateBatchResponse> responseObserver) {
+            asyncUnimplementedUnaryCall(METHOD_REPLICATE_BATCH, responseObserver);
+        }
+
+        public StreamObserver<ReplicationOp> replicationStream(StreamObserver<ReplicationAck> responseObserver) {
+            asyncUnimplementedUnaryCall(METHOD_REPLICATION_STREAM, responseObserver);
+            return new NoopStreamObserver<>();
+        }
+
         public void getMessage(GetMessageRequest request, StreamObserver<GetMessageResponse> responseObserver) {
             asyncUnimplementedUnaryCall(METHOD_GET_MESSAGE, responseObserver);
         }
@@ -87,11 +136,24 @@ public final class MemberServiceGrpc {
             asyncUnimplementedUnaryCall(METHOD_DELETE_MESSAGE, responseObserver);
         }
 
+        public void getDigest(DigestRequest request, StreamObserver<DigestResponse> responseObserver) {
+            asyncUnimplementedUnaryCall(METHOD_GET_DIGEST, responseObserver);
+        }
+
+        public void getRangeEntries(RangeEntriesRequest request,
+                StreamObserver<RangeEntriesResponse> responseObserver) {
+            asyncUnimplementedUnaryCall(METHOD_GET_RANGE_ENTRIES, responseObserver);
+        }
+
         @Override
         public ServerServiceDefinition bindService() {
             return ServerServiceDefinition.builder(SERVICE_NAME)
                     .addMethod(METHOD_REPLICATE_MESSAGE, ServerCalls.asyncUnaryCall(
                             (request, observer) -> replicateMessage(request, observer)))
+                    .addMethod(METHOD_REPLICATE_BATCH, ServerCalls.asyncUnaryCall(
+                            (request, observer) -> replicateBatch(request, observer)))
+                    .addMethod(METHOD_REPLICATION_STREAM, ServerCalls.asyncBidiStreamingCall(
+                            observer -> replicationStream(observer)))
                     .addMethod(METHOD_GET_MESSAGE, ServerCalls.asyncUnaryCall(
                             (request, observer) -> getMessage(request, observer)))
                     .addMethod(METHOD_GET_MESSAGE_COUNT, ServerCalls.asyncUnaryCall(
@@ -100,6 +162,10 @@ public final class MemberServiceGrpc {
                             (request, observer) -> healthCheck(request, observer)))
                     .addMethod(METHOD_DELETE_MESSAGE, ServerCalls.asyncUnaryCall(
                             (request, observer) -> deleteMessage(request, observer)))
+                    .addMethod(METHOD_GET_DIGEST, ServerCalls.asyncUnaryCall(
+                            (request, observer) -> getDigest(request, observer)))
+                    .addMethod(METHOD_GET_RANGE_ENTRIES, ServerCalls.asyncUnaryCall(
+                            (request, observer) -> getRangeEntries(request, observer)))
                     .build();
         }
     }
@@ -127,6 +193,11 @@ public final class MemberServiceGrpc {
                     getChannel(), METHOD_REPLICATE_MESSAGE, getCallOptions(), request);
         }
 
+        public ReplicateBatchResponse replicateBatch(ReplicateBatchRequest request) {
+            return ClientCalls.blockingUnaryCall(
+                    getChannel(), METHOD_REPLICATE_BATCH, getCallOptions(), request);
+        }
+
         public GetMessageResponse getMessage(GetMessageRequest request) {
             return ClientCalls.blockingUnaryCall(
                     getChannel(), METHOD_GET_MESSAGE, getCallOptions(), request);
@@ -146,6 +217,76 @@ public final class MemberServiceGrpc {
             return ClientCalls.blockingUnaryCall(
                     getChannel(), METHOD_DELETE_MESSAGE, getCallOptions(), request);
         }
+
+        public DigestResponse getDigest(DigestRequest request) {
+            return ClientCalls.blockingUnaryCall(
+                    getChannel(), METHOD_GET_DIGEST, getCallOptions(), request);
+        }
+
+        public RangeEntriesResponse getRangeEntries(RangeEntriesRequest request) {
+            return ClientCalls.blockingUnaryCall(
+                    getChannel(), METHOD_GET_RANGE_ENTRIES, getCallOptions(), request);
+        }
+    }
+
+    /**
+     * Async Stub implementation
+     */
+    public static final class MemberServiceStub extends AbstractStub<MemberServiceStub> {
+
+        private MemberServiceStub(Channel channel) {
+            super(channel);
+        }
+
+        private MemberServiceStub(Channel channel, CallOptions callOptions) {
+            super(channel, callOptions);
+        }
+
+        @Override
+        protected MemberServiceStub build(Channel channel, CallOptions callOptions) {
+            return new MemberServiceStub(channel, callOptions);
+        }
+
+        public void replicateMessage(ReplicateRequest request, StreamObserver<ReplicateResponse> responseObserver) {
+            ClientCalls.asyncUnaryCall(
+                    getChannel().newCall(METHOD_REPLICATE_MESSAGE, getCallOptions()), request, responseObserver);
+        }
+
+        public void replicateBatch(ReplicateBatchRequest request,
+                StreamObserver<ReplicateBatchResponse> responseObserver) {
+            ClientCalls.asyncUnaryCall(
+                    getChannel().newCall(METHOD_REPLICATE_BATCH, getCallOptions()), request, responseObserver);
+        }
+
+        /**
+         * Uzun ömürlü replikasyon akışı açar; dönen observer'a işlemler yazılır,
+         * kümülatif onaylar responseObserver'a gelir.
+         */
+        public StreamObserver<ReplicationOp> replicationStream(StreamObserver<ReplicationAck> responseObserver) {
+            return ClientCalls.asyncBidiStreamingCall(
+                    getChannel().newCall(METHOD_REPLICATION_STREAM, getCallOptions()), responseObserver);
+        }
+
+        public void getMessage(GetMessageRequest request, StreamObserver<GetMessageResponse> responseObserver) {
+            ClientCalls.asyncUnaryCall(
+                    getChannel().newCall(METHOD_GET_MESSAGE, getCallOptions()), request, responseObserver);
+        }
+
+        public void deleteMessage(DeleteRequest request, StreamObserver<DeleteResponse> responseObserver) {
+            ClientCalls.asyncUnaryCall(
+                    getChannel().newCall(METHOD_DELETE_MESSAGE, getCallOptions()), request, responseObserver);
+        }
+
+        public void getDigest(DigestRequest request, StreamObserver<DigestResponse> responseObserver) {
+            ClientCalls.asyncUnaryCall(
+                    getChannel().newCall(METHOD_GET_DIGEST, getCallOptions()), request, responseObserver);
+        }
+
+        public void getRangeEntries(RangeEntriesRequest request,
+                StreamObserver<RangeEntriesResponse> responseObserver) {
+            ClientCalls.asyncUnaryCall(
+                    getChannel().newCall(METHOD_GET_RANGE_ENTRIES, getCallOptions()), request, responseObserver);
+        }
     }
 
     private static <T> void asyncUnimplementedUnaryCall(MethodDescriptor<?, ?> method, StreamObserver<T> observer) {
@@ -154,24 +295,36 @@ public final class MemberServiceGrpc {
                 .asRuntimeException());
     }
 
+    private static final class NoopStreamObserver<T> implements StreamObserver<T> {
+        @Override
+        public void onNext(T value) {
+        }
+
+        @Override
+        public void onError(Throwable t) {
+        }
+
+        @Override
+        public void onCompleted() {
+        }
+    }
+
     // ============== Marshallers ==============
+    // Tüm mesajlar BinaryCodec ile kodlanır: alanlar proto'daki sırayla, metinler
+    // varint uzunluk önekli UTF-8, sayılar varint olarak yazılır.
 
     private static class ReplicateRequestMarshaller implements MethodDescriptor.Marshaller<ReplicateRequest> {
         @Override
         public java.io.InputStream stream(ReplicateRequest value) {
-            String data = value.getMessageId() + "\n" + value.getMessageContent();
-            return new java.io.ByteArrayInputStream(data.getBytes(java.nio.charset.StandardCharsets.UTF_8));
+            BinaryCodec.Writer out = new BinaryCodec.Writer(encodedSizeHint(value));
+            writeReplicateRequest(out, value);
+            return out.toInputStream();
         }
 
         @Override
         public ReplicateRequest parse(java.io.InputStream stream) {
             try {
-                String data = new String(stream.readAllBytes(), java.nio.charset.StandardCharsets.UTF_8);
-                String[] parts = data.split("\n", 2);
-                return ReplicateRequest.newBuilder()
-                        .setMessageId(parts.length > 0 ? parts[0] : "")
-                        .setMessageContent(parts.length > 1 ? parts[1] : "")
-                        .build();
+                return readReplicateRequest(BinaryCodec.Reader.of(stream));
             } catch (Exception e) {
                 return ReplicateRequest.newBuilder().build();
             }
@@ -181,37 +334,201 @@ public final class MemberServiceGrpc {
     private static class ReplicateResponseMarshaller implements MethodDescriptor.Marshaller<ReplicateResponse> {
         @Override
         public java.io.InputStream stream(ReplicateResponse value) {
-            String data = value.getSuccess() + "\n" + value.getErrorMessage();
-            return new java.io.ByteArrayInputStream(data.getBytes(java.nio.charset.StandardCharsets.UTF_8));
+            BinaryCodec.Writer out = new BinaryCodec.Writer();
+            writeReplicateResponse(out, value);
+            return out.toInputStream();
         }
 
         @Override
         public ReplicateResponse parse(java.io.InputStream stream) {
             try {
-                String data = new String(stream.readAllBytes(), java.nio.charset.StandardCharsets.UTF_8);
-                String[] parts = data.split("\n", 2);
-                return ReplicateResponse.newBuilder()
-                        .setSuccess(parts.length > 0 && Boolean.parseBoolean(parts[0]))
-                        .setErrorMessage(parts.length > 1 ? parts[1] : "")
-                        .build();
+                return readReplicateResponse(BinaryCodec.Reader.of(stream));
             } catch (Exception e) {
                 return ReplicateResponse.newBuilder().build();
             }
         }
     }
 
+    /**
+     * [adet] (ReplicateRequest)*
+     */
+    private static class ReplicateBatchRequestMarshaller implements MethodDescriptor.Marshaller<ReplicateBatchRequest> {
+        @Override
+        public java.io.InputStream stream(ReplicateBatchRequest value) {
+            int sizeHint = 8;
+            for (ReplicateRequest message : value.getMessagesList()) {
+                sizeHint += encodedSizeHint(message);
+            }
+            BinaryCodec.Writer out = new BinaryCodec.Writer(sizeHint);
+            out.writeInt(value.getMessagesCount());
+            for (ReplicateRequest message : value.getMessagesList()) {
+                writeReplicateRequest(out, message);
+            }
+            return out.toInputStream();
+        }
+
+        @Override
+        public ReplicateBatchRequest parse(java.io.InputStream stream) {
+            try {
+                BinaryCodec.Reader in = BinaryCodec.Reader.of(stream);
+                int count = in.readInt();
+                ReplicateBatchRequest.Builder builder = ReplicateBatchRequest.newBuilder();
+                for (int i = 0; i < count; i++) {
+                    builder.addMessages(readReplicateRequest(in));
+                }
+                return builder.build();
+            } catch (Exception e) {
+                return ReplicateBatchRequest.newBuilder().build();
+            }
+        }
+    }
+
+    /**
+     * [adet] (ReplicateResponse)*
+     */
+    private static class ReplicateBatchResponseMarshaller implements MethodDescriptor.Marshaller<ReplicateBatchResponse> {
+        @Override
+        public java.io.InputStream stream(ReplicateBatchResponse value) {
+            BinaryCodec.Writer out = new BinaryCodec.Writer(8 + value.getResultsCount() * 2);
+            out.writeInt(value.getResultsCount());
+            for (ReplicateResponse result : value.getResultsList()) {
+                writeReplicateResponse(out, result);
+            }
+            return out.toInputStream();
+        }
+
+        @Override
+        public ReplicateBatchResponse parse(java.io.InputStream stream) {
+            try {
+                BinaryCodec.Reader in = BinaryCodec.Reader.of(stream);
+                int count = in.readInt();
+                ReplicateBatchResponse.Builder builder = ReplicateBatchResponse.newBuilder();
+                for (int i = 0; i < count; i++) {
+                    builder.addResults(readReplicateResponse(in));
+                }
+                return builder.build();
+            } catch (Exception e) {
+                return ReplicateBatchResponse.newBuilder().build();
+            }
+        }
+    }
+
+    /**
+     * [sıra][tür][id][içerik]
+     */
+    private static class ReplicationOpMarshaller implements MethodDescriptor.Marshaller<ReplicationOp> {
+        @Override
+        public java.io.InputStream stream(ReplicationOp value) {
+            BinaryCodec.Writer out = new BinaryCodec.Writer(
+                    16 + value.getMessageId().length() + value.contentSizeHint());
+            out.writeVarint(value.getSequence());
+            out.writeInt(value.getType().ordinal());
+            out.writeString(value.getMessageId());
+            writeContent(out, value.contentBuffer(), value.getMessageContent());
+            return out.toInputStream();
+        }
+
+        @Override
+        public ReplicationOp parse(java.io.InputStream stream) {
+            try {
+                BinaryCodec.Reader in = BinaryCodec.Reader.of(stream);
+                return ReplicationOp.newBuilder()
+                        .setSequence(in.readVarint())
+                        .setType(ReplicationOp.Type.values()[in.readInt()])
+                        .setMessageId(in.readString())
+                        .setMessageContentBytes(in.readBytes())
+                        .build();
+            } catch (Exception e) {
+                return ReplicationOp.newBuilder().build();
+            }
+        }
+    }
+
+    /**
+     * [onaylanan sıra][başarısız adet]([başarısız sıra])*
+     */
+    private static class ReplicationAckMarshaller implements MethodDescriptor.Marshaller<ReplicationAck> {
+        @Override
+        public java.io.InputStream stream(ReplicationAck value) {
+            BinaryCodec.Writer out = new BinaryCodec.Writer(16 + value.getFailedSequencesCount() * 5);
+            out.writeVarint(value.getAckedSequence());
+            out.writeInt(value.getFailedSequencesCount());
+            for (long sequence : value.getFailedSequencesList()) {
+                out.writeVarint(sequence);
+            }
+            return out.toInputStream();
+        }
+
+        @Override
+        public ReplicationAck parse(java.io.InputStream stream) {
+            try {
+                BinaryCodec.Reader in = BinaryCodec.Reader.of(stream);
+                ReplicationAck.Builder builder = ReplicationAck.newBuilder().setAckedSequence(in.readVarint());
+                int count = in.readInt();
+                for (int i = 0; i < count; i++) {
+                    builder.addFailedSequences(in.readVarint());
+                }
+                return builder.build();
+            } catch (Exception e) {
+                return ReplicationAck.newBuilder().build();
+            }
+        }
+    }
+
+    private static int encodedSizeHint(ReplicateRequest value) {
+        return 10 + value.getMessageId().length() + value.contentSizeHint();
+    }
+
+    private static void writeReplicateRequest(BinaryCodec.Writer out, ReplicateRequest value) {
+        out.writeString(value.getMessageId());
+        writeContent(out, value.contentBuffer(), value.getMessageContent());
+    }
+
+    private static ReplicateRequest readReplicateRequest(BinaryCodec.Reader in) throws java.io.IOException {
+        // İçerik gelen tamponun dilimi olarak kalır; storage'a çözülmeden yazılır
+        return ReplicateRequest.newBuilder()
+                .setMessageId(in.readString())
+                .setMessageContentBytes(in.readBytes())
+                .build();
+    }
+
+    /**
+     * Mesaj gövdesini yazar: byte olarak tutuluyorsa olduğu gibi, değilse UTF-8 kodlayarak.
+     * İki yol da aynı tel biçimini üretir.
+     */
+    private static void writeContent(BinaryCodec.Writer out, java.nio.ByteBuffer bytes, String text) {
+        if (bytes != null) {
+            out.writeBytes(bytes);
+        } else {
+            out.writeString(text);
+        }
+    }
+
+    private static void writeReplicateResponse(BinaryCodec.Writer out, ReplicateResponse value) {
+        out.writeBool(value.getSuccess());
+        out.writeString(value.getErrorMessage());
+    }
+
+    private static ReplicateResponse readReplicateResponse(BinaryCodec.Reader in) throws java.io.IOException {
+        return ReplicateResponse.newBuilder()
+                .setSuccess(in.readBool())
+                .setErrorMessage(in.readString())
+                .build();
+    }
+
     private static class GetMessageRequestMarshaller implements MethodDescriptor.Marshaller<GetMessageRequest> {
         @Override
         public java.io.InputStream stream(GetMessageRequest value) {
-            return new java.io.ByteArrayInputStream(
-                    value.getMessageId().getBytes(java.nio.charset.StandardCharsets.UTF_8));
+            return new BinaryCodec.Writer(8 + value.getMessageId().length())
+                    .writeString(value.getMessageId())
+                    .toInputStream();
         }
 
         @Override
         public GetMessageRequest parse(java.io.InputStream stream) {
             try {
-                String messageId = new String(stream.readAllBytes(), java.nio.charset.StandardCharsets.UTF_8);
-                return GetMessageRequest.newBuilder().setMessageId(messageId).build();
+                BinaryCodec.Reader in = BinaryCodec.Reader.of(stream);
+                return GetMessageRequest.newBuilder().setMessageId(in.readString()).build();
             } catch (Exception e) {
                 return GetMessageRequest.newBuilder().build();
             }
@@ -221,19 +538,30 @@ public final class MemberServiceGrpc {
     private static class GetMessageResponseMarshaller implements MethodDescriptor.Marshaller<GetMessageResponse> {
         @Override
         public java.io.InputStream stream(GetMessageResponse value) {
-            String data = value.getFound() + "\n" + value.getMessageContent() + "\n" + value.getErrorMessage();
-            return new java.io.ByteArrayInputStream(data.getBytes(java.nio.charset.StandardCharsets.UTF_8));
+            java.nio.ByteBuffer body = value.contentBuffer();
+            if (body != null) {
+                // Storage'dan gelen tampon (heap, direct veya mmap) kopyalanmadan gönderilir
+                BinaryCodec.Writer trailer = new BinaryCodec.Writer(8 + value.getErrorMessage().length())
+                        .writeString(value.getErrorMessage());
+                return new BinaryCodec.Writer(16)
+                        .writeBool(value.getFound())
+                        .toInputStream(body, trailer);
+            }
+            return new BinaryCodec.Writer(16 + value.contentSizeHint())
+                    .writeBool(value.getFound())
+                    .writeString(value.getMessageContent())
+                    .writeString(value.getErrorMessage())
+                    .toInputStream();
         }
 
         @Override
         public GetMessageResponse parse(java.io.InputStream stream) {
             try {
-                String data = new String(stream.readAllBytes(), java.nio.charset.StandardCharsets.UTF_8);
-                String[] parts = data.split("\n", 3);
+                BinaryCodec.Reader in = BinaryCodec.Reader.of(stream);
                 return GetMessageResponse.newBuilder()
-                        .setFound(parts.length > 0 && Boolean.parseBoolean(parts[0]))
-                        .setMessageContent(parts.length > 1 ? parts[1] : "")
-                        .setErrorMessage(parts.length > 2 ? parts[2] : "")
+                        .setFound(in.readBool())
+                        .setMessageContentBytes(in.readBytes())
+                        .setErrorMessage(in.readString())
                         .build();
             } catch (Exception e) {
                 return GetMessageResponse.newBuilder().build();
@@ -256,15 +584,14 @@ public final class MemberServiceGrpc {
     private static class MessageCountResponseMarshaller implements MethodDescriptor.Marshaller<MessageCountResponse> {
         @Override
         public java.io.InputStream stream(MessageCountResponse value) {
-            return new java.io.ByteArrayInputStream(
-                    String.valueOf(value.getCount()).getBytes(java.nio.charset.StandardCharsets.UTF_8));
+            return new BinaryCodec.Writer(8).writeInt(value.getCount()).toInputStream();
         }
 
         @Override
         public MessageCountResponse parse(java.io.InputStream stream) {
             try {
-                String data = new String(stream.readAllBytes(), java.nio.charset.StandardCharsets.UTF_8);
-                return MessageCountResponse.newBuilder().setCount(Integer.parseInt(data)).build();
+                BinaryCodec.Reader in = BinaryCodec.Reader.of(stream);
+                return MessageCountResponse.newBuilder().setCount(in.readInt()).build();
             } catch (Exception e) {
                 return MessageCountResponse.newBuilder().build();
             }
@@ -286,18 +613,19 @@ public final class MemberServiceGrpc {
     private static class HealthCheckResponseMarshaller implements MethodDescriptor.Marshaller<HealthCheckResponse> {
         @Override
         public java.io.InputStream stream(HealthCheckResponse value) {
-            String data = value.getHealthy() + "\n" + value.getMessageCount();
-            return new java.io.ByteArrayInputStream(data.getBytes(java.nio.charset.StandardCharsets.UTF_8));
+            return new BinaryCodec.Writer(8)
+                    .writeBool(value.getHealthy())
+                    .writeInt(value.getMessageCount())
+                    .toInputStream();
         }
 
         @Override
         public HealthCheckResponse parse(java.io.InputStream stream) {
             try {
-                String data = new String(stream.readAllBytes(), java.nio.charset.StandardCharsets.UTF_8);
-                String[] parts = data.split("\n", 2);
+                BinaryCodec.Reader in = BinaryCodec.Reader.of(stream);
                 return HealthCheckResponse.newBuilder()
-                        .setHealthy(parts.length > 0 && Boolean.parseBoolean(parts[0]))
-                        .setMessageCount(parts.length > 1 ? Integer.parseInt(parts[1]) : 0)
+                        .setHealthy(in.readBool())
+                        .setMessageCount(in.readInt())
                         .build();
             } catch (Exception e) {
                 return HealthCheckResponse.newBuilder().build();
@@ -308,15 +636,16 @@ public final class MemberServiceGrpc {
     private static class DeleteRequestMarshaller implements MethodDescriptor.Marshaller<DeleteRequest> {
         @Override
         public java.io.InputStream stream(DeleteRequest value) {
-            return new java.io.ByteArrayInputStream(
-                    value.getMessageId().getBytes(java.nio.charset.StandardCharsets.UTF_8));
+            return new BinaryCodec.Writer(8 + value.getMessageId().length())
+                    .writeString(value.getMessageId())
+                    .toInputStream();
         }
 
         @Override
         public DeleteRequest parse(java.io.InputStream stream) {
             try {
-                String messageId = new String(stream.readAllBytes(), java.nio.charset.StandardCharsets.UTF_8);
-                return DeleteRequest.newBuilder().setMessageId(messageId).build();
+                BinaryCodec.Reader in = BinaryCodec.Reader.of(stream);
+                return DeleteRequest.newBuilder().setMessageId(in.readString()).build();
             } catch (Exception e) {
                 return DeleteRequest.newBuilder().build();
             }
@@ -326,22 +655,142 @@ public final class MemberServiceGrpc {
     private static class DeleteResponseMarshaller implements MethodDescriptor.Marshaller<DeleteResponse> {
         @Override
         public java.io.InputStream stream(DeleteResponse value) {
-            String data = value.getSuccess() + "\n" + value.getErrorMessage();
-            return new java.io.ByteArrayInputStream(data.getBytes(java.nio.charset.StandardCharsets.UTF_8));
+            return new BinaryCodec.Writer()
+                    .writeBool(value.getSuccess())
+                    .writeString(value.getErrorMessage())
+                    .toInputStream();
         }
 
         @Override
         public DeleteResponse parse(java.io.InputStream stream) {
             try {
-                String data = new String(stream.readAllBytes(), java.nio.charset.StandardCharsets.UTF_8);
-                String[] parts = data.split("\n", 2);
+                BinaryCodec.Reader in = BinaryCodec.Reader.of(stream);
                 return DeleteResponse.newBuilder()
-                        .setSuccess(parts.length > 0 && Boolean.parseBoolean(parts[0]))
-                        .setErrorMessage(parts.length > 1 ? parts[1] : "")
+                        .setSuccess(in.readBool())
+                        .setErrorMessage(in.readString())
                         .build();
             } catch (Exception e) {
                 return DeleteResponse.newBuilder().build();
             }
         }
     }
+
+    /**
+     * [seviye][başlangıç][adet]
+     */
+    private static class DigestRequestMarshaller implements MethodDescriptor.Marshaller<DigestRequest> {
+        @Override
+        public java.io.InputStream stream(DigestRequest value) {
+            return new BinaryCodec.Writer(16)
+                    .writeInt(value.getLevel())
+                    .writeInt(value.getFromIndex())
+                    .writeInt(value.getCount())
+                    .toInputStream();
+        }
+
+        @Override
+        public DigestRequest parse(java.io.InputStream stream) {
+            try {
+                BinaryCodec.Reader in = BinaryCodec.Reader.of(stream);
+                return DigestRequest.newBuilder()
+                        .setLevel(in.readInt())
+                        .setFromIndex(in.readInt())
+                        .setCount(in.readInt())
+                        .build();
+            } catch (Exception e) {
+                return DigestRequest.newBuilder().build();
+            }
+        }
+    }
+
+    /**
+     * [adet] (hash)*
+     */
+    private static class DigestResponseMarshaller implements MethodDescriptor.Marshaller<DigestResponse> {
+        @Override
+        public java.io.InputStream stream(DigestResponse value) {
+            BinaryCodec.Writer out = new BinaryCodec.Writer(8 + value.getHashesCount() * 10);
+            out.writeInt(value.getHashesCount());
+            for (long hash : value.getHashesList()) {
+                out.writeVarint(hash);
+            }
+            return out.toInputStream();
+        }
+
+        @Override
+        public DigestResponse parse(java.io.InputStream stream) {
+            try {
+                BinaryCodec.Reader in = BinaryCodec.Reader.of(stream);
+                int count = in.readInt();
+                DigestResponse.Builder builder = DigestResponse.newBuilder();
+                for (int i = 0; i < count; i++) {
+                    builder.addHashes(in.readVarint());
+                }
+                return builder.build();
+            } catch (Exception e) {
+                return DigestResponse.newBuilder().build();
+            }
+        }
+    }
+
+    /**
+     * [adet] (yaprak)*
+     */
+    private static class RangeEntriesRequestMarshaller implements MethodDescriptor.Marshaller<RangeEntriesRequest> {
+        @Override
+        public java.io.InputStream stream(RangeEntriesRequest value) {
+            BinaryCodec.Writer out = new BinaryCodec.Writer(8 + value.getLeavesCount() * 3);
+            out.writeInt(value.getLeavesCount());
+            for (int leaf : value.getLeavesList()) {
+                out.writeInt(leaf);
+            }
+            return out.toInputStream();
+        }
+
+        @Override
+        public RangeEntriesRequest parse(java.io.InputStream stream) {
+            try {
+                BinaryCodec.Reader in = BinaryCodec.Reader.of(stream);
+                int count = in.readInt();
+                RangeEntriesRequest.Builder builder = RangeEntriesRequest.newBuilder();
+                for (int i = 0; i < count; i++) {
+                    builder.addLeaves(in.readInt());
+                }
+                return builder.build();
+            } catch (Exception e) {
+                return RangeEntriesRequest.newBuilder().build();
+            }
+        }
+    }
+
+    /**
+     * [adet] (mesaj ID, içerik hash)*
+     */
+    private static class RangeEntriesResponseMarshaller implements MethodDescriptor.Marshaller<RangeEntriesResponse> {
+        @Override
+        public java.io.InputStream stream(RangeEntriesResponse value) {
+            BinaryCodec.Writer out = new BinaryCodec.Writer(8 + value.getEntriesCount() * 32);
+            out.writeInt(value.getEntriesCount());
+            for (int i = 0; i < value.getEntriesCount(); i++) {
+                out.writeString(value.getMessageIdsList().get(i));
+                out.writeVarint(value.getContentHashesList().get(i));
+            }
+            return out.toInputStream();
+        }
+
+        @Override
+        public RangeEntriesResponse parse(java.io.InputStream stream) {
+            try {
+                BinaryCodec.Reader in = BinaryCodec.Reader.of(stream);
+                int count = in.readInt();
+                RangeEntriesResponse.Builder builder = RangeEntriesResponse.newBuilder();
+                for (int i = 0; i < count; i++) {
+                    builder.addEntry(in.readString(), in.readVarint());
+                }
+                return builder.build();
+            } catch (Exception e) {
+                return RangeEntriesResponse.newBuilder().build();
+            }
+        }
+    }
 }
@@ -0,0 +1,41 @@
+package com.hatokuse.proto;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Range Entries Request - Hash ağacının verilen yapraklarındaki mesajları ister
+ */
+public final class RangeEntriesRequest {
+    private final List<Integer> leaves;
+
+    private RangeEntriesRequest(Builder builder) {
+        this.leaves = Collections.unmodifiableList(new ArrayList<>(builder.leaves));
+    }
+
+    public List<Integer> getLeavesList() {
+        return leaves;
+    }
+
+    public int getLeavesCount() {
+        return leaves.size();
+    }
+
+    public static Builder newBuilder() {
+        return new Builder();
+    }
+
+    public static final class Builder {
+        private final List<Integer> leaves = new ArrayList<>();
+
+        public Builder addLeaves(int leaf) {
+            this.leaves.add(leaf);
+            return this;
+        }
+
+        public RangeEntriesRequest build() {
+            return new RangeEntriesRequest(this);
+        }
+    }
+}
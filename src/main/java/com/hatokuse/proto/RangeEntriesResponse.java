@@ -0,0 +1,50 @@
+package com.hatokuse.proto;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Range Entries Response - İstenen yapraklardaki mesaj ID'leri ve içerik hash'leri
+ * (message_ids[i] ile content_hashes[i] aynı mesaja aittir)
+ */
+public final class RangeEntriesResponse {
+    private final List<String> messageIds;
+    private final List<Long> contentHashes;
+
+    private RangeEntriesResponse(Builder builder) {
+        this.messageIds = Collections.unmodifiableList(new ArrayList<>(builder.messageIds));
+        this.contentHashes = Collections.unmodifiableList(new ArrayList<>(builder.contentHashes));
+    }
+
+    public List<String> getMessageIdsList() {
+        return messageIds;
+    }
+
+    public List<Long> getContentHashesList() {
+        return contentHashes;
+    }
+
+    public int getEntriesCount() {
+        return messageIds.size();
+    }
+
+    public static Builder newBuilder() {
+        return new Builder();
+    }
+
+    public static final class Builder {
+        private final List<String> messageIds = new ArrayList<>();
+        private final List<Long> contentHashes = new ArrayList<>();
+
+        public Builder addEntry(String messageId, long contentHash) {
+            this.messageIds.add(messageId);
+            this.contentHashes.add(contentHash);
+            return this;
+        }
+
+        public RangeEntriesResponse build() {
+            return new RangeEntriesResponse(this);
+        }
+    }
+}
@@ -0,0 +1,48 @@
+package com.hatokuse.proto;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Replicate Batch Request - Toplu mesaj replikasyonu isteği
+ */
+public final class ReplicateBatchRequest {
+    private final List<ReplicateRequest> messages;
+
+    private ReplicateBatchRequest(Builder builder) {
+        this.messages = Collections.unmodifiableList(new ArrayList<>(builder.messages));
+    }
+
+    public List<ReplicateRequest> getMessagesList() {
+        return messages;
+    }
+
+    public int getMessagesCount() {
+        return messages.size();
+    }
+
+    public static Builder newBuilder() {
+        return new Builder();
+    }
+
+    public static final class Builder {
+        private final List<ReplicateRequest> messages = new ArrayList<>();
+
+        public Builder addMessages(ReplicateRequest message) {
+            this.messages.add(message);
+            return this;
+        }
+
+        public Builder addAllMessages(Iterable<ReplicateRequest> messages) {
+            for (ReplicateRequest message : messages) {
+                this.messages.add(message);
+            }
+            return this;
+        }
+
+        public ReplicateBatchRequest build() {
+            return new ReplicateBatchRequest(this);
+        }
+    }
+}
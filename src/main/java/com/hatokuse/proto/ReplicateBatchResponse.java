@@ -0,0 +1,41 @@
+package com.hatokuse.proto;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Replicate Batch Response - Toplu mesaj replikasyonu yanıtı (istek sırasıyla)
+ */
+public final class ReplicateBatchResponse {
+    private final List<ReplicateResponse> results;
+
+    private ReplicateBatchResponse(Builder builder) {
+        this.results = Collections.unmodifiableList(new ArrayList<>(builder.results));
+    }
+
+    public List<ReplicateResponse> getResultsList() {
+        return results;
+    }
+
+    public int getResultsCount() {
+        return results.size();
+    }
+
+    public static Builder newBuilder() {
+        return new Builder();
+    }
+
+    public static final class Builder {
+        private final List<ReplicateResponse> results = new ArrayList<>();
+
+        public Builder addResults(ReplicateResponse result) {
+            this.results.add(result);
+            return this;
+        }
+
+        public ReplicateBatchResponse build() {
+            return new ReplicateBatchResponse(this);
+        }
+    }
+}
@@ -1,23 +1,51 @@
 package com.hatokuse.proto;
 
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
 /**
  * Replicate Request - Mesaj replikasyonu isteği
  */
 public final class ReplicateRequest {
     private final String messageId;
+    // Gövde ya String ya da UTF-8 byte olarak tutulur; diğeri null'dır
     private final String messageContent;
+    private final ByteBuffer messageContentBytes;
 
     private ReplicateRequest(Builder builder) {
         this.messageId = builder.messageId;
         this.messageContent = builder.messageContent;
+        this.messageContentBytes = builder.messageContentBytes;
     }
 
     public String getMessageId() {
         return messageId;
     }
 
+    /**
+     * Gövdeyi String olarak döner; gövde byte olarak taşınıyorsa her çağrıda çözülür.
+     */
     public String getMessageContent() {
-        return messageContent;
+        return messageContent != null ? messageContent : BinaryCodec.decode(messageContentBytes);
+    }
+
+    /**
+     * Gövdeyi UTF-8 byte olarak döner. Gövde byte olarak taşınıyorsa kopyalanmaz;
+     * dönen tampon (bağımsız konumlu) değiştirilmemelidir.
+     */
+    public ByteBuffer getMessageContentBytes() {
+        return messageContentBytes != null ? messageContentBytes.duplicate()
+                : ByteBuffer.wrap(messageContent.getBytes(StandardCharsets.UTF_8));
+    }
+
+    // Marshaller için: gövde byte olarak tutuluyorsa tampon, değilse null
+    ByteBuffer contentBuffer() {
+        return messageContentBytes;
+    }
+
+    // Marshaller için yaklaşık kodlanmış gövde boyutu (gövdeyi çözmeden)
+    int contentSizeHint() {
+        return messageContentBytes != null ? messageContentBytes.remaining() : messageContent.length();
     }
 
     public static Builder newBuilder() {
@@ -27,6 +55,7 @@ public final class ReplicateRequest {
     public static final class Builder {
         private String messageId = "";
         private String messageContent = "";
+        private ByteBuffer messageContentBytes;
 
         public Builder setMessageId(String messageId) {
             this.messageId = messageId;
@@ -35,6 +64,16 @@ public final class ReplicateRequest {
 
         public Builder setMessageContent(String messageContent) {
             this.messageContent = messageContent;
+            this.messageContentBytes = null;
+            return this;
+        }
+
+        /**
+         * Gövdeyi kopyalamadan UTF-8 byte olarak ayarlar (tamponun kalan byte'ları).
+         */
+        public Builder setMessageContentBytes(ByteBuffer messageContentBytes) {
+            this.messageContentBytes = messageContentBytes;
+            this.messageContent = null;
             return this;
         }
 
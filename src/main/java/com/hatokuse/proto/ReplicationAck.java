@@ -0,0 +1,54 @@
+package com.hatokuse.proto;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Replication Ack - Kümülatif onay: acked_sequence'a kadar tüm işlemler tamamlandı,
+ * failed_sequences bu aralıkta başarısız olan işlemleri listeler
+ */
+public final class ReplicationAck {
+    private final long ackedSequence;
+    private final List<Long> failedSequences;
+
+    private ReplicationAck(Builder builder) {
+        this.ackedSequence = builder.ackedSequence;
+        this.failedSequences = Collections.unmodifiableList(new ArrayList<>(builder.failedSequences));
+    }
+
+    public long getAckedSequence() {
+        return ackedSequence;
+    }
+
+    public List<Long> getFailedSequencesList() {
+        return failedSequences;
+    }
+
+    public int getFailedSequencesCount() {
+        return failedSequences.size();
+    }
+
+    public static Builder newBuilder() {
+        return new Builder();
+    }
+
+    public static final class Builder {
+        private long ackedSequence = 0;
+        private final List<Long> failedSequences = new ArrayList<>();
+
+        public Builder setAckedSequence(long ackedSequence) {
+            this.ackedSequence = ackedSequence;
+            return this;
+        }
+
+        public Builder addFailedSequences(long sequence) {
+            this.failedSequences.add(sequence);
+            return this;
+        }
+
+        public ReplicationAck build() {
+            return new ReplicationAck(this);
+        }
+    }
+}
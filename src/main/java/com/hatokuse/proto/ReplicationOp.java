@@ -0,0 +1,114 @@
+package com.hatokuse.proto;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Replication Op - Replikasyon akışındaki tek işlem (kayıt veya silme)
+ */
+public final class ReplicationOp {
+
+    public enum Type {
+        REPLICATE,
+        DELETE
+    }
+
+    private final long sequence;
+    private final Type type;
+    private final String messageId;
+    // Gövde ya String ya da UTF-8 byte olarak tutulur; diğeri null'dır
+    private final String messageContent;
+    private final ByteBuffer messageContentBytes;
+
+    private ReplicationOp(Builder builder) {
+        this.sequence = builder.sequence;
+        this.type = builder.type;
+        this.messageId = builder.messageId;
+        this.messageContent = builder.messageContent;
+        this.messageContentBytes = builder.messageContentBytes;
+    }
+
+    public long getSequence() {
+        return sequence;
+    }
+
+    public Type getType() {
+        return type;
+    }
+
+    public String getMessageId() {
+        return messageId;
+    }
+
+    /**
+     * Gövdeyi String olarak döner; gövde byte olarak taşınıyorsa her çağrıda çözülür.
+     */
+    public String getMessageContent() {
+        return messageContent != null ? messageContent : BinaryCodec.decode(messageContentBytes);
+    }
+
+    /**
+     * Gövdeyi UTF-8 byte olarak döner. Gövde byte olarak taşınıyorsa kopyalanmaz;
+     * dönen tampon (bağımsız konumlu) değiştirilmemelidir.
+     */
+    public ByteBuffer getMessageContentBytes() {
+        return messageContentBytes != null ? messageContentBytes.duplicate()
+                : ByteBuffer.wrap(messageContent.getBytes(StandardCharsets.UTF_8));
+    }
+
+    // Marshaller için: gövde byte olarak tutuluyorsa tampon, değilse null
+    ByteBuffer contentBuffer() {
+        return messageContentBytes;
+    }
+
+    // Marshaller için yaklaşık kodlanmış gövde boyutu (gövdeyi çözmeden)
+    int contentSizeHint() {
+        return messageContentBytes != null ? messageContentBytes.remaining() : messageContent.length();
+    }
+
+    public static Builder newBuilder() {
+        return new Builder();
+    }
+
+    public static final class Builder {
+        private long sequence = 0;
+        private Type type = Type.REPLICATE;
+        private String messageId = "";
+        private String messageContent = "";
+        private ByteBuffer messageContentBytes;
+
+        public Builder setSequence(long sequence) {
+            this.sequence = sequence;
+            return this;
+        }
+
+        public Builder setType(Type type) {
+            this.type = type;
+            return this;
+        }
+
+        public Builder setMessageId(String messageId) {
+            this.messageId = messageId;
+            return this;
+        }
+
+        public Builder setMessageContent(String messageContent) {
+            this.messageContent = messageContent;
+            this.messageContentBytes = null;
+            return this;
+        }
+
+        /**
+         * Gövdeyi kopyalamadan UTF-8 byte olarak ayarlar (tamponun kalan byte'ları).
+         */
+        public Builder setMessageContentBytes(ByteBuffer messageContentBytes) {
+            this.messageContentBytes = messageContentBytes;
+            this.messageContent = null;
+            return this;
+        }
+
+        public ReplicationOp build() {
+            return new ReplicationOp(this);
+        }
+    }
+}
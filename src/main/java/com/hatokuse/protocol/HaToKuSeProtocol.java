@@ -1,5 +1,7 @@
 package com.hatokuse.protocol;
 
+import java.util.*;
+
 /**
  * HaToKuSe (Hata-Tolere Kuyruk Servisi) Protokolü
  * Text tabanlı istemci-lider haberleşmesi için kullanılır.
@@ -8,11 +10,19 @@ package com.hatokuse.protocol;
  * - SET <message_id> <message>
  * - GET <message_id>
  * - DEL <message_id>
+ * - MSET <id1> <len1> <msg1> <id2> <len2> <msg2> ...
+ * - MGET <id1> <id2> ...
+ * - MDEL <id1> <id2> ...
  * 
  * Yanıtlar:
  * - OK
  * - OK <message>
+ * - OK <id1> <len1> <msg1> <id2> -1 ...  (MGET; bulunamayan mesajın uzunluğu -1)
+ * - OK <count>                           (MSET: kaydedilen, MDEL: silinen mesaj sayısı)
  * - ERROR <error_message>
+ *
+ * Çoklu komutlarda mesajlar boşluk içerebildiği için her mesajın önünde
+ * karakter cinsinden uzunluğu yazılır.
  */
 public class HaToKuSeProtocol {
 
@@ -20,11 +30,17 @@ public class HaToKuSeProtocol {
     public static final String CMD_SET = "SET";
     public static final String CMD_GET = "GET";
     public static final String CMD_DEL = "DEL";
+    public static final String CMD_MSET = "MSET";
+    public static final String CMD_MGET = "MGET";
+    public static final String CMD_MDEL = "MDEL";
 
     // Yanıt tipleri
     public static final String RESP_OK = "OK";
     public static final String RESP_ERROR = "ERROR";
 
+    // Tek satırlık komut üst sınırı (16MB); daha uzun mesaj uzunluğu geçersizdir
+    public static final int MAX_LINE_BYTES = 16 * 1024 * 1024;
+
     /**
      * SET komutu için istek oluşturur.
      */
@@ -46,6 +62,119 @@ public class HaToKuSeProtocol {
         return CMD_DEL + " " + messageId;
     }
 
+    /**
+     * MSET komutu için istek oluşturur.
+     */
+    public static String createMSetCommand(Map<String, String> messages) {
+        StringBuilder sb = new StringBuilder(CMD_MSET);
+        for (Map.Entry<String, String> entry : messages.entrySet()) {
+            appendEntry(sb, entry.getKey(), entry.getValue());
+        }
+        return sb.toString();
+    }
+
+    /**
+     * MGET komutu için istek oluşturur.
+     */
+    public static String createMGetCommand(Collection<String> messageIds) {
+        return CMD_MGET + " " + String.join(" ", messageIds);
+    }
+
+    /**
+     * MDEL komutu için istek oluşturur.
+     */
+    public static String createMDelCommand(Collection<String> messageIds) {
+        return CMD_MDEL + " " + String.join(" ", messageIds);
+    }
+
+    /**
+     * MGET yanıtı oluşturur. Bulunamayan mesajlar (null) -1 uzunlukla yazılır.
+     */
+    public static String createMGetResponse(List<String> messageIds, Map<String, String> messages) {
+        StringBuilder sb = new StringBuilder(RESP_OK);
+        for (String messageId : messageIds) {
+            appendEntry(sb, messageId, messages.get(messageId));
+        }
+        return sb.toString();
+    }
+
+    private static void appendEntry(StringBuilder sb, String messageId, String message) {
+        sb.append(' ').append(messageId).append(' ');
+        if (message == null) {
+            sb.append(-1);
+        } else {
+            sb.append(message.length()).append(' ').append(message);
+        }
+    }
+
+    /**
+     * MGET yanıtını parse eder.
+     *
+     * @return Mesaj ID -> mesaj (bulunamayanlar null), yanıt sırasıyla; yanıt hatalıysa null
+     */
+    public static Map<String, String> parseMGetResponse(String rawResponse) {
+        if (rawResponse == null || !rawResponse.startsWith(RESP_OK)) {
+            return null;
+        }
+        Map<String, String> messages = new LinkedHashMap<>();
+        return parseEntries(rawResponse, RESP_OK.length(), messages, true) == null ? messages : null;
+    }
+
+    /**
+     * "<id> <len> <msg>" dizisini okur.
+     *
+     * @param allowMissing -1 uzunluğa (null mesaj) izin verilip verilmeyeceği
+     * @return Hata mesajı; başarılıysa null
+     */
+    private static String parseEntries(String text, int pos, Map<String, String> out, boolean allowMissing) {
+        int length = text.length();
+        while (pos < length) {
+            if (text.charAt(pos) != ' ') {
+                return "Beklenmeyen karakter, konum " + pos;
+            }
+            pos++;
+
+            int idEnd = text.indexOf(' ', pos);
+            if (idEnd <= pos) {
+                return "Mesaj uzunluğu eksik, konum " + pos;
+            }
+            String messageId = text.substring(pos, idEnd);
+            pos = idEnd + 1;
+
+            int lenEnd = text.indexOf(' ', pos);
+            if (lenEnd < 0) {
+                lenEnd = length;
+            }
+            int messageLength;
+            try {
+                messageLength = Integer.parseInt(text.substring(pos, lenEnd));
+            } catch (NumberFormatException e) {
+                return "Geçersiz mesaj uzunluğu: " + messageId;
+            }
+
+            if (messageLength < 0) {
+                if (!allowMissing || messageLength != -1) {
+                    return "Geçersiz mesaj uzunluğu: " + messageId;
+                }
+                out.put(messageId, null);
+                pos = lenEnd;
+                continue;
+            }
+
+            if (messageLength > MAX_LINE_BYTES) {
+                return "Geçersiz mesaj uzunluğu: " + messageId;
+            }
+            int messageStart = lenEnd + 1;
+            // messageStart + messageLength taşabileceği için farkla karşılaştırılır
+            if (messageLength > length - messageStart) {
+                return "Mesaj beklenenden kısa: " + messageId;
+            }
+            out.put(messageId, text.substring(messageStart, messageStart + messageLength));
+            pos = messageStart + messageLength;
+        }
+        return null;
+    }
+
     /**
      * Başarılı yanıt oluşturur.
      */
@@ -78,6 +207,11 @@ public class HaToKuSeProtocol {
         String command = rawCommand.trim();
         String[] parts = command.split(" ", 3);
 
+        if (parts[0].equalsIgnoreCase(CMD_MSET)) {
+            // Son mesajın sonundaki boşluklar da mesaja dahil olabilir; sadece baştan kırp
+            return parseMSetCommand(rawCommand.stripLeading());
+        }
+
         if (parts.length == 0) {
             return new ParsedCommand(null, null, null, "Geçersiz komut formatı");
         }
@@ -103,11 +237,36 @@ public class HaToKuSeProtocol {
                 }
                 return new ParsedCommand(CMD_DEL, parts[1], null, null);
 
+            case CMD_MGET:
+            case CMD_MDEL: {
+                // Tekrarlanan ID'ler bir kez işlenir
+                String[] tokens = command.split("\\s+");
+                List<String> messageIds = new ArrayList<>(
+                        new LinkedHashSet<>(Arrays.asList(tokens).subList(1, tokens.length)));
+                if (messageIds.isEmpty()) {
+                    return new ParsedCommand(cmdType, null, null,
+                            cmdType + " komutu için format: " + cmdType + " <id1> <id2> ...");
+                }
+                return new ParsedCommand(cmdType, messageIds, null);
+            }
+
             default:
                 return new ParsedCommand(null, null, null, "Bilinmeyen komut: " + cmdType);
         }
     }
 
+    private static ParsedCommand parseMSetCommand(String command) {
+        Map<String, String> messages = new LinkedHashMap<>();
+        String error = parseEntries(command, CMD_MSET.length(), messages, false);
+        if (error == null && messages.isEmpty()) {
+            error = "MSET komutu için format: MSET <id1> <len1> <msg1> <id2> <len2> <msg2> ...";
+        }
+        if (error != null) {
+            return new ParsedCommand(CMD_MSET, null, null, error);
+        }
+        return new ParsedCommand(CMD_MSET, new ArrayList<>(messages.keySet()), messages);
+    }
+
     /**
      * Gelen yanıtı parse eder.
      */
@@ -138,11 +297,26 @@ public class HaToKuSeProtocol {
         private final String messageContent;
         private final String error;
 
+        // Çoklu komutlar (MSET/MGET/MDEL) için
+        private final List<String> messageIds;
+        private final Map<String, String> messages;
+
         public ParsedCommand(String commandType, String messageId, String messageContent, String error) {
             this.commandType = commandType;
             this.messageId = messageId;
             this.messageContent = messageContent;
             this.error = error;
+            this.messageIds = messageId != null ? List.of(messageId) : List.of();
+            this.messages = null;
+        }
+
+        public ParsedCommand(String commandType, List<String> messageIds, Map<String, String> messages) {
+            this.commandType = commandType;
+            this.messageId = null;
+            this.messageContent = null;
+            this.error = null;
+            this.messageIds = messageIds;
+            this.messages = messages;
         }
 
         public boolean isValid() {
@@ -165,6 +339,20 @@ public class HaToKuSeProtocol {
             return error;
         }
 
+        /**
+         * Komutun ilgilendiği mesaj ID'leri (tekli komutlarda tek eleman).
+         */
+        public List<String> getMessageIds() {
+            return messageIds;
+        }
+
+        /**
+         * MSET için mesaj ID -> mesaj eşlemesi (komut sırasıyla).
+         */
+        public Map<String, String> getMessages() {
+            return messages;
+        }
+
         public boolean isSet() {
             return CMD_SET.equals(commandType);
         }
@@ -176,6 +364,18 @@ public class HaToKuSeProtocol {
         public boolean isDel() {
             return CMD_DEL.equals(commandType);
         }
+
+        public boolean isMSet() {
+            return CMD_MSET.equals(commandType);
+        }
+
+        public boolean isMGet() {
+            return CMD_MGET.equals(commandType);
+        }
+
+        public boolean isMDel() {
+            return CMD_MDEL.equals(commandType);
+        }
     }
 
     /**
@@ -3,47 +3,182 @@ package com.hatokuse.storage;
 import java.io.*;
 import java.nio.*;
 import java.nio.channels.*;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.*;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 import java.util.concurrent.ConcurrentHashMap;
-import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.function.DoubleSupplier;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedInputStream;
+import java.util.zip.CheckedOutputStream;
+
+import com.hatokuse.metrics.LatencyTimer;
+import com.hatokuse.metrics.MetricsRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 /**
  * Mesajları diske kaydeden ve okuyan sınıf.
- * Her mesaj ayrı bir dosya olarak saklanır.
+ * Her mesaj ayrı bir dosya olarak saklanır (SEGMENT modu hariç).
  * 
  * ÖZELLİKLER:
  * - Zero-copy IO (FileChannel ile)
  * - Buffered IO (BufferedOutputStream/BufferedInputStream)
  * - Memory-mapped IO (MappedByteBuffer)
  * - Unbuffered direct IO
+ * - Append-only segment log (SegmentLog)
+ * - Group-commit: toplu yazma + batch başına tek fsync (GroupCommitWriter)
+ * - Anti-entropy için mesajlar (ID + içerik) üzerinde artımlı hash ağacı (MerkleDigest)
+ *
+ * EŞZAMANLILIK:
+ * Yazma ve silmeler mesaj ID'sine göre seçilen kilit şeridi (LOCK_STRIPES)
+ * altında yapılır; farklı ID'lere yazmalar birbirini beklemez, aynı ID'ye
+ * yapılan işlemler sıralıdır. IO modu değişimi ve kapanış tüm şeritleri
+ * sırayla alır. Sayaçlar ve indeksler kilitsiz yapılardır (LongAdder,
+ * ConcurrentHashMap, MerkleDigest).
  */
 public class DiskStorage {
 
+    // Mesaj başına loglar debug seviyesinde; yazma yolunda varsayılan olarak maliyetsiz
+    private static final Logger log = LoggerFactory.getLogger(DiskStorage.class);
+
     // IO modları
     public enum IOMode {
         STANDARD, // Normal Files.write/read
         BUFFERED, // BufferedOutputStream/BufferedInputStream
         ZERO_COPY, // FileChannel ile transferTo/transferFrom
-        MEMORY_MAPPED // MappedByteBuffer ile
+        MEMORY_MAPPED, // MappedByteBuffer ile
+        SEGMENT, // Append-only segment dosyaları + bellek içi indeks
+        GROUP_COMMIT // SEGMENT + toplu yazma, batch başına tek fsync
     }
 
     private final Path storageDirectory;
-    private final Map<String, String> cache;
-    private int messageCount;
-    private IOMode currentIOMode;
+    private final MessageCache cache;
+    // Opsiyonel heap dışı gövde önbelleği (null ise kullanılmaz)
+    private final OffHeapMessageCache offHeapCache;
+    // Dosya tabanlı modlardaki mesaj id'leri (gövdeler bellekte tutulmaz)
+    private final Set<String> fileIndex;
+    private final LongAdder messageCount = new LongAdder();
+    // Mesajların (ID + içerik) hash ağacı; mesaj yazılıp silindikçe güncellenir
+    private final MerkleDigest digest = new MerkleDigest();
+    // Açılışta gövdesi okunmamış mesajların içerik hash'lerini dolduran arka plan thread'i
+    private final Object digestBuildLock = new Object();
+    private Thread digestBuilder; // digestBuildLock ile korunur
+    private volatile boolean digestReady = true;
+    private volatile boolean closed;
+    private volatile long startupMillis;
+    // Şerit kilitleri altında değişir, kilitsiz okuma yolları için volatile
+    private volatile IOMode currentIOMode;
+    private volatile SegmentLog segmentLog;
+    private volatile GroupCommitWriter groupCommitWriter;
+    private final ReentrantLock[] stripes = new ReentrantLock[LOCK_STRIPES];
+    // Şerit başına önbellek sürümü; yazma ve silmeler önbelleğe dokunmadan önce artırır
+    private final AtomicLongArray cacheVersions = new AtomicLongArray(LOCK_STRIPES);
+    private final int groupCommitMaxBatchSize;
+    private final long groupCommitMaxLingerMicros;
+    // Metrik serilerinin "store" etiketi (dizin adı)
+    private final String metricsLabel;
+    private final LatencyTimer writeTimer;
+    private final LatencyTimer batchWriteTimer;
+    private final LatencyTimer readTimer;
+    private final LatencyTimer fsyncTimer;
 
     // Buffer boyutu (8KB)
     private static final int BUFFER_SIZE = 8192;
 
+    // Hash ağacı doldurulurken her bu kadar okumada bir kısa bekleme yapılır
+    private static final int DIGEST_BUILD_PAUSE_EVERY = 1024;
+
+    // Mesaj ID'sine göre yazma kilidi şerit sayısı (2'nin kuvveti)
+    static final int LOCK_STRIPES = 64;
+
+    // Mesaj gövdeleri diskte ve gRPC'de UTF-8 olarak tutulur
+    private static final Charset CHARSET = StandardCharsets.UTF_8;
+
+    // Temiz kapanışta yazılan dosya id indeksi
+    static final String FILE_INDEX = "messages.idx";
+    private static final int FILE_INDEX_MAGIC = 0x48544B49; // "HTKI"
+
+    // Temiz kapanışta yazılan içerik hash'leri (hash ağacı açılışta gövde okumadan kurulur)
+    static final String DIGEST_FILE = "digest.idx";
+    private static final int DIGEST_FILE_MAGIC = 0x48544B44; // "HTKD"
+
+    // Group-commit varsayılanları
+    public static final int DEFAULT_GROUP_COMMIT_BATCH_SIZE = 256;
+    public static final long DEFAULT_GROUP_COMMIT_LINGER_MICROS = 500;
+
+    // Varsayılan önbellek boyutu (64MB)
+    public static final long DEFAULT_CACHE_MAX_BYTES = 64L * 1024 * 1024;
+
     public DiskStorage(String storagePath) throws IOException {
         this(storagePath, IOMode.BUFFERED); // Varsayılan: Buffered IO
     }
 
     public DiskStorage(String storagePath, IOMode ioMode) throws IOException {
+        this(storagePath, ioMode, DEFAULT_GROUP_COMMIT_BATCH_SIZE, DEFAULT_GROUP_COMMIT_LINGER_MICROS);
+    }
+
+    /**
+     * @param groupCommitMaxBatchSize    GROUP_COMMIT modunda bir batch'teki maksimum kayıt sayısı
+     * @param groupCommitMaxLingerMicros GROUP_COMMIT modunda ilk kayıttan sonra batch için
+     *                                   beklenecek maksimum süre (mikrosaniye)
+     */
+    public DiskStorage(String storagePath, IOMode ioMode, int groupCommitMaxBatchSize,
+            long groupCommitMaxLingerMicros) throws IOException {
+        this(storagePath, ioMode, groupCommitMaxBatchSize, groupCommitMaxLingerMicros,
+                new LruMessageCache(DEFAULT_CACHE_MAX_BYTES));
+    }
+
+    /**
+     * @param cache Mesaj gövdeleri için (bayt sınırlı) okuma önbelleği
+     */
+    public DiskStorage(String storagePath, IOMode ioMode, int groupCommitMaxBatchSize,
+            long groupCommitMaxLingerMicros, MessageCache cache) throws IOException {
+        this(storagePath, ioMode, groupCommitMaxBatchSize, groupCommitMaxLingerMicros, cache, null);
+    }
+
+    /**
+     * @param offHeapCache Heap dışı gövde önbelleği; verilirse gövdeler önbellekte
+     *                     String yerine UTF-8 byte olarak direct bellekte tutulur
+     */
+    public DiskStorage(String storagePath, IOMode ioMode, int groupCommitMaxBatchSize,
+            long groupCommitMaxLingerMicros, MessageCache cache, OffHeapMessageCache offHeapCache)
+            throws IOException {
+        long startNanos = System.nanoTime();
         this.storageDirectory = Paths.get(storagePath);
-        this.cache = new ConcurrentHashMap<>();
-        this.messageCount = 0;
+        this.cache = cache;
+        this.offHeapCache = offHeapCache;
+        this.fileIndex = ConcurrentHashMap.newKeySet();
+        for (int i = 0; i < LOCK_STRIPES; i++) {
+            stripes[i] = new ReentrantLock();
+        }
         this.currentIOMode = ioMode;
+        this.groupCommitMaxBatchSize = groupCommitMaxBatchSize;
+        this.groupCommitMaxLingerMicros = groupCommitMaxLingerMicros;
+
+        MetricsRegistry metrics = MetricsRegistry.getDefault();
+        this.metricsLabel = String.valueOf(storageDirectory.toAbsolutePath().getFileName());
+        this.writeTimer = metrics.timer("hatokuse_storage_write_seconds",
+                "Tek mesaj kayıt süresi (group-commit'te fsync dahil)", "store", metricsLabel);
+        this.batchWriteTimer = metrics.timer("hatokuse_storage_batch_write_seconds",
+                "Toplu kayıt süresi", "store", metricsLabel);
+        this.readTimer = metrics.timer("hatokuse_storage_read_seconds",
+                "Önbellek ıskasında diskten okuma süresi", "store", metricsLabel);
+        this.fsyncTimer = metrics.timer("hatokuse_storage_fsync_seconds",
+                "fsync / force süresi", "store", metricsLabel);
+        registerMetrics(metrics);
 
         // Dizin yoksa oluştur
         if (!Files.exists(storageDirectory)) {
@@ -53,16 +188,171 @@ public class DiskStorage {
 
         System.out.println("[STORAGE] IO Modu: " + currentIOMode);
 
+        if (isSegmentMode(currentIOMode)) {
+            segmentLog = new SegmentLog(storageDirectory);
+        } else if (SegmentLog.hasSegments(storageDirectory)) {
+            // Önceki bir segment modundan kalan mesajlar gizlenmez; okunur ve silinebilir,
+            // yeni yazmalar dosyalara yapılır ve segment kopyasını siler
+            segmentLog = new SegmentLog(storageDirectory);
+            if (segmentLog.size() == 0) {
+                segmentLog.close();
+                segmentLog = null;
+            } else {
+                System.out.println("[STORAGE] Segment log'da " + segmentLog.size()
+                        + " mesaj var; dosya modunda da okunur");
+            }
+        }
+        if (currentIOMode == IOMode.GROUP_COMMIT) {
+            startGroupCommitWriter();
+        }
+
         // Mevcut dosyaları say
         countExistingMessages();
+
+        startupMillis = (System.nanoTime() - startNanos) / 1_000_000;
+        System.out.println("[STORAGE] Açılış süresi: " + startupMillis + " ms");
     }
 
     /**
-     * IO modunu değiştirir.
+     * IO modunu değiştirir. Dosya tabanlı modlar ile segment modları farklı
+     * depolar kullandığından, bırakılan depoda mesaj varken bu iki grup arasında
+     * geçiş reddedilir. Segment modundan çıkılırken segment log kapatılır.
+     *
+     * @return Mod değiştiyse true
      */
-    public void setIOMode(IOMode mode) {
-        this.currentIOMode = mode;
+    public boolean setIOMode(IOMode mode) {
+        lockAll();
+        try {
+            if (isSegmentMode(mode) != isSegmentMode(currentIOMode)) {
+                int remaining = isSegmentMode(mode)
+                        ? fileIndex.size()
+                        : (segmentLog != null ? segmentLog.size() : 0);
+                if (remaining > 0) {
+                    System.err.println("[STORAGE] IO modu değiştirilemez: " + currentIOMode + " deposunda "
+                            + remaining + " mesaj var");
+                    return false;
+                }
+            }
+            if (isSegmentMode(mode) && segmentLog == null) {
+                try {
+                    segmentLog = new SegmentLog(storageDirectory);
+                    messageCount.add(segmentLog.size());
+                    for (String messageId : segmentLog.messageIds()) {
+                        digest.add(messageId);
+                    }
+                    startDigestBuild();
+                } catch (IOException e) {
+                    System.err.println("[STORAGE] Segment log açılamadı: " + e.getMessage());
+                    return false;
+                }
+            }
+            if (mode == IOMode.GROUP_COMMIT && groupCommitWriter == null) {
+                startGroupCommitWriter();
+            } else if (mode != IOMode.GROUP_COMMIT && groupCommitWriter != null) {
+                groupCommitWriter.close();
+                groupCommitWriter = null;
+            }
+            if (!isSegmentMode(mode) && segmentLog != null && segmentLog.size() == 0) {
+                checkpoint(false);
+                try {
+                    segmentLog.close();
+                } catch (IOException e) {
+                    System.err.println("[STORAGE] Segment log kapatma hatası: " + e.getMessage());
+                }
+                segmentLog = null;
+            }
+            this.currentIOMode = mode;
+        } finally {
+            unlockAll();
+        }
         System.out.println("[STORAGE] IO Modu değiştirildi: " + mode);
+        return true;
+    }
+
+    private ReentrantLock stripeOf(String messageId) {
+        return stripes[stripeIndex(messageId)];
+    }
+
+    private static int stripeIndex(String messageId) {
+        int hash = messageId.hashCode();
+        return (hash ^ (hash >>> 16)) & (LOCK_STRIPES - 1);
+    }
+
+    /**
+     * Tüm şeritleri artan sırayla alır (mod değişimi / kapanış); sabit sıra
+     * toplu yazmalarla kilitlenmeyi (deadlock) önler.
+     */
+    private void lockAll() {
+        for (ReentrantLock stripe : stripes) {
+            stripe.lock();
+        }
+    }
+
+    private void unlockAll() {
+        for (int i = LOCK_STRIPES - 1; i >= 0; i--) {
+            stripes[i].unlock();
+        }
+    }
+
+    /**
+     * Mesaj sayısı ve önbellek durumunu metrik olarak yayınlar.
+     */
+    private void registerMetrics(MetricsRegistry metrics) {
+        metrics.gauge("hatokuse_storage_messages", "Kayıtlı mesaj sayısı", this::getMessageCount,
+                "store", metricsLabel);
+        // Açılış bitene kadar 0; kurucu sonunda ölçülen süreyi gösterir
+        metrics.gauge("hatokuse_storage_startup_seconds", "Depolama açılış süresi", () -> startupMillis / 1000.0,
+                "store", metricsLabel);
+        metrics.gauge("hatokuse_storage_segment_dead_bytes", "Segmentlerdeki ölü kayıtların boyutu",
+                this::getSegmentDeadBytes, "store", metricsLabel);
+        if (offHeapCache != null) {
+            OffHeapMessageCache c = offHeapCache;
+            registerCacheMetrics(metrics, "offheap", c::getHitCount, c::getMissCount, c::getEvictionCount,
+                    c::getEntryCount, c::getHitRatio);
+        } else {
+            MessageCache c = cache;
+            registerCacheMetrics(metrics, "heap", c::getHitCount, c::getMissCount, c::getEvictionCount,
+                    c::getEntryCount, c::getHitRatio);
+            metrics.gauge("hatokuse_cache_bytes", "Önbellekteki gövdelerin boyutu", c::getSizeBytes,
+                    "store", metricsLabel, "cache", "heap");
+        }
+    }
+
+    private double getSegmentDeadBytes() {
+        SegmentLog log = segmentLog;
+        if (log == null) {
+            return 0;
+        }
+        try {
+            return log.getDeadBytes();
+        } catch (IOException e) {
+            return 0;
+        }
+    }
+
+    private void registerCacheMetrics(MetricsRegistry metrics, String kind, DoubleSupplier hits,
+            DoubleSupplier misses, DoubleSupplier evictions, DoubleSupplier entries, DoubleSupplier hitRatio) {
+        metrics.counterFunction("hatokuse_cache_hits_total", "Önbellek isabeti", hits,
+                "store", metricsLabel, "cache", kind);
+        metrics.counterFunction("hatokuse_cache_misses_total", "Önbellek ıskası", misses,
+                "store", metricsLabel, "cache", kind);
+        metrics.counterFunction("hatokuse_cache_evictions_total", "Önbellekten tahliye edilen kayıt", evictions,
+                "store", metricsLabel, "cache", kind);
+        metrics.gauge("hatokuse_cache_entries", "Önbellekteki kayıt sayısı", entries,
+                "store", metricsLabel, "cache", kind);
+        metrics.gauge("hatokuse_cache_hit_ratio", "Önbellek isabet oranı (0-1)", hitRatio,
+                "store", metricsLabel, "cache", kind);
+    }
+
+    private static boolean isSegmentMode(IOMode mode) {
+        return mode == IOMode.SEGMENT || mode == IOMode.GROUP_COMMIT;
+    }
+
+    private void startGroupCommitWriter() {
+        groupCommitWriter = new GroupCommitWriter(segmentLog, groupCommitMaxBatchSize, groupCommitMaxLingerMicros,
+                fsyncTimer);
+        System.out.println("[STORAGE] Group-commit aktif: maxBatch=" + groupCommitMaxBatchSize
+                + ", linger=" + groupCommitMaxLingerMicros + "us");
     }
 
     /**
@@ -73,105 +363,660 @@ public class DiskStorage {
     }
 
     /**
-     * Mevcut mesaj dosyalarını sayar.
+     * Mevcut mesajları gövdelerini okumadan sayar ve indeksler.
+     * Temiz kapanışta yazılmış id indeksi varsa dizin taranmaz; yoksa
+     * (ilk açılış veya temiz olmayan kapanış) yalnızca dosya adları listelenir.
+     * Segment modlarının indeksi SegmentLog tarafından checkpoint + tail ile kurulur.
      */
     private void countExistingMessages() throws IOException {
-        if (Files.exists(storageDirectory)) {
+        if (!loadFileIndex()) {
             try (DirectoryStream<Path> stream = Files.newDirectoryStream(storageDirectory, "*.msg")) {
                 for (Path entry : stream) {
-                    messageCount++;
-                    // Önbelleğe yükle (buffered IO ile)
-                    String messageId = entry.getFileName().toString().replace(".msg", "");
-                    String content = readWithBufferedIO(entry);
-                    cache.put(messageId, content);
+                    String fileName = entry.getFileName().toString();
+                    fileIndex.add(fileName.substring(0, fileName.length() - ".msg".length()));
                 }
             }
         }
-        System.out.println("[STORAGE] Mevcut mesaj sayısı: " + messageCount);
+        messageCount.add(fileIndex.size());
+        if (segmentLog != null) {
+            messageCount.add(segmentLog.size());
+        }
+        // Gövdeler açılışta okunmaz; temiz kapanışta kaydedilmeyen içerik hash'leri
+        // (çökme sonrası) arka planda doldurulur
+        loadDigest();
+        forEachMessageId(digest::add);
+        startDigestBuild();
+        System.out.println("[STORAGE] Mevcut mesaj sayısı: " + messageCount.sum());
+    }
+
+    /**
+     * İçeriği bilinmeyen mesajların gövdelerini arka planda (önbelleğe
+     * eklemeden) okuyup hash ağacına işler. Bitene kadar ağaç eksiktir
+     * (isDigestReady false); bu sırada yazılan veya silinen mesajlar
+     * MerkleDigest.fill tarafından atlanır.
+     */
+    private void startDigestBuild() {
+        synchronized (digestBuildLock) {
+            digestReady = false;
+            if (digestBuilder == null) {
+                digestBuilder = new Thread(this::buildDigest, "digest-builder");
+                digestBuilder.setDaemon(true);
+                digestBuilder.setPriority(Thread.MIN_PRIORITY);
+                digestBuilder.start();
+            }
+        }
+    }
+
+    private void buildDigest() {
+        long start = System.nanoTime();
+        Set<String> attempted = new HashSet<>();
+        int filled = 0;
+        while (!closed) {
+            List<String> pending = digest.unknownIds();
+            pending.removeIf(attempted::contains);
+            if (pending.isEmpty()) {
+                synchronized (digestBuildLock) {
+                    // Bu arada startDigestBuild ile eklenen ID'ler varsa devam et
+                    pending = digest.unknownIds();
+                    pending.removeIf(attempted::contains);
+                    if (pending.isEmpty()) {
+                        digestBuilder = null;
+                        digestReady = true;
+                        break;
+                    }
+                }
+            }
+
+            for (String messageId : pending) {
+                if (closed) {
+                    return;
+                }
+                attempted.add(messageId);
+                ByteBuffer data = getMessageBufferUncached(messageId);
+                if (data != null) {
+                    digest.fill(messageId, MerkleDigest.contentHash(data));
+                    if (++filled % DIGEST_BUILD_PAUSE_EVERY == 0) {
+                        try {
+                            Thread.sleep(1);
+                        } catch (InterruptedException e) {
+                            Thread.currentThread().interrupt();
+                            return;
+                        }
+                    }
+                }
+            }
+        }
+        if (!closed && filled > 0) {
+            System.out.println("[STORAGE] Hash ağacı hazır: " + filled + " mesaj, "
+                    + (System.nanoTime() - start) / 1_000_000 + " ms");
+        }
+    }
+
+    /**
+     * Temiz kapanışta yazılan id indeksini yükler.
+     * Dosya okunduktan sonra silinir; böylece bir sonraki çökme sonrasında
+     * eskimiş indekse güvenilmez.
+     *
+     * @return İndeks başarıyla yüklendiyse true
+     */
+    private boolean loadFileIndex() {
+        Path path = storageDirectory.resolve(FILE_INDEX);
+        if (!Files.exists(path)) {
+            return false;
+        }
+
+        try {
+            try (CheckedInputStream checked = new CheckedInputStream(
+                    new BufferedInputStream(Files.newInputStream(path), BUFFER_SIZE), new CRC32());
+                    DataInputStream in = new DataInputStream(checked)) {
+                if (in.readInt() != FILE_INDEX_MAGIC) {
+                    throw new IOException("Geçersiz indeks başlığı");
+                }
+                int count = in.readInt();
+                Set<String> loaded = new java.util.HashSet<>(count * 2);
+                for (int i = 0; i < count; i++) {
+                    loaded.add(in.readUTF());
+                }
+                int expectedCrc = (int) checked.getChecksum().getValue();
+                if (in.readInt() != expectedCrc) {
+                    throw new IOException("İndeks CRC hatası");
+                }
+                fileIndex.addAll(loaded);
+            }
+            Files.delete(path);
+            return true;
+        } catch (IOException e) {
+            System.err.println("[STORAGE] Id indeksi kullanılamadı, dizin taranacak: " + e.getMessage());
+            fileIndex.clear();
+            return false;
+        }
+    }
+
+    /**
+     * Temiz kapanışta yazılan içerik hash'lerini hash ağacına yükler. Dosya
+     * okunduktan sonra silinir; çökme sonrasında eskimiş hash'lere güvenilmez.
+     */
+    private void loadDigest() {
+        Path path = storageDirectory.resolve(DIGEST_FILE);
+        if (!Files.exists(path)) {
+            return;
+        }
+
+        int loaded = 0;
+        try {
+            try (CheckedInputStream checked = new CheckedInputStream(
+                    new BufferedInputStream(Files.newInputStream(path), BUFFER_SIZE), new CRC32());
+                    DataInputStream in = new DataInputStream(checked)) {
+                if (in.readInt() != DIGEST_FILE_MAGIC) {
+                    throw new IOException("Geçersiz hash dosyası başlığı");
+                }
+                int count = in.readInt();
+                List<String> ids = new ArrayList<>(count);
+                long[] contentHashes = new long[count];
+                for (int i = 0; i < count; i++) {
+                    ids.add(in.readUTF());
+                    contentHashes[i] = in.readLong();
+                }
+                int expectedCrc = (int) checked.getChecksum().getValue();
+                if (in.readInt() != expectedCrc) {
+                    throw new IOException("Hash dosyası CRC hatası");
+                }
+                for (int i = 0; i < count; i++) {
+                    if (hasMessage(ids.get(i))) {
+                        digest.put(ids.get(i), contentHashes[i]);
+                        loaded++;
+                    }
+                }
+            }
+            Files.delete(path);
+        } catch (IOException e) {
+            System.err.println("[STORAGE] İçerik hash'leri kullanılamadı, gövdeler okunacak: " + e.getMessage());
+        }
+        System.out.println("[STORAGE] İçerik hash'leri yüklendi: " + loaded + " mesaj");
+    }
+
+    /**
+     * Hash ağacının bilinen içerik hash'lerini yazar (sadece temiz kapanışta).
+     */
+    private void saveDigest() throws IOException {
+        Path target = storageDirectory.resolve(DIGEST_FILE);
+        Path temp = storageDirectory.resolve(DIGEST_FILE + ".tmp");
+
+        List<String> ids = new ArrayList<>();
+        List<Long> contentHashes = new ArrayList<>();
+        for (int leaf = 0; leaf < MerkleDigest.LEAF_COUNT; leaf++) {
+            digest.forEachInLeaf(leaf, (messageId, contentHash) -> {
+                if (contentHash != MerkleDigest.UNKNOWN_CONTENT) {
+                    ids.add(messageId);
+                    contentHashes.add(contentHash);
+                }
+            });
+        }
+
+        try (CheckedOutputStream checked = new CheckedOutputStream(
+                new BufferedOutputStream(Files.newOutputStream(temp), BUFFER_SIZE), new CRC32());
+                DataOutputStream out = new DataOutputStream(checked)) {
+            out.writeInt(DIGEST_FILE_MAGIC);
+            out.writeInt(ids.size());
+            for (int i = 0; i < ids.size(); i++) {
+                out.writeUTF(ids.get(i));
+                out.writeLong(contentHashes.get(i));
+            }
+            out.flush();
+            out.writeInt((int) checked.getChecksum().getValue());
+        }
+        Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * Dosya tabanlı modların id indeksini yazar (sadece temiz kapanışta).
+     */
+    private void saveFileIndex() throws IOException {
+        Path target = storageDirectory.resolve(FILE_INDEX);
+        Path temp = storageDirectory.resolve(FILE_INDEX + ".tmp");
+
+        try (CheckedOutputStream checked = new CheckedOutputStream(
+                new BufferedOutputStream(Files.newOutputStream(temp), BUFFER_SIZE), new CRC32());
+                DataOutputStream out = new DataOutputStream(checked)) {
+            String[] ids = fileIndex.toArray(new String[0]);
+            out.writeInt(FILE_INDEX_MAGIC);
+            out.writeInt(ids.length);
+            for (String id : ids) {
+                out.writeUTF(id);
+            }
+            out.flush();
+            out.writeInt((int) checked.getChecksum().getValue());
+        }
+        Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
     }
 
     /**
      * Mesajı diske kaydeder (aktif IO moduna göre).
+     * GROUP_COMMIT modunda kayıt kuyruğa bırakılır ve fsync tamamlanana kadar beklenir;
+     * bu sırada storage kilidi tutulmaz.
+     */
+    public boolean saveMessage(String messageId, String content) {
+        return saveMessage(messageId, encode(content));
+    }
+
+    /**
+     * Mesaj gövdesini byte olarak kaydeder. Tamponun kalan byte'ları yazılır,
+     * tamponun konumu değiştirilmez; gövde String'e çevrilmez.
+     */
+    public boolean saveMessage(String messageId, ByteBuffer content) {
+        GroupCommitWriter writer = groupCommitWriter;
+        if (writer != null) {
+            try {
+                return saveMessageAsync(messageId, content).join();
+            } catch (CompletionException e) {
+                log.error("[STORAGE] Mesaj kaydetme hatası: {}", e.getCause().getMessage());
+                return false;
+            }
+        }
+        return writeMessage(messageId, content);
+    }
+
+    public CompletableFuture<Boolean> saveMessageAsync(String messageId, String content) {
+        return saveMessageAsync(messageId, encode(content));
+    }
+
+    /**
+     * Mesajı asenkron kaydeder. GROUP_COMMIT modunda future, kaydın bulunduğu
+     * batch fsync edildikten sonra tamamlanır; diğer modlarda yazma senkron yapılır.
+     * Tampon future tamamlanana kadar değiştirilmemelidir.
      */
-    public synchronized boolean saveMessage(String messageId, String content) {
+    public CompletableFuture<Boolean> saveMessageAsync(String messageId, ByteBuffer content) {
+        long start = System.nanoTime();
+        GroupCommitWriter writer = groupCommitWriter;
+        if (writer == null) {
+            boolean saved = writeMessage(messageId, content);
+            writeTimer.recordSince(start);
+            return CompletableFuture.completedFuture(saved);
+        }
+
+        long contentHash = MerkleDigest.contentHash(content);
+        return writer.submit(SegmentLog.Record.put(messageId, content))
+                .thenApply(existed -> {
+                    writeTimer.recordSince(start);
+                    if (!dropFileCopy(messageId) && !existed) {
+                        messageCount.increment();
+                    }
+                    digest.put(messageId, contentHash);
+                    cacheContent(messageId, content);
+                    return true;
+                });
+    }
+
+    /**
+     * Birden fazla mesajı tek bir storage commit'i ile kaydeder.
+     * SEGMENT modunda kayıtlar tek seferde log'a eklenir, GROUP_COMMIT modunda
+     * hepsi aynı batch'te tek fsync ile yazılır. Dosya tabanlı modlarda her
+     * mesaj ayrı dosya olduğundan mesajlar kendi şerit kilidiyle sırayla yazılır.
+     *
+     * @return Her mesaj için kayıt sonucu (aynı sırayla)
+     */
+    public boolean[] saveMessages(List<String> messageIds, List<ByteBuffer> contents) {
         try {
+            return saveMessagesAsync(messageIds, contents).join();
+        } catch (CompletionException e) {
+            log.error("[STORAGE] Toplu kayıt hatası: {}", e.getCause().getMessage());
+            return new boolean[messageIds.size()];
+        }
+    }
+
+    /**
+     * saveMessages'in asenkron hali; GROUP_COMMIT modunda future batch fsync
+     * edildikten sonra tamamlanır.
+     */
+    public CompletableFuture<boolean[]> saveMessagesAsync(List<String> messageIds, List<ByteBuffer> contents) {
+        int count = messageIds.size();
+        List<SegmentLog.Record> records = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            records.add(SegmentLog.Record.put(messageIds.get(i), contents.get(i)));
+        }
+
+        long start = System.nanoTime();
+        GroupCommitWriter writer = groupCommitWriter;
+        if (writer != null) {
+            long[] contentHashes = new long[count];
+            for (int i = 0; i < count; i++) {
+                contentHashes[i] = MerkleDigest.contentHash(contents.get(i));
+            }
+            return writer.submitAll(records).thenApply(existed -> {
+                batchWriteTimer.recordSince(start);
+                for (int i = 0; i < count; i++) {
+                    if (!dropFileCopy(messageIds.get(i)) && !existed[i]) {
+                        messageCount.increment();
+                    }
+                    digest.put(messageIds.get(i), contentHashes[i]);
+                    cacheContent(messageIds.get(i), contents.get(i));
+                }
+                boolean[] results = new boolean[count];
+                Arrays.fill(results, true);
+                return results;
+            });
+        }
+
+        boolean[] results = writeMessages(messageIds, contents, records);
+        batchWriteTimer.recordSince(start);
+        return CompletableFuture.completedFuture(results);
+    }
+
+    private boolean[] writeMessages(List<String> messageIds, List<ByteBuffer> contents,
+            List<SegmentLog.Record> records) {
+        int count = messageIds.size();
+        boolean[] results = new boolean[count];
+
+        if (currentIOMode == IOMode.SEGMENT) {
+            // Batch'in tüm ID'lerinin şeritleri artan sırayla alınır
+            boolean[] locked = new boolean[LOCK_STRIPES];
+            for (String messageId : messageIds) {
+                locked[stripeIndex(messageId)] = true;
+            }
+            for (int i = 0; i < LOCK_STRIPES; i++) {
+                if (locked[i]) {
+                    stripes[i].lock();
+                }
+            }
+            try {
+                if (currentIOMode == IOMode.SEGMENT) {
+                    boolean[] existed = segmentLog.applyBatch(records);
+                    for (int i = 0; i < count; i++) {
+                        if (!deleteFileCopy(messageIds.get(i)) && !existed[i]) {
+                            messageCount.increment();
+                        }
+                        digest.put(messageIds.get(i), MerkleDigest.contentHash(contents.get(i)));
+                        cacheContent(messageIds.get(i), contents.get(i));
+                        results[i] = true;
+                    }
+                    log.debug("[STORAGE] {} mesaj kaydedildi ({})", count, IOMode.SEGMENT);
+                    return results;
+                }
+            } catch (IOException e) {
+                log.error("[STORAGE] Toplu kayıt hatası: {}", e.getMessage());
+                return results;
+            } finally {
+                for (int i = LOCK_STRIPES - 1; i >= 0; i--) {
+                    if (locked[i]) {
+                        stripes[i].unlock();
+                    }
+                }
+            }
+        }
+
+        for (int i = 0; i < count; i++) {
+            results[i] = writeMessage(messageIds.get(i), contents.get(i));
+        }
+        return results;
+    }
+
+    private boolean writeMessage(String messageId, ByteBuffer data) {
+        ReentrantLock stripe = stripeOf(messageId);
+        stripe.lock();
+        try {
+            return writeMessageLocked(messageId, data);
+        } finally {
+            stripe.unlock();
+        }
+    }
+
+    private boolean writeMessageLocked(String messageId, ByteBuffer data) {
+        try {
+            if (currentIOMode == IOMode.SEGMENT) {
+                boolean existed = segmentLog.append(messageId, data);
+                if (!deleteFileCopy(messageId) && !existed) {
+                    messageCount.increment();
+                }
+                digest.put(messageId, MerkleDigest.contentHash(data));
+                cacheContent(messageId, data);
+
+                log.debug("[STORAGE] Mesaj kaydedildi ({}): {}", currentIOMode, messageId);
+                return true;
+            }
+
             Path filePath = storageDirectory.resolve(messageId + ".msg");
 
             switch (currentIOMode) {
                 case BUFFERED:
-                    writeWithBufferedIO(filePath, content);
+                    writeWithBufferedIO(filePath, data);
                     break;
                 case ZERO_COPY:
-                    writeWithZeroCopy(filePath, content);
+                    writeWithZeroCopy(filePath, data);
                     break;
                 case MEMORY_MAPPED:
-                    writeWithMemoryMapped(filePath, content);
+                    writeWithMemoryMapped(filePath, data);
                     break;
                 default:
-                    writeWithStandardIO(filePath, content);
+                    writeWithStandardIO(filePath, data);
             }
 
-            // Önbelleğe ekle
-            if (!cache.containsKey(messageId)) {
-                messageCount++;
+            // İndekse ve önbelleğe ekle; eski segment kopyası varsa silinir
+            boolean existed = !fileIndex.add(messageId);
+            if (!deleteSegmentCopy(messageId) && !existed) {
+                messageCount.increment();
             }
-            cache.put(messageId, content);
+            digest.put(messageId, MerkleDigest.contentHash(data));
+            cacheContent(messageId, data);
 
-            System.out.println("[STORAGE] Mesaj kaydedildi (" + currentIOMode + "): " + messageId);
+            log.debug("[STORAGE] Mesaj kaydedildi ({}): {}", currentIOMode, messageId);
             return true;
         } catch (IOException e) {
-            System.err.println("[STORAGE] Mesaj kaydetme hatası: " + e.getMessage());
+            log.error("[STORAGE] Mesaj kaydetme hatası: {}", e.getMessage());
             return false;
         }
     }
 
+    /**
+     * Mesajın başka bir moddan kalan .msg kopyasını siler; böylece her mesajın
+     * tek kopyası olur ve okumalar eski gövdeyi döndürmez. Şerit kilidi altında
+     * çağrılır.
+     *
+     * @return Kopya vardıysa true
+     */
+    private boolean deleteFileCopy(String messageId) throws IOException {
+        if (!fileIndex.contains(messageId)) {
+            return false;
+        }
+        boolean deleted = Files.deleteIfExists(storageDirectory.resolve(messageId + ".msg"));
+        fileIndex.remove(messageId);
+        return deleted;
+    }
+
+    /**
+     * deleteFileCopy'nin group-commit tamamlamaları için hali (şerit kilidini kendisi alır).
+     */
+    private boolean dropFileCopy(String messageId) {
+        if (!fileIndex.contains(messageId)) {
+            return false;
+        }
+        ReentrantLock stripe = stripeOf(messageId);
+        stripe.lock();
+        try {
+            return deleteFileCopy(messageId);
+        } catch (IOException e) {
+            log.error("[STORAGE] Eski mesaj dosyası silinemedi: {}", e.getMessage());
+            return true;
+        } finally {
+            stripe.unlock();
+        }
+    }
+
+    /**
+     * Mesajın segment modundan kalan kopyasını siler (dosya modlarında yazarken).
+     * Şerit kilidi altında çağrılır.
+     *
+     * @return Kopya vardıysa true
+     */
+    private boolean deleteSegmentCopy(String messageId) throws IOException {
+        SegmentLog segments = segmentLog;
+        return segments != null && segments.delete(messageId);
+    }
+
+    /**
+     * Yazılan mesajı önbelleğe ekler: heap dışı önbellek varsa oraya, yoksa
+     * heap önbelleğine. Gelen tampon çoğunlukla gRPC alım tamponunun bir
+     * dilimidir; önbellek onu tutmaz, gövdeyi kendi alanına kopyalar.
+     */
+    private void cacheContent(String messageId, ByteBuffer data) {
+        cacheVersions.incrementAndGet(stripeIndex(messageId));
+        putCache(messageId, data);
+    }
+
+    private void putCache(String messageId, ByteBuffer data) {
+        if (offHeapCache != null) {
+            offHeapCache.put(messageId, data);
+        } else {
+            cache.put(messageId, toArray(data));
+        }
+    }
+
     /**
      * Mesajı diskten okur (aktif IO moduna göre).
      */
     public String getMessage(String messageId) {
-        // Önce önbellekten kontrol et
-        if (cache.containsKey(messageId)) {
-            return cache.get(messageId);
+        ByteBuffer data = loadMessage(messageId);
+        return data != null ? decode(data) : null;
+    }
+
+    /**
+     * Mesaj gövdesini String'e çevirmeden, salt okunur tampon olarak döner;
+     * bulunamazsa null. Gövde önbellekteyse kopyalanmadan (heap önbelleği),
+     * MEMORY_MAPPED / ZERO_COPY modlarında diskten doğrudan okunan tamponla döner.
+     */
+    public ByteBuffer getMessageBuffer(String messageId) {
+        ByteBuffer data = loadMessage(messageId);
+        return data != null ? data.asReadOnlyBuffer() : null;
+    }
+
+    /**
+     * getMessageBuffer gibidir ama diskten okunan gövde önbelleğe eklenmez;
+     * arka plan taramaları (anti-entropy) sıcak kayıtları önbellekten atmasın.
+     */
+    public ByteBuffer getMessageBufferUncached(String messageId) {
+        byte[] cached = offHeapCache != null ? offHeapCache.get(messageId) : cache.get(messageId);
+        ByteBuffer data = cached != null ? ByteBuffer.wrap(cached) : readMessageBuffer(messageId);
+        return data != null ? data.asReadOnlyBuffer() : null;
+    }
+
+    /**
+     * Önbellekten veya diskten gövdeyi getirir; diskten okunanı önbelleğe ekler.
+     *
+     * Okuma ile önbelleğe ekleme arasında aynı şeritte yazma veya silme olduysa
+     * (sürüm değiştiyse) eklenen gövde geri alınır; aksi halde eski veya silinmiş
+     * gövde önbellekte kalabilirdi. Yazarlar diske yazdıktan sonra önce sürümü
+     * artırıp sonra önbelleği güncellediği için sürüm değişmediyse olası bir
+     * yazma eklenen gövdenin üzerine yazar.
+     */
+    private ByteBuffer loadMessage(String messageId) {
+        byte[] cached = offHeapCache != null ? offHeapCache.get(messageId) : cache.get(messageId);
+        if (cached != null) {
+            return ByteBuffer.wrap(cached);
+        }
+
+        int stripe = stripeIndex(messageId);
+        long version = cacheVersions.get(stripe);
+        ByteBuffer data = readMessageBuffer(messageId);
+        if (data != null) {
+            putCache(messageId, data);
+            if (cacheVersions.get(stripe) != version) {
+                removeCache(messageId);
+            }
         }
+        return data;
+    }
 
+    /**
+     * Mesaj gövdesini önbelleğe bakmadan diskten okur.
+     */
+    private ByteBuffer readMessageBuffer(String messageId) {
+        long start = System.nanoTime();
         try {
-            Path filePath = storageDirectory.resolve(messageId + ".msg");
-            if (Files.exists(filePath)) {
-                String content;
+            // Her mesajın tek kopyası olur; eskiden kalmış çift kopyada aktif modun deposu öncelikli
+            SegmentLog segments = segmentLog;
+            if (segments != null && segments.contains(messageId)
+                    && (isSegmentMode(currentIOMode) || !fileIndex.contains(messageId))) {
+                ByteBuffer data = segments.read(messageId);
+                if (data != null) {
+                    return data;
+                }
+            }
+
+            if (fileIndex.contains(messageId)) {
+                Path filePath = storageDirectory.resolve(messageId + ".msg");
 
                 switch (currentIOMode) {
                     case BUFFERED:
-                        content = readWithBufferedIO(filePath);
-                        break;
+                        return ByteBuffer.wrap(readWithBufferedIO(filePath));
                     case ZERO_COPY:
-                        content = readWithZeroCopy(filePath);
-                        break;
+                        return readWithZeroCopy(filePath);
                     case MEMORY_MAPPED:
-                        content = readWithMemoryMapped(filePath);
-                        break;
+                        return readWithMemoryMapped(filePath);
                     default:
-                        content = readWithStandardIO(filePath);
+                        return ByteBuffer.wrap(readWithStandardIO(filePath));
                 }
-
-                cache.put(messageId, content);
-                return content;
             }
         } catch (IOException e) {
-            System.err.println("[STORAGE] Mesaj okuma hatası: " + e.getMessage());
+            log.error("[STORAGE] Mesaj okuma hatası: {}", e.getMessage());
+        } finally {
+            readTimer.recordSince(start);
         }
         return null;
     }
 
+    private static ByteBuffer encode(String content) {
+        return ByteBuffer.wrap(content.getBytes(CHARSET));
+    }
+
+    private static String decode(ByteBuffer data) {
+        if (data.hasArray()) {
+            return new String(data.array(), data.arrayOffset() + data.position(), data.remaining(), CHARSET);
+        }
+        return CHARSET.decode(data.duplicate()).toString();
+    }
+
+    /**
+     * Tamponun kalan byte'larını dizi olarak döner; tampon tam olarak bir
+     * diziyi kapsıyorsa kopyalamaz.
+     */
+    private static byte[] toArray(ByteBuffer data) {
+        if (data.hasArray() && data.arrayOffset() == 0 && data.position() == 0
+                && data.remaining() == data.array().length) {
+            return data.array();
+        }
+        byte[] copy = new byte[data.remaining()];
+        data.duplicate().get(copy);
+        return copy;
+    }
+
+    /**
+     * Tamponun kalan byte'larını stream'e yazar; heap tamponlarda ara kopya yapılmaz.
+     */
+    private static void writeTo(OutputStream out, ByteBuffer data) throws IOException {
+        if (data.hasArray()) {
+            out.write(data.array(), data.arrayOffset() + data.position(), data.remaining());
+            return;
+        }
+        ByteBuffer source = data.duplicate();
+        byte[] chunk = new byte[Math.min(BUFFER_SIZE, source.remaining())];
+        while (source.hasRemaining()) {
+            int n = Math.min(chunk.length, source.remaining());
+            source.get(chunk, 0, n);
+            out.write(chunk, 0, n);
+        }
+    }
+
     // ==================== STANDARD IO ====================
 
-    private void writeWithStandardIO(Path filePath, String content) throws IOException {
-        Files.write(filePath, content.getBytes(),
+    private void writeWithStandardIO(Path filePath, ByteBuffer data) throws IOException {
+        try (OutputStream out = Files.newOutputStream(filePath,
                 StandardOpenOption.CREATE,
-                StandardOpenOption.TRUNCATE_EXISTING);
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            writeTo(out, data);
+        }
     }
 
-    private String readWithStandardIO(Path filePath) throws IOException {
-        return new String(Files.readAllBytes(filePath));
+    private byte[] readWithStandardIO(Path filePath) throws IOException {
+        return Files.readAllBytes(filePath);
     }
 
     // ==================== BUFFERED IO ====================
@@ -179,10 +1024,10 @@ public class DiskStorage {
     /**
      * Buffered IO ile yazar - disk erişimini optimize eder.
      */
-    private void writeWithBufferedIO(Path filePath, String content) throws IOException {
+    private void writeWithBufferedIO(Path filePath, ByteBuffer data) throws IOException {
         try (BufferedOutputStream bos = new BufferedOutputStream(
                 new FileOutputStream(filePath.toFile()), BUFFER_SIZE)) {
-            bos.write(content.getBytes());
+            writeTo(bos, data);
             bos.flush();
         }
     }
@@ -190,7 +1035,7 @@ public class DiskStorage {
     /**
      * Buffered IO ile okur - disk erişimini optimize eder.
      */
-    private String readWithBufferedIO(Path filePath) throws IOException {
+    private byte[] readWithBufferedIO(Path filePath) throws IOException {
         try (BufferedInputStream bis = new BufferedInputStream(
                 new FileInputStream(filePath.toFile()), BUFFER_SIZE)) {
             ByteArrayOutputStream baos = new ByteArrayOutputStream();
@@ -199,7 +1044,7 @@ public class DiskStorage {
             while ((bytesRead = bis.read(buffer)) != -1) {
                 baos.write(buffer, 0, bytesRead);
             }
-            return baos.toString();
+            return baos.toByteArray();
         }
     }
 
@@ -209,39 +1054,38 @@ public class DiskStorage {
      * Zero-copy IO ile yazar - kernel bypass ile hızlı transfer.
      * FileChannel.transferFrom kullanarak CPU kullanımını minimize eder.
      */
-    private void writeWithZeroCopy(Path filePath, String content) throws IOException {
-        byte[] data = content.getBytes();
-
+    private void writeWithZeroCopy(Path filePath, ByteBuffer data) throws IOException {
         try (FileChannel destChannel = FileChannel.open(filePath,
                 StandardOpenOption.CREATE,
                 StandardOpenOption.WRITE,
                 StandardOpenOption.TRUNCATE_EXISTING)) {
 
             // ByteBuffer'dan doğrudan channel'a yaz
-            ByteBuffer buffer = ByteBuffer.wrap(data);
+            ByteBuffer buffer = data.duplicate();
             while (buffer.hasRemaining()) {
                 destChannel.write(buffer);
             }
+            long syncStart = System.nanoTime();
             destChannel.force(true); // fsync - veri güvenliği
+            fsyncTimer.recordSince(syncStart);
         }
     }
 
     /**
      * Zero-copy IO ile okur - kernel bypass ile hızlı transfer.
+     * Direct buffer heap'e kopyalanmadan döner.
      */
-    private String readWithZeroCopy(Path filePath) throws IOException {
+    private ByteBuffer readWithZeroCopy(Path filePath) throws IOException {
         try (FileChannel channel = FileChannel.open(filePath, StandardOpenOption.READ)) {
             int size = (int) channel.size();
             ByteBuffer buffer = ByteBuffer.allocateDirect(size); // Direct buffer - heap dışı
 
             while (buffer.hasRemaining()) {
-                channel.read(buffer);
+                if (channel.read(buffer) < 0) {
+                    throw new EOFException("Dosya beklenenden kısa: " + filePath);
+                }
             }
-
-            buffer.flip();
-            byte[] data = new byte[size];
-            buffer.get(data);
-            return new String(data);
+            return buffer.flip();
         }
     }
 
@@ -251,36 +1095,32 @@ public class DiskStorage {
      * Memory-mapped IO ile yazar - dosyayı belleğe map'ler.
      * Çok büyük dosyalar için en verimli yöntem.
      */
-    private void writeWithMemoryMapped(Path filePath, String content) throws IOException {
-        byte[] data = content.getBytes();
-
+    private void writeWithMemoryMapped(Path filePath, ByteBuffer data) throws IOException {
         try (RandomAccessFile raf = new RandomAccessFile(filePath.toFile(), "rw");
                 FileChannel channel = raf.getChannel()) {
 
             // Dosyayı belleğe map'le
             MappedByteBuffer mappedBuffer = channel.map(
-                    FileChannel.MapMode.READ_WRITE, 0, data.length);
+                    FileChannel.MapMode.READ_WRITE, 0, data.remaining());
 
             // Doğrudan belleğe yaz
-            mappedBuffer.put(data);
+            mappedBuffer.put(data.duplicate());
+            long syncStart = System.nanoTime();
             mappedBuffer.force(); // Disk'e flush
+            fsyncTimer.recordSince(syncStart);
         }
     }
 
     /**
      * Memory-mapped IO ile okur - dosyayı belleğe map'ler.
+     * Eşlenen tampon kanal kapandıktan sonra da geçerlidir ve kopyalanmadan döner.
      */
-    private String readWithMemoryMapped(Path filePath) throws IOException {
+    private ByteBuffer readWithMemoryMapped(Path filePath) throws IOException {
         try (FileChannel channel = FileChannel.open(filePath, StandardOpenOption.READ)) {
             int size = (int) channel.size();
 
             // Dosyayı belleğe map'le (read-only)
-            MappedByteBuffer mappedBuffer = channel.map(
-                    FileChannel.MapMode.READ_ONLY, 0, size);
-
-            byte[] data = new byte[size];
-            mappedBuffer.get(data);
-            return new String(data);
+            return channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
         }
     }
 
@@ -290,18 +1130,76 @@ public class DiskStorage {
      * Mesajın mevcut olup olmadığını kontrol eder.
      */
     public boolean hasMessage(String messageId) {
-        if (cache.containsKey(messageId)) {
+        if (segmentLog != null && segmentLog.contains(messageId)) {
             return true;
         }
-        Path filePath = storageDirectory.resolve(messageId + ".msg");
-        return Files.exists(filePath);
+        return fileIndex.contains(messageId);
+    }
+
+    /**
+     * Saklanan mesaj ID'lerini gezer (dosya indeksi ve segment indeksi).
+     * Kilit tutulmaz; tarama sırasında yazılan mesajlar görülebilir veya görülmeyebilir.
+     */
+    public void forEachMessageId(Consumer<String> action) {
+        fileIndex.forEach(action);
+        SegmentLog log = segmentLog;
+        if (log != null) {
+            log.messageIds().forEach(action);
+        }
+    }
+
+    /**
+     * Mesajların (ID + içerik) hash ağacını döner.
+     */
+    public MerkleDigest getDigest() {
+        return digest;
+    }
+
+    /**
+     * @return Açılıştaki içerik hash'i doldurma bittiyse true; öncesinde ağaç eksiktir
+     */
+    public boolean isDigestReady() {
+        return digestReady;
     }
 
     /**
      * Toplam mesaj sayısını döner.
      */
     public int getMessageCount() {
-        return messageCount;
+        return (int) messageCount.sum();
+    }
+
+    /**
+     * Açılışta indeksin kurulması için geçen süreyi (ms) döner.
+     */
+    public long getStartupMillis() {
+        return startupMillis;
+    }
+
+    private void invalidateCache(String messageId) {
+        cacheVersions.incrementAndGet(stripeIndex(messageId));
+        removeCache(messageId);
+    }
+
+    private void removeCache(String messageId) {
+        cache.invalidate(messageId);
+        if (offHeapCache != null) {
+            offHeapCache.invalidate(messageId);
+        }
+    }
+
+    /**
+     * Heap dışı önbelleği döner (etkin değilse null).
+     */
+    public OffHeapMessageCache getOffHeapCache() {
+        return offHeapCache;
+    }
+
+    /**
+     * Okuma önbelleğini döner (isabet/ıska/tahliye istatistikleri için).
+     */
+    public MessageCache getCache() {
+        return cache;
     }
 
     /**
@@ -314,57 +1212,144 @@ public class DiskStorage {
     /**
      * Mesajı siler.
      */
-    public synchronized boolean deleteMessage(String messageId) {
+    public boolean deleteMessage(String messageId) {
         try {
-            Path filePath = storageDirectory.resolve(messageId + ".msg");
-            if (Files.deleteIfExists(filePath)) {
-                cache.remove(messageId);
-                messageCount--;
+            return deleteMessageAsync(messageId).join();
+        } catch (CompletionException e) {
+            log.error("[STORAGE] Mesaj silme hatası: {}", e.getCause().getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * Mesajı asenkron siler. GROUP_COMMIT modunda future, silme kaydının
+     * bulunduğu batch fsync edildikten sonra tamamlanır ve çağıran thread
+     * bloklanmaz; diğer modlarda silme senkron yapılır.
+     * Tek bir thread'den yapılan saveMessageAsync / deleteMessageAsync
+     * çağrıları her modda çağrı sırasıyla uygulanır.
+     */
+    public CompletableFuture<Boolean> deleteMessageAsync(String messageId) {
+        GroupCommitWriter writer = groupCommitWriter;
+        if (writer == null) {
+            return CompletableFuture.completedFuture(removeMessage(messageId));
+        }
+
+        return writer.submit(SegmentLog.Record.delete(messageId))
+                .thenApply(existed -> {
+                    if (existed) {
+                        dropFileCopy(messageId);
+                        messageCount.decrement();
+                        digest.remove(messageId);
+                        invalidateCache(messageId);
+                        return true;
+                    }
+                    return removeMessage(messageId);
+                });
+    }
+
+    private boolean removeMessage(String messageId) {
+        ReentrantLock stripe = stripeOf(messageId);
+        stripe.lock();
+        try {
+            // İki depodan da silinir; eski bir kopya silinen mesajı geri getirmesin
+            boolean removed = deleteSegmentCopy(messageId);
+            if (deleteFileCopy(messageId)) {
+                removed = true;
+            }
+            if (removed) {
+                invalidateCache(messageId);
+                messageCount.decrement();
+                digest.remove(messageId);
                 return true;
             }
         } catch (IOException e) {
-            System.err.println("[STORAGE] Mesaj silme hatası: " + e.getMessage());
+            log.error("[STORAGE] Mesaj silme hatası: {}", e.getMessage());
+        } finally {
+            stripe.unlock();
         }
         return false;
     }
 
     /**
-     * IO modlarının performans testini yapar.
+     * Ölü kayıtları çoğalmış segmentleri sıkıştırır ve segment indeksinin
+     * checkpoint'ini alır. Bir sonraki açılışta yalnızca bu noktadan sonra
+     * yazılan kayıtlar yeniden oynatılır.
      */
-    public static void benchmarkIOModes(String testDir, int iterations) throws IOException {
-        System.out.println("\n========== IO MODU PERFORMANS TESTİ ==========");
-        System.out.println("İterasyon: " + iterations);
-
-        String testContent = "Bu bir test mesajıdır. ".repeat(100); // ~2.3KB
-
-        for (IOMode mode : IOMode.values()) {
-            DiskStorage storage = new DiskStorage(testDir + "/" + mode.name(), mode);
+    public void checkpoint() {
+        checkpoint(true);
+    }
 
-            // Yazma testi
-            long startWrite = System.nanoTime();
-            for (int i = 0; i < iterations; i++) {
-                storage.saveMessage("test_" + i, testContent);
+    private void checkpoint(boolean compact) {
+        SegmentLog log = segmentLog;
+        if (log == null) {
+            return;
+        }
+        try {
+            long start = System.nanoTime();
+            // Sıkıştırma segment silmeden önce kendisi checkpoint alır
+            if (!compact || log.compact(SegmentLog.DEFAULT_COMPACTION_RATIO) == 0) {
+                log.checkpoint();
             }
-            long writeTime = (System.nanoTime() - startWrite) / 1_000_000;
-
-            // Cache temizle
-            storage.cache.clear();
+            System.out.println("[STORAGE] Checkpoint alındı: " + log.size() + " mesaj, "
+                    + (System.nanoTime() - start) / 1_000_000 + " ms");
+        } catch (IOException e) {
+            System.err.println("[STORAGE] Checkpoint hatası: " + e.getMessage());
+        }
+    }
 
-            // Okuma testi
-            long startRead = System.nanoTime();
-            for (int i = 0; i < iterations; i++) {
-                storage.getMessage("test_" + i);
+    /**
+     * Açık dosyaları kapatır, bekleyen segment yazmalarını diske aktarır ve
+     * bir sonraki hızlı açılış için indeksleri kaydeder.
+     */
+    public void close() {
+        MetricsRegistry.getDefault().unregister("store", metricsLabel);
+        closed = true;
+        Thread builder;
+        synchronized (digestBuildLock) {
+            builder = digestBuilder;
+        }
+        if (builder != null) {
+            try {
+                builder.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
             }
-            long readTime = (System.nanoTime() - startRead) / 1_000_000;
-
-            System.out.printf("[%s] Yazma: %d ms, Okuma: %d ms%n",
-                    mode.name(), writeTime, readTime);
-
-            // Temizlik
-            for (int i = 0; i < iterations; i++) {
-                storage.deleteMessage("test_" + i);
+        }
+        // Bekleyen yazmaların hash ağacı güncellemeleri kaydedilmeden önce bitsin;
+        // tamamlamalar şerit kilidi alabildiği için kilitler alınmadan beklenir
+        GroupCommitWriter writer = groupCommitWriter;
+        if (writer != null) {
+            writer.close();
+            try {
+                writer.awaitCompletions(10, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        lockAll();
+        try {
+            groupCommitWriter = null;
+            try {
+                saveFileIndex();
+            } catch (IOException e) {
+                System.err.println("[STORAGE] Id indeksi yazılamadı: " + e.getMessage());
+            }
+            try {
+                saveDigest();
+            } catch (IOException e) {
+                System.err.println("[STORAGE] İçerik hash'leri yazılamadı: " + e.getMessage());
+            }
+            if (segmentLog != null) {
+                checkpoint(false);
+                try {
+                    segmentLog.close();
+                } catch (IOException e) {
+                    System.err.println("[STORAGE] Segment log kapatma hatası: " + e.getMessage());
+                }
+                segmentLog = null;
             }
+        } finally {
+            unlockAll();
         }
-        System.out.println("==============================================\n");
     }
 }
@@ -0,0 +1,215 @@
+package com.hatokuse.storage;
+
+import com.hatokuse.metrics.LatencyTimer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Group-commit yazıcısı.
+ * Eşzamanlı yazarlar kayıtlarını kuyruğa bırakır; tek bir flusher thread
+ * biriken kayıtları tek seferde segment log'a yazar, batch başına bir kez
+ * fsync yapar ve ardından her çağıranın future'ını tamamlar.
+ *
+ * Future'lar flusher üzerinde değil, ayrı tek bir tamamlama thread'inde
+ * tamamlanır (batch sırası korunur). Böylece çağıranların bağlı işlemleri
+ * flusher'ı bekletmez; flusher'ın kendi commit'ini beklemesi (deadlock)
+ * mümkün olmaz. Bağlı işlemler yine de bloklayan storage çağrısı yapmamalıdır.
+ *
+ * Batch, maksimum kayıt sayısına ulaşınca veya ilk kayıttan sonra
+ * maksimum bekleme (linger) süresi dolunca diske yazılır. submitAll ile
+ * birlikte verilen kayıtlar hiçbir zaman farklı batch'lere bölünmez.
+ */
+class GroupCommitWriter implements Closeable {
+
+    private static final Logger log = LoggerFactory.getLogger(GroupCommitWriter.class);
+
+    private final SegmentLog segmentLog;
+    private final int maxBatchSize;
+    private final long maxLingerNanos;
+    private final BlockingQueue<PendingWrite> queue;
+    private final Thread flusher;
+    private final ExecutorService completer;
+    private final LatencyTimer fsyncTimer;
+    private volatile boolean running = true;
+    // Kuyruğa ekleme (okuma kilidi) ile kapanış (yazma kilidi) arasında yarış olmasın:
+    // close running'i kapattıktan sonra kuyruğa kayıt düşemez
+    private final ReentrantReadWriteLock submitLock = new ReentrantReadWriteLock();
+
+    GroupCommitWriter(SegmentLog segmentLog, int maxBatchSize, long maxLingerMicros, LatencyTimer fsyncTimer) {
+        this.segmentLog = segmentLog;
+        this.fsyncTimer = fsyncTimer;
+        this.maxBatchSize = Math.max(1, maxBatchSize);
+        this.maxLingerNanos = TimeUnit.MICROSECONDS.toNanos(Math.max(0, maxLingerMicros));
+        this.queue = new LinkedBlockingQueue<>();
+        this.completer = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "group-commit-complete");
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        this.flusher = new Thread(this::runFlusher, "group-commit-flusher");
+        this.flusher.setDaemon(true);
+        this.flusher.start();
+    }
+
+    /**
+     * Kaydı kuyruğa ekler.
+     *
+     * @return fsync sonrası tamamlanan future; değer, mesajın işlemden önce mevcut olup olmadığıdır
+     */
+    CompletableFuture<Boolean> submit(SegmentLog.Record record) {
+        return submitAll(List.of(record)).thenApply(existed -> existed[0]);
+    }
+
+    /**
+     * Kayıtları tek parça halinde kuyruğa ekler; hepsi aynı batch'te (tek fsync ile) yazılır.
+     *
+     * @return fsync sonrası tamamlanan future; her kayıt için işlemden önce mevcut olup olmadığı
+     */
+    CompletableFuture<boolean[]> submitAll(List<SegmentLog.Record> records) {
+        PendingWrite pending = new PendingWrite(records);
+        submitLock.readLock().lock();
+        try {
+            if (!running) {
+                pending.future.completeExceptionally(new IOException("Group-commit yazıcısı kapalı"));
+                return pending.future;
+            }
+            queue.add(pending);
+        } finally {
+            submitLock.readLock().unlock();
+        }
+        return pending.future;
+    }
+
+    private void runFlusher() {
+        List<PendingWrite> batch = new ArrayList<>();
+
+        while (running || !queue.isEmpty()) {
+            try {
+                PendingWrite first = queue.poll(100, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                collectBatch(batch, first.records.size());
+            } catch (InterruptedException e) {
+                // Kanal yazımı sırasında interrupt FileChannel'ı kapatacağı için
+                // flusher yalnızca running bayrağı ile durdurulur.
+                Thread.currentThread().interrupt();
+                break;
+            }
+
+            if (!batch.isEmpty()) {
+                commit(batch);
+                batch.clear();
+            }
+        }
+    }
+
+    /**
+     * İlk kayıttan sonra linger süresi boyunca veya batch dolana kadar kayıt toplar.
+     */
+    private void collectBatch(List<PendingWrite> batch, int recordCount) throws InterruptedException {
+        long deadline = System.nanoTime() + maxLingerNanos;
+
+        while (recordCount < maxBatchSize) {
+            PendingWrite next = queue.poll();
+            if (next == null) {
+                long remaining = deadline - System.nanoTime();
+                if (remaining <= 0) {
+                    break;
+                }
+                next = queue.poll(remaining, TimeUnit.NANOSECONDS);
+                if (next == null) {
+                    break;
+                }
+            }
+            batch.add(next);
+            recordCount += next.records.size();
+        }
+    }
+
+    private void commit(List<PendingWrite> batch) {
+        List<SegmentLog.Record> records = new ArrayList<>();
+        for (PendingWrite pending : batch) {
+            records.addAll(pending.records);
+        }
+
+        try {
+            // Batch başına tek fsync; indeks ancak fsync başarılıysa güncellenir
+            boolean[] existed = segmentLog.applyBatch(records, fsyncTimer);
+
+            List<PendingWrite> committed = new ArrayList<>(batch);
+            completer.execute(() -> {
+                int offset = 0;
+                for (PendingWrite pending : committed) {
+                    int count = pending.records.size();
+                    pending.future.complete(Arrays.copyOfRange(existed, offset, offset + count));
+                    offset += count;
+                }
+            });
+        } catch (IOException e) {
+            log.error("[STORAGE] Group-commit yazma hatası: {}", e.getMessage());
+            List<PendingWrite> failed = new ArrayList<>(batch);
+            completer.execute(() -> {
+                for (PendingWrite pending : failed) {
+                    pending.future.completeExceptionally(e);
+                }
+            });
+        }
+    }
+
+    /**
+     * Kuyruktaki kayıtları diske yazar ve flusher thread'i durdurur.
+     */
+    @Override
+    public void close() {
+        submitLock.writeLock().lock();
+        try {
+            running = false;
+        } finally {
+            submitLock.writeLock().unlock();
+        }
+        try {
+            flusher.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+
+        // Flusher interrupt ile erken durduysa kalan kayıtları reddet
+        PendingWrite pending;
+        while ((pending = queue.poll()) != null) {
+            pending.future.completeExceptionally(new IOException("Group-commit yazıcısı kapalı"));
+        }
+        // Sıradaki tamamlamalar çalışır, ardından thread kapanır
+        completer.shutdown();
+    }
+
+    /**
+     * close sonrası kuyruğa alınmış tamamlamaların (future'lara bağlı
+     * işlemlerin) bitmesini bekler. Tamamlamalar storage kilidi alabileceği
+     * için bu çağrı kilit tutulmadan yapılmalıdır.
+     *
+     * @return Süre dolmadan bittiyse true
+     */
+    boolean awaitCompletions(long timeout, TimeUnit unit) throws InterruptedException {
+        return completer.awaitTermination(timeout, unit);
+    }
+
+    private static final class PendingWrite {
+        final List<SegmentLog.Record> records;
+        final CompletableFuture<boolean[]> future = new CompletableFuture<>();
+
+        PendingWrite(List<SegmentLog.Record> records) {
+            this.records = records;
+        }
+    }
+}
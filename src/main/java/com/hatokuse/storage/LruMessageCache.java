@@ -0,0 +1,177 @@
+package com.hatokuse.storage;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Bayt sınırlı LRU mesaj önbelleği.
+ * Kilit çekişmesini azaltmak için anahtar uzayı sabit sayıda şeride (stripe)
+ * bölünür; her şerit kendi LRU listesini ve toplam sınırın eşit payını tutar.
+ *
+ * Boyut, gövde byte'ları + anahtar String'inin heap maliyeti (karakter
+ * başına 2 byte) + kayıt başına sabit ek yük olarak tahmin edilir.
+ */
+public class LruMessageCache implements MessageCache {
+
+    private static final int STRIPES = 16;
+
+    // Map entry + anahtar String + byte[] başlığı için yaklaşık sabit maliyet (byte)
+    private static final int ENTRY_OVERHEAD = 96;
+
+    private final long maxBytes;
+    private final Stripe[] stripes;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    public LruMessageCache(long maxBytes) {
+        this.maxBytes = Math.max(0, maxBytes);
+        this.stripes = new Stripe[STRIPES];
+        for (int i = 0; i < STRIPES; i++) {
+            stripes[i] = new Stripe(this.maxBytes / STRIPES);
+        }
+    }
+
+    @Override
+    public byte[] get(String messageId) {
+        byte[] content = stripeFor(messageId).get(messageId);
+        if (content != null) {
+            hits.increment();
+        } else {
+            misses.increment();
+        }
+        return content;
+    }
+
+    @Override
+    public void put(String messageId, byte[] content) {
+        long weight = weigh(messageId, content);
+        Stripe stripe = stripeFor(messageId);
+        if (weight > stripe.maxBytes) {
+            // Şerit payından büyük mesajlar önbelleğe alınmaz
+            stripe.remove(messageId);
+            return;
+        }
+        evictions.add(stripe.put(messageId, content, weight));
+    }
+
+    @Override
+    public void invalidate(String messageId) {
+        stripeFor(messageId).remove(messageId);
+    }
+
+    @Override
+    public void clear() {
+        for (Stripe stripe : stripes) {
+            stripe.clear();
+        }
+    }
+
+    @Override
+    public long getHitCount() {
+        return hits.sum();
+    }
+
+    @Override
+    public long getMissCount() {
+        return misses.sum();
+    }
+
+    @Override
+    public long getEvictionCount() {
+        return evictions.sum();
+    }
+
+    @Override
+    public long getSizeBytes() {
+        long total = 0;
+        for (Stripe stripe : stripes) {
+            total += stripe.sizeBytes();
+        }
+        return total;
+    }
+
+    @Override
+    public long getMaxBytes() {
+        return maxBytes;
+    }
+
+    @Override
+    public int getEntryCount() {
+        int total = 0;
+        for (Stripe stripe : stripes) {
+            total += stripe.entryCount();
+        }
+        return total;
+    }
+
+    private Stripe stripeFor(String messageId) {
+        int h = messageId.hashCode();
+        return stripes[(h ^ (h >>> 16)) & (STRIPES - 1)];
+    }
+
+    static long weigh(String messageId, byte[] content) {
+        return ENTRY_OVERHEAD + 2L * messageId.length() + content.length;
+    }
+
+    /**
+     * Tek bir LRU şeridi. Erişim sırası LinkedHashMap ile tutulur.
+     */
+    private static final class Stripe {
+        private final long maxBytes;
+        private final LinkedHashMap<String, byte[]> entries = new LinkedHashMap<>(64, 0.75f, true);
+        private long sizeBytes;
+
+        Stripe(long maxBytes) {
+            this.maxBytes = maxBytes;
+        }
+
+        synchronized byte[] get(String messageId) {
+            return entries.get(messageId);
+        }
+
+        /**
+         * @return Tahliye edilen kayıt sayısı
+         */
+        synchronized int put(String messageId, byte[] content, long weight) {
+            byte[] previous = entries.put(messageId, content);
+            if (previous != null) {
+                sizeBytes -= weigh(messageId, previous);
+            }
+            sizeBytes += weight;
+
+            int evicted = 0;
+            Iterator<Map.Entry<String, byte[]>> it = entries.entrySet().iterator();
+            while (sizeBytes > maxBytes && it.hasNext()) {
+                Map.Entry<String, byte[]> eldest = it.next();
+                sizeBytes -= weigh(eldest.getKey(), eldest.getValue());
+                it.remove();
+                evicted++;
+            }
+            return evicted;
+        }
+
+        synchronized void remove(String messageId) {
+            byte[] previous = entries.remove(messageId);
+            if (previous != null) {
+                sizeBytes -= weigh(messageId, previous);
+            }
+        }
+
+        synchronized void clear() {
+            entries.clear();
+            sizeBytes = 0;
+        }
+
+        synchronized long sizeBytes() {
+            return sizeBytes;
+        }
+
+        synchronized int entryCount() {
+            return entries.size();
+        }
+    }
+}
@@ -0,0 +1,195 @@
+package com.hatokuse.storage;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.BiConsumer;
+
+/**
+ * Mesajlar (ID + içerik) üzerinde artımlı güncellenen hash ağacı (anti-entropy için).
+ * Her ID, hash'inin üst DEPTH biti ile bir yaprağa düşer. Mesajın katkısı ID
+ * hash'i ile içerik hash'inin birleşimidir; düğüm değeri altındaki katkıların
+ * XOR'udur. Böylece ekleme ve silme aynı işlemdir ve yalnızca yapraktan köke
+ * kadar DEPTH + 1 düğüm güncellenir, hiçbir zaman tam tarama gerekmez.
+ *
+ * İki ağaç kökten aşağı karşılaştırılarak yalnızca farklı yapraklar (hash
+ * aralıkları) bulunur; eksik/fazla mesaj da, aynı ID'nin farklı içeriği de
+ * yaprağı değiştirir.
+ *
+ * Üzerine yazmada eski katkının çıkarılabilmesi için ID -> içerik hash'i
+ * haritası yaprak başına ayrı tutulur; böylece bir yaprağın mesajları tam
+ * tarama yapmadan listelenir (aralık sorguları). İçeriği henüz okunmamış
+ * ID'ler (açılış) UNKNOWN_CONTENT ile eklenir ve fill ile tamamlanır.
+ *
+ * Düğümler yığın düzenindedir: 1 kök, seviye l'nin düğümleri [2^l, 2^(l+1)).
+ */
+public class MerkleDigest {
+
+    public static final int DEPTH = 12;
+    public static final int LEAF_COUNT = 1 << DEPTH;
+
+    // İçerik hash'i henüz hesaplanmamış
+    public static final long UNKNOWN_CONTENT = 0;
+
+    private final AtomicLongArray nodes = new AtomicLongArray(2 * LEAF_COUNT);
+    // Yaprak -> (ID -> içerik hash'i)
+    private final List<ConcurrentHashMap<String, Long>> leaves = new ArrayList<>(LEAF_COUNT);
+
+    public MerkleDigest() {
+        for (int i = 0; i < LEAF_COUNT; i++) {
+            leaves.add(new ConcurrentHashMap<>());
+        }
+    }
+
+    /**
+     * Mesajı ekler veya içeriğini günceller; varsa eski içeriğin katkısı çıkarılır.
+     * Aynı ID için çağrılar birbirine karşı atomiktir.
+     */
+    public void put(String messageId, long contentHash) {
+        long keyHash = keyHash(messageId);
+        leaf(keyHash).compute(messageId, (id, previous) -> {
+            if (previous != null) {
+                toggle(keyHash, previous);
+            }
+            toggle(keyHash, contentHash);
+            return contentHash;
+        });
+    }
+
+    /**
+     * İçeriği henüz bilinmeyen mesajı ekler (açılışta gövde okunmadan).
+     */
+    public void add(String messageId) {
+        long keyHash = keyHash(messageId);
+        leaf(keyHash).computeIfAbsent(messageId, id -> {
+            toggle(keyHash, UNKNOWN_CONTENT);
+            return UNKNOWN_CONTENT;
+        });
+    }
+
+    /**
+     * İçeriği bilinmeyen mesajın hash'ini kaydeder. Mesaj bu arada yeniden
+     * yazıldıysa veya silindiyse dokunmaz; böylece arka planda okunan eski
+     * içerik yeni yazmanın üzerine yazılmaz.
+     */
+    public void fill(String messageId, long contentHash) {
+        long keyHash = keyHash(messageId);
+        leaf(keyHash).computeIfPresent(messageId, (id, previous) -> {
+            if (previous != UNKNOWN_CONTENT) {
+                return previous;
+            }
+            toggle(keyHash, UNKNOWN_CONTENT);
+            toggle(keyHash, contentHash);
+            return contentHash;
+        });
+    }
+
+    public void remove(String messageId) {
+        long keyHash = keyHash(messageId);
+        leaf(keyHash).computeIfPresent(messageId, (id, previous) -> {
+            toggle(keyHash, previous);
+            return null;
+        });
+    }
+
+    /**
+     * Yapraktaki mesajları içerik hash'leriyle (bilinmiyorsa UNKNOWN_CONTENT)
+     * ziyaret eder; zayıf tutarlıdır.
+     */
+    public void forEachInLeaf(int leaf, BiConsumer<String, Long> action) {
+        leaves.get(leaf).forEach(action);
+    }
+
+    /**
+     * @return İçeriği henüz bilinmeyen ID'ler
+     */
+    public List<String> unknownIds() {
+        List<String> ids = new ArrayList<>();
+        for (ConcurrentHashMap<String, Long> leaf : leaves) {
+            leaf.forEach((id, contentHash) -> {
+                if (contentHash == UNKNOWN_CONTENT) {
+                    ids.add(id);
+                }
+            });
+        }
+        return ids;
+    }
+
+    private ConcurrentHashMap<String, Long> leaf(long keyHash) {
+        return leaves.get(leafOf(keyHash));
+    }
+
+    /**
+     * Mesajın katkısını ekler veya çıkarır (harita tutulmaz). Lider, beklenen
+     * ağacı konum indeksinden bu yolla kurar.
+     */
+    public void toggle(long keyHash, long contentHash) {
+        long entry = entryHash(keyHash) ^ mix64(contentHash);
+        for (int node = LEAF_COUNT + leafOf(keyHash); node >= 1; node >>>= 1) {
+            nodes.accumulateAndGet(node, entry, (a, b) -> a ^ b);
+        }
+    }
+
+    public long getRoot() {
+        return nodes.get(1);
+    }
+
+    /**
+     * Seviyedeki düğümlerin değerlerini döner (0: kök, DEPTH: yapraklar).
+     */
+    public long[] getLevel(int level, int from, int count) {
+        if (level < 0 || level > DEPTH) {
+            throw new IllegalArgumentException("Geçersiz seviye: " + level);
+        }
+        int width = 1 << level;
+        from = Math.max(0, Math.min(from, width));
+        count = Math.max(0, Math.min(count, width - from));
+        long[] values = new long[count];
+        for (int i = 0; i < count; i++) {
+            values[i] = nodes.get(width + from + i);
+        }
+        return values;
+    }
+
+    /**
+     * ID'nin 64 bit hash'i (FNV-1a + splitmix64 karıştırma).
+     */
+    public static long keyHash(String messageId) {
+        long hash = 0xcbf29ce484222325L;
+        for (byte b : messageId.getBytes(StandardCharsets.UTF_8)) {
+            hash ^= b & 0xFF;
+            hash *= 0x100000001b3L;
+        }
+        return mix64(hash);
+    }
+
+    /**
+     * Mesaj gövdesinin 64 bit hash'i; tamponun konumu değişmez.
+     */
+    public static long contentHash(ByteBuffer content) {
+        long hash = 0xcbf29ce484222325L;
+        for (int i = content.position(); i < content.limit(); i++) {
+            hash ^= content.get(i) & 0xFF;
+            hash *= 0x100000001b3L;
+        }
+        return mix64(hash);
+    }
+
+    public static int leafOf(long keyHash) {
+        return (int) (keyHash >>> (64 - DEPTH));
+    }
+
+    // Yaprak seçimi için kullanılan üst bitlerden bağımsız katkı
+    private static long entryHash(long keyHash) {
+        return mix64(keyHash ^ 0x9E3779B97F4A7C15L);
+    }
+
+    private static long mix64(long z) {
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+}
@@ -0,0 +1,54 @@
+package com.hatokuse.storage;
+
+/**
+ * DiskStorage için mesaj gövdesi önbelleği.
+ * Gövdeler UTF-8 byte olarak tutulur; dönen dizi paylaşımlıdır ve
+ * değiştirilmemelidir. Uygulamalar bayt cinsinden sınırlıdır ve sınır
+ * aşıldığında kendi politikalarına göre kayıt tahliye eder (eviction).
+ */
+public interface MessageCache {
+
+    /**
+     * Önbellekteki mesajı döner; yoksa null. İsabet/ıska sayaçlarını günceller.
+     */
+    byte[] get(String messageId);
+
+    /**
+     * Mesajı önbelleğe ekler veya günceller.
+     */
+    void put(String messageId, byte[] content);
+
+    /**
+     * Mesajı önbellekten çıkarır.
+     */
+    void invalidate(String messageId);
+
+    /**
+     * Önbelleği boşaltır.
+     */
+    void clear();
+
+    long getHitCount();
+
+    long getMissCount();
+
+    long getEvictionCount();
+
+    /**
+     * Önbellekteki kayıtların tahmini toplam boyutu (byte).
+     */
+    long getSizeBytes();
+
+    long getMaxBytes();
+
+    int getEntryCount();
+
+    /**
+     * İsabet oranı (0.0 - 1.0).
+     */
+    default double getHitRatio() {
+        long hits = getHitCount();
+        long total = hits + getMissCount();
+        return total == 0 ? 0.0 : (double) hits / total;
+    }
+}
@@ -0,0 +1,191 @@
+package com.hatokuse.storage;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.StampedLock;
+
+/**
+ * Heap dışı (off-heap) mesaj gövdesi önbelleği.
+ * Mesajlar UTF-8 byte olarak sabit boyutlu direct ByteBuffer slab'lerine
+ * sırayla yazılır; slab'ler bir halka (ring) oluşturur. Son slab dolunca en
+ * eski slab boşaltılıp yeniden kullanılır (FIFO tahliye). Böylece gövdeler
+ * GC'nin taradığı heap'te tutulmaz; heap'te sadece id -> adres indeksi kalır.
+ *
+ * Adres tek bir long içine paketlenir: [slab:16][offset:24][length:24].
+ *
+ * Okuma kilitsizdir: slab başına StampedLock ile iyimser okuma yapılır ve
+ * kopyalama sırasında slab geri dönüştürüldüyse okuma ıska sayılır.
+ */
+public class OffHeapMessageCache {
+
+    // Varsayılan slab boyutu (4MB); 24 bitlik offset/length alanları için üst sınır 8MB
+    private static final int DEFAULT_SLAB_SIZE = 4 * 1024 * 1024;
+    private static final int MAX_SLAB_SIZE = 1 << 23;
+
+    private final ConcurrentHashMap<String, Long> index = new ConcurrentHashMap<>();
+    private final ByteBuffer[] slabs;
+    private final StampedLock[] slabLocks;
+    private final List<List<String>> slabKeys;
+    private final int slabSize;
+    private final long maxBytes;
+
+    // Yazma konumu (put'lar arasında paylaşılır, this ile korunur)
+    private int currentSlab;
+    private int writeOffset;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    public OffHeapMessageCache(long maxBytes) {
+        int slabCount = (int) Math.max(2, Math.min(1 << 16, maxBytes / DEFAULT_SLAB_SIZE));
+        this.slabSize = (int) Math.min(MAX_SLAB_SIZE, Math.max(1024, maxBytes / slabCount));
+        this.maxBytes = (long) slabSize * slabCount;
+        this.slabs = new ByteBuffer[slabCount];
+        this.slabLocks = new StampedLock[slabCount];
+        this.slabKeys = new ArrayList<>(slabCount);
+
+        for (int i = 0; i < slabCount; i++) {
+            slabs[i] = ByteBuffer.allocateDirect(slabSize);
+            slabLocks[i] = new StampedLock();
+            slabKeys.add(new ArrayList<>());
+        }
+    }
+
+    /**
+     * Mesajın UTF-8 byte'larını döner; önbellekte yoksa null.
+     */
+    public byte[] get(String messageId) {
+        Long address = index.get(messageId);
+        if (address != null) {
+            int slab = slabOf(address);
+            StampedLock lock = slabLocks[slab];
+            long stamp = lock.tryOptimisticRead();
+
+            // Stamp alındıktan sonra adres hâlâ geçerliyse slab henüz geri dönüştürülmemiştir
+            if (stamp != 0 && address.equals(index.get(messageId))) {
+                byte[] data = new byte[lengthOf(address)];
+                slabs[slab].get(offsetOf(address), data);
+                if (lock.validate(stamp)) {
+                    hits.increment();
+                    return data;
+                }
+            }
+        }
+        misses.increment();
+        return null;
+    }
+
+    /**
+     * Mesajı önbelleğe yazar. Slab boyutundan büyük mesajlar önbelleğe alınmaz.
+     */
+    public void put(String messageId, byte[] data) {
+        put(messageId, ByteBuffer.wrap(data));
+    }
+
+    /**
+     * Tamponun kalan byte'larını önbelleğe kopyalar; tamponun konumu değişmez.
+     */
+    public void put(String messageId, ByteBuffer data) {
+        int length = data.remaining();
+        if (length > slabSize) {
+            index.remove(messageId);
+            return;
+        }
+
+        synchronized (this) {
+            if (writeOffset + length > slabSize) {
+                currentSlab = (currentSlab + 1) % slabs.length;
+                recycleSlab(currentSlab);
+                writeOffset = 0;
+            }
+
+            slabs[currentSlab].put(writeOffset, data, data.position(), length);
+            long address = pack(currentSlab, writeOffset, length);
+            writeOffset += length;
+
+            slabKeys.get(currentSlab).add(messageId);
+            index.put(messageId, address);
+        }
+    }
+
+    /**
+     * Slab'deki tüm kayıtları indeksten çıkarır.
+     */
+    private void recycleSlab(int slab) {
+        long stamp = slabLocks[slab].writeLock();
+        try {
+            List<String> keys = slabKeys.get(slab);
+            for (String key : keys) {
+                Long address = index.get(key);
+                if (address != null && slabOf(address) == slab && index.remove(key, address)) {
+                    evictions.increment();
+                }
+            }
+            keys.clear();
+        } finally {
+            slabLocks[slab].unlockWrite(stamp);
+        }
+    }
+
+    public void invalidate(String messageId) {
+        index.remove(messageId);
+    }
+
+    public synchronized void clear() {
+        for (int i = 0; i < slabs.length; i++) {
+            recycleSlab(i);
+        }
+        index.clear();
+        currentSlab = 0;
+        writeOffset = 0;
+    }
+
+    public long getHitCount() {
+        return hits.sum();
+    }
+
+    public long getMissCount() {
+        return misses.sum();
+    }
+
+    public long getEvictionCount() {
+        return evictions.sum();
+    }
+
+    public int getEntryCount() {
+        return index.size();
+    }
+
+    /**
+     * Ayrılmış direct bellek miktarı (byte).
+     */
+    public long getMaxBytes() {
+        return maxBytes;
+    }
+
+    public double getHitRatio() {
+        long hitCount = hits.sum();
+        long total = hitCount + misses.sum();
+        return total == 0 ? 0.0 : (double) hitCount / total;
+    }
+
+    private static long pack(int slab, int offset, int length) {
+        return ((long) slab << 48) | ((long) offset << 24) | length;
+    }
+
+    private static int slabOf(long address) {
+        return (int) (address >>> 48);
+    }
+
+    private static int offsetOf(long address) {
+        return (int) ((address >>> 24) & 0xFFFFFF);
+    }
+
+    private static int lengthOf(long address) {
+        return (int) (address & 0xFFFFFF);
+    }
+}
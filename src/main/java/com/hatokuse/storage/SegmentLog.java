@@ -0,0 +1,836 @@
+package com.hatokuse.storage;
+
+import com.hatokuse.metrics.LatencyTimer;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedInputStream;
+import java.util.zip.CheckedOutputStream;
+
+/**
+ * Append-only segment dosyaları üzerinde çalışan log yapılı depolama.
+ * Mesajlar sırayla aktif segment dosyasının sonuna eklenir; dosya
+ * maksimum boyuta ulaşınca yeni bir segment açılır.
+ *
+ * Bellekte id -> (segment, offset, uzunluk) indeksi tutulur, böylece
+ * okuma tek bir konumlu (positional) read ile yapılır.
+ *
+ * Kayıt formatı:
+ * [tip:1][idLen:4][contentLen:4][crc32:4][id bytes][content bytes]
+ *
+ * Açılışta tüm segmentleri taramamak için indeks periyodik olarak bir
+ * checkpoint dosyasına yazılır. Açılışta checkpoint yüklenir ve yalnızca
+ * checkpoint konumundan sonra yazılmış kuyruk (tail) yeniden oynatılır.
+ *
+ * Üzerine yazılan veya silinen kayıtlar diskte ölü byte olarak kalır. Her
+ * segmentin canlı byte sayısı tutulur; ölü oranı eşiği aşan kapalı segmentler
+ * sıkıştırılır (bkz. {@link #compact(double)}).
+ */
+class SegmentLog implements Closeable {
+
+    static final String SEGMENT_PREFIX = "segment-";
+    static final String SEGMENT_SUFFIX = ".log";
+
+    // Varsayılan segment boyutu (64MB)
+    static final long DEFAULT_MAX_SEGMENT_BYTES = 64L * 1024 * 1024;
+
+    static final int HEADER_SIZE = 13;
+    static final byte TYPE_PUT = 1;
+    static final byte TYPE_DELETE = 2;
+
+    // Ölü byte oranı bunu aşan kapalı segmentler sıkıştırılır
+    static final double DEFAULT_COMPACTION_RATIO = 0.5;
+    // Sıkıştırmada kilit altında tek seferde taşınan en fazla veri
+    private static final int COMPACTION_BATCH_BYTES = 1024 * 1024;
+
+    static final String CHECKPOINT_FILE = "segment-index.chk";
+    private static final int CHECKPOINT_MAGIC = 0x48544B43; // "HTKC"
+    // Sürüm 2: sonunda sıkıştırmada taşınan tombstone boyutları
+    private static final int CHECKPOINT_VERSION = 2;
+
+    private final Path directory;
+    private final long maxSegmentBytes;
+    private final ConcurrentHashMap<String, Location> index;
+    private final ConcurrentHashMap<Integer, FileChannel> channels;
+    // Segment -> indeksin işaret ettiği kayıtların toplam boyutu (this kilidiyle korunur)
+    private final Map<Integer, Long> liveBytes;
+    // Segment -> sıkıştırmada taşınan tombstone'ların boyutu (this kilidiyle korunur)
+    private final Map<Integer, Long> tombstoneBytes;
+    private final Object checkpointLock = new Object();
+    private final Object compactLock = new Object();
+
+    private FileChannel activeChannel;
+    private int activeSegmentId;
+    private long activeSize;
+
+    // Açılış (recovery) istatistikleri
+    private boolean recoveredFromCheckpoint;
+    private long replayedRecords;
+
+    SegmentLog(Path directory) throws IOException {
+        this(directory, DEFAULT_MAX_SEGMENT_BYTES);
+    }
+
+    SegmentLog(Path directory, long maxSegmentBytes) throws IOException {
+        this.directory = directory;
+        this.maxSegmentBytes = maxSegmentBytes;
+        this.index = new ConcurrentHashMap<>();
+        this.channels = new ConcurrentHashMap<>();
+        this.liveBytes = new HashMap<>();
+        this.tombstoneBytes = new HashMap<>();
+
+        recover();
+    }
+
+    /**
+     * İndeksi yeniden kurar: checkpoint varsa yükler ve sadece sonrasını tarar,
+     * yoksa tüm segmentleri baştan tarar.
+     * Son segmentte yarım kalmış veya bozuk kayıt varsa dosya o noktadan kesilir.
+     */
+    private void recover() throws IOException {
+        List<Integer> segmentIds = listSegmentIds();
+        long[] checkpoint = loadCheckpoint(segmentIds);
+        recoveredFromCheckpoint = checkpoint != null;
+
+        for (int i = 0; i < segmentIds.size(); i++) {
+            int segmentId = segmentIds.get(i);
+            boolean last = i == segmentIds.size() - 1;
+
+            long validEnd;
+            if (checkpoint != null && segmentId < checkpoint[0]) {
+                validEnd = Files.size(segmentPath(segmentId)); // Checkpoint kapsamında, taranmaz
+            } else if (checkpoint != null && segmentId == checkpoint[0]) {
+                validEnd = scanSegment(segmentId, checkpoint[1]);
+            } else {
+                validEnd = scanSegment(segmentId, 0);
+            }
+
+            FileChannel channel = openChannel(segmentId);
+            if (last && validEnd < channel.size()) {
+                System.err.println("[STORAGE] Segment " + segmentId + " bozuk kuyruk kesiliyor: "
+                        + channel.size() + " -> " + validEnd);
+                channel.truncate(validEnd);
+            }
+        }
+
+        if (segmentIds.isEmpty()) {
+            activeSegmentId = 1;
+        } else {
+            activeSegmentId = segmentIds.get(segmentIds.size() - 1);
+        }
+        activeChannel = openChannel(activeSegmentId);
+        activeSize = activeChannel.size();
+
+        for (Map.Entry<String, Location> entry : index.entrySet()) {
+            addLiveBytes(entry.getValue().segmentId, recordSize(entry.getKey(), entry.getValue()));
+        }
+
+        System.out.println("[STORAGE] Segment log yüklendi: " + segmentIds.size() + " segment, "
+                + index.size() + " mesaj (checkpoint: " + (recoveredFromCheckpoint ? "evet" : "hayır")
+                + ", yeniden oynatılan kayıt: " + replayedRecords + ")");
+    }
+
+    /**
+     * Checkpoint dosyasını okuyup indeksi doldurur.
+     * Dosya yoksa, bozuksa veya segmentlerle uyuşmuyorsa indeks boş bırakılır.
+     *
+     * @return {segmentId, offset} tail taramasının başlayacağı konum; kullanılamazsa null
+     */
+    private long[] loadCheckpoint(List<Integer> segmentIds) {
+        Path path = directory.resolve(CHECKPOINT_FILE);
+        if (!Files.exists(path)) {
+            return null;
+        }
+
+        try (CheckedInputStream checked = new CheckedInputStream(
+                new BufferedInputStream(Files.newInputStream(path), 64 * 1024), new CRC32());
+                DataInputStream in = new DataInputStream(checked)) {
+            if (in.readInt() != CHECKPOINT_MAGIC) {
+                throw new IOException("Geçersiz checkpoint başlığı");
+            }
+            int version = in.readInt();
+            if (version != 1 && version != CHECKPOINT_VERSION) {
+                throw new IOException("Desteklenmeyen checkpoint sürümü: " + version);
+            }
+            int segmentId = in.readInt();
+            long offset = in.readLong();
+            int count = in.readInt();
+
+            if (!segmentIds.contains(segmentId) || Files.size(segmentPath(segmentId)) < offset) {
+                throw new IOException("Checkpoint segmentlerle uyuşmuyor");
+            }
+
+            Map<String, Location> loaded = new HashMap<>(count * 2);
+            for (int i = 0; i < count; i++) {
+                byte[] idBytes = new byte[in.readUnsignedShort()];
+                in.readFully(idBytes);
+                loaded.put(new String(idBytes, StandardCharsets.UTF_8),
+                        new Location(in.readInt(), in.readLong(), in.readInt()));
+            }
+
+            Map<Integer, Long> loadedTombstones = new HashMap<>();
+            if (version >= 2) {
+                int segments = in.readInt();
+                for (int i = 0; i < segments; i++) {
+                    loadedTombstones.put(in.readInt(), in.readLong());
+                }
+            }
+
+            int expectedCrc = (int) checked.getChecksum().getValue();
+            if (in.readInt() != expectedCrc) {
+                throw new IOException("Checkpoint CRC hatası");
+            }
+
+            index.putAll(loaded);
+            loadedTombstones.keySet().retainAll(segmentIds);
+            tombstoneBytes.putAll(loadedTombstones);
+            return new long[] { segmentId, offset };
+        } catch (IOException e) {
+            System.err.println("[STORAGE] Checkpoint kullanılamadı, tam tarama yapılacak: " + e.getMessage());
+            index.clear();
+            tombstoneBytes.clear();
+            return null;
+        }
+    }
+
+    /**
+     * İndeksin checkpoint'ini yazar (geçici dosya + atomik taşıma).
+     *
+     * Yazma sırasında kayıt eklenmeye devam edebilir: önce tail konumu alınır,
+     * sonra indeks kilitsiz dolaşılır. Konumdan sonraki tüm kayıtlar açılışta
+     * sırayla yeniden oynatıldığı için bu "fuzzy" checkpoint tutarlı sonuç verir.
+     */
+    void checkpoint() throws IOException {
+        synchronized (checkpointLock) {
+            writeCheckpoint();
+        }
+    }
+
+    private void writeCheckpoint() throws IOException {
+        int segmentId;
+        long offset;
+        Map<Integer, Long> tombstones;
+        synchronized (this) {
+            segmentId = activeSegmentId;
+            offset = activeSize;
+            tombstones = new HashMap<>(tombstoneBytes);
+        }
+
+        Path target = directory.resolve(CHECKPOINT_FILE);
+        Path temp = directory.resolve(CHECKPOINT_FILE + ".tmp");
+
+        try (CheckedOutputStream checked = new CheckedOutputStream(
+                new BufferedOutputStream(Files.newOutputStream(temp), 64 * 1024), new CRC32());
+                DataOutputStream out = new DataOutputStream(checked)) {
+            List<Map.Entry<String, Location>> entries = new ArrayList<>(index.entrySet());
+
+            out.writeInt(CHECKPOINT_MAGIC);
+            out.writeInt(CHECKPOINT_VERSION);
+            out.writeInt(segmentId);
+            out.writeLong(offset);
+            out.writeInt(entries.size());
+            for (Map.Entry<String, Location> entry : entries) {
+                byte[] idBytes = entry.getKey().getBytes(StandardCharsets.UTF_8);
+                Location location = entry.getValue();
+                out.writeShort(idBytes.length);
+                out.write(idBytes);
+                out.writeInt(location.segmentId);
+                out.writeLong(location.offset);
+                out.writeInt(location.length);
+            }
+            out.writeInt(tombstones.size());
+            for (Map.Entry<Integer, Long> entry : tombstones.entrySet()) {
+                out.writeInt(entry.getKey());
+                out.writeLong(entry.getValue());
+            }
+            out.flush();
+            out.writeInt((int) checked.getChecksum().getValue());
+        }
+
+        // Checkpoint'in işaret ettiği veri diskte olmalı
+        sync();
+        Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    boolean isRecoveredFromCheckpoint() {
+        return recoveredFromCheckpoint;
+    }
+
+    long getReplayedRecords() {
+        return replayedRecords;
+    }
+
+    /**
+     * Bir segmenti verilen konumdan itibaren tarar ve indeksi günceller.
+     *
+     * @return Son geçerli kaydın bittiği konum
+     */
+    private long scanSegment(int segmentId, long startOffset) throws IOException {
+        return scanRecords(segmentId, startOffset, (type, messageId, contentOffset, content) -> {
+            if (type == TYPE_PUT) {
+                index.put(messageId, new Location(segmentId, contentOffset, content.length));
+            } else {
+                index.remove(messageId);
+            }
+            replayedRecords++;
+        });
+    }
+
+    /**
+     * Segmentteki geçerli kayıtları sırayla ziyaret eder; ilk yarım veya
+     * bozuk kayıtta durur.
+     *
+     * @return Son geçerli kaydın bittiği konum
+     */
+    private long scanRecords(int segmentId, long startOffset, RecordVisitor visitor) throws IOException {
+        Path path = segmentPath(segmentId);
+        long position = startOffset;
+
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ);
+                DataInputStream in = new DataInputStream(new BufferedInputStream(
+                        java.nio.channels.Channels.newInputStream(channel.position(startOffset)), 64 * 1024))) {
+            long size = channel.size();
+
+            while (position + HEADER_SIZE <= size) {
+                byte type = in.readByte();
+                int idLen = in.readInt();
+                int contentLen = in.readInt();
+                int crc = in.readInt();
+
+                if ((type != TYPE_PUT && type != TYPE_DELETE) || idLen <= 0 || contentLen < 0
+                        || position + HEADER_SIZE + idLen + contentLen > size) {
+                    break;
+                }
+
+                byte[] idBytes = new byte[idLen];
+                in.readFully(idBytes);
+                byte[] content = new byte[contentLen];
+                in.readFully(content);
+
+                if (crc != checksum(idBytes, content)) {
+                    break;
+                }
+
+                visitor.visit(type, new String(idBytes, StandardCharsets.UTF_8),
+                        position + HEADER_SIZE + idLen, content);
+                position += HEADER_SIZE + idLen + contentLen;
+            }
+        }
+        return position;
+    }
+
+    /**
+     * Mesajı aktif segmentin sonuna ekler.
+     *
+     * @return Mesaj daha önce mevcut muydu
+     */
+    synchronized boolean append(String messageId, ByteBuffer content) throws IOException {
+        return applyBatch(Collections.singletonList(Record.put(messageId, content)))[0];
+    }
+
+    /**
+     * Silme kaydı (tombstone) ekler ve mesajı indeksten çıkarır.
+     */
+    synchronized boolean delete(String messageId) throws IOException {
+        return applyBatch(Collections.singletonList(Record.delete(messageId)))[0];
+    }
+
+    /**
+     * Kayıtları tek bir yazma ile segment(ler)e ekler ve ardından indeksi günceller.
+     * İndeks ancak veri yazıldıktan sonra güncellendiği için okuyucular yarım kayıt görmez.
+     * Mevcut olmayan bir mesaj için silme kaydı yazılmaz.
+     *
+     * @return Her kayıt için, mesaj işlemden önce mevcut muydu
+     */
+    boolean[] applyBatch(List<Record> records) throws IOException {
+        return applyBatch(records, null);
+    }
+
+    /**
+     * applyBatch ile aynı; syncTimer verildiyse indeks güncellenmeden önce fsync
+     * yapılır ve süresi kaydedilir. Böylece okuyucular yalnızca diske inmiş
+     * kayıtları görür. Yazma veya fsync başarısız olursa eklenen byte'lar geri
+     * alınır (segment kesilir) ve indeks değişmez.
+     *
+     * @return Her kayıt için, mesaj işlemden önce mevcut muydu
+     */
+    synchronized boolean[] applyBatch(List<Record> records, LatencyTimer syncTimer) throws IOException {
+        boolean[] existed = new boolean[records.size()];
+        Map<String, Location> staged = new HashMap<>();
+
+        int totalBytes = 0;
+        for (Record record : records) {
+            totalBytes += HEADER_SIZE + record.idBytes.length + record.content.remaining();
+        }
+        ByteBuffer buffer = ByteBuffer.allocate(totalBytes);
+        int startSegmentId = activeSegmentId;
+        long startSize = activeSize;
+
+        try {
+            for (int i = 0; i < records.size(); i++) {
+                Record record = records.get(i);
+                Location current = staged.containsKey(record.messageId)
+                        ? staged.get(record.messageId)
+                        : index.get(record.messageId);
+                existed[i] = current != null && current != TOMBSTONE;
+
+                if (record.type == TYPE_DELETE && !existed[i]) {
+                    continue;
+                }
+
+                long recordStart = appendRecord(buffer, record);
+                staged.put(record.messageId, record.type == TYPE_PUT
+                        ? new Location(activeSegmentId, recordStart + HEADER_SIZE + record.idBytes.length,
+                                record.content.remaining())
+                        : TOMBSTONE);
+            }
+            flushBuffer(buffer);
+
+            if (syncTimer != null) {
+                long syncStart = System.nanoTime();
+                activeChannel.force(false);
+                syncTimer.recordSince(syncStart);
+            }
+        } catch (IOException e) {
+            rollback(startSegmentId, startSize);
+            throw e;
+        }
+
+        for (Map.Entry<String, Location> entry : staged.entrySet()) {
+            updateIndex(entry.getKey(), entry.getValue() == TOMBSTONE ? null : entry.getValue());
+        }
+        return existed;
+    }
+
+    /**
+     * Başarısız bir batch'in yazdığı byte'ları atar: batch sırasında açılan
+     * segmentler silinir, başladığı segment eski boyutuna kesilir. Böylece
+     * kayıtlar açılışta yeniden oynatılıp geri gelmez. Kilit altında çağrılır.
+     */
+    private void rollback(int segmentId, long size) {
+        try {
+            while (activeSegmentId > segmentId) {
+                FileChannel channel = channels.remove(activeSegmentId);
+                if (channel != null) {
+                    channel.close();
+                }
+                Files.deleteIfExists(segmentPath(activeSegmentId));
+                activeSegmentId--;
+            }
+            activeChannel = channels.get(segmentId);
+            activeChannel.truncate(size);
+            activeSize = size;
+        } catch (IOException e) {
+            System.err.println("[STORAGE] Başarısız batch geri alınamadı: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Kaydı buffer'a ekler; aktif segmente sığmıyorsa önce buffer'ı yazıp
+     * yeni segment açar.
+     *
+     * @return Kaydın aktif segmentteki başlangıç konumu
+     */
+    private long appendRecord(ByteBuffer buffer, Record record) throws IOException {
+        int contentLength = record.content.remaining();
+        int recordSize = HEADER_SIZE + record.idBytes.length + contentLength;
+        long writePosition = activeSize + buffer.position();
+        if (writePosition > 0 && writePosition + recordSize > maxSegmentBytes) {
+            flushBuffer(buffer);
+            rollSegment();
+        }
+
+        long recordStart = activeSize + buffer.position();
+        buffer.put(record.type)
+                .putInt(record.idBytes.length)
+                .putInt(contentLength)
+                .putInt(checksum(record.idBytes, record.content))
+                .put(record.idBytes)
+                .put(record.content.duplicate());
+        return recordStart;
+    }
+
+    /**
+     * İndeksi günceller (location null ise siler) ve segmentlerin canlı byte
+     * sayılarını buna göre düzeltir. Yalnızca kilit altında çağrılır.
+     */
+    private void updateIndex(String messageId, Location location) {
+        Location previous = location == null ? index.remove(messageId) : index.put(messageId, location);
+        if (previous != null) {
+            addLiveBytes(previous.segmentId, -recordSize(messageId, previous));
+        }
+        if (location != null) {
+            addLiveBytes(location.segmentId, recordSize(messageId, location));
+        }
+    }
+
+    private void addLiveBytes(int segmentId, long delta) {
+        liveBytes.merge(segmentId, delta, Long::sum);
+    }
+
+    private static long recordSize(String messageId, Location location) {
+        return HEADER_SIZE + messageId.getBytes(StandardCharsets.UTF_8).length + location.length;
+    }
+
+    /**
+     * Ölü byte oranı en az minDeadRatio olan kapalı segmentleri sıkıştırır.
+     *
+     * Canlı kayıtlar aktif segmentin sonuna yeniden yazılır ve indeks yeni
+     * konumlara taşınır. Ardından checkpoint alınır; eski dosyalar ancak bundan
+     * sonra silinir, böylece her an ya eski ya da yeni kopya açılışta bulunur.
+     *
+     * Tombstone'lar daha eski bir segmentte aynı mesajın ölü gövdesi kalmış
+     * olabileceği için taşınır (mesaj tekrar yazılmadıysa); yalnızca en eski
+     * segmentteki tombstone'lar atılır.
+     *
+     * @return Silinen segment sayısı
+     */
+    int compact(double minDeadRatio) throws IOException {
+        synchronized (compactLock) {
+            List<Integer> candidates = new ArrayList<>();
+            int oldestSegmentId;
+            synchronized (this) {
+                List<Integer> segmentIds = new ArrayList<>(channels.keySet());
+                Collections.sort(segmentIds);
+                if (segmentIds.isEmpty()) {
+                    return 0;
+                }
+                oldestSegmentId = segmentIds.get(0);
+                for (int segmentId : segmentIds) {
+                    if (segmentId == activeSegmentId) {
+                        continue;
+                    }
+                    long size = channels.get(segmentId).size();
+                    if (deadBytes(segmentId, size) >= size * minDeadRatio) {
+                        candidates.add(segmentId);
+                    }
+                }
+            }
+            if (candidates.isEmpty()) {
+                return 0;
+            }
+
+            long start = System.nanoTime();
+            for (int segmentId : candidates) {
+                rewriteSegment(segmentId, segmentId == oldestSegmentId);
+            }
+            // Yeni konumlar checkpoint'e girmeden eski segmentler silinmez
+            checkpoint();
+
+            int removed = 0;
+            long reclaimed = 0;
+            for (int segmentId : candidates) {
+                FileChannel channel;
+                synchronized (this) {
+                    if (liveBytes.getOrDefault(segmentId, 0L) > 0) {
+                        // Okunamayan (bozuk) kayıt yüzünden taşınamayan mesaj kaldı
+                        continue;
+                    }
+                    liveBytes.remove(segmentId);
+                    tombstoneBytes.remove(segmentId);
+                    channel = channels.remove(segmentId);
+                }
+                reclaimed += channel.size();
+                channel.close();
+                Files.deleteIfExists(segmentPath(segmentId));
+                removed++;
+            }
+            System.out.println("[STORAGE] Segment sıkıştırma: " + removed + "/" + candidates.size()
+                    + " segment silindi, " + reclaimed / 1024 + " KB geri kazanıldı, "
+                    + (System.nanoTime() - start) / 1_000_000 + " ms");
+            return removed;
+        }
+    }
+
+    /**
+     * Kapalı bir segmentin hâlâ gerekli kayıtlarını aktif segmente taşır.
+     * Dosya kilitsiz okunur (kapalı segment değişmez); canlılık taşıma
+     * sırasında kilit altında yeniden denetlenir.
+     */
+    private void rewriteSegment(int segmentId, boolean dropTombstones) throws IOException {
+        List<Record> batch = new ArrayList<>();
+        List<Long> offsets = new ArrayList<>();
+        long[] batchBytes = { 0 };
+        scanRecords(segmentId, 0, (type, messageId, contentOffset, content) -> {
+            if (type == TYPE_PUT ? !isAt(messageId, segmentId, contentOffset) : dropTombstones) {
+                return;
+            }
+            batch.add(type == TYPE_PUT ? Record.put(messageId, ByteBuffer.wrap(content)) : Record.delete(messageId));
+            offsets.add(contentOffset);
+            batchBytes[0] += HEADER_SIZE + content.length;
+            if (batchBytes[0] >= COMPACTION_BATCH_BYTES) {
+                relocate(segmentId, batch, offsets);
+                batch.clear();
+                offsets.clear();
+                batchBytes[0] = 0;
+            }
+        });
+        relocate(segmentId, batch, offsets);
+    }
+
+    private boolean isAt(String messageId, int segmentId, long contentOffset) {
+        Location location = index.get(messageId);
+        return location != null && location.segmentId == segmentId && location.offset == contentOffset;
+    }
+
+    /**
+     * Sıkıştırılan segmentten okunan kayıtları aktif segmente yazar. Bu arada
+     * üzerine yazılmış mesajlar ve tekrar yazılmış mesajların tombstone'ları atlanır.
+     */
+    private synchronized void relocate(int segmentId, List<Record> records, List<Long> offsets)
+            throws IOException {
+        if (records.isEmpty()) {
+            return;
+        }
+        int totalBytes = 0;
+        for (Record record : records) {
+            totalBytes += HEADER_SIZE + record.idBytes.length + record.content.remaining();
+        }
+        ByteBuffer buffer = ByteBuffer.allocate(totalBytes);
+        Map<String, Location> moved = new HashMap<>();
+
+        for (int i = 0; i < records.size(); i++) {
+            Record record = records.get(i);
+            if (record.type == TYPE_PUT
+                    ? !isAt(record.messageId, segmentId, offsets.get(i))
+                    : index.containsKey(record.messageId)) {
+                continue;
+            }
+
+            long recordStart = appendRecord(buffer, record);
+            if (record.type == TYPE_PUT) {
+                moved.put(record.messageId, new Location(activeSegmentId,
+                        recordStart + HEADER_SIZE + record.idBytes.length, record.content.remaining()));
+            } else {
+                // İndekste yeri yok; segmentin ölü oranına sayılmasın diye ayrıca tutulur
+                tombstoneBytes.merge(activeSegmentId, (long) HEADER_SIZE + record.idBytes.length, Long::sum);
+            }
+        }
+        flushBuffer(buffer);
+
+        for (Map.Entry<String, Location> entry : moved.entrySet()) {
+            updateIndex(entry.getKey(), entry.getValue());
+        }
+    }
+
+    /**
+     * Segment dosyalarında üzerine yazılmış veya silinmiş kayıtların kapladığı toplam alan.
+     */
+    synchronized long getDeadBytes() throws IOException {
+        long dead = 0;
+        for (Map.Entry<Integer, FileChannel> entry : channels.entrySet()) {
+            dead += deadBytes(entry.getKey(), entry.getValue().size());
+        }
+        return dead;
+    }
+
+    private long deadBytes(int segmentId, long size) {
+        return size - liveBytes.getOrDefault(segmentId, 0L) - tombstoneBytes.getOrDefault(segmentId, 0L);
+    }
+
+    /**
+     * Buffer'daki kayıtları aktif segmentin sonuna yazar ve buffer'ı temizler.
+     */
+    private void flushBuffer(ByteBuffer buffer) throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            activeChannel.write(buffer, activeSize + buffer.position());
+        }
+        activeSize += buffer.limit();
+        buffer.clear();
+    }
+
+    /**
+     * Aktif segmenti kapatıp yeni bir segment açar.
+     */
+    private void rollSegment() throws IOException {
+        activeChannel.force(false);
+        activeSegmentId++;
+        activeChannel = openChannel(activeSegmentId);
+        activeSize = activeChannel.size();
+        System.out.println("[STORAGE] Yeni segment açıldı: " + segmentPath(activeSegmentId).getFileName());
+    }
+
+    /**
+     * Mesaj içeriğini indeksteki konumdan okur. Dönen tampon, kayıt
+     * gövdesinin kopyasıdır ve tamamen okunmaya hazırdır.
+     */
+    ByteBuffer read(String messageId) throws IOException {
+        while (true) {
+            Location location = index.get(messageId);
+            if (location == null) {
+                return null;
+            }
+
+            FileChannel channel = channels.get(location.segmentId);
+            try {
+                if (channel != null) {
+                    return read(channel, location);
+                }
+            } catch (ClosedChannelException e) {
+                if (index.get(messageId) == location) {
+                    throw e;
+                }
+            }
+            // Segment sıkıştırılıp silinmişse mesaj yeni konumundan okunur
+            if (index.get(messageId) == location) {
+                return null;
+            }
+        }
+    }
+
+    private static ByteBuffer read(FileChannel channel, Location location) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(location.length);
+        long position = location.offset;
+        while (buffer.hasRemaining()) {
+            int read = channel.read(buffer, position + buffer.position());
+            if (read < 0) {
+                throw new EOFException("Segment beklenenden kısa: " + location.segmentId);
+            }
+        }
+        return buffer.flip();
+    }
+
+    boolean contains(String messageId) {
+        return index.containsKey(messageId);
+    }
+
+    /**
+     * İndeksteki mesaj ID'lerini döner (zayıf tutarlı; eşzamanlı yazmalar görülebilir veya görülmeyebilir).
+     */
+    Iterable<String> messageIds() {
+        return index.keySet();
+    }
+
+    int size() {
+        return index.size();
+    }
+
+    /**
+     * Aktif segmenti diske senkronize eder (fsync).
+     */
+    synchronized void sync() throws IOException {
+        activeChannel.force(false);
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        activeChannel.force(false);
+        for (FileChannel channel : channels.values()) {
+            channel.close();
+        }
+        channels.clear();
+    }
+
+    private FileChannel openChannel(int segmentId) throws IOException {
+        FileChannel channel = FileChannel.open(segmentPath(segmentId),
+                StandardOpenOption.CREATE,
+                StandardOpenOption.READ,
+                StandardOpenOption.WRITE);
+        channels.put(segmentId, channel);
+        return channel;
+    }
+
+    /**
+     * @return Dizinde segment dosyası varsa true (segment log açılmadan)
+     */
+    static boolean hasSegments(Path directory) throws IOException {
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory,
+                SEGMENT_PREFIX + "*" + SEGMENT_SUFFIX)) {
+            return stream.iterator().hasNext();
+        }
+    }
+
+    private Path segmentPath(int segmentId) {
+        return directory.resolve(String.format("%s%08d%s", SEGMENT_PREFIX, segmentId, SEGMENT_SUFFIX));
+    }
+
+    private List<Integer> listSegmentIds() throws IOException {
+        List<Integer> ids = new ArrayList<>();
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory,
+                SEGMENT_PREFIX + "*" + SEGMENT_SUFFIX)) {
+            for (Path entry : stream) {
+                String name = entry.getFileName().toString();
+                String number = name.substring(SEGMENT_PREFIX.length(), name.length() - SEGMENT_SUFFIX.length());
+                try {
+                    ids.add(Integer.parseInt(number));
+                } catch (NumberFormatException e) {
+                    // Segment olmayan dosya, atla
+                }
+            }
+        }
+        Collections.sort(ids);
+        return ids;
+    }
+
+    private static int checksum(byte[] idBytes, byte[] content) {
+        return checksum(idBytes, ByteBuffer.wrap(content));
+    }
+
+    private static int checksum(byte[] idBytes, ByteBuffer content) {
+        CRC32 crc = new CRC32();
+        crc.update(idBytes);
+        crc.update(content.duplicate());
+        return (int) crc.getValue();
+    }
+
+    /**
+     * Segment taramasında her geçerli kayıt için çağrılır.
+     */
+    private interface RecordVisitor {
+        void visit(byte type, String messageId, long contentOffset, byte[] content) throws IOException;
+    }
+
+    // Batch içinde silinmiş mesajları işaretlemek için
+    private static final Location TOMBSTONE = new Location(-1, -1, -1);
+
+    /**
+     * Segment'e yazılacak tek bir kayıt (ekleme veya silme).
+     */
+    static final class Record {
+        final byte type;
+        final String messageId;
+        final byte[] idBytes;
+        // Kalan byte'lar gövdedir; yazma sırasında konumu değiştirilmez
+        final ByteBuffer content;
+
+        private Record(byte type, String messageId, ByteBuffer content) {
+            this.type = type;
+            this.messageId = messageId;
+            this.idBytes = messageId.getBytes(StandardCharsets.UTF_8);
+            this.content = content;
+        }
+
+        static Record put(String messageId, ByteBuffer content) {
+            return new Record(TYPE_PUT, messageId, content);
+        }
+
+        static Record delete(String messageId) {
+            return new Record(TYPE_DELETE, messageId, EMPTY);
+        }
+
+        private static final ByteBuffer EMPTY = ByteBuffer.allocate(0);
+    }
+
+    /**
+     * Segment içindeki mesaj konumu.
+     */
+    static final class Location {
+        final int segmentId;
+        final long offset;
+        final int length;
+
+        Location(int segmentId, long offset, int length) {
+            this.segmentId = segmentId;
+            this.offset = offset;
+            this.length = length;
+        }
+    }
+}